@@ -0,0 +1,395 @@
+package com.jllm.examples.load;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.metrics.LogLinearHistogram;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Drives an {@link LLMClient} and measures its end-to-end throughput and latency.
+ * <p>
+ * In an <b>open loop</b> ({@link Builder#openLoop}) requests are due at a fixed rate whether or not the
+ * previous ones have finished, like independent users would send them. Latency is taken from the due
+ * time, so a slow client is charged for the requests that queued behind it. In a <b>closed loop</b>
+ * ({@link Builder#closedLoop}) a fixed number of workers send their next request as soon as the previous
+ * one has finished, which finds the maximum throughput but hides queueing.
+ * </p>
+ * <p>
+ * Requests go through {@link LLMClient#send} or, with {@link Builder#streaming}, through
+ * {@link LLMClient#sendStream}, which also yields the time to first token. Nothing is provider specific:
+ * the client can wrap any {@link com.jllm.core.provider.Provider}, e.g. one pointed at a
+ * {@code com.jllm.testkit.StandInServer}. Rate limiter wait and retries are only reported if the client
+ * records into the generator's {@link LoadRecorder}.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class LoadGenerator {
+
+    private final LLMClient client;
+    private final Supplier<PromptRequest> requests;
+    private final double ratePerSecond;
+    private final int concurrency;
+    private final int maxOutstanding;
+    private final boolean streaming;
+    private final Duration warmup;
+    private final Duration duration;
+    private final LoadRecorder recorder;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LogLinearHistogram latency = new LogLinearHistogram();
+    private final LogLinearHistogram serviceTime = new LogLinearHistogram();
+    private final LogLinearHistogram timeToFirstToken = new LogLinearHistogram();
+    private volatile long measureFrom;
+    private volatile boolean measuring;
+
+    private LoadGenerator(Builder builder) {
+        this.client = builder.client;
+        this.requests = builder.requests;
+        this.ratePerSecond = builder.ratePerSecond;
+        this.concurrency = builder.concurrency;
+        this.maxOutstanding = builder.maxOutstanding;
+        this.streaming = builder.streaming;
+        this.warmup = builder.warmup;
+        this.duration = builder.duration;
+        this.recorder = builder.recorder;
+    }
+
+    /**
+     * Runs the warm-up and then the measurement, and waits for the last outstanding requests.
+     *
+     * @return What was measured after the warm-up.
+     */
+    public LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        if (ratePerSecond > 0) {
+            runOpenLoop(start, end);
+        } else {
+            runClosedLoop(end);
+        }
+        startMeasuring();
+        long elapsed = Math.max(0, Math.min(System.nanoTime(), end) - measureFrom);
+        String description = (ratePerSecond > 0
+                ? String.format("open loop at %.1f requests/s (at most %d outstanding)", ratePerSecond, maxOutstanding)
+                : "closed loop with " + concurrency + " workers")
+                + (streaming ? ", sendStream" : ", send");
+        return new LoadReport(description, elapsed, succeeded.sum(), failed.sum(), dropped.sum(),
+                recorder != null ? recorder.getRetries() : 0, tokens.sum(), latency, serviceTime, timeToFirstToken,
+                recorder != null ? recorder.getRateLimiterWait() : new LogLinearHistogram());
+    }
+
+    private void runOpenLoop(long start, long end) throws InterruptedException {
+        ExecutorService workers = Executors.newCachedThreadPool(daemon("jllm-load"));
+        AtomicInteger outstanding = new AtomicInteger();
+        long interval = (long) (1e9 / ratePerSecond);
+        try {
+            for (long due = start; due < end; due += interval) {
+                sleepUntil(due);
+                if (outstanding.get() >= maxOutstanding) {
+                    if (due >= measureFrom) {
+                        dropped.increment();
+                    }
+                    continue;
+                }
+                outstanding.incrementAndGet();
+                long dueAt = due;
+                workers.execute(() -> {
+                    try {
+                        issue(dueAt);
+                    } finally {
+                        outstanding.decrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void runClosedLoop(long end) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = daemon("jllm-load").newThread(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    issue(System.nanoTime());
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * Sends one request and records it if it was due after the warm-up.
+     */
+    private void issue(long due) {
+        boolean warmup = due < measureFrom;
+        if (!warmup) {
+            startMeasuring();
+        }
+        if (recorder != null) {
+            recorder.setWarmingUp(warmup);
+        }
+        long sent = System.nanoTime();
+        FirstTokenRecorder listener = streaming ? new FirstTokenRecorder() : null;
+        boolean success;
+        long completionTokens = 0;
+        try {
+            if (streaming) {
+                StreamHandle handle = client.sendStream(requests.get(), listener);
+                success = handle.getError() == null && !handle.isCancelled();
+                completionTokens = listener.tokens;
+            } else {
+                PromptResponse response = client.send(requests.get());
+                success = response != null;
+                TokenUsage usage = response != null ? response.getUsage() : null;
+                completionTokens = usage != null ? usage.getCompletionTokens() : 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            success = false;
+        } finally {
+            if (recorder != null) {
+                recorder.setWarmingUp(false);
+            }
+        }
+        long done = System.nanoTime();
+        if (warmup) {
+            return;
+        }
+        if (!success) {
+            failed.increment();
+            return;
+        }
+        succeeded.increment();
+        tokens.add(completionTokens);
+        latency.record(done - due);
+        serviceTime.record(done - sent);
+        if (listener != null && listener.firstToken != 0) {
+            timeToFirstToken.record(listener.firstToken - due);
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long wait = nanoTime - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Clears the recorder's counters once, before the first request after the warm-up is sent, so that
+     * they cover the same requests as the generator's own. Warm-up requests still in flight do not add
+     * to them afterwards, as {@link #issue} marks their threads in the recorder.
+     */
+    private void startMeasuring() {
+        if (measuring) {
+            return;
+        }
+        synchronized (this) {
+            if (!measuring) {
+                if (recorder != null) {
+                    recorder.reset();
+                }
+                measuring = true;
+            }
+        }
+    }
+
+    /**
+     * Counts the streamed tokens and notes when the first one arrived.
+     */
+    private static final class FirstTokenRecorder implements StreamingListener {
+        private long firstToken;
+        private long tokens;
+
+        @Override
+        public void onTokenReceived(String token) {
+            if (firstToken == 0) {
+                firstToken = System.nanoTime();
+            }
+            tokens++;
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+            if (response != null && response.getUsage() != null) {
+                tokens = response.getUsage().getCompletionTokens();
+            }
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onData(String chunk) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public void onStreamComplete() {
+        }
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for LoadGenerator.
+     */
+    public static final class Builder {
+        private LLMClient client;
+        private Supplier<PromptRequest> requests;
+        private double ratePerSecond;
+        private int concurrency = 1;
+        private int maxOutstanding = 10_000;
+        private boolean streaming;
+        private Duration warmup = Duration.ofSeconds(5);
+        private Duration duration = Duration.ofSeconds(30);
+        private LoadRecorder recorder;
+
+        /**
+         * The client under load (required).
+         */
+        public Builder client(LLMClient client) {
+            this.client = Objects.requireNonNull(client, "client cannot be null");
+            return this;
+        }
+
+        /**
+         * Sends the same request every time.
+         */
+        public Builder request(PromptRequest request) {
+            Objects.requireNonNull(request, "request cannot be null");
+            return requests(() -> request);
+        }
+
+        /**
+         * Asks the supplier for every request, e.g. to vary prompts or users. Called concurrently.
+         */
+        public Builder requests(Supplier<PromptRequest> requests) {
+            this.requests = Objects.requireNonNull(requests, "requests cannot be null");
+            return this;
+        }
+
+        /**
+         * Open loop: one request due every {@code 1 / ratePerSecond} seconds. More than
+         * {@code maxOutstanding} requests in flight are not sent but counted as dropped, so that an
+         * unresponsive client cannot exhaust memory.
+         */
+        public Builder openLoop(double ratePerSecond, int maxOutstanding) {
+            if (ratePerSecond <= 0 || maxOutstanding <= 0) {
+                throw new IllegalArgumentException("ratePerSecond and maxOutstanding must be positive");
+            }
+            this.ratePerSecond = ratePerSecond;
+            this.maxOutstanding = maxOutstanding;
+            return this;
+        }
+
+        /**
+         * Closed loop: {@code concurrency} workers sending back to back (the default, with one worker).
+         */
+        public Builder closedLoop(int concurrency) {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("concurrency must be positive");
+            }
+            this.concurrency = concurrency;
+            this.ratePerSecond = 0;
+            return this;
+        }
+
+        /**
+         * Use {@link LLMClient#sendStream} instead of {@link LLMClient#send} (default: false).
+         */
+        public Builder streaming(boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Load applied before measuring, for the JIT and connection pools to settle (default: 5 seconds).
+         */
+        public Builder warmup(Duration warmup) {
+            Objects.requireNonNull(warmup, "warmup cannot be null");
+            if (warmup.isNegative()) {
+                throw new IllegalArgumentException("warmup cannot be negative");
+            }
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * How long to measure after the warm-up (default: 30 seconds).
+         */
+        public Builder duration(Duration duration) {
+            Objects.requireNonNull(duration, "duration cannot be null");
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("duration must be positive");
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * The recorder the client was built with, to report rate limiter wait and retries (default: none).
+         */
+        public Builder recorder(LoadRecorder recorder) {
+            this.recorder = Objects.requireNonNull(recorder, "recorder cannot be null");
+            return this;
+        }
+
+        public LoadGenerator build() {
+            Objects.requireNonNull(client, "client is required");
+            Objects.requireNonNull(requests, "request is required");
+            return new LoadGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.jllm.examples.load;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.openai.provider.OpenAIProvider;
+import com.jllm.testkit.Fault;
+import com.jllm.testkit.LatencyDistribution;
+import com.jllm.testkit.StandInServer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Command line front end of {@link LoadGenerator}.
+ * <pre>
+ * java -cp ... com.jllm.examples.load.LoadGeneratorCli --rate 50 --duration 30 --stream
+ * java -cp ... com.jllm.examples.load.LoadGeneratorCli --concurrency 16 --url http://localhost:8000/v1/chat/completions
+ * </pre>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --rate N} open loop at N requests/s, {@code --max-outstanding N} (default 10000);
+ *     otherwise {@code --concurrency N} closed loop (default 1)</li>
+ *     <li>{@code --stream} use {@code sendStream} instead of {@code send}</li>
+ *     <li>{@code --warmup S}, {@code --duration S} in seconds (default 5 and 30)</li>
+ *     <li>{@code --model M}, {@code --max-tokens N}, {@code --token T} (API token, default {@code $OPENAI_API_KEY})</li>
+ *     <li>{@code --limit N} client rate limit in requests/s (default unlimited), {@code --retries N} (default 3)</li>
+ *     <li>{@code --provider NAME} a provider found by {@link ServiceLoader}, by {@link Provider#getName()};
+ *     otherwise an {@link OpenAIProvider} for {@code --url URL}</li>
+ * </ul>
+ * Without {@code --provider} or {@code --url} a local {@link StandInServer} is started, shaped by
+ * {@code --ttft-ms N} (median time to first token, default 200, log-normal with a p99 of five times that),
+ * {@code --tps N} (tokens/s, default 50), {@code --tokens N} (per answer, default 64) and
+ * {@code --fault-rate P} (probability of a 429, default 0).
+ * <p>
+ * The synchronous path of {@link OpenAIProvider} is still simulated, so against it only {@code --stream}
+ * reaches the endpoint.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class LoadGeneratorCli {
+
+    private LoadGeneratorCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String model = options.getOrDefault("model", "gpt-4o-mini");
+
+        StandInServer server = null;
+        Provider provider;
+        if (options.containsKey("provider")) {
+            provider = discover(options.get("provider"));
+        } else if (options.containsKey("url")) {
+            provider = new OpenAIProvider(options.get("url"));
+        } else {
+            double ttftMillis = Double.parseDouble(options.getOrDefault("ttft-ms", "200"));
+            server = StandInServer.builder()
+                    .model(model)
+                    .timeToFirstToken(LatencyDistribution.logNormal(
+                            Duration.ofNanos((long) (ttftMillis * 1e6)), Duration.ofNanos((long) (ttftMillis * 5e6))))
+                    .tokensPerSecond(Double.parseDouble(options.getOrDefault("tps", "50")))
+                    .completionTokens(Integer.parseInt(options.getOrDefault("tokens", "64")))
+                    .faultRate(Fault.RATE_LIMIT, Double.parseDouble(options.getOrDefault("fault-rate", "0")))
+                    .build();
+            provider = new OpenAIProvider(server.getCompletionsUrl());
+            System.out.println("stand-in server at " + server.getCompletionsUrl());
+        }
+        String token = options.getOrDefault("token", System.getenv("OPENAI_API_KEY"));
+        if (token != null) {
+            provider.setAuthToken(token);
+        }
+
+        try {
+            LoadRecorder recorder = new LoadRecorder();
+            int limit = Integer.parseInt(options.getOrDefault("limit", "0"));
+            LLMClient client = LLMClient.builder()
+                    .provider(provider)
+                    .model(model)
+                    .rateLimiter(limit > 0 ? new RateLimiter(limit, 1000) : new RateLimiter(Integer.MAX_VALUE, 1000))
+                    .retryPolicy(new RetryPolicy(Integer.parseInt(options.getOrDefault("retries", "3")), 100))
+                    .metrics(recorder)
+                    .build();
+
+            int maxTokens = Integer.parseInt(options.getOrDefault("max-tokens", "256"));
+            AtomicLong user = new AtomicLong();
+            LoadGenerator.Builder generator = LoadGenerator.builder()
+                    .client(client)
+                    .requests(() -> PromptRequest.builder()
+                            .model(model)
+                            .messages(List.of(new Message("user", "Tell me about foxes")))
+                            .maxTokens(maxTokens)
+                            .user("load-" + user.incrementAndGet() % 100)
+                            .build())
+                    .streaming(options.containsKey("stream"))
+                    .warmup(Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5"))))
+                    .duration(Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))))
+                    .recorder(recorder);
+            if (options.containsKey("rate")) {
+                generator.openLoop(Double.parseDouble(options.get("rate")),
+                        Integer.parseInt(options.getOrDefault("max-outstanding", "10000")));
+            } else {
+                generator.closedLoop(Integer.parseInt(options.getOrDefault("concurrency", "1")));
+            }
+
+            generator.build().run().print(System.out);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * {@code --name value} pairs; a flag without a value maps to {@code "true"}.
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            options.put(name, hasValue ? args[++i] : "true");
+        }
+        return options;
+    }
+
+    private static Provider discover(String name) {
+        for (Provider provider : ServiceLoader.load(Provider.class)) {
+            if (provider.getName().equalsIgnoreCase(name)) {
+                return provider;
+            }
+        }
+        throw new IllegalArgumentException("No provider named " + name + " on the class path");
+    }
+}
@@ -0,0 +1,117 @@
+package com.jllm.examples.load;
+
+import com.jllm.core.metrics.LogLinearHistogram;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.TokenUsage;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRecorder} through which a {@link LoadGenerator} sees inside the client: how long
+ * requests waited for the rate limiter and how often they were retried. Both happen within a single
+ * {@code send} call, so they cannot be measured from outside.
+ * <p>
+ * Pass it to {@code LLMClient.builder().metrics(...)} of the client under load. Everything is also
+ * forwarded to the delegate, so a {@code MetricsRegistry} can still be attached.
+ * </p>
+ * <p>
+ * The client records on the thread that sends the request, so the generator marks the thread while it
+ * sends a warm-up request, and whatever that request records is left out of the counters here, even
+ * if it finishes after the measurement has started.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class LoadRecorder implements MetricsRecorder {
+
+    private final MetricsRecorder delegate;
+    private volatile LogLinearHistogram rateLimiterWait = new LogLinearHistogram();
+    private volatile LongAdder retries = new LongAdder();
+    private final ThreadLocal<Boolean> warmingUp = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public LoadRecorder() {
+        this(MetricsRecorder.noop());
+    }
+
+    /**
+     * @param delegate The recorder every measurement is forwarded to as well.
+     */
+    public LoadRecorder(MetricsRecorder delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    }
+
+    /**
+     * Forgets everything recorded so far, e.g. at the end of the warm-up.
+     */
+    public void reset() {
+        rateLimiterWait = new LogLinearHistogram();
+        retries = new LongAdder();
+    }
+
+    /**
+     * Marks the current thread as sending a warm-up request, whose measurements are not counted.
+     */
+    void setWarmingUp(boolean warmup) {
+        warmingUp.set(warmup);
+    }
+
+    /**
+     * @return Time spent waiting for the rate limiter, in nanoseconds, one value per request.
+     */
+    public LogLinearHistogram getRateLimiterWait() {
+        return rateLimiterWait;
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public void recordRequest(String provider, String model, long latencyNanos, boolean success) {
+        delegate.recordRequest(provider, model, latencyNanos, success);
+    }
+
+    @Override
+    public void recordTimeToFirstToken(String provider, String model, long nanos) {
+        delegate.recordTimeToFirstToken(provider, model, nanos);
+    }
+
+    @Override
+    public void recordRateLimiterWait(String provider, String model, long waitNanos) {
+        if (!warmingUp.get()) {
+            rateLimiterWait.record(waitNanos);
+        }
+        delegate.recordRateLimiterWait(provider, model, waitNanos);
+    }
+
+    @Override
+    public void recordRetry(String provider, String model) {
+        if (!warmingUp.get()) {
+            retries.increment();
+        }
+        delegate.recordRetry(provider, model);
+    }
+
+    @Override
+    public void recordUsage(String provider, String model, TokenUsage usage, long generationNanos) {
+        delegate.recordUsage(provider, model, usage, generationNanos);
+    }
+
+    @Override
+    public void recordQueueWait(String priorityClass, long waitNanos) {
+        delegate.recordQueueWait(priorityClass, waitNanos);
+    }
+
+    @Override
+    public void recordQueueDepth(String priorityClass, int depth) {
+        delegate.recordQueueDepth(priorityClass, depth);
+    }
+
+    @Override
+    public void recordCompression(String direction, String encoding, long rawBytes, long encodedBytes,
+                                  long codecNanos) {
+        delegate.recordCompression(direction, encoding, rawBytes, encodedBytes, codecNanos);
+    }
+}
@@ -0,0 +1,176 @@
+package com.jllm.examples.load;
+
+import com.jllm.core.metrics.LogLinearHistogram;
+
+import java.io.PrintStream;
+
+/**
+ * Outcome of a {@link LoadGenerator} run, counted over the measurement period only.
+ * <p>
+ * {@link #getLatency()} is measured from the moment a request was <em>due</em>, which in an open loop
+ * may be earlier than the moment it was sent: if the client falls behind, the requests waiting for a
+ * free worker count that wait too, so a stall shows up in the tail instead of being hidden by requests
+ * that were never sent (coordinated omission). {@link #getServiceTime()} starts at the send and
+ * shows the client's own share. In a closed loop both are the same.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String description;
+    private final long elapsedNanos;
+    private final long succeeded;
+    private final long failed;
+    private final long dropped;
+    private final long retries;
+    private final long completionTokens;
+    private final LogLinearHistogram latency;
+    private final LogLinearHistogram serviceTime;
+    private final LogLinearHistogram timeToFirstToken;
+    private final LogLinearHistogram rateLimiterWait;
+
+    LoadReport(String description, long elapsedNanos, long succeeded, long failed, long dropped, long retries,
+               long completionTokens, LogLinearHistogram latency, LogLinearHistogram serviceTime,
+               LogLinearHistogram timeToFirstToken, LogLinearHistogram rateLimiterWait) {
+        this.description = description;
+        this.elapsedNanos = elapsedNanos;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.dropped = dropped;
+        this.retries = retries;
+        this.completionTokens = completionTokens;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+        this.timeToFirstToken = timeToFirstToken;
+        this.rateLimiterWait = rateLimiterWait;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Open-loop requests that were due but never sent because too many were outstanding.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return Retries inside the client, if it reports to the generator's {@link LoadRecorder}.
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return Finished requests per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : (succeeded + failed) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return Latency in nanoseconds from the due time to completion, successful requests only.
+     */
+    public LogLinearHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Latency in nanoseconds from the send to completion, successful requests only.
+     */
+    public LogLinearHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * @return Time in nanoseconds from the due time to the first token; empty unless streaming.
+     */
+    public LogLinearHistogram getTimeToFirstToken() {
+        return timeToFirstToken;
+    }
+
+    /**
+     * @return Rate limiter wait in nanoseconds, if the client reports to the generator's {@link LoadRecorder}.
+     */
+    public LogLinearHistogram getRateLimiterWait() {
+        return rateLimiterWait;
+    }
+
+    /**
+     * Prints a summary followed by the percentile distribution of every histogram, in the layout of
+     * HdrHistogram's {@code outputPercentileDistribution}, with values in milliseconds.
+     */
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("%s%n", description);
+        out.printf("requests:   %d succeeded, %d failed, %d dropped in %.1f s%n", succeeded, failed, dropped, seconds);
+        out.printf("throughput: %.1f requests/s, %.1f tokens/s%n", getThroughput(),
+                seconds == 0 ? 0 : completionTokens / seconds);
+        out.printf("retries:    %d%n", retries);
+        out.printf("%-18s %10s %10s %10s %10s %10s (ms)%n", "", "p50", "p90", "p99", "p99.9", "max");
+        summary(out, "latency", latency);
+        summary(out, "service time", serviceTime);
+        summary(out, "time to 1st token", timeToFirstToken);
+        summary(out, "rate limiter wait", rateLimiterWait);
+        distribution(out, "latency", latency);
+        distribution(out, "time to first token", timeToFirstToken);
+        distribution(out, "rate limiter wait", rateLimiterWait);
+    }
+
+    private static void summary(PrintStream out, String name, LogLinearHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        out.printf("%-18s %10.3f %10.3f %10.3f %10.3f %10.3f%n", name,
+                histogram.getValueAtQuantile(0.5) / NANOS_PER_MILLI,
+                histogram.getValueAtQuantile(0.9) / NANOS_PER_MILLI,
+                histogram.getValueAtQuantile(0.99) / NANOS_PER_MILLI,
+                histogram.getValueAtQuantile(0.999) / NANOS_PER_MILLI,
+                histogram.getMax() / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Percentiles at the ticks HdrHistogram uses: five per halving of the distance to 100%, until no
+     * more samples are left to tell apart.
+     */
+    private static void distribution(PrintStream out, String name, LogLinearHistogram histogram) {
+        long count = histogram.getCount();
+        if (count == 0) {
+            return;
+        }
+        out.printf("%n# %s%n", name);
+        out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        double remaining = 1.0;
+        double percentile = 0;
+        while (true) {
+            long total = Math.max(1, (long) Math.ceil(percentile * count));
+            out.printf("%12.3f %14.12f %10d %14.2f%n", histogram.getValueAtQuantile(percentile) / NANOS_PER_MILLI,
+                    percentile, total, 1 / (1 - percentile));
+            if (total >= count) {
+                break;
+            }
+            percentile += remaining / 10;
+            if (percentile >= 1 - remaining / 2 - 1e-12) {
+                remaining /= 2;
+            }
+        }
+        out.printf("%12.3f %14.12f %10d %14s%n", histogram.getMax() / NANOS_PER_MILLI, 1.0, count, "inf");
+        out.printf("#[Mean    = %12.3f, Max        = %12.3f]%n", histogram.getMean() / NANOS_PER_MILLI,
+                histogram.getMax() / NANOS_PER_MILLI);
+        out.printf("#[Total count    = %12d]%n", count);
+    }
+}
@@ -0,0 +1,159 @@
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.examples.load.LoadGenerator;
+import com.jllm.examples.load.LoadRecorder;
+import com.jllm.examples.load.LoadReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoadGeneratorTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("m")
+            .messages(List.of(new Message("user", "hi")))
+            .build();
+
+    @Test
+    void openLoopSendsAtTheArrivalRateAndTakesLatencyFromTheDueTime() throws InterruptedException, IOException {
+        Provider provider = slow(20, 0);
+        LoadRecorder recorder = new LoadRecorder();
+        LoadReport report = LoadGenerator.builder()
+                .client(client(provider, recorder))
+                .request(REQUEST)
+                .openLoop(100, 1000)
+                .warmup(Duration.ofMillis(200))
+                .duration(Duration.ofSeconds(1))
+                .recorder(recorder)
+                .build()
+                .run();
+
+        assertEquals(100, report.getSucceeded(), 15);
+        assertEquals(0, report.getFailed());
+        assertEquals(100, report.getThroughput(), 15);
+        assertTrue(report.getLatency().getValueAtQuantile(0.5) >= 20_000_000L);
+        assertTrue(report.getLatency().getMax() >= report.getServiceTime().getMax());
+        assertEquals(report.getSucceeded(), report.getLatency().getCount());
+        assertTrue(report.getRateLimiterWait().getCount() >= report.getSucceeded());
+        assertEquals(0, report.getTimeToFirstToken().getCount());
+    }
+
+    @Test
+    void closedLoopStreamsRecordTimeToFirstTokenAndRetries() throws InterruptedException, IOException {
+        Provider provider = slow(5, 3);
+        LoadRecorder recorder = new LoadRecorder();
+        LoadReport report = LoadGenerator.builder()
+                .client(client(provider, recorder))
+                .request(REQUEST)
+                .closedLoop(4)
+                .streaming(true)
+                .warmup(Duration.ofMillis(100))
+                .duration(Duration.ofMillis(500))
+                .recorder(recorder)
+                .build()
+                .run();
+
+        assertTrue(report.getSucceeded() > 50, String.valueOf(report.getSucceeded()));
+        assertEquals(report.getSucceeded(), report.getTimeToFirstToken().getCount());
+        assertTrue(report.getTimeToFirstToken().getValueAtQuantile(0.5) >= 5_000_000L);
+        assertTrue(report.getRetries() > 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.print(new PrintStream(out, true, StandardCharsets.UTF_8));
+        String printed = out.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("closed loop with 4 workers, sendStream"), printed);
+        assertTrue(printed.contains("1/(1-Percentile)"), printed);
+        assertTrue(printed.contains("#[Total count"), printed);
+    }
+
+    @Test
+    void warmupRequestStillInFlightDoesNotRecordIntoTheMeasurement() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 1) {
+                pause(200);                                       // fails and retries after the warm-up
+                throw new IOException("injected");
+            }
+            return new PromptResponse.Builder().text("ok").usage(new TokenUsage(1, 1, 2)).build();
+        });
+        LoadRecorder recorder = new LoadRecorder();
+        LLMClient client = client(provider, recorder);
+        client.send(REQUEST);                                     // loads the client's classes
+        LoadReport report = LoadGenerator.builder()
+                .client(client)
+                .request(REQUEST)
+                .openLoop(20, 1000)
+                .warmup(Duration.ofMillis(100))
+                .duration(Duration.ofMillis(400))
+                .recorder(recorder)
+                .build()
+                .run();
+
+        assertTrue(report.getSucceeded() > 0);
+        assertEquals(0, report.getRetries());
+        assertEquals(report.getSucceeded(), report.getRateLimiterWait().getCount());
+    }
+
+    private static LLMClient client(Provider provider, LoadRecorder recorder) {
+        return LLMClient.builder()
+                .provider(provider)
+                .model("m")
+                .rateLimiter(new RateLimiter(Integer.MAX_VALUE, 1000))
+                .retryPolicy(new RetryPolicy(3, 1))
+                .metrics(recorder)
+                .build();
+    }
+
+    /**
+     * A provider that answers after a fixed delay; every {@code failEvery}-th stream fails before the first token.
+     */
+    private static Provider slow(long delayMillis, int failEvery) throws IOException {
+        PromptResponse response = new PromptResponse.Builder().text("ok").usage(new TokenUsage(1, 1, 2)).build();
+        AtomicInteger calls = new AtomicInteger();
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            pause(delayMillis);
+            return response;
+        });
+        doAnswer(invocation -> {
+            if (failEvery > 0 && calls.incrementAndGet() % failEvery == 0) {
+                throw new IOException("injected");
+            }
+            StreamingListener listener = invocation.getArgument(1);
+            listener.onStart();
+            pause(delayMillis);
+            listener.onTokenReceived("ok");
+            listener.onEnd();
+            listener.onStreamCompleted(response, null);
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        return provider;
+    }
+
+    private static void pause(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.jllm.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jllm.core.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH result file against the committed baseline and fails if a hot path got slower or
+ * started allocating more.
+ * <pre>
+ * java -jar jllm-benchmarks/target/benchmarks.jar -prof gc -rf json -rff current.json
+ * java -cp jllm-benchmarks/target/benchmarks.jar com.jllm.benchmarks.BaselineCheck \
+ *     jllm-benchmarks/baseline/hot-paths.json current.json [tolerance]
+ * </pre>
+ * <p>
+ * Both files are JMH's {@code -rf json} output. A benchmark regresses if its score is worse than the
+ * baseline by more than the tolerance (default: 0.25, i.e. 25%), or if its {@code gc.alloc.rate.norm}
+ * grew by more than the tolerance plus 16 bytes. Timings only compare on the machine the baseline was
+ * recorded on; allocation per operation compares anywhere, so it is the more reliable gate. Benchmarks
+ * missing from either file are listed but don't fail the check.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class BaselineCheck {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineCheck <baseline.json> <current.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        Map<String, JsonNode> baseline = read(Path.of(args[0]));
+        Map<String, JsonNode> current = read(Path.of(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n", "benchmark", "baseline", "current", "change",
+                "B/op base", "B/op now");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            String name = entry.getKey();
+            JsonNode now = entry.getValue();
+            JsonNode base = baseline.get(name);
+            if (base == null) {
+                System.out.printf("%-70s %14s%n", name, "(new)");
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double nowScore = now.path("primaryMetric").path("score").asDouble();
+            // Lower is better for time per operation, higher for throughput
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double change = baseScore == 0 ? 0 : (nowScore - baseScore) / baseScore;
+            double worse = higherIsBetter ? -change : change;
+            double baseAlloc = allocation(base);
+            double nowAlloc = allocation(now);
+
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12s %12s%n", name, baseScore, nowScore, change * 100,
+                    format(baseAlloc), format(nowAlloc));
+            if (worse > tolerance) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s", name, baseScore, nowScore,
+                        now.path("primaryMetric").path("scoreUnit").asText()));
+            }
+            if (!Double.isNaN(baseAlloc) && !Double.isNaN(nowAlloc)
+                    && nowAlloc > baseAlloc * (1 + tolerance) + ALLOCATION_SLACK_BYTES) {
+                regressions.add(String.format("%s: %.0f -> %.0f B/op", name, baseAlloc, nowAlloc));
+            }
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s %14s%n", name, "(not run)");
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println("Regressions beyond " + Math.round(tolerance * 100) + "%:");
+            regressions.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("No regressions beyond " + Math.round(tolerance * 100) + "%.");
+    }
+
+    /**
+     * @return The results by benchmark name and parameters, e.g. {@code PromptModelBenchmark.getLogProbs:logProbs=16}.
+     */
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        JsonNode results;
+        try (InputStream in = Files.newInputStream(file)) {
+            results = JsonUtil.mapper().readTree(in);
+        }
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.jllm.benchmarks.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byName.put(name.toString(), result);
+        }
+        return byName;
+    }
+
+    private static double allocation(JsonNode result) {
+        JsonNode metric = result.path("secondaryMetrics").path(ALLOCATION);
+        return metric.isMissingNode() ? Double.NaN : metric.path("score").asDouble();
+    }
+
+    private static String format(double bytes) {
+        return Double.isNaN(bytes) ? "-" : String.format("%.0f", bytes);
+    }
+}
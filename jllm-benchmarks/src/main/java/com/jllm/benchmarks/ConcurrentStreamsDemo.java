@@ -0,0 +1,169 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.nio.NioStreamingEngine;
+import com.jllm.openai.provider.OpenAIProvider;
+import com.jllm.testkit.LatencyDistribution;
+import com.jllm.testkit.StandInServer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds thousands of concurrent streams open through the {@link NioStreamingEngine} against a local
+ * {@link StandInServer}, and reports how many were open at once, how many threads the JVM needed and
+ * the heap in use at the peak.
+ * <p>
+ * Each stream delivers one token per tick, so with the defaults (10,000 streams of 40 tokens every
+ * 250 ms) all of them are open together for several seconds. Run it from the shaded jar on a small heap:
+ * </p>
+ * <pre>
+ * java -Xmx256m -cp jllm-benchmarks/target/benchmarks.jar com.jllm.benchmarks.ConcurrentStreamsDemo [streams] [tokens] [tickMillis]
+ * </pre>
+ * <p>
+ * Client and server share the process, so it needs two file descriptors per stream ({@code ulimit -n}).
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class ConcurrentStreamsDemo {
+
+    private ConcurrentStreamsDemo() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int streams = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int tokens = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        long tickMillis = args.length > 2 ? Long.parseLong(args[2]) : 250;
+
+        LongAdder received = new LongAdder();
+        ExecutorService admission = Executors.newFixedThreadPool(2);
+        ExecutorService exchanges = Executors.newFixedThreadPool(2);
+        try (StandInServer server = StandInServer.builder()
+                     .completionTokens(tokens)
+                     .timeToFirstToken(LatencyDistribution.fixed(Duration.ofMillis(tickMillis)))
+                     .tokensPerSecond(1000.0 / tickMillis)
+                     .backlog(16_384)
+                     .executor(exchanges)
+                     .build();
+             NioStreamingEngine engine = NioStreamingEngine.builder().threads(2).build()) {
+            LLMClient client = LLMClient.builder()
+                    .provider(new OpenAIProvider(server.getCompletionsUrl()))
+                    .model("gpt-4o-mini")
+                    .rateLimiter(new RateLimiter(Integer.MAX_VALUE, 1000))
+                    .retryPolicy(new RetryPolicy(1, 0))
+                    .streamExecutor(admission)
+                    .streamingEngine(engine)
+                    .build();
+            StreamingListener listener = new CountingListener(received);
+
+            long start = System.nanoTime();
+            List<StreamHandle> handles = new ArrayList<>(streams);
+            for (int i = 0; i < streams; i++) {
+                handles.add(client.sendStreamAsync(request("user-" + i), listener));
+            }
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            int peakOpen = 0;
+            long peakHeap = 0;
+            int peakThreads = 0;
+            while (!allDone(handles) && System.nanoTime() - start < TimeUnit.MINUTES.toNanos(5)) {
+                Thread.sleep(100);
+                int open = engine.getOpenStreams();
+                if (open > peakOpen) {
+                    peakOpen = open;
+                    System.gc();                                 // live heap with every stream open
+                    peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+                }
+                peakThreads = Math.max(peakThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+            }
+            long elapsed = System.nanoTime() - start;
+
+            int failed = 0;
+            for (StreamHandle handle : handles) {
+                if (!handle.isDone() || handle.getError() != null) {
+                    failed++;
+                }
+            }
+            System.out.printf("streams: %d succeeded, %d failed, peak %d open at once%n",
+                    streams - failed, failed, peakOpen);
+            System.out.printf("tokens:  %d in %.1f s (%.0f tokens/s)%n",
+                    received.sum(), elapsed / 1e9, received.sum() / (elapsed / 1e9));
+            System.out.printf("threads: peak %d live JVM threads%n", peakThreads);
+            System.out.printf("heap:    %.1f MB live at peak, max %.0f MB%n",
+                    peakHeap / 1048576.0, Runtime.getRuntime().maxMemory() / 1048576.0);
+        } finally {
+            admission.shutdown();
+            exchanges.shutdown();
+        }
+    }
+
+    private static boolean allDone(List<StreamHandle> handles) {
+        for (StreamHandle handle : handles) {
+            if (!handle.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PromptRequest request(String user) {
+        return PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(new Message("user", "Tell me about foxes")))
+                .user(user)
+                .build();
+    }
+
+    private static final class CountingListener implements StreamingListener {
+        private final LongAdder received;
+
+        CountingListener(LongAdder received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            received.increment();
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onData(String chunk) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+        }
+
+        @Override
+        public void onStreamComplete() {
+        }
+    }
+}
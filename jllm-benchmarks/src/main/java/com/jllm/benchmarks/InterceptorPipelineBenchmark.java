@@ -0,0 +1,180 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.intercept.Interceptor;
+import com.jllm.core.jfr.RateLimiterWaitEvent;
+import com.jllm.core.jfr.RequestEvent;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Overhead of the interceptor chain of {@link LLMClient#send(PromptRequest)} against an in-memory provider.
+ * <p>
+ * {@code hardCoded} is the send path as it was before the chain: rate limiter, retry and provider
+ * called one after the other, with the same metrics and events. {@code pipeline} is {@code send} with
+ * only the client's own stages, and should not allocate more than it;
+ * {@code pipelineFourInterceptors} adds four pass-through interceptors, the cost of one stage each.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterceptorPipelineBenchmark {
+
+    private static final String MODEL = "bench";
+    private static final String PROVIDER = "InMemoryProvider";
+
+    private PromptRequest request;
+    private Provider provider;
+    private RateLimiter rateLimiter;
+    private RetryPolicy retryPolicy;
+    private MetricsRecorder metrics;
+    private LLMClient client;
+    private LLMClient intercepted;
+
+    @Setup
+    public void setUp() {
+        request = PromptRequest.builder()
+                .model(MODEL)
+                .messages(List.of(new Message("user", "hello")))
+                .build();
+        provider = new InMemoryProvider();
+        rateLimiter = new RateLimiter(Integer.MAX_VALUE, Long.MAX_VALUE);
+        retryPolicy = new RetryPolicy(1, 0);
+        metrics = MetricsRecorder.noop();
+        client = client().build();
+        Interceptor passThrough = (request, next) -> next.proceed(request);
+        intercepted = client()
+                .interceptor(passThrough)
+                .interceptor(passThrough)
+                .interceptor(passThrough)
+                .interceptor(passThrough)
+                .build();
+    }
+
+    private LLMClient.Builder client() {
+        return LLMClient.builder()
+                .provider(provider)
+                .model(MODEL)
+                .retryPolicy(retryPolicy)
+                .rateLimiter(rateLimiter)
+                .metrics(metrics);
+    }
+
+    @Benchmark
+    public PromptResponse hardCoded() throws InterruptedException {
+        long queued = System.nanoTime();
+        RateLimiterWaitEvent wait = RateLimiterWaitEvent.start(PROVIDER, MODEL);
+        rateLimiter.acquire();
+        wait.finish();
+        long start = System.nanoTime();
+        metrics.recordRateLimiterWait(PROVIDER, MODEL, start - queued);
+        RequestEvent event = RequestEvent.start(PROVIDER, MODEL, false);
+        int[] attempts = new int[1];
+        PromptResponse response = null;
+        boolean success = false;
+        try {
+            Supplier<PromptResponse> call = () -> {
+                if (attempts[0]++ > 0) {
+                    metrics.recordRetry(PROVIDER, MODEL);
+                }
+                try {
+                    return provider.execute(request.withModel(MODEL));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            response = retryPolicy.execute(call);
+            success = true;
+            return response;
+        } finally {
+            long latency = System.nanoTime() - start;
+            metrics.recordRequest(PROVIDER, MODEL, latency, success);
+            TokenUsage usage = response != null ? response.getUsage() : null;
+            if (usage != null) {
+                metrics.recordUsage(PROVIDER, MODEL, usage, latency);
+            }
+            event.finish(success, attempts[0], usage, 0);
+        }
+    }
+
+    @Benchmark
+    public PromptResponse pipeline() throws Exception {
+        return client.send(request);
+    }
+
+    @Benchmark
+    public PromptResponse pipelineFourInterceptors() throws Exception {
+        return intercepted.send(request);
+    }
+
+    private static final class InMemoryProvider implements Provider {
+        private static final PromptResponse RESPONSE = new PromptResponse.Builder()
+                .text("ok")
+                .usage(new TokenUsage(5, 10, 15))
+                .build();
+
+        @Override
+        public PromptResponse execute(PromptRequest request) {
+            return RESPONSE;
+        }
+
+        @Override
+        public PromptResponse sendRequest(PromptRequest promptRequest) {
+            return RESPONSE;
+        }
+
+        @Override
+        public void executeStream(PromptRequest request, StreamingListener listener) {
+            listener.onTokenReceived("ok");
+            listener.onStreamComplete();
+        }
+
+        @Override
+        public String getName() {
+            return PROVIDER;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void setAuthToken(String token) {
+        }
+
+        @Override
+        public String getApiUrl() {
+            return "memory://";
+        }
+    }
+}
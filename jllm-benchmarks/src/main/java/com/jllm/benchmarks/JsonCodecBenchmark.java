@@ -0,0 +1,91 @@
+package com.jllm.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one request/response round of JSON through the HTTP layer, for prompts of {@code promptChars}
+ * characters and a response of the same size.
+ * <p>
+ * {@code bytesAndStrings} is how {@code HttpUtil} used to do it: serialize the payload to a
+ * {@code byte[]} before writing it, read the whole response into a {@code byte[]}, decode it to a
+ * {@code String} and parse that with a second mapper. {@code streaming} writes through the shared
+ * {@link JsonUtil} writer into the output stream and parses the input stream in place. The streams are
+ * in memory, so only the codec is measured; run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonCodecBenchmark {
+
+    @Param({"1024", "65536"})
+    public int promptChars;
+
+    private final ObjectMapper writeMapper = new ObjectMapper();
+    private final ObjectMapper readMapper = new ObjectMapper();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private PromptRequest request;
+    private byte[] response;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder prompt = new StringBuilder(promptChars);
+        while (prompt.length() < promptChars) {
+            prompt.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        prompt.setLength(promptChars);
+        request = PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(new Message("system", "Be brief."), new Message("user", prompt.toString())))
+                .build();
+        response = writeMapper.writeValueAsBytes(new PromptResponse.Builder()
+                .text(prompt.toString())
+                .usage(new TokenUsage(promptChars / 4, promptChars / 4, promptChars / 2))
+                .build());
+    }
+
+    @Benchmark
+    public PromptResponse bytesAndStrings() throws IOException {
+        byte[] input = writeMapper.writeValueAsBytes(request);
+        sink.write(input, 0, input.length);
+        InputStream in = new ByteArrayInputStream(response);
+        String body = new String(in.readAllBytes());
+        return readMapper.readValue(body, PromptResponse.class);
+    }
+
+    @Benchmark
+    public PromptResponse streaming() throws IOException {
+        JsonUtil.toJson(sink, request);
+        return JsonUtil.fromJson(new ByteArrayInputStream(response), PromptResponse.class);
+    }
+}
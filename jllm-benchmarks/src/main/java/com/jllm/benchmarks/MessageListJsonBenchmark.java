@@ -0,0 +1,65 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.util.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of requests with long conversations through the shared {@link JsonUtil} writer.
+ * <p>
+ * Unlike {@link JsonCodecBenchmark}, which sends one large message, this one sends {@code messages}
+ * short turns, so the per-element cost of the writer dominates. The output goes to a null stream.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageListJsonBenchmark {
+
+    @Param({"10", "1000"})
+    public int messages;
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private PromptRequest request;
+
+    @Setup
+    public void setUp() {
+        List<Message> turns = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            turns.add(new Message(i % 2 == 0 ? "user" : "assistant",
+                    "Turn " + i + ": the quick brown fox jumps over the lazy dog."));
+        }
+        request = PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(turns)
+                .build();
+    }
+
+    @Benchmark
+    public void toJson() throws IOException {
+        JsonUtil.toJson(sink, request);
+    }
+}
@@ -0,0 +1,138 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.metrics.MetricsRegistry;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of metrics on the {@link LLMClient#send(PromptRequest)} hot path against an in-memory provider.
+ * <p>
+ * {@code providerDirect} is the floor: the provider call without the client around it. The gap to
+ * {@code clientNoopMetrics} is the client's own overhead (rate limiter, retry, metrics calls into the
+ * default no-op recorder), and {@code clientRegistryMetrics} shows what full recording into
+ * {@link MetricsRegistry} adds. The {@code record*} benchmarks
+ * measure the registry alone, uncontended and with 8 threads hitting the same series.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private PromptRequest request;
+    private InMemoryProvider provider;
+    private LLMClient noopClient;
+    private LLMClient registryClient;
+    private MetricsRegistry registry;
+
+    @Setup
+    public void setUp() {
+        request = PromptRequest.builder()
+                .model("bench")
+                .messages(List.of(new Message("user", "hello")))
+                .build();
+        provider = new InMemoryProvider();
+        registry = new MetricsRegistry();
+        noopClient = client().metrics(MetricsRecorder.noop()).build();
+        registryClient = client().metrics(registry).build();
+    }
+
+    private LLMClient.Builder client() {
+        return LLMClient.builder()
+                .provider(provider)
+                .model("bench")
+                .retryPolicy(new RetryPolicy(1, 0))
+                .rateLimiter(new RateLimiter(Integer.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Benchmark
+    public PromptResponse providerDirect() {
+        return provider.execute(request);
+    }
+
+    @Benchmark
+    public PromptResponse clientNoopMetrics() throws Exception {
+        return noopClient.send(request);
+    }
+
+    @Benchmark
+    public PromptResponse clientRegistryMetrics() throws Exception {
+        return registryClient.send(request);
+    }
+
+    @Benchmark
+    public void recordRequestUncontended() {
+        registry.recordRequest("InMemoryProvider", "bench", 1_234_567, true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordRequestContended() {
+        registry.recordRequest("InMemoryProvider", "bench", 1_234_567, true);
+    }
+
+    private static final class InMemoryProvider implements Provider {
+        private static final PromptResponse RESPONSE = new PromptResponse.Builder()
+                .text("ok")
+                .usage(new TokenUsage(5, 10, 15))
+                .build();
+
+        @Override
+        public PromptResponse execute(PromptRequest request) {
+            return RESPONSE;
+        }
+
+        @Override
+        public PromptResponse sendRequest(PromptRequest promptRequest) {
+            return RESPONSE;
+        }
+
+        @Override
+        public void executeStream(PromptRequest request, StreamingListener listener) {
+            listener.onTokenReceived("ok");
+            listener.onStreamComplete();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void setAuthToken(String token) {
+        }
+
+        @Override
+        public String getApiUrl() {
+            return "memory://";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of the immutable request and response models on the client's hot path.
+ * <p>
+ * {@code builder} builds a request from scratch and {@code withModel} copies one for another model, as
+ * routing and cascades do per call. {@code getLogProbs} reads the log probabilities of a response of
+ * {@code logProbs} tokens, which must not copy the list again on every call. Run with {@code -prof gc}
+ * and compare {@code gc.alloc.rate.norm}.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PromptModelBenchmark {
+
+    private List<Message> messages;
+    private PromptRequest request;
+
+    @Setup
+    public void setUp() {
+        messages = List.of(new Message("system", "Be brief."), new Message("user", "Tell me about foxes"));
+        request = PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(messages)
+                .user("alice")
+                .build();
+    }
+
+    @Benchmark
+    public PromptRequest builder() {
+        return PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(messages)
+                .user("alice")
+                .build();
+    }
+
+    @Benchmark
+    public PromptRequest withModel() {
+        return request.withModel("gpt-4o");
+    }
+
+    @Benchmark
+    public List<LogProb> getLogProbs(Response state) {
+        return state.response.getLogProbs();
+    }
+
+    /**
+     * A response of {@code logProbs} tokens, kept apart so that only {@code getLogProbs} runs per size.
+     */
+    @State(Scope.Thread)
+    public static class Response {
+
+        @Param({"16", "1024"})
+        public int logProbs;
+
+        private PromptResponse response;
+
+        @Setup
+        public void setUp() {
+            List<LogProb> probs = new ArrayList<>(logProbs);
+            for (int i = 0; i < logProbs; i++) {
+                probs.add(new LogProb("token" + i, -0.25, List.of(-0.25, -1.5)));
+            }
+            response = new PromptResponse.Builder()
+                    .text("The quick brown fox")
+                    .usage(new TokenUsage(8, logProbs, logProbs + 8))
+                    .logProbs(probs)
+                    .build();
+        }
+    }
+}
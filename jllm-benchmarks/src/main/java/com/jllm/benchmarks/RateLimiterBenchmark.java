@@ -0,0 +1,60 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.rate.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking a permit from a {@link RateLimiter} whose window never fills, so that only the
+ * bookkeeping is measured and never the wait for the next window.
+ * <p>
+ * Every {@code LLMClient} call goes through one shared limiter, so {@code acquireContended} (8 threads
+ * on the same lock) is the number that matters under load; {@code acquire} is the uncontended floor.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private RateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(Integer.MAX_VALUE, 1000);
+    }
+
+    @Benchmark
+    public void acquire() throws InterruptedException {
+        limiter.acquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void acquireContended() throws InterruptedException {
+        limiter.acquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean tryAcquireContended() throws InterruptedException {
+        return limiter.tryAcquire(1, TimeUnit.SECONDS);
+    }
+}
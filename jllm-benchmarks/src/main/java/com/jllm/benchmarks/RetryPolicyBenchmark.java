@@ -0,0 +1,63 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.time.Deadline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Overhead of {@link RetryPolicy#execute} when the task succeeds at the first attempt, which is what
+ * almost every call pays.
+ * <p>
+ * {@code direct} calls the task without a policy and is the floor; {@code execute} and
+ * {@code executeWithDeadline} should stay within a few nanoseconds of it and allocate nothing.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RetryPolicyBenchmark {
+
+    private final Supplier<String> task = () -> "ok";
+    private RetryPolicy policy;
+    private Deadline deadline;
+
+    @Setup
+    public void setUp() {
+        policy = new RetryPolicy(3, 100);
+        deadline = Deadline.after(Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public String direct() {
+        return task.get();
+    }
+
+    @Benchmark
+    public String execute() throws InterruptedException {
+        return policy.execute(task);
+    }
+
+    @Benchmark
+    public String executeWithDeadline() throws InterruptedException {
+        return policy.execute(task, deadline);
+    }
+}
@@ -0,0 +1,148 @@
+package com.jllm.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.sse.ChatCompletionEventHandler;
+import com.jllm.core.stream.sse.SseDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per token of decoding an OpenAI-style server-sent event stream.
+ * <p>
+ * {@code decoder} runs {@link SseDecoder} and {@link ChatCompletionEventHandler} over a recorded stream
+ * of {@value #TOKENS} chunks, fed in network-sized slices. {@code lineReaderAndTree} is the usual
+ * hand-written approach it replaces: a {@link BufferedReader} producing a {@code String} per line and an
+ * {@link ObjectMapper} tree per chunk. Times and allocations are per token; run with {@code -prof gc}
+ * and compare {@code gc.alloc.rate.norm}, where the decoder should be left with little more than the
+ * token strings themselves.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SseDecoderBenchmark {
+
+    private static final int TOKENS = 512;
+    // Typical TCP payload of a single segment
+    private static final int SLICE = 1448;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] stream;
+    private CountingListener listener;
+    private SseDecoder decoder;
+    private ChatCompletionEventHandler handler;
+
+    @Setup
+    public void setUp() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] words = {"The", " quick", " brown", " fox", " jumps", " over", " the", " lazy", " dog", "."};
+        for (int i = 0; i < TOKENS; i++) {
+            String chunk = "data: {\"id\":\"chatcmpl-9x\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                    + "\"model\":\"gpt-4o-mini\",\"system_fingerprint\":\"fp_abc\",\"choices\":[{\"index\":0,"
+                    + "\"delta\":{\"content\":\"" + words[i % words.length] + "\"},\"logprobs\":null,"
+                    + "\"finish_reason\":null}]}\n\n";
+            out.writeBytes(chunk.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeBytes(("data: {\"choices\":[],\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":" + TOKENS
+                + ",\"total_tokens\":" + (TOKENS + 12) + "}}\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+        stream = out.toByteArray();
+        listener = new CountingListener();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public long decoder() throws IOException {
+        listener.characters = 0;
+        handler = new ChatCompletionEventHandler(listener);      // one per stream, as in a provider
+        if (decoder == null) {
+            decoder = new SseDecoder((data, length) -> handler.onEvent(data, length));
+        }
+        decoder.reset();
+        for (int offset = 0; offset < stream.length; offset += SLICE) {
+            decoder.feed(stream, offset, Math.min(SLICE, stream.length - offset));
+        }
+        return listener.characters;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public long lineReaderAndTree() throws IOException {
+        listener.characters = 0;
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(stream), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data: ")) {
+                continue;
+            }
+            String data = line.substring(6);
+            if (data.equals("[DONE]")) {
+                break;
+            }
+            JsonNode content = mapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            if (content.isTextual()) {
+                listener.onTokenReceived(content.asText());
+            }
+        }
+        return listener.characters;
+    }
+
+    private static final class CountingListener implements StreamingListener {
+        long characters;
+
+        @Override
+        public void onTokenReceived(String token) {
+            characters += token.length();
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onData(String chunk) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+        }
+
+        @Override
+        public void onStreamComplete() {
+        }
+    }
+}
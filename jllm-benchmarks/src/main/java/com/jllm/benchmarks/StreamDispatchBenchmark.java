@@ -0,0 +1,130 @@
+package com.jllm.benchmarks;
+
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.CancellableStreamingListener;
+import com.jllm.core.stream.CoalescingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.stream.match.PatternFilteringListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing one streamed token to the caller's {@link StreamingListener}.
+ * <p>
+ * {@code direct} calls the caller's listener and is the floor. {@code cancellable} adds the
+ * {@link CancellableStreamingListener} every stream goes through, and {@code fullChain} the whole chain
+ * {@code LLMClient} builds when stop sequences and coalescing are on: cancellation, stop-sequence
+ * matching, then coalescing into chunks of 16 tokens.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamDispatchBenchmark {
+
+    private static final String[] TOKENS = {"The", " quick", " brown", " fox", " jumps", " over", " the", " lazy", " dog"};
+
+    private StreamingListener caller;
+    private StreamingListener cancellable;
+    private StreamingListener fullChain;
+    private int next;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        PromptRequest request = PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(new Message("user", "Tell me about foxes")))
+                .stopSequences(List.of("###"))
+                .build();
+        StreamOptions options = StreamOptions.builder()
+                .enforceStopSequences(true)
+                .coalesce(256, 16, Duration.ofSeconds(1))
+                .build();
+        caller = new ConsumingListener(blackhole);
+        cancellable = new CancellableStreamingListener(caller, new StreamHandle(), request);
+        StreamingListener downstream = new PatternFilteringListener(new CoalescingStreamingListener(caller, options),
+                options.matcherFor(request.getStopSequences()), options.getRedactionMask());
+        fullChain = new CancellableStreamingListener(downstream, new StreamHandle(), request);
+    }
+
+    @Benchmark
+    public void direct() {
+        caller.onTokenReceived(nextToken());
+    }
+
+    @Benchmark
+    public void cancellable() {
+        cancellable.onTokenReceived(nextToken());
+    }
+
+    @Benchmark
+    public void fullChain() {
+        fullChain.onTokenReceived(nextToken());
+    }
+
+    private String nextToken() {
+        String token = TOKENS[next];
+        next = next + 1 == TOKENS.length ? 0 : next + 1;
+        return token;
+    }
+
+    private static final class ConsumingListener implements StreamingListener {
+        private final Blackhole blackhole;
+
+        ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            blackhole.consume(token);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onData(String chunk) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+        }
+
+        @Override
+        public void onStreamComplete() {
+        }
+    }
+}
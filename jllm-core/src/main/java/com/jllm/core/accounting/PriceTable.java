@@ -0,0 +1,100 @@
+package com.jllm.core.accounting;
+
+import com.jllm.core.model.TokenUsage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable per-model token prices.
+ * <p>
+ * Prices are configured in USD per million tokens, the unit providers publish, and stored as integer
+ * pico-dollars per token so that costs can be summed exactly in {@code long} counters. Costs are
+ * returned in nano-dollars. Models without a price cost the default price, which is 0 unless set.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     PriceTable prices = PriceTable.builder()
+ *         .price("gpt-4o", 2.50, 10.00)
+ *         .price("gpt-4o-mini", 0.15, 0.60)
+ *         .build();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class PriceTable {
+
+    private static final double PICOS_PER_MILLION_TOKENS = 1_000_000;   // (1e12 pico-$ / $) / 1e6 tokens
+    private static final long PICOS_PER_NANO = 1_000;
+
+    private final Map<String, long[]> picosPerToken;
+    private final long[] defaultPicosPerToken;
+
+    private PriceTable(Builder builder) {
+        this.picosPerToken = Map.copyOf(builder.picosPerToken);
+        this.defaultPicosPerToken = builder.defaultPicosPerToken;
+    }
+
+    /**
+     * @return A table in which every model is free; only tokens are counted.
+     */
+    public static PriceTable free() {
+        return builder().build();
+    }
+
+    /**
+     * @return The cost of the usage on the model in nano-dollars, truncated.
+     */
+    public long costNanos(String model, TokenUsage usage) {
+        long[] price = model != null ? picosPerToken.getOrDefault(model, defaultPicosPerToken) : defaultPicosPerToken;
+        long picos = usage.getPromptTokens() * price[0] + usage.getCompletionTokens() * price[1];
+        return picos / PICOS_PER_NANO;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pattern to construct a PriceTable.
+     */
+    public static class Builder {
+        private final Map<String, long[]> picosPerToken = new HashMap<>();
+        private long[] defaultPicosPerToken = {0, 0};
+
+        /**
+         * Sets the price of a model in USD per million prompt and completion tokens.
+         */
+        public Builder price(String model, double promptPerMillion, double completionPerMillion) {
+            picosPerToken.put(Objects.requireNonNull(model, "model cannot be null"),
+                    toPicos(promptPerMillion, completionPerMillion));
+            return this;
+        }
+
+        /**
+         * Sets the price of models without their own entry, in USD per million tokens.
+         */
+        public Builder defaultPrice(double promptPerMillion, double completionPerMillion) {
+            this.defaultPicosPerToken = toPicos(promptPerMillion, completionPerMillion);
+            return this;
+        }
+
+        private static long[] toPicos(double promptPerMillion, double completionPerMillion) {
+            if (promptPerMillion < 0 || completionPerMillion < 0) {
+                throw new IllegalArgumentException("prices cannot be negative");
+            }
+            return new long[]{
+                    Math.round(promptPerMillion * PICOS_PER_MILLION_TOKENS),
+                    Math.round(completionPerMillion * PICOS_PER_MILLION_TOKENS)
+            };
+        }
+
+        public PriceTable build() {
+            return new PriceTable(this);
+        }
+    }
+}
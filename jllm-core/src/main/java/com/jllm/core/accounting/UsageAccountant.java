@@ -0,0 +1,281 @@
+package com.jllm.core.accounting;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Real-time token and cost accounting per user and model.
+ * <p>
+ * Every recorded {@link TokenUsage} is priced with a {@link PriceTable} and added to {@code LongAdder}
+ * counters keyed by (user, model): once into the all-time totals and once into the current bucket of each
+ * {@link UsageWindow}'s ring. A ring rotates lazily: the first writer to reach a bucket whose epoch has
+ * passed swaps in an empty one with a CAS. Recording is therefore lock-free and, for a (user, model) pair
+ * that has been seen before, allocation-free; concurrent writers only meet in striped adder cells.
+ * </p>
+ * <p>
+ * All-time totals are exact. Window totals can miss the few writes that race with the rotation of a
+ * bucket at the very edge of the window.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     UsageAccountant accountant = UsageAccountant.builder().prices(prices).build();
+ *     LLMClient client = LLMClient.builder().provider(provider).model("gpt-4o").usageAccountant(accountant).build();
+ *     ...
+ *     List&lt;UsageSnapshot&gt; spenders = accountant.topUsers(UsageWindow.LAST_HOUR, 10);
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class UsageAccountant {
+
+    /**
+     * User of requests that did not set {@link PromptRequest#getUser()}.
+     */
+    public static final String ANONYMOUS = "anonymous";
+
+    private static final Comparator<UsageSnapshot> BY_COST = Comparator
+            .comparingLong(UsageSnapshot::getCostNanos)
+            .thenComparingLong(UsageSnapshot::getTotalTokens);
+
+    private final PriceTable prices;
+    private final Clock clock;
+    private final UsageTable allTime = new UsageTable();
+    // Indexed by UsageWindow ordinal; null for ALL_TIME
+    private final Ring[] rings = new Ring[UsageWindow.values().length];
+
+    private UsageAccountant(Builder builder) {
+        this.prices = builder.prices;
+        this.clock = builder.clock;
+        for (UsageWindow window : UsageWindow.values()) {
+            if (window != UsageWindow.ALL_TIME) {
+                rings[window.ordinal()] = new Ring(window.getResolution().toMillis(), window.getBuckets());
+            }
+        }
+    }
+
+    /**
+     * Records the usage of a response to a request, attributed to the request's user and model.
+     */
+    public void record(PromptRequest request, PromptResponse response) {
+        record(request.getUser(), request.getModel(), response.getUsage());
+    }
+
+    /**
+     * Records token usage.
+     *
+     * @param user  The user to charge; null is recorded as {@link #ANONYMOUS}.
+     * @param model The model that served the request.
+     * @param usage The tokens consumed; null is ignored.
+     */
+    public void record(String user, String model, TokenUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        String u = user != null ? user : ANONYMOUS;
+        String m = Objects.requireNonNull(model, "model cannot be null");
+        int prompt = usage.getPromptTokens();
+        int completion = usage.getCompletionTokens();
+        long cost = prices.costNanos(m, usage);
+
+        allTime.counters(u, m).add(prompt, completion, cost);
+        long now = clock.millis();
+        for (Ring ring : rings) {
+            UsageTable bucket = ring != null ? ring.current(now) : null;
+            if (bucket != null) {
+                bucket.counters(u, m).add(prompt, completion, cost);
+            }
+        }
+    }
+
+    /**
+     * @return The usage of one user on one model over the window (all zeros if there is none).
+     */
+    public UsageSnapshot usage(String user, String model, UsageWindow window) {
+        long requests = 0;
+        long prompt = 0;
+        long completion = 0;
+        long cost = 0;
+        for (UsageTable table : tables(window)) {
+            UsageTable.Counters c = table.find(user, model);
+            if (c != null) {
+                requests += c.requests.sum();
+                prompt += c.promptTokens.sum();
+                completion += c.completionTokens.sum();
+                cost += c.costNanos.sum();
+            }
+        }
+        return new UsageSnapshot(user, model, requests, prompt, completion, cost);
+    }
+
+    /**
+     * @return The usage of every (user, model) pair that was active in the window.
+     */
+    public List<UsageSnapshot> snapshot(UsageWindow window) {
+        Map<String, Map<String, long[]>> merged = new HashMap<>();
+        for (UsageTable table : tables(window)) {
+            table.users().forEach((user, models) -> {
+                Map<String, long[]> byModel = merged.computeIfAbsent(user, k -> new HashMap<>());
+                models.forEach((model, c) -> accumulate(byModel.computeIfAbsent(model, k -> new long[4]), c));
+            });
+        }
+        List<UsageSnapshot> snapshots = new ArrayList<>();
+        merged.forEach((user, models) -> models.forEach((model, sums) -> snapshots.add(toSnapshot(user, model, sums))));
+        return snapshots;
+    }
+
+    /**
+     * Returns the users that spent the most over the window, summed over all models. Runs in
+     * O(users * log n) with a bounded heap, so asking for a handful of top consumers stays cheap
+     * even with many users.
+     *
+     * @return Up to {@code n} snapshots with model {@link UsageSnapshot#ALL_MODELS}, most expensive first.
+     * Ties in cost are broken by token count.
+     */
+    public List<UsageSnapshot> topUsers(UsageWindow window, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+        Map<String, long[]> byUser = new HashMap<>();
+        for (UsageTable table : tables(window)) {
+            table.users().forEach((user, models) -> {
+                long[] sums = byUser.computeIfAbsent(user, k -> new long[4]);
+                models.values().forEach(c -> accumulate(sums, c));
+            });
+        }
+        PriorityQueue<UsageSnapshot> heap = new PriorityQueue<>(n + 1, BY_COST);
+        byUser.forEach((user, sums) -> {
+            UsageSnapshot snapshot = toSnapshot(user, UsageSnapshot.ALL_MODELS, sums);
+            if (heap.size() < n) {
+                heap.add(snapshot);
+            } else if (BY_COST.compare(snapshot, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(snapshot);
+            }
+        });
+        List<UsageSnapshot> top = new ArrayList<>(heap);
+        top.sort(BY_COST.reversed());
+        return top;
+    }
+
+    private List<UsageTable> tables(UsageWindow window) {
+        if (window == UsageWindow.ALL_TIME) {
+            return List.of(allTime);
+        }
+        return rings[window.ordinal()].live(clock.millis());
+    }
+
+    private static void accumulate(long[] sums, UsageTable.Counters c) {
+        sums[0] += c.requests.sum();
+        sums[1] += c.promptTokens.sum();
+        sums[2] += c.completionTokens.sum();
+        sums[3] += c.costNanos.sum();
+    }
+
+    private static UsageSnapshot toSnapshot(String user, String model, long[] sums) {
+        return new UsageSnapshot(user, model, sums[0], sums[1], sums[2], sums[3]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A ring of time buckets. Bucket {@code i} holds the epoch {@code e} with {@code e % size == i};
+     * a bucket found holding an older epoch is replaced by an empty one.
+     */
+    private static final class Ring {
+        private final long resolutionMillis;
+        private final int size;
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        Ring(long resolutionMillis, int size) {
+            this.resolutionMillis = resolutionMillis;
+            this.size = size;
+            this.buckets = new AtomicReferenceArray<>(size);
+        }
+
+        /**
+         * @return The bucket of the current epoch, or null if the caller's clock reading is already stale.
+         */
+        UsageTable current(long nowMillis) {
+            long epoch = nowMillis / resolutionMillis;
+            int index = (int) (epoch % size);
+            while (true) {
+                Bucket bucket = buckets.get(index);
+                if (bucket != null && bucket.epoch == epoch) {
+                    return bucket.table;
+                }
+                if (bucket != null && bucket.epoch > epoch) {
+                    return null;
+                }
+                Bucket fresh = new Bucket(epoch);
+                if (buckets.compareAndSet(index, bucket, fresh)) {
+                    return fresh.table;
+                }
+            }
+        }
+
+        List<UsageTable> live(long nowMillis) {
+            long epoch = nowMillis / resolutionMillis;
+            List<UsageTable> live = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && bucket.epoch > epoch - size && bucket.epoch <= epoch) {
+                    live.add(bucket.table);
+                }
+            }
+            return live;
+        }
+    }
+
+    private static final class Bucket {
+        final long epoch;
+        final UsageTable table = new UsageTable();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Builder pattern to construct a UsageAccountant.
+     */
+    public static class Builder {
+        private PriceTable prices = PriceTable.free();
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Prices used to compute spend (default: everything is free, only tokens are counted).
+         */
+        public Builder prices(PriceTable prices) {
+            this.prices = Objects.requireNonNull(prices, "prices cannot be null");
+            return this;
+        }
+
+        /**
+         * Clock deciding which window bucket a record falls into (default: system UTC clock).
+         */
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+            return this;
+        }
+
+        public UsageAccountant build() {
+            return new UsageAccountant(this);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jllm.core.accounting;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable usage and spend of one user on one model (or on all models, see {@link #ALL_MODELS}) over a window.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class UsageSnapshot {
+
+    /**
+     * Model of snapshots that aggregate a user's usage across models.
+     */
+    public static final String ALL_MODELS = "*";
+
+    private static final BigDecimal NANOS_PER_DOLLAR = BigDecimal.valueOf(1_000_000_000L);
+
+    private final String user;
+    private final String model;
+    private final long requests;
+    private final long promptTokens;
+    private final long completionTokens;
+    private final long costNanos;
+
+    public UsageSnapshot(String user, String model, long requests, long promptTokens, long completionTokens,
+                         long costNanos) {
+        this.user = user;
+        this.model = model;
+        this.requests = requests;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+        this.costNanos = costNanos;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getPromptTokens() {
+        return promptTokens;
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public long getTotalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    /**
+     * @return The cost in nano-dollars (1e-9 USD).
+     */
+    public long getCostNanos() {
+        return costNanos;
+    }
+
+    /**
+     * @return The cost in USD, exact to the nano-dollar.
+     */
+    public BigDecimal getCostUsd() {
+        return BigDecimal.valueOf(costNanos).divide(NANOS_PER_DOLLAR);
+    }
+
+    @Override
+    public String toString() {
+        return "UsageSnapshot{" +
+                "user='" + user + '\'' +
+                ", model='" + model + '\'' +
+                ", requests=" + requests +
+                ", promptTokens=" + promptTokens +
+                ", completionTokens=" + completionTokens +
+                ", costUsd=" + getCostUsd() +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.jllm.core.accounting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters per (user, model), kept in nested {@link ConcurrentHashMap}s so that recording into a known
+ * pair neither locks nor allocates. Every counter is a {@link LongAdder}, whose cells stripe concurrent
+ * updates across CPUs instead of contending on one word.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+final class UsageTable {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Counters>> users = new ConcurrentHashMap<>();
+
+    Counters counters(String user, String model) {
+        ConcurrentHashMap<String, Counters> models = users.get(user);
+        if (models == null) {
+            models = users.computeIfAbsent(user, k -> new ConcurrentHashMap<>());
+        }
+        Counters counters = models.get(model);
+        if (counters == null) {
+            counters = models.computeIfAbsent(model, k -> new Counters());
+        }
+        return counters;
+    }
+
+    Counters find(String user, String model) {
+        Map<String, Counters> models = users.get(user);
+        return models == null ? null : models.get(model);
+    }
+
+    Map<String, ConcurrentHashMap<String, Counters>> users() {
+        return users;
+    }
+
+    static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder costNanos = new LongAdder();
+
+        void add(int prompt, int completion, long cost) {
+            requests.increment();
+            promptTokens.add(prompt);
+            completionTokens.add(completion);
+            costNanos.add(cost);
+        }
+    }
+}
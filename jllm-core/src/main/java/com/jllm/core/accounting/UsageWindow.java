@@ -0,0 +1,44 @@
+package com.jllm.core.accounting;
+
+import java.time.Duration;
+
+/**
+ * The time windows over which a {@link UsageAccountant} can report usage.
+ * <p>
+ * Each window is a ring of buckets; a snapshot sums the buckets that are still inside the window,
+ * including the current, partially filled one. A window therefore covers between
+ * {@code (buckets - 1) * resolution} and {@code buckets * resolution} of history.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public enum UsageWindow {
+
+    LAST_MINUTE(Duration.ofSeconds(1), 60),
+    LAST_HOUR(Duration.ofMinutes(1), 60),
+    LAST_DAY(Duration.ofHours(1), 24),
+    /**
+     * Everything recorded since the accountant was created.
+     */
+    ALL_TIME(null, 0);
+
+    private final Duration resolution;
+    private final int buckets;
+
+    UsageWindow(Duration resolution, int buckets) {
+        this.resolution = resolution;
+        this.buckets = buckets;
+    }
+
+    /**
+     * @return The width of one bucket, or null for {@link #ALL_TIME}.
+     */
+    public Duration getResolution() {
+        return resolution;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
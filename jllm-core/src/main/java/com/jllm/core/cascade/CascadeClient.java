@@ -0,0 +1,223 @@
+package com.jllm.core.cascade;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Answers with a cheap model when it is confident, and escalates to a strong model when it is not.
+ * <p>
+ * Every request is first sent to the cheap model with log probabilities enabled. The
+ * {@link ConfidenceMeasure} turns them into a confidence; at or above the threshold the cheap answer
+ * is returned, below it (or if the cheap call fails) the original request goes to the strong model.
+ * Each model keeps its own {@link LLMClient}, so rate limits, retries and deadlines apply per model.
+ * </p>
+ * <p>
+ * {@link #sendStream} streams the cheap answer to a listener as it is generated, so users see a draft
+ * right away; {@link CascadeResult#isEscalated()} tells the caller to replace it with the strong
+ * model's answer. The outcomes are tallied in {@link #getStats()} for tuning the threshold.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     CascadeClient cascade = CascadeClient.builder()
+ *         .cheap(miniClient)
+ *         .strong(largeClient)
+ *         .measure(ConfidenceMeasure.MIN_PROBABILITY)
+ *         .threshold(0.4)
+ *         .build();
+ *     PromptResponse answer = cascade.send(request).getResponse();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class CascadeClient {
+
+    private final LLMClient cheap;
+    private final LLMClient strong;
+    private final ConfidenceMeasure measure;
+    private final double threshold;
+    private final CascadeStats stats = new CascadeStats();
+
+    private CascadeClient(Builder builder) {
+        this.cheap = builder.cheap;
+        this.strong = builder.strong;
+        this.measure = builder.measure;
+        this.threshold = builder.threshold;
+    }
+
+    /**
+     * Sends the request to the cheap model and, if its answer is not confident enough, to the strong one.
+     *
+     * @throws IOException if the strong model's call fails.
+     */
+    public CascadeResult send(PromptRequest request) throws InterruptedException, IOException {
+        Objects.requireNonNull(request, "PromptRequest cannot be null");
+        long start = System.nanoTime();
+        PromptResponse draft;
+        try {
+            draft = cheap.send(request.withLogProbs(true));
+        } catch (IOException | RuntimeException e) {
+            draft = null;                                        // a failed cheap call is escalated
+        }
+        return decide(request, draft, start);
+    }
+
+    /**
+     * Streams the cheap model's answer to the listener and then, if it is not confident enough, sends
+     * the request to the strong model. The confidence comes from the log probabilities the provider
+     * streams alongside the tokens. If the listener stops the draft stream early the request is not
+     * escalated: the caller is no longer interested in an answer.
+     *
+     * @param draftListener Receives the cheap model's answer as it is generated.
+     * @throws IOException if the strong model's call fails.
+     */
+    public CascadeResult sendStream(PromptRequest request, StreamingListener draftListener)
+            throws InterruptedException, IOException {
+        Objects.requireNonNull(request, "PromptRequest cannot be null");
+        long start = System.nanoTime();
+        DraftCollector collector = new DraftCollector(draftListener);
+        StreamHandle handle;
+        try {
+            handle = cheap.sendStream(request.withLogProbs(true), collector);
+        } catch (RuntimeException e) {
+            return decide(request, null, start);
+        }
+        PromptResponse draft = collector.response(handle.getUsage());
+        if (handle.isCancelled()) {
+            double confidence = measure.of(draft.getLogProbs());
+            stats.recordCheap(System.nanoTime() - start, confidence);
+            return new CascadeResult(draft, draft, confidence, false, System.nanoTime() - start);
+        }
+        return decide(request, draft, start);
+    }
+
+    private CascadeResult decide(PromptRequest request, PromptResponse draft, long start)
+            throws InterruptedException, IOException {
+        long cheapNanos = System.nanoTime() - start;
+        double confidence = 0;
+        if (draft == null) {
+            stats.recordCheapFailure(cheapNanos);
+        } else {
+            confidence = measure.of(draft.getLogProbs());
+            stats.recordCheap(cheapNanos, confidence);
+            if (confidence >= threshold) {
+                return new CascadeResult(draft, draft, confidence, false, cheapNanos);
+            }
+        }
+
+        stats.recordEscalation();
+        long strongStart = System.nanoTime();
+        PromptResponse answer = strong.send(request);
+        long end = System.nanoTime();
+        stats.recordStrong(end - strongStart);
+        return new CascadeResult(answer, draft, confidence, true, end - start);
+    }
+
+    public CascadeStats getStats() {
+        return stats;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Forwards the draft to the caller's listener while keeping its text and log probabilities.
+     */
+    private static final class DraftCollector extends ForwardingStreamingListener {
+
+        private final StringBuilder text = new StringBuilder();
+        private final List<LogProb> logProbs = new ArrayList<>();
+
+        DraftCollector(StreamingListener delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            text.append(token);
+            super.onTokenReceived(token);
+        }
+
+        @Override
+        public void onLogProb(LogProb logProb) {
+            logProbs.add(logProb);
+            super.onLogProb(logProb);
+        }
+
+        PromptResponse response(TokenUsage usage) {
+            return new PromptResponse.Builder()
+                    .text(text.toString())
+                    .usage(usage != null ? usage : new TokenUsage(0, 0, 0))
+                    .logProbs(logProbs)
+                    .build();
+        }
+    }
+
+    public static class Builder {
+
+        private LLMClient cheap;
+        private LLMClient strong;
+        private ConfidenceMeasure measure = ConfidenceMeasure.MEAN_PROBABILITY;
+        private double threshold = 0.8;
+
+        /**
+         * The small, fast model every request is tried on first.
+         */
+        public Builder cheap(LLMClient cheap) {
+            this.cheap = cheap;
+            return this;
+        }
+
+        /**
+         * The large model low-confidence requests are escalated to.
+         */
+        public Builder strong(LLMClient strong) {
+            this.strong = strong;
+            return this;
+        }
+
+        /**
+         * How confidence is computed from the cheap answer's log probabilities
+         * (default {@link ConfidenceMeasure#MEAN_PROBABILITY}).
+         */
+        public Builder measure(ConfidenceMeasure measure) {
+            this.measure = Objects.requireNonNull(measure, "measure cannot be null");
+            return this;
+        }
+
+        /**
+         * The confidence, between 0 and 1, a cheap answer needs to be accepted (default 0.8).
+         */
+        public Builder threshold(double threshold) {
+            if (threshold < 0 || threshold > 1) {
+                throw new IllegalArgumentException("threshold must be between 0 and 1");
+            }
+            this.threshold = threshold;
+            return this;
+        }
+
+        public CascadeClient build() {
+            Objects.requireNonNull(cheap, "cheap client cannot be null");
+            Objects.requireNonNull(strong, "strong client cannot be null");
+            return new CascadeClient(this);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jllm.core.cascade;
+
+import com.jllm.core.model.PromptResponse;
+
+/**
+ * The outcome of a cascade call: the answer, which model gave it and how confident the cheap model was.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class CascadeResult {
+
+    private final PromptResponse response;
+    private final PromptResponse draft;
+    private final double confidence;
+    private final boolean escalated;
+    private final long latencyNanos;
+
+    CascadeResult(PromptResponse response, PromptResponse draft, double confidence, boolean escalated,
+                  long latencyNanos) {
+        this.response = response;
+        this.draft = draft;
+        this.confidence = confidence;
+        this.escalated = escalated;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * @return The final answer: the strong model's if the request was escalated, the cheap model's otherwise.
+     */
+    public PromptResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The cheap model's answer, or null if the cheap call failed.
+     */
+    public PromptResponse getDraft() {
+        return draft;
+    }
+
+    /**
+     * @return The confidence in the cheap model's answer, 0 if the cheap call failed.
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @return true if the answer came from the strong model.
+     */
+    public boolean isEscalated() {
+        return escalated;
+    }
+
+    /**
+     * @return The time the whole cascade took, in nanoseconds.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CascadeResult{" +
+                "escalated=" + escalated +
+                ", confidence=" + confidence +
+                ", latencyMs=" + latencyNanos / 1_000_000 +
+                '}';
+    }
+}
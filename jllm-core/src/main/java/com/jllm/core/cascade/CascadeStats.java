@@ -0,0 +1,117 @@
+package com.jllm.core.cascade;
+
+import com.jllm.core.metrics.LogLinearHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running statistics of a {@link CascadeClient}, for tuning its confidence threshold.
+ * <p>
+ * A higher threshold escalates more often, which costs the cheap call's latency on top of the strong
+ * one; a lower threshold accepts more cheap answers. The confidence histogram shows how the cheap
+ * model's answers are spread, and {@link #getLatencySaved()} estimates what the cascade has saved
+ * compared to sending every request to the strong model. Updates are lock-free.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class CascadeStats {
+
+    // Confidence is recorded in thousandths so it fits the integer histogram
+    private static final double CONFIDENCE_SCALE = 1000;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+    private final LongAdder cheapFailures = new LongAdder();
+    private final LogLinearHistogram cheapLatency = new LogLinearHistogram();
+    private final LogLinearHistogram strongLatency = new LogLinearHistogram();
+    private final LogLinearHistogram confidence = new LogLinearHistogram();
+
+    CascadeStats() {
+    }
+
+    void recordCheap(long latencyNanos, double confidence) {
+        requests.increment();
+        cheapLatency.record(latencyNanos);
+        this.confidence.record(Math.round(confidence * CONFIDENCE_SCALE));
+    }
+
+    void recordCheapFailure(long latencyNanos) {
+        requests.increment();
+        cheapFailures.increment();
+        cheapLatency.record(latencyNanos);
+    }
+
+    void recordEscalation() {
+        escalations.increment();
+    }
+
+    void recordStrong(long latencyNanos) {
+        strongLatency.record(latencyNanos);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getEscalations() {
+        return escalations.sum();
+    }
+
+    /**
+     * @return The number of cheap calls that failed outright and were escalated.
+     */
+    public long getCheapFailures() {
+        return cheapFailures.sum();
+    }
+
+    /**
+     * @return The share of requests answered by the strong model, between 0 and 1.
+     */
+    public double getEscalationRate() {
+        long total = requests.sum();
+        return total == 0 ? 0 : (double) escalations.sum() / total;
+    }
+
+    public LogLinearHistogram getCheapLatency() {
+        return cheapLatency;
+    }
+
+    public LogLinearHistogram getStrongLatency() {
+        return strongLatency;
+    }
+
+    /**
+     * @return The confidence of the cheap answers, in thousandths (850 means 0.85).
+     */
+    public LogLinearHistogram getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Estimates the latency saved compared to sending every request straight to the strong model,
+     * taking the mean latency of its escalated calls as what every request would have taken. Each
+     * accepted request saves that mean minus its cheap call; each escalated one loses its cheap call.
+     *
+     * @return The estimated total saving, negative if the cascade cost time; zero until a request was escalated.
+     */
+    public Duration getLatencySaved() {
+        if (strongLatency.getCount() == 0) {
+            return Duration.ZERO;
+        }
+        long accepted = requests.sum() - escalations.sum();
+        double saved = accepted * strongLatency.getMean() - cheapLatency.getSum();
+        return Duration.ofNanos(Math.round(saved));
+    }
+
+    @Override
+    public String toString() {
+        return "CascadeStats{" +
+                "requests=" + getRequests() +
+                ", escalationRate=" + getEscalationRate() +
+                ", latencySaved=" + getLatencySaved() +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.jllm.core.cascade;
+
+import com.jllm.core.model.LogProb;
+
+import java.util.List;
+
+/**
+ * Turns the token log probabilities of a response into a confidence between 0 and 1.
+ * <p>
+ * A response without log probabilities has confidence 0, so a cascade always escalates it rather
+ * than trusting an answer it cannot judge.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public enum ConfidenceMeasure {
+
+    /**
+     * The mean probability of the generated tokens. Tolerates the odd uncertain token in an
+     * otherwise confident answer.
+     */
+    MEAN_PROBABILITY {
+        @Override
+        public double of(List<LogProb> logProbs) {
+            if (logProbs == null || logProbs.isEmpty()) {
+                return 0;
+            }
+            double sum = 0;
+            for (LogProb logProb : logProbs) {
+                sum += Math.exp(logProb.getLogProb());
+            }
+            return sum / logProbs.size();
+        }
+    },
+
+    /**
+     * The probability of the least likely token. Stricter: a single guess anywhere in the answer,
+     * such as a made-up number, is enough to escalate.
+     */
+    MIN_PROBABILITY {
+        @Override
+        public double of(List<LogProb> logProbs) {
+            if (logProbs == null || logProbs.isEmpty()) {
+                return 0;
+            }
+            double min = 0;
+            for (LogProb logProb : logProbs) {
+                min = Math.min(min, logProb.getLogProb());
+            }
+            return Math.exp(min);
+        }
+    };
+
+    /**
+     * @param logProbs The token log probabilities of a response, possibly null.
+     * @return The confidence in the response, between 0 and 1.
+     */
+    public abstract double of(List<LogProb> logProbs);
+}
@@ -1,20 +1,60 @@
 package com.jllm.core.client;
 
+import com.jllm.core.accounting.UsageAccountant;
 
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.intercept.Interceptor;
+import com.jllm.core.intercept.Pipeline;
+import com.jllm.core.intercept.RateLimitInterceptor;
+import com.jllm.core.intercept.RetryInterceptor;
+import com.jllm.core.intercept.StreamInterceptor;
+import com.jllm.core.jfr.RequestEvent;
+import com.jllm.core.metrics.MetricsRecorder;
 import com.jllm.core.model.PromptRequest;
 import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.HttpStreamingProvider;
 import com.jllm.core.provider.Provider;
 import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.quota.TokenQuotaManager;
 import com.jllm.core.rate.RateLimiter;
 import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.schedule.RequestScheduler;
+import com.jllm.core.stream.CancellableStreamingListener;
+import com.jllm.core.stream.CoalescingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.stream.StreamStats;
+import com.jllm.core.stream.StreamTimers;
+import com.jllm.core.stream.StreamWatchdog;
+import com.jllm.core.stream.match.AhoCorasickMatcher;
+import com.jllm.core.stream.match.PatternFilteringListener;
+import com.jllm.core.stream.nio.NioStreamingEngine;
+import com.jllm.core.stream.nio.StreamExchange;
+import com.jllm.core.time.Deadline;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Single entry point for synchronous and streaming LLM calls.
  * Immutable and thread-safe.
  * <p>
+ * A {@code send} runs through a chain of {@link Interceptor}s assembled when the client is built: the
+ * {@link Builder#interceptor configured} ones, then quota and scheduling, rate limiting, metrics and
+ * retry, and finally the provider. Streams run through a chain of {@link StreamInterceptor}s built the
+ * same way: the configured ones, then the listener wrapping, quota and scheduling, rate limiting, metrics
+ * and retry. Streams on a {@link Builder#streamingEngine streaming engine} are admitted by the same
+ * stages but retried on a timer, as their exchange does not block a thread.
+ * </p>
+ * <p>
  * Author: @Noro
  */
 public final class LLMClient {
@@ -22,47 +62,449 @@ public final class LLMClient {
     private final com.jllm.core.provider.Provider provider;
     private final String model;
     private final RetryPolicy retryPolicy;
-    private final RateLimiter rateLimiter;
+    private final RateLimitInterceptor rateLimit;
+    private final Executor streamExecutor;
+    private final MetricsRecorder metrics;
+    private final UsageAccountant usageAccountant;
+    private final TokenQuotaManager quotaManager;
+    private final RequestScheduler scheduler;
+    private final Duration defaultTimeout;
+    private final NioStreamingEngine streamingEngine;
+    private final String providerName;
+    private final Interceptor.Chain sendChain;
+    private final StreamInterceptor.Chain streamChain;
+    private final boolean engineStreams;
 
     private LLMClient(Builder builder) {
         this.provider = builder.provider;
         this.model = builder.model;
         this.retryPolicy = builder.retryPolicy;
-        this.rateLimiter = builder.rateLimiter;
+        this.metrics = builder.metrics;
+        this.usageAccountant = builder.usageAccountant;
+        this.quotaManager = builder.quotaManager;
+        this.scheduler = builder.scheduler;
+        this.defaultTimeout = builder.defaultTimeout;
+        this.streamingEngine = builder.streamingEngine;
+        this.providerName = providerName(builder.provider);
+        this.streamExecutor = builder.streamExecutor != null
+                ? builder.streamExecutor
+                : DefaultStreamExecutor.INSTANCE;
+        this.rateLimit = new RateLimitInterceptor(builder.rateLimiter, metrics, providerName, model);
+
+        RetryInterceptor retry = new RetryInterceptor(retryPolicy, metrics, providerName, model);
+
+        // configured -> quota and scheduling -> rate limiting -> metrics -> retry -> provider
+        List<Interceptor> stages = new ArrayList<>(builder.interceptors);
+        if (quotaManager != null || scheduler != null) {
+            stages.add(this::admit);
+        }
+        stages.add(rateLimit);
+        stages.add(this::account);
+        stages.add(retry);
+        this.sendChain = Pipeline.chain(stages, request -> provider.execute(request.withModel(model)));
+
+        // configured -> listeners -> quota and scheduling -> rate limiting -> metrics -> retry -> provider
+        List<StreamInterceptor> streamStages = new ArrayList<>(builder.streamInterceptors);
+        streamStages.add(this::prepareStream);
+        if (quotaManager != null || scheduler != null) {
+            streamStages.add(this::admitStream);
+        }
+        streamStages.add(rateLimit);
+        streamStages.add(this::accountStream);
+        streamStages.add(retry);
+        this.streamChain = Pipeline.streamChain(streamStages, this::executeStream);
+        this.engineStreams = streamingEngine != null && provider instanceof HttpStreamingProvider;
     }
 
     /**
      * Send a synchronous prompt request.
+     *
+     * @throws com.jllm.core.exception.QuotaExceededException if the request's user is out of token quota.
+     * @throws DeadlineExceededException if the request's deadline passes before it has finished.
      */
     public PromptResponse send(PromptRequest request) throws InterruptedException, IOException {
         Objects.requireNonNull(request, "PromptRequest cannot be null");
-        rateLimiter.acquire();                                   // token-bucket check
-        return retryPolicy.execute(() -> {
-            try {
-                return provider.execute(
-                        request.withModel(model)
-                );
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        return sendChain.proceed(withDefaultDeadline(request));
+    }
+
+    /**
+     * Checks the quota and waits for the scheduler.
+     */
+    private PromptResponse admit(PromptRequest request, Interceptor.Chain next)
+            throws IOException, InterruptedException {
+        if (quotaManager != null) {
+            quotaManager.check(request);                         // before any network call
+        }
+        if (scheduler == null) {
+            return next.proceed(request);
+        }
+        try (RequestScheduler.Permit permit = scheduler.acquire(request)) {
+            return next.proceed(request);
+        }
+    }
+
+    /**
+     * Records the latency and token usage of the call, from after the rate limiter until the last attempt.
+     */
+    private PromptResponse account(PromptRequest request, Interceptor.Chain next)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        PromptResponse response = null;
+        boolean success = false;
+        try {
+            response = next.proceed(request);
+            success = true;
+            return response;
+        } finally {
+            long latency = System.nanoTime() - start;
+            metrics.recordRequest(providerName, model, latency, success);
+            TokenUsage usage = response != null ? response.getUsage() : null;
+            if (usage != null) {
+                metrics.recordUsage(providerName, model, usage, latency);
+                if (usageAccountant != null) {
+                    usageAccountant.record(request.getUser(), model, usage);
+                }
+                if (quotaManager != null) {
+                    quotaManager.record(request, usage);
+                }
             }
-        });
+        }
+    }
+
+    private PromptRequest withDefaultDeadline(PromptRequest request) {
+        if (defaultTimeout == null || request.getDeadline() != null) {
+            return request;
+        }
+        return request.withDeadline(Deadline.after(defaultTimeout));
     }
 
     /**
      * Send a streaming prompt; tokens delivered via listener.
+     * Blocks until the stream has finished; the listener may stop it early via
+     * {@link StreamingListener#shouldContinue()}.
+     *
+     * @return The handle of the finished stream, holding its usage and delivery statistics.
+     */
+    public StreamHandle sendStream(PromptRequest request, StreamingListener listener) throws InterruptedException {
+        return sendStream(request, listener, StreamOptions.defaults());
+    }
+
+    /**
+     * Send a streaming prompt with per-call stream options (e.g. token coalescing).
+     *
+     * @return The handle of the finished stream, holding its usage and delivery statistics.
      */
-    public void sendStream(PromptRequest request, StreamingListener listener) throws InterruptedException {
+    public StreamHandle sendStream(PromptRequest request, StreamingListener listener, StreamOptions options)
+            throws InterruptedException {
+        StreamHandle handle = new StreamHandle();
+        streamChain.proceed(request, listener, options, handle);
+        return handle;
+    }
+
+    /**
+     * Start a streaming prompt on the stream executor and return immediately.
+     *
+     * @return A handle through which the stream can be cancelled or awaited.
+     */
+    public StreamHandle sendStreamAsync(PromptRequest request, StreamingListener listener) {
+        return sendStreamAsync(request, listener, StreamOptions.defaults());
+    }
+
+    /**
+     * Start a streaming prompt with per-call stream options on the stream executor and return immediately.
+     * With a {@link Builder#streamingEngine streaming engine} and a provider that supports it, the stream
+     * runs on the engine's event loops and the listener is called on those threads.
+     *
+     * @return A handle through which the stream can be cancelled or awaited.
+     */
+    public StreamHandle sendStreamAsync(PromptRequest request, StreamingListener listener, StreamOptions options) {
+        Objects.requireNonNull(request, "PromptRequest cannot be null");
         Objects.requireNonNull(listener, "StreamingListener cannot be null");
-        rateLimiter.acquire();
-        retryPolicy.executeVoid(() -> {
+        Objects.requireNonNull(options, "StreamOptions cannot be null");
+        StreamHandle handle = new StreamHandle();
+        streamExecutor.execute(() -> {
             try {
-                provider.executeStream(
-                        request.withModel(model), listener
-                );
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+                if (engineStreams) {
+                    runEngineStream(request, listener, options, handle);
+                } else {
+                    streamChain.proceed(request, listener, options, handle);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Already reported through the handle
             }
         });
+        return handle;
+    }
+
+    /**
+     * Wraps the caller's listener for cancellation, stop sequences and coalescing, and completes the
+     * handle once the rest of the chain has returned.
+     */
+    private void prepareStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                               StreamHandle handle, StreamInterceptor.Chain next) throws InterruptedException {
+        StreamCall call = new StreamCall(request, listener, options, handle);
+        RuntimeException failure = null;
+        try {
+            next.proceed(call.routed, call.cancellable, options, handle);
+        } catch (InterruptedException e) {
+            handle.complete(call.cancellable.usage(), call.cancellable.stats(), e);
+            throw e;
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        call.finish(failure);
+    }
+
+    /**
+     * Checks the quota and waits for the scheduler, holding its permit until the stream has finished.
+     */
+    private void admitStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                             StreamHandle handle, StreamInterceptor.Chain next) throws InterruptedException {
+        if (quotaManager != null) {
+            quotaManager.check(request);
+        }
+        if (scheduler == null) {
+            next.proceed(request, listener, options, handle);
+            return;
+        }
+        try (RequestScheduler.Permit permit = scheduler.acquire(request)) {
+            next.proceed(request, listener, options, handle);
+        }
+    }
+
+    /**
+     * Watches the stream and records its latency, time to first token and token usage, from after the
+     * rate limiter until the last attempt. A stream cancelled while it was queued is not sent.
+     */
+    private void accountStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                               StreamHandle handle, StreamInterceptor.Chain next) throws InterruptedException {
+        if (handle.isCancelled()) {
+            return;
+        }
+        // the listener built by prepareStream; the stages in between pass it on as is
+        CancellableStreamingListener cancellable = (CancellableStreamingListener) listener;
+        long start = System.nanoTime();
+        StreamWatchdog watchdog = StreamWatchdog.start(handle, cancellable, options, request.getDeadline());
+        RuntimeException failure = null;
+        try {
+            next.proceed(request, cancellable, options, handle);
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+        }
+        recordStream(request, cancellable, start, succeeded(handle, failure));
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void executeStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                               StreamHandle handle) {
+        try {
+            provider.executeStream(request, listener, handle);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs the stream on the streaming engine: only admission (quota, scheduler, rate limiter) takes a
+     * stream executor thread, the exchange itself runs on the engine's event loops.
+     */
+    private void runEngineStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                                 StreamHandle handle) throws InterruptedException {
+        StreamCall call = new StreamCall(request, listener, options, handle);
+        try {
+            call.admit();
+            if (handle.isCancelled()) {
+                call.release();
+                call.finish(null);
+                return;
+            }
+            call.start = System.nanoTime();
+            call.event = RequestEvent.start(providerName, model, true);
+            call.watchdog = StreamWatchdog.start(handle, call.cancellable, options, call.deadline);
+        } catch (InterruptedException e) {
+            call.release();
+            handle.complete(call.cancellable.usage(), call.cancellable.stats(), e);
+            throw e;
+        } catch (RuntimeException e) {
+            call.release();
+            call.finish(e);
+            return;
+        }
+        call.cancellable.onStart();
+        startExchange(call);
+    }
+
+    private void startExchange(StreamCall call) {
+        if (call.attempts++ > 0) {
+            metrics.recordRetry(providerName, model);
+        }
+        HttpStreamingProvider http = (HttpStreamingProvider) provider;
+        try {
+            StreamExchange exchange = streamingEngine.stream(http.streamRequest(call.routed),
+                    http.streamEventHandler(call.cancellable), failure -> exchangeCompleted(call, failure));
+            call.handle.onCancel(exchange::cancel);
+        } catch (IOException | RuntimeException e) {
+            exchangeCompleted(call, e);
+        }
+    }
+
+    /**
+     * Same retry rule as the {@link RetryInterceptor} applies to streams, but the backoff is a timer
+     * instead of a sleeping thread.
+     */
+    private void exchangeCompleted(StreamCall call, Exception error) {
+        if (error != null && !call.handle.isCancelled() && !call.cancellable.hasReceivedTokens()
+                && retryPolicy.shouldRetry(call.attempts, call.deadline)) {
+            StreamTimers.schedule(() -> startExchange(call),
+                    retryPolicy.backoffMillis(call.attempts), TimeUnit.MILLISECONDS);
+            return;
+        }
+        call.release();
+        RuntimeException failure = error == null || error instanceof RuntimeException
+                ? (RuntimeException) error
+                : new RuntimeException(error);
+        boolean success = succeeded(call.handle, failure);
+        long timeToFirstToken = recordStream(call.routed, call.cancellable, call.start, success);
+        call.event.finish(success, call.attempts, call.cancellable.usage(), timeToFirstToken);
+        try {
+            call.finish(failure);
+        } catch (RuntimeException reported) {
+            // Already reported through the handle
+        }
+    }
+
+    /**
+     * Records a stream that got past the rate limiter.
+     *
+     * @return The time to its first token, or 0 if none arrived.
+     */
+    private long recordStream(PromptRequest request, CancellableStreamingListener listener, long start,
+                              boolean success) {
+        listener.finishTokenBurst();
+        TokenUsage usage = listener.usage();
+        long end = System.nanoTime();
+        long firstToken = listener.getFirstTokenNanos();
+        long timeToFirstToken = firstToken != 0 ? firstToken - start : 0;
+        if (firstToken != 0) {
+            metrics.recordTimeToFirstToken(providerName, model, timeToFirstToken);
+        }
+        metrics.recordRequest(providerName, model, end - start, success);
+        // Stream throughput is the decode rate, so it starts with the first token
+        metrics.recordUsage(providerName, model, usage, end - (firstToken != 0 ? firstToken : start));
+        if (listener.hasReceivedTokens()) {                     // partial streams are billed too
+            if (usageAccountant != null) {
+                usageAccountant.record(request.getUser(), model, usage);
+            }
+            if (quotaManager != null) {
+                quotaManager.record(request, usage);
+            }
+        }
+        return timeToFirstToken;
+    }
+
+    /**
+     * A stream stopped at a stop sequence or cancelled by its caller succeeded; one that expired did not.
+     */
+    private static boolean succeeded(StreamHandle handle, RuntimeException failure) {
+        return handle.isStopped() || handle.getExpiry() == null && (failure == null || handle.isCancelled());
+    }
+
+    /**
+     * The listeners and handle of one stream, shared by the blocking and engine paths, and the state the
+     * engine path keeps from admission to completion.
+     */
+    private final class StreamCall {
+        final StreamHandle handle;
+        final StreamOptions options;
+        final PromptRequest routed;
+        final Deadline deadline;
+        final CoalescingStreamingListener coalescing;
+        final CancellableStreamingListener cancellable;
+        int attempts;
+        long start;
+        RequestEvent event;
+        RequestScheduler.Permit permit;
+        StreamWatchdog watchdog;
+
+        StreamCall(PromptRequest request, StreamingListener listener, StreamOptions options, StreamHandle handle) {
+            Objects.requireNonNull(listener, "StreamingListener cannot be null");
+            Objects.requireNonNull(options, "StreamOptions cannot be null");
+            this.handle = handle;
+            this.options = options;
+            // provider -> cancellation -> stop/redaction matching -> coalescing -> caller
+            this.coalescing = options.isCoalescing()
+                    ? new CoalescingStreamingListener(listener, options)
+                    : null;
+            StreamingListener downstream = coalescing != null ? coalescing : listener;
+            AhoCorasickMatcher matcher = options.matcherFor(request.getStopSequences());
+            if (matcher != null) {
+                downstream = new PatternFilteringListener(downstream, matcher, options.getRedactionMask(), handle);
+            }
+            this.routed = withDefaultDeadline(request).withModel(model);
+            this.deadline = routed.getDeadline();
+            this.cancellable = new CancellableStreamingListener(downstream, handle, routed);
+        }
+
+        /**
+         * Checks the quota and waits for the scheduler and the rate limiter, as the stream chain does;
+         * the scheduler's permit is held until the exchange has completed.
+         */
+        void admit() throws InterruptedException {
+            if (quotaManager != null) {
+                quotaManager.check(routed);
+            }
+            if (scheduler != null) {
+                permit = scheduler.acquire(routed);
+            }
+            rateLimit.acquire(deadline);
+        }
+
+        void release() {
+            if (watchdog != null) {
+                watchdog.stop();
+            }
+            if (permit != null) {
+                permit.close();
+            }
+        }
+
+        /**
+         * Completes the handle of the stream.
+         *
+         * @param failure The failure that ended the stream, or null.
+         * @throws RuntimeException the failure, unless the stream was cancelled.
+         */
+        void finish(RuntimeException failure) {
+            StreamStats stats = coalescing != null ? coalescing.stats() : cancellable.stats();
+            TokenUsage usage = cancellable.usage();
+            DeadlineExceededException expiry = handle.getExpiry();
+            if (expiry != null) {
+                failure = expiry;                                // the provider only saw a cancel
+                cancellable.onError(expiry);
+            }
+            if (handle.isStopped()) {
+                failure = null;                                  // only the unwinding after a stop sequence
+            }
+            boolean cancelled = handle.isCancelled() && expiry == null && !handle.isStopped();
+            if (cancelled) {
+                // Errors after a cancel are just the connection being torn down
+                cancellable.onStreamCancelled(usage);
+                handle.complete(usage, stats, null);
+                return;
+            }
+            handle.complete(usage, stats, failure);
+            if (failure != null) {
+                throw failure;
+            }
+        }
     }
 
     /**
@@ -73,6 +515,15 @@ public final class LLMClient {
         private String model;
         private RetryPolicy retryPolicy = RetryPolicy.defaultPolicy();
         private RateLimiter rateLimiter = RateLimiter.createDefault();
+        private Executor streamExecutor;
+        private MetricsRecorder metrics = MetricsRecorder.noop();
+        private UsageAccountant usageAccountant;
+        private TokenQuotaManager quotaManager;
+        private RequestScheduler scheduler;
+        private Duration defaultTimeout;
+        private NioStreamingEngine streamingEngine;
+        private final List<Interceptor> interceptors = new ArrayList<>();
+        private final List<StreamInterceptor> streamInterceptors = new ArrayList<>();
 
         /**
          * Specify which LLM provider to use.
@@ -106,11 +557,93 @@ public final class LLMClient {
             return this;
         }
 
+        /**
+         * Customize the executor running {@code sendStreamAsync} calls (default: shared daemon pool).
+         */
+        public Builder streamExecutor(Executor executor) {
+            this.streamExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Customize where latency, time-to-first-token, rate limiter wait, retries and token
+         * throughput are recorded (default: discarded).
+         */
+        public Builder metrics(MetricsRecorder recorder) {
+            this.metrics = Objects.requireNonNull(recorder, "MetricsRecorder cannot be null");
+            return this;
+        }
+
+        /**
+         * Charge the token usage of every call to its {@link PromptRequest#getUser()} (default: not accounted).
+         */
+        public Builder usageAccountant(UsageAccountant accountant) {
+            this.usageAccountant = accountant;
+            return this;
+        }
+
+        /**
+         * Enforce per-user daily and monthly token quotas (default: none).
+         */
+        public Builder quotaManager(TokenQuotaManager quotas) {
+            this.quotaManager = quotas;
+            return this;
+        }
+
+        /**
+         * Queue calls by priority class and user before they reach the rate limiter (default: none).
+         * A scheduler may be shared by several clients to divide one provider's capacity among them.
+         */
+        public Builder scheduler(RequestScheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Give every request without its own deadline one this long after it is sent (default: none).
+         */
+        public Builder defaultTimeout(Duration timeout) {
+            this.defaultTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Run {@code sendStreamAsync} calls on this engine's event loops instead of a thread per stream,
+         * if the provider is an {@link HttpStreamingProvider} (default: none). The engine is not closed
+         * by the client.
+         */
+        public Builder streamingEngine(NioStreamingEngine engine) {
+            this.streamingEngine = engine;
+            return this;
+        }
+
+        /**
+         * Add a stage to every {@code send}, after the ones added before and ahead of quota and scheduling,
+         * rate limiting, metrics and retry (default: none).
+         */
+        public Builder interceptor(Interceptor interceptor) {
+            this.interceptors.add(Objects.requireNonNull(interceptor, "Interceptor cannot be null"));
+            return this;
+        }
+
+        /**
+         * Add a stage around every stream, after the ones added before and ahead of quota and scheduling,
+         * rate limiting, metrics and retry (default: none). Cannot be combined with a
+         * {@link #streamingEngine streaming engine}, whose exchanges return before the stream has finished.
+         */
+        public Builder streamInterceptor(StreamInterceptor interceptor) {
+            this.streamInterceptors.add(Objects.requireNonNull(interceptor, "StreamInterceptor cannot be null"));
+            return this;
+        }
+
         /**
          * Build the immutable LLMClient instance.
          */
         public LLMClient build() {
             Objects.requireNonNull(model, "Model must be set");
+            if (streamingEngine != null && !streamInterceptors.isEmpty()) {
+                throw new IllegalStateException("Stream interceptors cannot be combined with a streaming engine");
+            }
             return new LLMClient(this);
         }
     }
@@ -121,4 +654,23 @@ public final class LLMClient {
     public static Builder builder() {
         return new Builder();
     }
+
+    private static String providerName(Provider provider) {
+        if (provider == null) {
+            return null;
+        }
+        String name = provider.getName();
+        return name != null ? name : provider.getClass().getSimpleName();
+    }
+
+    /**
+     * Lazily created shared pool for async streams; daemon threads so it never blocks JVM exit.
+     */
+    private static final class DefaultStreamExecutor {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "jllm-stream");
+            t.setDaemon(true);
+            return t;
+        });
+    }
 }
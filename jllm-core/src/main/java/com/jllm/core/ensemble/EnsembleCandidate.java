@@ -0,0 +1,65 @@
+package com.jllm.core.ensemble;
+
+import com.jllm.core.model.PromptResponse;
+
+/**
+ * The outcome of one ensemble member: either its response or the error it failed with.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class EnsembleCandidate {
+
+    private final String member;
+    private final PromptResponse response;
+    private final Exception error;
+    private final long latencyNanos;
+
+    EnsembleCandidate(String member, PromptResponse response, Exception error, long latencyNanos) {
+        this.member = member;
+        this.response = response;
+        this.error = error;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * @return The name the member was registered under.
+     */
+    public String getMember() {
+        return member;
+    }
+
+    /**
+     * @return The member's response, or null if it failed.
+     */
+    public PromptResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The error the member failed with, or null if it succeeded.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return The time from dispatch until the member finished, in nanoseconds.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleCandidate{" +
+                "member='" + member + '\'' +
+                ", success=" + isSuccess() +
+                ", latencyMs=" + latencyNanos / 1_000_000 +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+package com.jllm.core.ensemble;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.exception.LLMException;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.time.Deadline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends one prompt to several models at once and picks an answer with an {@link EnsembleStrategy}.
+ * <p>
+ * Each member is an {@link LLMClient}, i.e. a model on a provider with its own rate limiter and
+ * retry policy. {@link #send} forks one call per member and joins them in completion order, asking the
+ * strategy after each one whether the outcome is decided. Once it is, the members still running are
+ * cancelled by interrupting them, whether {@code send} returns, throws or is interrupted.
+ * </p>
+ * <p>
+ * Interrupting stops a member's rate-limiter wait, retry backoff and any interruptible I/O, but a
+ * provider blocked reading a response over {@link java.net.HttpURLConnection} does not notice it: that
+ * call keeps its pool thread until the read completes or its read timeout fires, and its response is
+ * discarded. {@code send} does not wait for such calls, so it returns on time, but the losing members'
+ * requests may still be billed. Use a {@link Builder#executor(ExecutorService) bounded executor} or
+ * short provider timeouts where that matters.
+ * </p>
+ * <p>
+ * The request's deadline, if any, bounds the whole call.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     EnsembleClient ensemble = EnsembleClient.builder()
+ *         .member("gpt-4o", gpt4o)
+ *         .member("claude", claude)
+ *         .member("llama", llama)
+ *         .strategy(EnsembleStrategy.majorityVote())
+ *         .build();
+ *     PromptResponse answer = ensemble.send(request).getResponse();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class EnsembleClient {
+
+    private final Map<String, LLMClient> members;
+    private final EnsembleStrategy strategy;
+    private final ExecutorService executor;
+
+    private EnsembleClient(Builder builder) {
+        this.members = Collections.unmodifiableMap(new LinkedHashMap<>(builder.members));
+        this.strategy = builder.strategy;
+        this.executor = builder.executor != null ? builder.executor : DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Sends the request to every member and returns once the strategy has picked a winner.
+     *
+     * @return The winner and the candidates that finished before it was picked.
+     * @throws LLMException              if no member produced an acceptable response; the members'
+     *                                   errors are attached as suppressed exceptions.
+     * @throws DeadlineExceededException if the request's deadline passes before a winner is picked.
+     * @throws InterruptedException      if the calling thread is interrupted while waiting.
+     */
+    public EnsembleResult send(PromptRequest request) throws InterruptedException {
+        Objects.requireNonNull(request, "PromptRequest cannot be null");
+        CompletionService<EnsembleCandidate> completion = new ExecutorCompletionService<>(executor);
+        List<Future<EnsembleCandidate>> running = new ArrayList<>(members.size());
+        long start = System.nanoTime();
+        try {
+            for (Map.Entry<String, LLMClient> member : members.entrySet()) {
+                running.add(completion.submit(() -> call(member.getKey(), member.getValue(), request, start)));
+            }
+            Deadline deadline = request.getDeadline();
+            List<EnsembleCandidate> finished = new ArrayList<>(running.size());
+            while (finished.size() < running.size()) {
+                Future<EnsembleCandidate> done = deadline == null
+                        ? completion.take()
+                        : completion.poll(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new DeadlineExceededException("No ensemble member was chosen before the deadline");
+                }
+                finished.add(outcome(done));
+                int pending = running.size() - finished.size();
+                EnsembleCandidate winner = strategy.select(Collections.unmodifiableList(finished), pending);
+                if (winner != null) {
+                    return new EnsembleResult(winner, finished, pending);
+                }
+            }
+            LLMException failure = new LLMException("No ensemble member produced an acceptable response");
+            for (EnsembleCandidate candidate : finished) {
+                if (!candidate.isSuccess()) {
+                    failure.addSuppressed(candidate.getError());
+                }
+            }
+            throw failure;
+        } finally {
+            for (Future<EnsembleCandidate> call : running) {
+                call.cancel(true);                               // interrupts; blocking HTTP reads run to completion
+            }
+        }
+    }
+
+    private static EnsembleCandidate call(String name, LLMClient client, PromptRequest request, long start) {
+        try {
+            PromptResponse response = client.send(request);
+            return new EnsembleCandidate(name, response, null, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new EnsembleCandidate(name, null, e, System.nanoTime() - start);
+        } catch (Exception e) {
+            return new EnsembleCandidate(name, null, e, System.nanoTime() - start);
+        }
+    }
+
+    private static EnsembleCandidate outcome(Future<EnsembleCandidate> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            throw new LLMException("Ensemble member failed unexpectedly", e.getCause());
+        }
+    }
+
+    /**
+     * @return The member names, in registration order.
+     */
+    public List<String> getMembers() {
+        return List.copyOf(members.keySet());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private final Map<String, LLMClient> members = new LinkedHashMap<>();
+        private EnsembleStrategy strategy = EnsembleStrategy.firstSuccess();
+        private ExecutorService executor;
+
+        /**
+         * Adds a member under a unique name.
+         */
+        public Builder member(String name, LLMClient client) {
+            Objects.requireNonNull(name, "name cannot be null");
+            Objects.requireNonNull(client, "client cannot be null");
+            if (members.putIfAbsent(name, client) != null) {
+                throw new IllegalArgumentException("Duplicate ensemble member: " + name);
+            }
+            return this;
+        }
+
+        /**
+         * How the winner is picked (default: {@link EnsembleStrategy#firstSuccess()}).
+         */
+        public Builder strategy(EnsembleStrategy strategy) {
+            this.strategy = Objects.requireNonNull(strategy, "strategy cannot be null");
+            return this;
+        }
+
+        /**
+         * Runs member calls on the given executor instead of the shared daemon pool.
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public EnsembleClient build() {
+            if (members.isEmpty()) {
+                throw new IllegalStateException("An ensemble needs at least one member");
+            }
+            return new EnsembleClient(this);
+        }
+    }
+
+    private static final class DefaultExecutor {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "jllm-ensemble");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
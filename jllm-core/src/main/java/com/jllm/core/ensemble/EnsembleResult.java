@@ -0,0 +1,59 @@
+package com.jllm.core.ensemble;
+
+import com.jllm.core.model.PromptResponse;
+
+import java.util.List;
+
+/**
+ * The outcome of an ensemble call: the winning candidate and every candidate that had finished when
+ * the outcome was decided.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class EnsembleResult {
+
+    private final EnsembleCandidate winner;
+    private final List<EnsembleCandidate> finished;
+    private final int cancelled;
+
+    EnsembleResult(EnsembleCandidate winner, List<EnsembleCandidate> finished, int cancelled) {
+        this.winner = winner;
+        this.finished = List.copyOf(finished);
+        this.cancelled = cancelled;
+    }
+
+    public EnsembleCandidate getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return The winner's response.
+     */
+    public PromptResponse getResponse() {
+        return winner.getResponse();
+    }
+
+    /**
+     * @return The candidates finished before the outcome was decided, in completion order.
+     */
+    public List<EnsembleCandidate> getFinished() {
+        return finished;
+    }
+
+    /**
+     * @return The number of members cancelled because the outcome was decided without them.
+     */
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleResult{" +
+                "winner=" + winner.getMember() +
+                ", finished=" + finished.size() +
+                ", cancelled=" + cancelled +
+                '}';
+    }
+}
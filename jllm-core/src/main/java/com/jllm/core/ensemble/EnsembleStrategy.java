@@ -0,0 +1,118 @@
+package com.jllm.core.ensemble;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptResponse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Decides which member of an ensemble wins.
+ * <p>
+ * The strategy is consulted every time a member finishes, with all candidates finished so far in
+ * completion order. As soon as it names a winner the remaining members are cancelled, so strategies
+ * that can decide early (first success, a majority already reached) save the cost of the slower calls.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public interface EnsembleStrategy {
+
+    /**
+     * @param finished The candidates finished so far, in completion order.
+     * @param pending  The number of members still running.
+     * @return The winning candidate, or null to wait for more members. Once {@code pending} is 0,
+     * null means that no member produced an acceptable response.
+     */
+    EnsembleCandidate select(List<EnsembleCandidate> finished, int pending);
+
+    /**
+     * The first member to succeed wins.
+     */
+    static EnsembleStrategy firstSuccess() {
+        return firstPassing(response -> true);
+    }
+
+    /**
+     * The first member whose response passes the check wins.
+     */
+    static EnsembleStrategy firstPassing(Predicate<PromptResponse> check) {
+        Objects.requireNonNull(check, "check cannot be null");
+        return (finished, pending) -> {
+            EnsembleCandidate latest = finished.get(finished.size() - 1);
+            return latest.isSuccess() && check.test(latest.getResponse()) ? latest : null;
+        };
+    }
+
+    /**
+     * The answer given by most members wins, comparing texts after trimming, lower-casing and
+     * collapsing whitespace. The outcome is decided as soon as one answer has a strict majority of all
+     * members; otherwise the most frequent answer wins once every member has finished, ties going to
+     * the answer that was given first. Responses without text, e.g. tool calls only, do not vote.
+     */
+    static EnsembleStrategy majorityVote() {
+        return (finished, pending) -> {
+            int total = finished.size() + pending;
+            Map<String, Integer> votes = new HashMap<>();
+            EnsembleCandidate best = null;
+            int bestVotes = 0;
+            for (EnsembleCandidate candidate : finished) {
+                if (!candidate.isSuccess() || candidate.getResponse().getText() == null) {
+                    continue;
+                }
+                int count = votes.merge(normalize(candidate.getResponse().getText()), 1, Integer::sum);
+                if (count > bestVotes) {
+                    best = candidate;
+                    bestVotes = count;
+                }
+            }
+            return bestVotes * 2 > total || pending == 0 ? best : null;
+        };
+    }
+
+    /**
+     * The response with the highest mean token log probability wins. Every member has to finish;
+     * responses without log probabilities are only chosen if no member returned any.
+     */
+    static EnsembleStrategy highestMeanLogProb() {
+        return (finished, pending) -> {
+            if (pending > 0) {
+                return null;
+            }
+            EnsembleCandidate best = null;
+            double bestMean = Double.NEGATIVE_INFINITY;
+            for (EnsembleCandidate candidate : finished) {
+                if (!candidate.isSuccess()) {
+                    continue;
+                }
+                double mean = meanLogProb(candidate.getResponse());
+                if (best == null || mean > bestMean) {
+                    best = candidate;
+                    bestMean = mean;
+                }
+            }
+            return best;
+        };
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static double meanLogProb(PromptResponse response) {
+        List<LogProb> logProbs = response.getLogProbs();
+        if (logProbs == null || logProbs.isEmpty()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double sum = 0;
+        for (LogProb logProb : logProbs) {
+            sum += logProb.getLogProb();
+        }
+        return sum / logProbs.size();
+    }
+}
@@ -0,0 +1,21 @@
+package com.jllm.core.exception;
+
+/**
+ * Thrown when a provider's concurrency limit is reached and no permit became free within the
+ * allowed wait.
+ * <p>
+ * It is a {@link ProviderNotAvailableException}, so a router holding several providers fails the
+ * request over to the next one instead of queuing behind an overloaded provider.
+ * </p>
+ * author: @Noro
+ * version: 1.0
+ */
+public class ConcurrencyLimitExceededException extends ProviderNotAvailableException {
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+
+    public ConcurrencyLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
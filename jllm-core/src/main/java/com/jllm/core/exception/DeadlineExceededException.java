@@ -0,0 +1,21 @@
+package com.jllm.core.exception;
+
+/**
+ * Thrown when a request cannot finish before its deadline, or a stream stays silent for longer than
+ * its first-token or idle timeout.
+ * <p>
+ * Requests whose deadline has passed are dropped before they take a rate-limit permit, and are not
+ * retried: the caller has already given up on them.
+ * </p>
+ * author: @Noro
+ * version: 1.0
+ */
+public class DeadlineExceededException extends LLMException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
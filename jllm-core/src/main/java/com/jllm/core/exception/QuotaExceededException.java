@@ -0,0 +1,20 @@
+package com.jllm.core.exception;
+
+/**
+ * Thrown when a tenant has used up its token quota for the current day or month.
+ * <p>
+ * Unlike {@link RateLimitException} this is not transient within seconds: retrying only helps
+ * once the quota period rolls over or the tenant's limit is raised.
+ * </p>
+ * author: @Noro
+ * version: 1.0
+ */
+public class QuotaExceededException extends LLMException {
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+
+    public QuotaExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
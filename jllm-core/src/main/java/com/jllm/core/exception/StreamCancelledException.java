@@ -0,0 +1,20 @@
+package com.jllm.core.exception;
+
+/**
+ * Thrown to unwind a provider's streaming loop once the stream has been cancelled.
+ * <p>
+ * The client catches this exception itself; callers observe a cancelled stream through
+ * the {@code StreamHandle} and {@code StreamingListener#onStreamCancelled} instead.
+ * </p>
+ * author: @Noro
+ * version: 1.0
+ */
+public class StreamCancelledException extends LLMException {
+    public StreamCancelledException(String message) {
+        super(message);
+    }
+
+    public StreamCancelledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jllm.core.intercept;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+
+import java.io.IOException;
+
+/**
+ * A stage of the synchronous call path of an {@code LLMClient}: it sees the request on the way to the
+ * provider and the response on the way back, and decides whether and how to pass it on.
+ * <p>
+ * Interceptors are given to {@code LLMClient.Builder#interceptor} and run once per {@code send}, in the
+ * order they were added, before the client's own stages (quota and scheduling, rate limiting,
+ * metrics, retry). An interceptor may answer without calling {@code next} (e.g. from a cache), change
+ * the request, or inspect and replace the response.
+ * </p>
+ * <p>
+ * The stages are linked into a fixed chain when the client is built, so a call runs straight through
+ * them without looking anything up. Implementations must be thread-safe.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     Interceptor logging = (request, next) -&gt; {
+ *         PromptResponse response = next.proceed(request);
+ *         log.info("{} tokens", response.getUsage().getTotalTokens());
+ *         return response;
+ *     };
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface Interceptor {
+
+    /**
+     * @param request The request as it reaches this stage.
+     * @param next    The rest of the chain, down to the provider.
+     * @return The response to hand back to the previous stage.
+     */
+    PromptResponse intercept(PromptRequest request, Chain next) throws IOException, InterruptedException;
+
+    /**
+     * The stages after an interceptor, bound when the chain is assembled.
+     */
+    @FunctionalInterface
+    interface Chain {
+
+        /**
+         * Passes the request on to the next stage and returns its response.
+         */
+        PromptResponse proceed(PromptRequest request) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jllm.core.intercept;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Assembles interceptors into a chain once, ahead of the calls.
+ * <p>
+ * Each interceptor is bound to the stage after it in a small immutable link, and the links are nested
+ * from the terminal stage outwards. A call then goes from link to link through plain method calls:
+ * nothing is iterated, looked up or allocated per call, and a chain without interceptors is the
+ * terminal itself.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class Pipeline {
+
+    private Pipeline() {
+    }
+
+    /**
+     * @param interceptors The stages, outermost first.
+     * @param terminal     The last stage, e.g. the call to the provider.
+     * @return The entry point of the chain.
+     */
+    public static Interceptor.Chain chain(List<? extends Interceptor> interceptors, Interceptor.Chain terminal) {
+        Objects.requireNonNull(terminal, "terminal cannot be null");
+        Interceptor.Chain next = terminal;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            next = new Link(Objects.requireNonNull(interceptors.get(i), "interceptor cannot be null"), next);
+        }
+        return next;
+    }
+
+    /**
+     * @param interceptors The stages, outermost first.
+     * @param terminal     The last stage, e.g. running the stream.
+     * @return The entry point of the chain.
+     */
+    public static StreamInterceptor.Chain streamChain(List<? extends StreamInterceptor> interceptors,
+                                                      StreamInterceptor.Chain terminal) {
+        Objects.requireNonNull(terminal, "terminal cannot be null");
+        StreamInterceptor.Chain next = terminal;
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            next = new StreamLink(Objects.requireNonNull(interceptors.get(i), "interceptor cannot be null"), next);
+        }
+        return next;
+    }
+
+    private static final class Link implements Interceptor.Chain {
+        private final Interceptor interceptor;
+        private final Interceptor.Chain next;
+
+        Link(Interceptor interceptor, Interceptor.Chain next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public PromptResponse proceed(PromptRequest request) throws IOException, InterruptedException {
+            return interceptor.intercept(request, next);
+        }
+    }
+
+    private static final class StreamLink implements StreamInterceptor.Chain {
+        private final StreamInterceptor interceptor;
+        private final StreamInterceptor.Chain next;
+
+        StreamLink(StreamInterceptor interceptor, StreamInterceptor.Chain next) {
+            this.interceptor = interceptor;
+            this.next = next;
+        }
+
+        @Override
+        public void proceed(PromptRequest request, StreamingListener listener, StreamOptions options,
+                            StreamHandle handle) throws InterruptedException {
+            interceptor.interceptStream(request, listener, options, handle, next);
+        }
+    }
+}
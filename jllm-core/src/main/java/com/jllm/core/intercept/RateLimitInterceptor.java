@@ -0,0 +1,84 @@
+package com.jllm.core.intercept;
+
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.jfr.RateLimiterWaitEvent;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.time.Deadline;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate limiting stage of an {@code LLMClient}: takes a permit of the {@link RateLimiter} before
+ * passing the request or stream on, and records the wait as a metric and a {@link RateLimiterWaitEvent}.
+ * <p>
+ * A request with a deadline waits at most until the deadline and then fails with
+ * {@link DeadlineExceededException}; one without a deadline waits as long as the limiter needs.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class RateLimitInterceptor implements Interceptor, StreamInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final MetricsRecorder metrics;
+    private final String providerName;
+    private final String model;
+
+    /**
+     * @param rateLimiter  The limiter to take permits from.
+     * @param metrics      Where the wait is recorded.
+     * @param providerName The provider name the wait is recorded under.
+     * @param model        The model name the wait is recorded under.
+     */
+    public RateLimitInterceptor(RateLimiter rateLimiter, MetricsRecorder metrics, String providerName, String model) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+        this.metrics = Objects.requireNonNull(metrics, "metrics cannot be null");
+        this.providerName = providerName;
+        this.model = model;
+    }
+
+    @Override
+    public PromptResponse intercept(PromptRequest request, Interceptor.Chain next)
+            throws IOException, InterruptedException {
+        acquire(request.getDeadline());
+        return next.proceed(request);
+    }
+
+    @Override
+    public void interceptStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                                StreamHandle handle, StreamInterceptor.Chain next) throws InterruptedException {
+        acquire(request.getDeadline());
+        next.proceed(request, listener, options, handle);
+    }
+
+    /**
+     * Takes a permit, giving up without one if it would not arrive before the deadline. Also used by
+     * streams on a streaming engine, which are admitted before their exchange starts.
+     *
+     * @param deadline The deadline of the request, or null for none.
+     * @throws DeadlineExceededException if the deadline passes first.
+     */
+    public void acquire(Deadline deadline) throws InterruptedException {
+        long queued = System.nanoTime();
+        RateLimiterWaitEvent wait = RateLimiterWaitEvent.start(providerName, model);
+        if (deadline == null) {
+            rateLimiter.acquire();
+        } else {
+            deadline.check("acquiring a rate-limit permit");
+            if (!rateLimiter.tryAcquire(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException("No rate-limit permit available before the deadline");
+            }
+        }
+        wait.finish();
+        metrics.recordRateLimiterWait(providerName, model, System.nanoTime() - queued);
+    }
+}
@@ -0,0 +1,188 @@
+package com.jllm.core.intercept;
+
+import com.jllm.core.jfr.RequestEvent;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.time.Deadline;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The retry stage of an {@code LLMClient}: runs the rest of the chain under a {@link RetryPolicy},
+ * within the request's deadline if it has one.
+ * <p>
+ * Every attempt after the first is recorded as a retry, and the call as a whole as a
+ * {@link RequestEvent} with its number of attempts. An {@link IOException} from the provider is
+ * wrapped in a {@link RuntimeException} so that the policy can retry it; once the retries are
+ * exhausted, that is what the caller gets.
+ * </p>
+ * <p>
+ * A stream is only retried while nothing has been delivered and its handle is not cancelled:
+ * retrying after the first token would replay it, and a cancelled stream must stay stopped.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class RetryInterceptor implements Interceptor, StreamInterceptor {
+
+    private final RetryPolicy retryPolicy;
+    private final MetricsRecorder metrics;
+    private final String providerName;
+    private final String model;
+
+    /**
+     * @param retryPolicy  The policy deciding whether and when to try again.
+     * @param metrics      Where retries are recorded.
+     * @param providerName The provider name retries and events are recorded under.
+     * @param model        The model name retries and events are recorded under.
+     */
+    public RetryInterceptor(RetryPolicy retryPolicy, MetricsRecorder metrics, String providerName, String model) {
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy cannot be null");
+        this.metrics = Objects.requireNonNull(metrics, "metrics cannot be null");
+        this.providerName = providerName;
+        this.model = model;
+    }
+
+    @Override
+    public PromptResponse intercept(PromptRequest request, Interceptor.Chain next) throws InterruptedException {
+        Deadline deadline = request.getDeadline();
+        Attempts attempts = new Attempts(request, next);        // the policy's task, counting the attempts
+        RequestEvent event = RequestEvent.start(providerName, model, false);
+        PromptResponse response = null;
+        boolean success = false;
+        try {
+            response = deadline == null ? retryPolicy.execute(attempts) : retryPolicy.execute(attempts, deadline);
+            success = true;
+            return response;
+        } finally {
+            event.finish(success, attempts.count, response != null ? response.getUsage() : null, 0);
+        }
+    }
+
+    @Override
+    public void interceptStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                                StreamHandle handle, StreamInterceptor.Chain next) throws InterruptedException {
+        Deadline deadline = request.getDeadline();
+        StreamAttempts attempts = new StreamAttempts(request, listener, options, handle, next);
+        RequestEvent event = RequestEvent.start(providerName, model, true);
+        RuntimeException failure = null;
+        try {
+            if (deadline == null) {
+                retryPolicy.executeVoid(attempts);
+            } else {
+                retryPolicy.executeVoid(attempts, deadline);
+            }
+            failure = attempts.failure;
+        } catch (RuntimeException e) {
+            failure = e;                                         // retries exhausted
+        } finally {
+            // A stream stopped or cancelled by its caller succeeded; one that expired did not
+            boolean success = handle.isStopped()
+                    || handle.getExpiry() == null && (failure == null || handle.isCancelled());
+            event.finish(success, attempts.count, attempts.usage,
+                    attempts.firstToken != 0 ? attempts.firstToken - attempts.start : 0);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * One call's task for the policy, counting the attempts.
+     */
+    private final class Attempts implements Supplier<PromptResponse> {
+        private final PromptRequest request;
+        private final Interceptor.Chain next;
+        private int count;
+
+        Attempts(PromptRequest request, Interceptor.Chain next) {
+            this.request = request;
+            this.next = next;
+        }
+
+        @Override
+        public PromptResponse get() {
+            if (count++ > 0) {
+                metrics.recordRetry(providerName, model);
+            }
+            try {
+                return next.proceed(request);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * One stream's task for the policy: counts the attempts and notes the first token and the reported
+     * usage on the way to the listener. A failure that must not be retried is kept instead of thrown.
+     */
+    private final class StreamAttempts extends ForwardingStreamingListener implements Runnable {
+        private final PromptRequest request;
+        private final StreamOptions options;
+        private final StreamHandle handle;
+        private final StreamInterceptor.Chain next;
+        private final long start = System.nanoTime();
+        private int count;
+        private long firstToken;
+        private TokenUsage usage;
+        private RuntimeException failure;
+
+        StreamAttempts(PromptRequest request, StreamingListener listener, StreamOptions options,
+                       StreamHandle handle, StreamInterceptor.Chain next) {
+            super(listener);
+            this.request = request;
+            this.options = options;
+            this.handle = handle;
+            this.next = next;
+        }
+
+        @Override
+        public void run() {
+            if (count++ > 0) {
+                metrics.recordRetry(providerName, model);
+            }
+            try {
+                next.proceed(request, this, options, handle);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (RuntimeException e) {
+                if (handle.isCancelled() || firstToken != 0) {
+                    failure = e;
+                    return;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            if (firstToken == 0) {
+                firstToken = System.nanoTime();
+            }
+            super.onTokenReceived(token);
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+            if (response != null) {
+                usage = response.getUsage();
+            }
+            super.onStreamCompleted(response, error);
+        }
+    }
+}
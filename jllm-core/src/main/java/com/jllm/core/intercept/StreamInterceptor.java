@@ -0,0 +1,50 @@
+package com.jllm.core.intercept;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+
+/**
+ * A stage of the streaming call path of an {@code LLMClient}, the counterpart of {@link Interceptor}
+ * for {@code sendStream} and {@code sendStreamAsync}.
+ * <p>
+ * Stream interceptors run once per stream, in the order they were added, around the whole stream:
+ * {@code next.proceed} admits it (quota, scheduling, rate limiting), runs it with retries, and returns
+ * once it has finished and its handle is complete. An interceptor may wrap the listener to observe or
+ * change the tokens, change the request or options, or serve the stream itself.
+ * </p>
+ * <p>
+ * Failures reach an interceptor the way they reach the caller: through the handle, and as the
+ * {@link RuntimeException} thrown by {@code next.proceed}.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface StreamInterceptor {
+
+    /**
+     * @param request  The request as it reaches this stage.
+     * @param listener The listener the stream's callbacks go to.
+     * @param options  The stream options of the call.
+     * @param handle   The handle of the stream, shared by all stages.
+     * @param next     The rest of the chain, down to the provider.
+     */
+    void interceptStream(PromptRequest request, StreamingListener listener, StreamOptions options,
+                         StreamHandle handle, Chain next) throws InterruptedException;
+
+    /**
+     * The stages after a stream interceptor, bound when the chain is assembled.
+     */
+    @FunctionalInterface
+    interface Chain {
+
+        /**
+         * Runs the stream through the next stage; returns once it has finished.
+         */
+        void proceed(PromptRequest request, StreamingListener listener, StreamOptions options, StreamHandle handle)
+                throws InterruptedException;
+    }
+}
@@ -0,0 +1,94 @@
+package com.jllm.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one HTTP request/response, split into connect time and time to first byte.
+ * The query string is dropped from the recorded URL since it may carry credentials.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Name("com.jllm.HttpExchange")
+@Label("LLM HTTP Exchange")
+@Category({"JLLM", "HTTP"})
+@Description("An HTTP request to an LLM API")
+@StackTrace(false)
+public final class HttpExchangeEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URL")
+    String url;
+
+    @Label("Status")
+    int status;
+
+    @Label("Connect Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectTime;
+
+    @Label("Time To First Byte")
+    @Description("From sending the request until the response headers arrived")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToFirstByte;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    private transient long mark;
+
+    public static HttpExchangeEvent start(String method, String url) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        if (event.isEnabled()) {
+            event.method = method;
+            int query = url.indexOf('?');
+            event.url = query < 0 ? url : url.substring(0, query);
+            event.begin();
+            event.mark = System.nanoTime();
+        }
+        return event;
+    }
+
+    /**
+     * The connection is established; the request is about to be written.
+     */
+    public void connected() {
+        if (mark != 0) {
+            long now = System.nanoTime();
+            connectTime = now - mark;
+            mark = now;
+        }
+    }
+
+    /**
+     * The response status line and headers were received.
+     */
+    public void firstByte(int status, long requestBytes) {
+        this.status = status;
+        this.requestBytes = requestBytes;
+        if (mark != 0) {
+            timeToFirstByte = System.nanoTime() - mark;
+        }
+    }
+
+    public void finish(long responseBytes) {
+        end();
+        if (shouldCommit()) {
+            this.responseBytes = responseBytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jllm.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for a request held back by the client's rate limiter. Only waits of at least 1 ms are
+ * recorded by default, so an idle limiter adds nothing to a recording.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Name("com.jllm.RateLimiterWait")
+@Label("LLM Rate Limiter Wait")
+@Category({"JLLM", "Client"})
+@Description("Time a request spent waiting for a rate limiter permit")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class RateLimiterWaitEvent extends jdk.jfr.Event {
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Model")
+    String model;
+
+    public static RateLimiterWaitEvent start(String provider, String model) {
+        RateLimiterWaitEvent event = new RateLimiterWaitEvent();
+        if (event.isEnabled()) {
+            event.provider = provider;
+            event.model = model;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
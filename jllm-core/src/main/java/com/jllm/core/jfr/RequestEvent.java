@@ -0,0 +1,84 @@
+package com.jllm.core.jfr;
+
+import com.jllm.core.model.TokenUsage;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one {@code LLMClient} call, from leaving the rate limiter to its final outcome.
+ * The rate limiter wait, retries and HTTP exchanges of the call are recorded as separate events on
+ * the same thread.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Name("com.jllm.Request")
+@Label("LLM Request")
+@Category({"JLLM", "Client"})
+@Description("A prompt sent through LLMClient, including all of its retries")
+@StackTrace(false)
+public final class RequestEvent extends jdk.jfr.Event {
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Model")
+    String model;
+
+    @Label("Streaming")
+    boolean streaming;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Prompt Tokens")
+    int promptTokens;
+
+    @Label("Completion Tokens")
+    int completionTokens;
+
+    @Label("Time To First Token")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToFirstToken;
+
+    /**
+     * Starts timing a request.
+     */
+    public static RequestEvent start(String provider, String model, boolean streaming) {
+        RequestEvent event = new RequestEvent();
+        if (event.isEnabled()) {
+            event.provider = provider;
+            event.model = model;
+            event.streaming = streaming;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Ends the request and commits the event if it is enabled and above its threshold.
+     *
+     * @param usage                 The token usage, or null if unknown.
+     * @param timeToFirstTokenNanos Time to the first streamed token, or 0.
+     */
+    public void finish(boolean success, int attempts, TokenUsage usage, long timeToFirstTokenNanos) {
+        end();
+        if (shouldCommit()) {
+            this.success = success;
+            this.attempts = attempts;
+            if (usage != null) {
+                this.promptTokens = usage.getPromptTokens();
+                this.completionTokens = usage.getCompletionTokens();
+            }
+            this.timeToFirstToken = timeToFirstTokenNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.jllm.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a failed attempt and the backoff before the next one. The event's duration is the
+ * time actually spent backing off.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Name("com.jllm.Retry")
+@Label("LLM Retry")
+@Category({"JLLM", "Client"})
+@Description("A failed attempt that is retried after a delay")
+@StackTrace(false)
+public final class RetryEvent extends jdk.jfr.Event {
+
+    @Label("Attempt")
+    @Description("Number of the attempt that failed, starting at 1")
+    int attempt;
+
+    @Label("Planned Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    long delay;
+
+    @Label("Error")
+    String error;
+
+    /**
+     * Starts timing the backoff after a failed attempt.
+     */
+    public static RetryEvent start(int attempt, long delayMillis, Throwable error) {
+        RetryEvent event = new RetryEvent();
+        if (event.isEnabled()) {
+            event.attempt = attempt;
+            event.delay = delayMillis;
+            event.error = error.getClass().getName() + ": " + error.getMessage();
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
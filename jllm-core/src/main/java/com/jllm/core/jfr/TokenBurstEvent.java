@@ -0,0 +1,62 @@
+package com.jllm.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a run of consecutive stream tokens. Tokens are aggregated into bursts of up to
+ * {@link #MAX_TOKENS} so that recording a fast stream costs one event per burst rather than one per token;
+ * the event's duration shows how long the provider took to produce the burst.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Name("com.jllm.TokenBurst")
+@Label("LLM Token Burst")
+@Category({"JLLM", "Streaming"})
+@Description("Consecutive tokens received from a streaming provider")
+@StackTrace(false)
+public final class TokenBurstEvent extends jdk.jfr.Event {
+
+    public static final int MAX_TOKENS = 64;
+
+    @Label("Model")
+    String model;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    public static TokenBurstEvent start(String model) {
+        TokenBurstEvent event = new TokenBurstEvent();
+        if (event.isEnabled()) {
+            event.model = model;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Adds a token to the burst.
+     *
+     * @return true once the burst is full and should be finished.
+     */
+    public boolean add(long tokenBytes) {
+        bytes += tokenBytes;
+        return ++tokens >= MAX_TOKENS;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.jllm.core.journal;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.Priority;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binary form of a {@link JournalEntry}.
+ * <p>
+ * Counts and lengths are unsigned varints, token times are varint deltas from the previous token, and
+ * strings are UTF-8 prefixed with their length plus one, so that zero stands for null. A record of a
+ * short exchange takes little more than its text.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+final class JournalCodec {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Encodes entries into one reusable buffer; owned by the journal's writer thread.
+     */
+    static final class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        /**
+         * @return The encoded entry, from position to limit. Valid until the next call.
+         */
+        ByteBuffer encode(JournalEntry entry) {
+            buffer.clear();
+            putByte(entry.isStream() ? 1 : 0);
+            putLong(entry.getStartEpochMillis());
+            putVarLong(entry.getDurationNanos());
+            putRequest(entry.getRequest());
+            putResponse(entry.getResponse());
+
+            List<String> tokens = entry.getTokens();
+            putVarLong(tokens.size());
+            long previous = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                long offset = entry.tokenOffsetNanos(i);
+                putVarLong(Math.max(0, offset - previous));
+                previous = Math.max(previous, offset);
+                putString(tokens.get(i));
+            }
+            putString(entry.getErrorType());
+            putString(entry.getErrorMessage());
+            buffer.flip();
+            return buffer;
+        }
+
+        private void putRequest(PromptRequest request) {
+            putString(request.getModel());
+            putVarLong(request.getMessages().size());
+            for (Message message : request.getMessages()) {
+                putString(message.getRole());
+                putString(message.getContent());
+            }
+            ensure(8);
+            buffer.putDouble(request.getTemperature());
+            putVarInt(request.getMaxTokens());
+            putString(request.getUser());
+            putStrings(request.getStopSequences());
+            putByte(request.isLogProbs() ? 1 : 0);
+            putByte(request.getPriority() == null ? 0 : request.getPriority().ordinal() + 1);
+        }
+
+        private void putResponse(PromptResponse response) {
+            if (response == null) {
+                putByte(0);
+                return;
+            }
+            putByte(1);
+            putString(response.getText());
+            TokenUsage usage = response.getUsage();
+            putVarInt(usage.getPromptTokens());
+            putVarInt(usage.getCompletionTokens());
+            putVarInt(usage.getTotalTokens());
+            List<LogProb> logProbs = response.getLogProbs();
+            putVarLong(logProbs.size());
+            for (LogProb logProb : logProbs) {
+                putString(logProb.getToken());
+                ensure(8);
+                buffer.putDouble(logProb.getLogProb());
+                List<Double> top = logProb.getTopLogProbs();
+                putVarLong(top == null ? 0 : top.size() + 1);
+                if (top != null) {
+                    ensure(8 * top.size());
+                    for (double value : top) {
+                        buffer.putDouble(value);
+                    }
+                }
+            }
+        }
+
+        private void putStrings(List<String> values) {
+            putVarLong(values == null ? 0 : values.size() + 1);
+            if (values != null) {
+                for (String value : values) {
+                    putString(value);
+                }
+            }
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putByte(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Any int, negative ones included, in at most five bytes.
+         */
+        private void putVarInt(int value) {
+            putVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+    }
+
+    /**
+     * Decodes one record.
+     *
+     * @param in The record's bytes, from position to limit.
+     * @throws IllegalArgumentException if the bytes are not a valid record.
+     */
+    static JournalEntry decode(ByteBuffer in) {
+        try {
+            boolean stream = in.get() == 1;
+            long startEpochMillis = in.getLong();
+            long durationNanos = getVarLong(in);
+            PromptRequest request = getRequest(in);
+            PromptResponse response = getResponse(in);
+
+            int count = getCount(in);
+            List<String> tokens = new ArrayList<>(count);
+            long[] offsets = new long[count];
+            long offset = 0;
+            for (int i = 0; i < count; i++) {
+                offset += getVarLong(in);
+                offsets[i] = offset;
+                tokens.add(getString(in));
+            }
+            String errorType = getString(in);
+            String errorMessage = getString(in);
+            return new JournalEntry(stream, startEpochMillis, durationNanos, request, response, tokens, offsets,
+                    errorType, errorMessage);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated journal record", e);
+        }
+    }
+
+    private static PromptRequest getRequest(ByteBuffer in) {
+        String model = getString(in);
+        int count = getCount(in);
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message(getString(in), getString(in)));
+        }
+        double temperature = in.getDouble();
+        int maxTokens = getVarInt(in);
+        String user = getString(in);
+        List<String> stopSequences = getStrings(in);
+        boolean logProbs = in.get() == 1;
+        int priority = in.get();
+        PromptRequest.Builder builder = PromptRequest.builder()
+                .model(model)
+                .messages(messages)
+                .temperature(temperature)
+                .maxTokens(maxTokens)
+                .user(user)
+                .stopSequences(stopSequences)
+                .logProbs(logProbs);
+        if (priority > 0) {
+            builder.priority(PRIORITIES[priority - 1]);
+        }
+        return builder.build();
+    }
+
+    private static PromptResponse getResponse(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        String text = getString(in);
+        TokenUsage usage = new TokenUsage(getVarInt(in), getVarInt(in), getVarInt(in));
+        int count = getCount(in);
+        List<LogProb> logProbs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String token = getString(in);
+            double logProb = in.getDouble();
+            int top = getCount(in);
+            List<Double> topLogProbs = null;
+            if (top > 0) {
+                topLogProbs = new ArrayList<>(top - 1);
+                for (int j = 1; j < top; j++) {
+                    topLogProbs.add(in.getDouble());
+                }
+            }
+            logProbs.add(new LogProb(token, logProb, topLogProbs));
+        }
+        return new PromptResponse.Builder().text(text).usage(usage).logProbs(logProbs).build();
+    }
+
+    private static List<String> getStrings(ByteBuffer in) {
+        int count = getCount(in);
+        if (count == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            values.add(getString(in));
+        }
+        return values;
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = getCount(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int getCount(ByteBuffer in) {
+        long value = getVarLong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Count out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,129 @@
+package com.jllm.core.journal;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One exchange with a provider as it was recorded in a {@link TrafficJournal}: the request, what came
+ * back, and when.
+ * <p>
+ * For streams the tokens are kept with their arrival times, so a {@link ReplayProvider} can deliver
+ * them at the same pace. A failed exchange keeps the type and message of its exception; a stream that
+ * failed midway also keeps the tokens it had delivered.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class JournalEntry {
+
+    private final boolean stream;
+    private final long startEpochMillis;
+    private final long durationNanos;
+    private final PromptRequest request;
+    private final PromptResponse response;
+    private final List<String> tokens;
+    private final long[] tokenOffsetsNanos;
+    private final String errorType;
+    private final String errorMessage;
+
+    JournalEntry(boolean stream, long startEpochMillis, long durationNanos, PromptRequest request,
+                 PromptResponse response, List<String> tokens, long[] tokenOffsetsNanos,
+                 String errorType, String errorMessage) {
+        this.stream = stream;
+        this.startEpochMillis = startEpochMillis;
+        this.durationNanos = durationNanos;
+        this.request = request;
+        this.response = response;
+        this.tokens = Collections.unmodifiableList(tokens);
+        this.tokenOffsetsNanos = tokenOffsetsNanos;
+        this.errorType = errorType;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * @return true for {@code executeStream}, false for {@code execute}.
+     */
+    public boolean isStream() {
+        return stream;
+    }
+
+    /**
+     * @return When the exchange started, in milliseconds since the epoch.
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * @return How long the exchange took until it returned or failed.
+     */
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public PromptRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return The response, or null if the exchange failed. For streams this is the response passed to
+     * {@code onStreamCompleted}, if any.
+     */
+    public PromptResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The streamed tokens in arrival order; empty for {@code execute}.
+     */
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return For every token, the time from the start of the exchange until it arrived, in nanoseconds.
+     */
+    public long[] getTokenOffsetsNanos() {
+        return tokenOffsetsNanos.clone();
+    }
+
+    long tokenOffsetNanos(int index) {
+        return tokenOffsetsNanos[index];
+    }
+
+    /**
+     * @return The class name of the exception the exchange failed with, or null if it succeeded.
+     */
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public boolean isSuccess() {
+        return errorType == null;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEntry{" +
+                "stream=" + stream +
+                ", startEpochMillis=" + startEpochMillis +
+                ", durationNanos=" + durationNanos +
+                ", model=" + request.getModel() +
+                ", tokens=" + tokens.size() +
+                ", errorType=" + errorType +
+                '}';
+    }
+}
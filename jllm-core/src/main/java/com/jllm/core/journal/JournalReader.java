@@ -0,0 +1,150 @@
+package com.jllm.core.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the entries of a {@link TrafficJournal} directory back, oldest segment first.
+ * <p>
+ * Segments are memory-mapped one at a time while iterating, so a journal larger than the heap can be
+ * scanned. A segment ends at its first empty or damaged record: what a crash left half-written is
+ * skipped, and reading goes on with the next segment.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class JournalReader implements Iterable<JournalEntry> {
+
+    private final List<Path> segments;
+
+    /**
+     * @param directory The journal directory.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public JournalReader(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (TrafficJournal.isSegment(file)) {
+                    found.add(file);
+                }
+            }
+        }
+        Collections.sort(found);                                 // zero-padded, so by name is by index
+        this.segments = found;
+    }
+
+    /**
+     * @return Every entry of the journal, in the order it was written.
+     */
+    public List<JournalEntry> readAll() {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (JournalEntry entry : this) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * @throws UncheckedIOException from {@code hasNext} if a segment cannot be read.
+     */
+    @Override
+    public Iterator<JournalEntry> iterator() {
+        return new EntryIterator();
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (segment.remaining() < TrafficJournal.SEGMENT_HEADER_BYTES
+                    || segment.getInt() != TrafficJournal.MAGIC) {
+                throw new IOException("Not a journal segment: " + file);
+            }
+            int version = segment.getInt();
+            if (version != TrafficJournal.VERSION) {
+                throw new IOException("Unsupported journal version " + version + " in " + file);
+            }
+            return segment;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<JournalEntry> {
+        private final CRC32 crc = new CRC32();
+        private int nextSegment;
+        private ByteBuffer segment;
+        private JournalEntry next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (segment != null) {
+                    next = readRecord(segment);
+                    if (next != null) {
+                        break;
+                    }
+                }
+                if (nextSegment == segments.size()) {
+                    return false;
+                }
+                try {
+                    segment = map(segments.get(nextSegment++));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public JournalEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JournalEntry entry = next;
+            next = null;
+            return entry;
+        }
+
+        /**
+         * @return The next record of the segment, or null at its end.
+         */
+        private JournalEntry readRecord(ByteBuffer in) {
+            if (in.remaining() < TrafficJournal.RECORD_HEADER_BYTES) {
+                return null;
+            }
+            int start = in.position();
+            int length = in.getInt(start);
+            int checksum = in.getInt(start + 4);
+            if (length <= 0 || length > in.remaining() - TrafficJournal.RECORD_HEADER_BYTES) {
+                in.position(in.limit());
+                return null;
+            }
+            int payload = start + TrafficJournal.RECORD_HEADER_BYTES;
+            ByteBuffer record = in.duplicate();
+            record.position(payload).limit(payload + length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                in.position(in.limit());
+                return null;
+            }
+            in.position(record.limit());
+            return JournalCodec.decode(record);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.jllm.core.journal;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Provider} decorator that records every exchange with the underlying provider in a
+ * {@link TrafficJournal}: the request, the response or error, and for streams each token with the time
+ * it arrived.
+ * <p>
+ * Wrap the provider that an {@code LLMClient} is built with; retries then show up as separate entries,
+ * as they were separate exchanges. A streamed token costs the calling thread a timestamp and two array
+ * stores; once an exchange has finished, recording it costs one queue offer. Building the entry, encoding
+ * and writing it happen on the journal's writer thread.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     Provider recorded = new JournalingProvider(openAi, journal);
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class JournalingProvider implements Provider {
+
+    private final Provider delegate;
+    private final TrafficJournal journal;
+
+    public JournalingProvider(Provider delegate, TrafficJournal journal) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.journal = Objects.requireNonNull(journal, "journal cannot be null");
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            PromptResponse response = delegate.sendRequest(promptRequest);
+            record(startMillis, start, promptRequest, response, null);
+            return response;
+        } catch (RuntimeException e) {
+            record(startMillis, start, promptRequest, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            PromptResponse response = delegate.execute(request);
+            record(startMillis, start, request, response, null);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            record(startMillis, start, request, null, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        RecordingListener recording = new RecordingListener(listener, request, startMillis, start);
+        try {
+            delegate.executeStream(request, recording, handle);
+        } catch (IOException | RuntimeException e) {
+            journal.record(recording.finish(e));
+            throw e;
+        }
+        journal.record(recording.finish(recording.error));
+    }
+
+    private void record(long startMillis, long start, PromptRequest request, PromptResponse response,
+                        Exception error) {
+        long duration = System.nanoTime() - start;
+        journal.record(() -> entry(false, startMillis, duration, request, response, Collections.emptyList(),
+                new long[0], error));
+    }
+
+    private static JournalEntry entry(boolean stream, long startMillis, long duration, PromptRequest request,
+                                      PromptResponse response, List<String> tokens, long[] offsets,
+                                      Exception error) {
+        return new JournalEntry(stream, startMillis, duration, request, response, tokens, offsets,
+                error != null ? error.getClass().getName() : null,
+                error != null ? error.getMessage() : null);
+    }
+
+    /**
+     * Notes each token with its offset from the start of the exchange, and the completed response.
+     * Once finished it is queued as is, and the writer thread trims the arrays into the entry.
+     */
+    private static final class RecordingListener extends ForwardingStreamingListener
+            implements Supplier<JournalEntry> {
+        private final PromptRequest request;
+        private final long startMillis;
+        private final long start;
+        private String[] tokens = new String[64];
+        private long[] offsets = new long[64];
+        private int count;
+        private PromptResponse response;
+        private Exception error;
+        private long duration;
+        private Exception failure;
+
+        RecordingListener(StreamingListener delegate, PromptRequest request, long startMillis, long start) {
+            super(delegate);
+            this.request = request;
+            this.startMillis = startMillis;
+            this.start = start;
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            if (count == offsets.length) {
+                tokens = Arrays.copyOf(tokens, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count] = System.nanoTime() - start;
+            tokens[count++] = token;
+            super.onTokenReceived(token);
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+            this.response = response;
+            this.error = error;
+            super.onStreamCompleted(response, error);
+        }
+
+        RecordingListener finish(Exception failure) {
+            this.duration = System.nanoTime() - start;
+            this.failure = failure;
+            return this;
+        }
+
+        @Override
+        public JournalEntry get() {
+            return entry(true, startMillis, duration, request, response, Arrays.asList(Arrays.copyOf(tokens, count)),
+                    Arrays.copyOf(offsets, count), failure);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean supportsModel(String model) {
+        return delegate.supportsModel(model);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public void setAuthToken(String token) {
+        delegate.setAuthToken(token);
+    }
+
+    @Override
+    public String getApiUrl() {
+        return delegate.getApiUrl();
+    }
+}
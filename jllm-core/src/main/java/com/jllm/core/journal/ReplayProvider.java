@@ -0,0 +1,284 @@
+package com.jllm.core.journal;
+
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.time.TimeSource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Provider} that answers from a {@link TrafficJournal} instead of a model: each call gets a
+ * recorded exchange's response, or its error, after the time the exchange originally took. Streams
+ * deliver the recorded tokens at their recorded offsets.
+ * <p>
+ * By default a call is answered by the next unused exchange recorded for the same model and messages,
+ * which reproduces an incident from the requests that caused it. With {@link Builder#inOrder(boolean)}
+ * the exchanges are served in journal order whatever the request, which replays the shape of real
+ * traffic against client code. {@link Builder#speed(double)} scales the waits, and
+ * {@link Builder#loop(boolean)} starts over once the exchanges are used up.
+ * </p>
+ * <p>
+ * A recorded error is thrown again as the same exception type when it can be created from its message,
+ * and as an {@link IOException} otherwise.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class ReplayProvider implements Provider {
+
+    private static final Object IN_ORDER = new Object();
+
+    private final Map<Object, Queue<JournalEntry>> exchanges;
+    private final boolean inOrder;
+    private final boolean loop;
+    private final double speed;
+    private final TimeSource time;
+
+    private ReplayProvider(Builder builder) {
+        this.inOrder = builder.inOrder;
+        this.loop = builder.loop;
+        this.speed = builder.speed;
+        this.time = builder.time;
+        Map<Object, Queue<JournalEntry>> byKey = new HashMap<>();
+        for (JournalEntry entry : builder.entries) {
+            byKey.computeIfAbsent(key(entry.getRequest()), k -> new ConcurrentLinkedQueue<>()).add(entry);
+        }
+        this.exchanges = byKey;
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        try {
+            return execute(promptRequest);
+        } catch (IOException e) {
+            throw new ProviderNotAvailableException("Replayed exchange failed", e);
+        }
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        JournalEntry entry = next(request);
+        long start = time.nanoTime();
+        waitUntil(start, entry.getDurationNanos());
+        if (!entry.isSuccess()) {
+            throw replayedError(entry);
+        }
+        if (entry.getResponse() == null) {
+            throw new IOException("Recorded exchange has no response");
+        }
+        return entry.getResponse();
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        JournalEntry entry = next(request);
+        long start = time.nanoTime();
+        List<String> tokens = entry.getTokens();
+        long[] offsets = entry.getTokenOffsetsNanos();
+        if (!tokens.isEmpty() || entry.isSuccess()) {
+            listener.onStart();
+        }
+        if (tokens.isEmpty() && entry.getResponse() != null) {
+            // an exchange recorded by execute streams as a single token
+            tokens = List.of(entry.getResponse().getText());
+            offsets = new long[]{entry.getDurationNanos()};
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            waitUntil(start, offsets[i]);
+            if (handle.isCancelled()) {
+                return;
+            }
+            listener.onTokenReceived(tokens.get(i));
+        }
+        waitUntil(start, entry.getDurationNanos());
+        if (handle.isCancelled()) {
+            return;
+        }
+        if (!entry.isSuccess()) {
+            throw replayedError(entry);
+        }
+        listener.onEnd();
+        if (entry.getResponse() != null) {
+            listener.onStreamCompleted(entry.getResponse(), null);
+        }
+        listener.onStreamComplete();
+    }
+
+    private JournalEntry next(PromptRequest request) {
+        Queue<JournalEntry> queue = exchanges.get(key(request));
+        JournalEntry entry = queue != null ? queue.poll() : null;
+        if (entry == null) {
+            throw new ProviderNotAvailableException("No recorded exchange left for model " + request.getModel());
+        }
+        if (loop) {
+            queue.add(entry);
+        }
+        return entry;
+    }
+
+    private Object key(PromptRequest request) {
+        if (inOrder) {
+            return IN_ORDER;
+        }
+        return Arrays.asList(request.getModel(), new ArrayList<Message>(request.getMessages()));
+    }
+
+    /**
+     * Waits until the scaled offset from the start has passed.
+     */
+    private void waitUntil(long start, long offsetNanos) throws InterruptedIOException {
+        long target = start + (long) (offsetNanos / speed);
+        long wait = target - time.nanoTime();
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            time.sleep(wait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while replaying");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * @return The recorded exception, or an IOException describing it; runtime exceptions are thrown.
+     */
+    private static IOException replayedError(JournalEntry entry) {
+        String message = entry.getErrorMessage();
+        try {
+            Class<?> type = Class.forName(entry.getErrorType(), false, ReplayProvider.class.getClassLoader());
+            if (IOException.class.isAssignableFrom(type) || RuntimeException.class.isAssignableFrom(type)) {
+                Exception error = (Exception) type.getConstructor(String.class).newInstance(message);
+                if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                }
+                return (IOException) error;
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // not available here; describe it instead
+        }
+        return new IOException(entry.getErrorType() + ": " + message);
+    }
+
+    @Override
+    public String getName() {
+        return "Replay";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void setAuthToken(String token) {
+    }
+
+    @Override
+    public String getApiUrl() {
+        return "replay://";
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for ReplayProvider.
+     */
+    public static final class Builder {
+        private final List<JournalEntry> entries = new ArrayList<>();
+        private boolean inOrder;
+        private boolean loop;
+        private double speed = 1.0;
+        private TimeSource time = TimeSource.system();
+
+        /**
+         * Adds the exchanges of a journal directory.
+         *
+         * @throws IOException if the journal cannot be read.
+         */
+        public Builder journal(Path directory) throws IOException {
+            return entries(new JournalReader(directory));
+        }
+
+        /**
+         * Adds recorded exchanges, e.g. a filtered part of a journal.
+         */
+        public Builder entries(Iterable<JournalEntry> entries) {
+            for (JournalEntry entry : entries) {
+                this.entries.add(Objects.requireNonNull(entry, "entry cannot be null"));
+            }
+            return this;
+        }
+
+        /**
+         * Serve the exchanges in journal order whatever the request (default: false, match model and messages).
+         */
+        public Builder inOrder(boolean inOrder) {
+            this.inOrder = inOrder;
+            return this;
+        }
+
+        /**
+         * Start over with the first exchange once all have been served (default: false, then calls fail
+         * with {@link ProviderNotAvailableException}).
+         */
+        public Builder loop(boolean loop) {
+            this.loop = loop;
+            return this;
+        }
+
+        /**
+         * How much faster than recorded to answer (default: 1, the original timing). Pass
+         * {@link Double#POSITIVE_INFINITY} to answer without waiting.
+         */
+        public Builder speed(double speed) {
+            if (!(speed > 0)) {
+                throw new IllegalArgumentException("speed must be positive");
+            }
+            this.speed = speed;
+            return this;
+        }
+
+        /**
+         * Where the waits happen (default: real time).
+         */
+        public Builder time(TimeSource time) {
+            this.time = Objects.requireNonNull(time, "time cannot be null");
+            return this;
+        }
+
+        public ReplayProvider build() {
+            return new ReplayProvider(this);
+        }
+    }
+}
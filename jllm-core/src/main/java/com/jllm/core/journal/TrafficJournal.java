@@ -0,0 +1,290 @@
+package com.jllm.core.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary log of the exchanges with a provider, for reproducing incidents and replaying
+ * real traffic with a {@link ReplayProvider}. Entries are added by a {@link JournalingProvider}.
+ * <p>
+ * Recording is kept off the request path: a request thread only offers the finished exchange to a
+ * lock-free queue, and wakes the writer thread if it was idle. The writer drains the queue, builds each
+ * {@link JournalEntry}, encodes it and copies it into memory-mapped segment files
+ * ({@code segment-00000001.jlj}, ...) in the journal directory. While the queue is empty the writer is
+ * parked without a timeout. A journal opened on a directory that already holds segments appends new ones.
+ * </p>
+ * <p>
+ * Every record is written as its length, a CRC32 and the encoded entry, with the length stored last,
+ * so a record torn by a crash reads as the end of its segment. The queue is unbounded: the writer only
+ * copies bytes and keeps up with far more traffic than a provider serves, but a journal whose disk
+ * fails stops recording and drops what is offered from then on.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     try (TrafficJournal journal = TrafficJournal.builder().directory(Path.of("journal")).build()) {
+ *         LLMClient client = LLMClient.builder()
+ *             .provider(new JournalingProvider(openAi, journal))
+ *             .build();
+ *         ...
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class TrafficJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x4A4C544A;                         // "JLTJ"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 8;
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".jlj";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Queue<Supplier<JournalEntry>> queue = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean idle;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile long written;
+    private volatile long bytesWritten;
+
+    // Owned by the writer thread
+    private final JournalCodec.Encoder encoder = new JournalCodec.Encoder();
+    private final CRC32 crc = new CRC32();
+    private int segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    private TrafficJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        Files.createDirectories(directory);
+        this.segmentIndex = lastSegmentIndex(directory);
+        this.writer = new Thread(this::drain, "jllm-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an exchange for the writer thread, which builds its entry; the only work done on the
+     * caller's thread besides waking the writer when it is idle.
+     *
+     * @return false if the journal is closed or has failed and the entry was dropped.
+     */
+    boolean record(Supplier<JournalEntry> exchange) {
+        if (closed) {
+            return false;
+        }
+        queue.offer(exchange);
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of entries written to the segments so far.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return The number of bytes written to the segments so far, headers included.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops accepting entries, waits until the queued ones are written and flushes the segment to disk.
+     * Entries recorded while the journal is closing may be dropped.
+     *
+     * @throws IOException if the writer failed; the entries from then on were not written.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the journal", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Supplier<JournalEntry> exchange = queue.poll();
+                if (exchange != null) {
+                    append(exchange.get());
+                } else if (closed) {
+                    if (queue.isEmpty()) {
+                        break;
+                    }
+                } else {
+                    idle = true;
+                    // an offer made before idle was set is seen by this re-check; a later one unparks us
+                    if (queue.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("Journal writer failed", e);
+        } finally {
+            closed = true;
+            queue.clear();
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void append(JournalEntry entry) throws IOException {
+        ByteBuffer payload = encoder.encode(entry);
+        int length = payload.remaining();
+        int recordSize = RECORD_HEADER_BYTES + length;
+        if (segment == null || segment.remaining() < recordSize) {
+            roll(recordSize);
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        int start = segment.position();
+        segment.position(start + RECORD_HEADER_BYTES);
+        segment.put(payload);
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.putInt(start, length);                           // last: a torn record has length zero
+        written++;
+        bytesWritten += recordSize;
+    }
+
+    private void roll(int recordSize) throws IOException {
+        closeSegment();
+        segmentIndex++;
+        Path file = directory.resolve(segmentName(segmentIndex));
+        long size = Math.max(segmentSize, (long) SEGMENT_HEADER_BYTES + recordSize + 4);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        bytesWritten += SEGMENT_HEADER_BYTES;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static int lastSegmentIndex(Path directory) throws IOException {
+        int last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (isSegment(file)) {
+                    String name = file.getFileName().toString();
+                    try {
+                        last = Math.max(last, Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not one of ours
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for TrafficJournal.
+     */
+    public static final class Builder {
+        private Path directory;
+        private int segmentSize = 64 << 20;
+
+        /**
+         * The directory the segments are written to, created if missing (required).
+         */
+        public Builder directory(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory cannot be null");
+            return this;
+        }
+
+        /**
+         * Size of a segment file in bytes (default: 64 MiB). A record larger than that gets a segment of
+         * its own.
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("segmentSize must be at least 1024 bytes");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Opens the journal and starts its writer thread.
+         *
+         * @throws IOException if the directory cannot be created or read.
+         */
+        public TrafficJournal build() throws IOException {
+            Objects.requireNonNull(directory, "directory is required");
+            return new TrafficJournal(this);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.jllm.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Values below {@code 2^subBucketBits} get a bucket each. Above that, every power of two is split into
+ * {@code 2^subBucketBits} linear sub-buckets, so the relative error of any reported value is at most
+ * {@code 2^-subBucketBits} over the whole {@code long} range. Recording is a bit-twiddling index
+ * computation plus an {@link AtomicLongArray} increment; readers never block writers.
+ * </p>
+ * <p>
+ * Quantiles are computed from a non-atomic walk over the buckets, so a reading taken while values are
+ * being recorded may mix samples from slightly different moments. That is fine for monitoring.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class LogLinearHistogram {
+
+    /**
+     * 32 sub-buckets per power of two: at most ~3% relative error.
+     */
+    public static final int DEFAULT_SUB_BUCKET_BITS = 5;
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LogLinearHistogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @param subBucketBits log2 of the number of linear sub-buckets per power of two, in [1, 10].
+     */
+    public LogLinearHistogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 10) {
+            throw new IllegalArgumentException("subBucketBits must be in [1, 10]");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.counts = new AtomicLongArray((64 - subBucketBits) * subBucketCount);
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(indexOf(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - subBucketBits;
+        int subBucket = (int) (value >>> shift) - subBucketCount;
+        return (shift + 1) * subBucketCount + subBucket;
+    }
+
+    /**
+     * @return The largest value that falls into the bucket at the given index.
+     */
+    long highestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = index / subBucketCount - 1;
+        long lowest = (long) (index % subBucketCount + subBucketCount) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * @param quantile A quantile in [0, 1].
+     * @return An upper bound of the value at the quantile, within the histogram's relative error,
+     * never larger than the maximum recorded value; 0 if nothing was recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]");
+        }
+        long total = 0;
+        int length = counts.length();
+        for (int i = 0; i < length; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < length; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    @Override
+    public String toString() {
+        return "LogLinearHistogram{" +
+                "count=" + getCount() +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtQuantile(0.5) +
+                ", p99=" + getValueAtQuantile(0.99) +
+                ", max=" + getMax() +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package com.jllm.core.metrics;
+
+import com.jllm.core.model.TokenUsage;
+
+/**
+ * SPI through which the client and providers report what they are doing.
+ * <p>
+ * Every measurement is tagged by the provider name ({@link com.jllm.core.provider.Provider#getName()})
+ * and the model. Implementations are called on the request path, possibly from many threads at once,
+ * so they must be thread-safe and should neither block nor allocate per call. Durations are in
+ * nanoseconds as measured by {@link System#nanoTime()}.
+ * </p>
+ * <p>
+ * The default is {@link #noop()}; {@link MetricsRegistry} is the built-in implementation with
+ * Prometheus exposition.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public interface MetricsRecorder {
+
+    /**
+     * A request finished, successfully or not, after all of its retries.
+     *
+     * @param latencyNanos Time from leaving the rate limiter to the final response or failure.
+     */
+    void recordRequest(String provider, String model, long latencyNanos, boolean success);
+
+    /**
+     * The first token of a stream arrived, {@code nanos} after the stream was started.
+     */
+    void recordTimeToFirstToken(String provider, String model, long nanos);
+
+    /**
+     * A request was held back by the rate limiter for {@code waitNanos}.
+     */
+    void recordRateLimiterWait(String provider, String model, long waitNanos);
+
+    /**
+     * A failed attempt is about to be retried.
+     */
+    void recordRetry(String provider, String model);
+
+    /**
+     * Token usage of a finished request.
+     *
+     * @param generationNanos Time spent generating the completion, used for tokens per second.
+     */
+    void recordUsage(String provider, String model, TokenUsage usage, long generationNanos);
+
+    /**
+     * A request waited {@code waitNanos} in a {@code RequestScheduler} queue of the given priority
+     * class before it was dispatched. Not tagged by provider: the scheduler sits in front of it.
+     */
+    default void recordQueueWait(String priorityClass, long waitNanos) {
+    }
+
+    /**
+     * The queue of the given priority class in a {@code RequestScheduler} now holds {@code depth} requests.
+     */
+    default void recordQueueDepth(String priorityClass, int depth) {
+    }
+
+    /**
+     * A message body went through a compression codec on the transport. Not tagged by provider: the
+     * HTTP layer does not know which provider it serves.
+     *
+     * @param direction    {@code "request"} for a compressed upload, {@code "response"} for a decompressed download.
+     * @param encoding     The content encoding, e.g. {@code "gzip"}.
+     * @param rawBytes     The size of the uncompressed body.
+     * @param encodedBytes The size of the body on the wire.
+     * @param codecNanos   Time spent in the codec itself, not counting network I/O.
+     */
+    default void recordCompression(String direction, String encoding, long rawBytes, long encodedBytes,
+                                   long codecNanos) {
+    }
+
+    /**
+     * @return A recorder that discards everything.
+     */
+    static MetricsRecorder noop() {
+        return NoopMetricsRecorder.INSTANCE;
+    }
+}
@@ -0,0 +1,519 @@
+package com.jllm.core.metrics;
+
+import com.jllm.core.model.TokenUsage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Lock-free in-memory {@link MetricsRecorder} with Prometheus text exposition.
+ * <p>
+ * Each (provider, model) pair gets its own {@link Series} of {@link LogLinearHistogram}s and
+ * {@link LongAdder} counters. Series are looked up through two nested {@link ConcurrentHashMap}s so
+ * that recording neither locks nor allocates once a pair has been seen. Scheduler queues are kept
+ * per priority class in {@link QueueSeries}, transport compression per direction and encoding in
+ * {@link CompressionSeries}.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     MetricsRegistry metrics = new MetricsRegistry();
+ *     LLMClient client = LLMClient.builder().provider(provider).model("gpt-4").metrics(metrics).build();
+ *     ...
+ *     String body = metrics.scrape();    // serve on /metrics
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class MetricsRegistry implements MetricsRecorder {
+
+    private static final String UNKNOWN = "unknown";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Tokens per second and compression ratios are recorded in thousandths to keep precision
+    private static final double RATE_SCALE = 1000;
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Series>> series = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QueueSeries> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, CompressionSeries>> compression =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public void recordRequest(String provider, String model, long latencyNanos, boolean success) {
+        Series s = series(provider, model);
+        s.requestLatency.record(latencyNanos);
+        (success ? s.successes : s.failures).increment();
+    }
+
+    @Override
+    public void recordTimeToFirstToken(String provider, String model, long nanos) {
+        series(provider, model).timeToFirstToken.record(nanos);
+    }
+
+    @Override
+    public void recordRateLimiterWait(String provider, String model, long waitNanos) {
+        series(provider, model).rateLimiterWait.record(waitNanos);
+    }
+
+    @Override
+    public void recordRetry(String provider, String model) {
+        series(provider, model).retries.increment();
+    }
+
+    @Override
+    public void recordUsage(String provider, String model, TokenUsage usage, long generationNanos) {
+        if (usage == null) {
+            return;
+        }
+        Series s = series(provider, model);
+        s.promptTokens.add(usage.getPromptTokens());
+        s.completionTokens.add(usage.getCompletionTokens());
+        if (generationNanos > 0 && usage.getCompletionTokens() > 0) {
+            double perSecond = usage.getCompletionTokens() * NANOS_PER_SECOND / generationNanos;
+            s.tokensPerSecond.record(Math.round(perSecond * RATE_SCALE));
+        }
+    }
+
+    @Override
+    public void recordQueueWait(String priorityClass, long waitNanos) {
+        queue(priorityClass).wait.record(waitNanos);
+    }
+
+    @Override
+    public void recordQueueDepth(String priorityClass, int depth) {
+        queue(priorityClass).depth.set(depth);
+    }
+
+    @Override
+    public void recordCompression(String direction, String encoding, long rawBytes, long encodedBytes,
+                                  long codecNanos) {
+        CompressionSeries c = compression(direction, encoding);
+        c.rawBytes.add(rawBytes);
+        c.encodedBytes.add(encodedBytes);
+        c.codecTime.record(codecNanos);
+        if (rawBytes > 0) {
+            c.ratio.record(Math.round((double) encodedBytes / rawBytes * RATE_SCALE));
+        }
+    }
+
+    /**
+     * @return The series of the given provider and model, or null if nothing was recorded for them.
+     */
+    public Series getSeries(String provider, String model) {
+        Map<String, Series> byModel = series.get(orUnknown(provider));
+        return byModel == null ? null : byModel.get(orUnknown(model));
+    }
+
+    private Series series(String provider, String model) {
+        String p = orUnknown(provider);
+        String m = orUnknown(model);
+        ConcurrentHashMap<String, Series> byModel = series.get(p);
+        if (byModel == null) {
+            byModel = series.computeIfAbsent(p, k -> new ConcurrentHashMap<>());
+        }
+        Series s = byModel.get(m);
+        if (s == null) {
+            s = byModel.computeIfAbsent(m, k -> new Series(p, k));
+        }
+        return s;
+    }
+
+    /**
+     * @return The scheduler queue series of the given priority class, or null if nothing was recorded for it.
+     */
+    public QueueSeries getQueueSeries(String priorityClass) {
+        return queues.get(orUnknown(priorityClass));
+    }
+
+    private QueueSeries queue(String priorityClass) {
+        String c = orUnknown(priorityClass);
+        QueueSeries q = queues.get(c);
+        return q != null ? q : queues.computeIfAbsent(c, QueueSeries::new);
+    }
+
+    /**
+     * @return The compression series of the given direction and encoding, or null if nothing was recorded for them.
+     */
+    public CompressionSeries getCompressionSeries(String direction, String encoding) {
+        Map<String, CompressionSeries> byEncoding = compression.get(orUnknown(direction));
+        return byEncoding == null ? null : byEncoding.get(orUnknown(encoding));
+    }
+
+    private CompressionSeries compression(String direction, String encoding) {
+        String d = orUnknown(direction);
+        String e = orUnknown(encoding);
+        ConcurrentHashMap<String, CompressionSeries> byEncoding = compression.get(d);
+        if (byEncoding == null) {
+            byEncoding = compression.computeIfAbsent(d, k -> new ConcurrentHashMap<>());
+        }
+        CompressionSeries c = byEncoding.get(e);
+        return c != null ? c : byEncoding.computeIfAbsent(e, k -> new CompressionSeries(d, k));
+    }
+
+    private static String orUnknown(String tag) {
+        return tag != null ? tag : UNKNOWN;
+    }
+
+    /**
+     * @return All metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);                   // StringBuilder never throws
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format (version 0.0.4).
+     * Histograms are exposed as summaries with the 0.5, 0.9, 0.99 and 0.999 quantiles.
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        List<Series> all = new ArrayList<>();
+        for (Map<String, Series> byModel : series.values()) {
+            all.addAll(byModel.values());
+        }
+
+        writeSummary(out, all, "jllm_request_duration_seconds",
+                "Latency of LLM requests including retries.", s -> s.requestLatency, NANOS_PER_SECOND);
+        writeSummary(out, all, "jllm_time_to_first_token_seconds",
+                "Time from starting a stream to its first token.", s -> s.timeToFirstToken, NANOS_PER_SECOND);
+        writeSummary(out, all, "jllm_rate_limiter_wait_seconds",
+                "Time requests spent waiting for the rate limiter.", s -> s.rateLimiterWait, NANOS_PER_SECOND);
+        writeSummary(out, all, "jllm_completion_tokens_per_second",
+                "Completion tokens generated per second.", s -> s.tokensPerSecond, RATE_SCALE);
+
+        header(out, "jllm_requests_total", "Finished LLM requests by outcome.", "counter");
+        for (Series s : all) {
+            sample(out, "jllm_requests_total", s, "outcome", "success", s.successes.sum());
+            sample(out, "jllm_requests_total", s, "outcome", "error", s.failures.sum());
+        }
+        header(out, "jllm_retries_total", "Failed attempts that were retried.", "counter");
+        for (Series s : all) {
+            sample(out, "jllm_retries_total", s, null, null, s.retries.sum());
+        }
+        header(out, "jllm_tokens_total", "Tokens consumed by type.", "counter");
+        for (Series s : all) {
+            sample(out, "jllm_tokens_total", s, "type", "prompt", s.promptTokens.sum());
+            sample(out, "jllm_tokens_total", s, "type", "completion", s.completionTokens.sum());
+        }
+
+        writeCompression(out);
+        if (queues.isEmpty()) {
+            return;
+        }
+        String wait = "jllm_scheduler_wait_seconds";
+        header(out, wait, "Time requests spent queued in the scheduler.", "summary");
+        for (QueueSeries q : queues.values()) {
+            for (double quantile : QUANTILES) {
+                queueSample(out, wait, q, Double.toString(quantile),
+                        q.wait.getValueAtQuantile(quantile) / NANOS_PER_SECOND);
+            }
+            queueSample(out, wait + "_sum", q, null, q.wait.getSum() / NANOS_PER_SECOND);
+            queueSample(out, wait + "_count", q, null, q.wait.getCount());
+        }
+        header(out, "jllm_scheduler_queue_depth", "Requests waiting in the scheduler.", "gauge");
+        for (QueueSeries q : queues.values()) {
+            queueSample(out, "jllm_scheduler_queue_depth", q, null, q.depth.get());
+        }
+    }
+
+    private void writeCompression(Appendable out) throws IOException {
+        List<CompressionSeries> all = new ArrayList<>();
+        for (Map<String, CompressionSeries> byEncoding : compression.values()) {
+            all.addAll(byEncoding.values());
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+        header(out, "jllm_compression_bytes_total", "Transport body bytes before and after compression.", "counter");
+        for (CompressionSeries c : all) {
+            compressionSample(out, "jllm_compression_bytes_total", c, "form", "raw", c.rawBytes.sum());
+            compressionSample(out, "jllm_compression_bytes_total", c, "form", "encoded", c.encodedBytes.sum());
+        }
+        String ratio = "jllm_compression_ratio";
+        header(out, ratio, "Encoded size over raw size of compressed bodies.", "summary");
+        for (CompressionSeries c : all) {
+            for (double q : QUANTILES) {
+                compressionSample(out, ratio, c, "quantile", Double.toString(q),
+                        c.ratio.getValueAtQuantile(q) / RATE_SCALE);
+            }
+        }
+        String codec = "jllm_compression_codec_seconds";
+        header(out, codec, "Time spent compressing or decompressing bodies.", "summary");
+        for (CompressionSeries c : all) {
+            for (double q : QUANTILES) {
+                compressionSample(out, codec, c, "quantile", Double.toString(q),
+                        c.codecTime.getValueAtQuantile(q) / NANOS_PER_SECOND);
+            }
+            compressionSample(out, codec + "_sum", c, null, null, c.codecTime.getSum() / NANOS_PER_SECOND);
+            compressionSample(out, codec + "_count", c, null, null, c.codecTime.getCount());
+        }
+    }
+
+    private static void writeSummary(Appendable out, List<Series> all, String name, String help,
+                                     Function<Series, LogLinearHistogram> histogram, double divisor)
+            throws IOException {
+        header(out, name, help, "summary");
+        for (Series s : all) {
+            LogLinearHistogram h = histogram.apply(s);
+            for (double q : QUANTILES) {
+                sample(out, name, s, "quantile", Double.toString(q), h.getValueAtQuantile(q) / divisor);
+            }
+            sample(out, name + "_sum", s, null, null, h.getSum() / divisor);
+            sample(out, name + "_count", s, null, null, h.getCount());
+        }
+    }
+
+    private static void header(Appendable out, String name, String help, String type) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(Appendable out, String name, Series s, String extraLabel, String extraValue,
+                               double value) throws IOException {
+        out.append(name).append("{provider=\"");
+        escape(out, s.provider);
+        out.append("\",model=\"");
+        escape(out, s.model);
+        out.append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel).append("=\"");
+            escape(out, extraValue);
+            out.append('"');
+        }
+        out.append("} ");
+        value(out, value);
+    }
+
+    private static void queueSample(Appendable out, String name, QueueSeries q, String quantile, double value)
+            throws IOException {
+        out.append(name).append("{class=\"");
+        escape(out, q.priorityClass);
+        out.append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ");
+        value(out, value);
+    }
+
+    private static void compressionSample(Appendable out, String name, CompressionSeries c, String extraLabel,
+                                          String extraValue, double value) throws IOException {
+        out.append(name).append("{direction=\"");
+        escape(out, c.direction);
+        out.append("\",encoding=\"");
+        escape(out, c.encoding);
+        out.append('"');
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel).append("=\"").append(extraValue).append('"');
+        }
+        out.append("} ");
+        value(out, value);
+    }
+
+    private static void value(Appendable out, double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append(Long.toString((long) value));
+        } else {
+            out.append(Double.toString(value));
+        }
+        out.append('\n');
+    }
+
+    private static void escape(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    /**
+     * The metrics recorded for one provider and model.
+     */
+    public static final class Series {
+        private final String provider;
+        private final String model;
+        private final LogLinearHistogram requestLatency = new LogLinearHistogram();
+        private final LogLinearHistogram timeToFirstToken = new LogLinearHistogram();
+        private final LogLinearHistogram rateLimiterWait = new LogLinearHistogram();
+        private final LogLinearHistogram tokensPerSecond = new LogLinearHistogram();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+
+        private Series(String provider, String model) {
+            this.provider = provider;
+            this.model = model;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        /**
+         * @return Request latency in nanoseconds.
+         */
+        public LogLinearHistogram getRequestLatency() {
+            return requestLatency;
+        }
+
+        /**
+         * @return Time to first token of streams in nanoseconds.
+         */
+        public LogLinearHistogram getTimeToFirstToken() {
+            return timeToFirstToken;
+        }
+
+        /**
+         * @return Rate limiter wait in nanoseconds.
+         */
+        public LogLinearHistogram getRateLimiterWait() {
+            return rateLimiterWait;
+        }
+
+        /**
+         * @return Completion tokens per second, in thousandths (a recorded 42500 means 42.5 tokens/s).
+         */
+        public LogLinearHistogram getTokensPerSecond() {
+            return tokensPerSecond;
+        }
+
+        public long getSuccesses() {
+            return successes.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        public long getPromptTokens() {
+            return promptTokens.sum();
+        }
+
+        public long getCompletionTokens() {
+            return completionTokens.sum();
+        }
+    }
+
+    /**
+     * The scheduler metrics recorded for one priority class.
+     */
+    public static final class QueueSeries {
+        private final String priorityClass;
+        private final LogLinearHistogram wait = new LogLinearHistogram();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private QueueSeries(String priorityClass) {
+            this.priorityClass = priorityClass;
+        }
+
+        public String getPriorityClass() {
+            return priorityClass;
+        }
+
+        /**
+         * @return Queue wait in nanoseconds.
+         */
+        public LogLinearHistogram getWait() {
+            return wait;
+        }
+
+        /**
+         * @return The queue depth last reported.
+         */
+        public int getDepth() {
+            return depth.get();
+        }
+    }
+
+    /**
+     * The transport compression metrics recorded for one direction and content encoding.
+     */
+    public static final class CompressionSeries {
+        private final String direction;
+        private final String encoding;
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder encodedBytes = new LongAdder();
+        private final LogLinearHistogram codecTime = new LogLinearHistogram();
+        private final LogLinearHistogram ratio = new LogLinearHistogram();
+
+        private CompressionSeries(String direction, String encoding) {
+            this.direction = direction;
+            this.encoding = encoding;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public long getRawBytes() {
+            return rawBytes.sum();
+        }
+
+        public long getEncodedBytes() {
+            return encodedBytes.sum();
+        }
+
+        /**
+         * @return Encoded bytes over raw bytes across all bodies so far, or 1 if there were none.
+         */
+        public double getRatio() {
+            long raw = rawBytes.sum();
+            return raw == 0 ? 1 : (double) encodedBytes.sum() / raw;
+        }
+
+        /**
+         * @return Codec time per body in nanoseconds.
+         */
+        public LogLinearHistogram getCodecTime() {
+            return codecTime;
+        }
+
+        /**
+         * @return Encoded over raw size per body, in thousandths.
+         */
+        public LogLinearHistogram getRatioPerBody() {
+            return ratio;
+        }
+    }
+}
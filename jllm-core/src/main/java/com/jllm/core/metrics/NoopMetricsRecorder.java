@@ -0,0 +1,37 @@
+package com.jllm.core.metrics;
+
+import com.jllm.core.model.TokenUsage;
+
+/**
+ * The default {@link MetricsRecorder}: every method is empty so the JIT can drop the calls entirely.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+final class NoopMetricsRecorder implements MetricsRecorder {
+
+    static final NoopMetricsRecorder INSTANCE = new NoopMetricsRecorder();
+
+    private NoopMetricsRecorder() {
+    }
+
+    @Override
+    public void recordRequest(String provider, String model, long latencyNanos, boolean success) {
+    }
+
+    @Override
+    public void recordTimeToFirstToken(String provider, String model, long nanos) {
+    }
+
+    @Override
+    public void recordRateLimiterWait(String provider, String model, long waitNanos) {
+    }
+
+    @Override
+    public void recordRetry(String provider, String model) {
+    }
+
+    @Override
+    public void recordUsage(String provider, String model, TokenUsage usage, long generationNanos) {
+    }
+}
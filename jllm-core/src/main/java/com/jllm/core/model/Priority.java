@@ -0,0 +1,26 @@
+package com.jllm.core.model;
+
+/**
+ * The priority class of a {@link PromptRequest}. A {@code RequestScheduler} shares capacity between
+ * the classes by weight, so latency-sensitive traffic is not stuck behind bulk jobs.
+ * <p>
+ * Author: @Noro
+ * Version: 1.0
+ */
+public enum Priority {
+
+    /**
+     * A user is waiting on the answer, e.g. a chat turn.
+     */
+    INTERACTIVE,
+
+    /**
+     * The default class.
+     */
+    NORMAL,
+
+    /**
+     * Background work whose latency does not matter, e.g. a nightly batch.
+     */
+    BATCH
+}
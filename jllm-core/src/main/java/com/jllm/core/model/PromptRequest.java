@@ -1,8 +1,11 @@
 package com.jllm.core.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.jllm.core.time.Deadline;
 import lombok.Getter;
 import lombok.NonNull;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -40,6 +43,13 @@ public final class PromptRequest {
     private final int maxTokens;
     private final String user;
     private final List<String> stopSequences;
+    private final boolean logProbs;
+
+    // Client-side scheduling hints, never sent to the provider
+    @JsonIgnore
+    private final Priority priority;
+    @JsonIgnore
+    private final Deadline deadline;
 
     /**
      * Private constructor to ensure that objects are created via the Builder pattern.
@@ -53,6 +63,9 @@ public final class PromptRequest {
         this.maxTokens = builder.maxTokens;
         this.user = builder.user;
         this.stopSequences = builder.stopSequences;
+        this.logProbs = builder.logProbs;
+        this.priority = builder.priority;
+        this.deadline = builder.deadline;
     }
 
     /**
@@ -62,14 +75,40 @@ public final class PromptRequest {
      * @return a new PromptRequest with the updated model
      */
     public PromptRequest withModel(String model) {
+        return toBuilder().model(model).build();
+    }
+
+    /**
+     * Create a new PromptRequest with the provided deadline, keeping the other fields unchanged.
+     *
+     * @param deadline the new deadline, or null for none
+     * @return a new PromptRequest with the updated deadline
+     */
+    public PromptRequest withDeadline(Deadline deadline) {
+        return toBuilder().deadline(deadline).build();
+    }
+
+    /**
+     * Create a new PromptRequest asking for token log probabilities or not, keeping the other fields unchanged.
+     *
+     * @param logProbs whether the response should carry log probabilities
+     * @return a new PromptRequest with the updated flag
+     */
+    public PromptRequest withLogProbs(boolean logProbs) {
+        return toBuilder().logProbs(logProbs).build();
+    }
+
+    private Builder toBuilder() {
         return builder()
-                .model(model)
+                .model(this.model)
                 .messages(this.messages)
                 .temperature(this.temperature)
                 .maxTokens(this.maxTokens)
                 .user(this.user)
                 .stopSequences(this.stopSequences)
-                .build();
+                .logProbs(this.logProbs)
+                .priority(this.priority)
+                .deadline(this.deadline);
     }
 
     /**
@@ -92,6 +131,9 @@ public final class PromptRequest {
         private int maxTokens = 256;
         private String user;
         private List<String> stopSequences = new ArrayList<>();
+        private boolean logProbs;
+        private Priority priority = Priority.NORMAL;
+        private Deadline deadline;
 
         public Builder model(String model) {
             this.model = model;
@@ -123,6 +165,41 @@ public final class PromptRequest {
             return this;
         }
 
+        /**
+         * Asks the provider to return the log probability of each generated token (default false).
+         */
+        public Builder logProbs(boolean logProbs) {
+            this.logProbs = logProbs;
+            return this;
+        }
+
+        /**
+         * Sets the priority class used when requests are scheduled (default {@link Priority#NORMAL}).
+         * It is not sent to the provider.
+         */
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Sets the time by which the request must have finished (default: none). Rate limiter waits,
+         * retries and HTTP timeouts are bounded by it. It is not sent to the provider.
+         */
+        public Builder deadline(Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * Sets a deadline the given time from now. Note that the time starts running here, not when
+         * the request is sent.
+         */
+        public Builder timeout(Duration timeout) {
+            this.deadline = Deadline.after(timeout);
+            return this;
+        }
+
         /**
          * Validates required fields and returns a new {@link PromptRequest} instance.
          *
@@ -131,6 +208,7 @@ public final class PromptRequest {
          */
         public PromptRequest build() {
             Objects.requireNonNull(model, "model cannot be null");
+            Objects.requireNonNull(priority, "priority cannot be null");
             if (messages == null || messages.isEmpty()) {
                 throw new NullPointerException("messages cannot be null or empty");
             }
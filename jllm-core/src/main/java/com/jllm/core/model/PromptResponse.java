@@ -1,6 +1,8 @@
 package com.jllm.core.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import lombok.Getter;
 
 import java.util.List;
@@ -20,6 +22,7 @@ import java.util.Objects;
  * Author: @Noro
  * Version: 1.0
  */
+@JsonDeserialize(builder = PromptResponse.Builder.class)
 public final class PromptResponse {
 
     @Getter
@@ -50,11 +53,13 @@ public final class PromptResponse {
         return logProbs == null ? null : List.copyOf(logProbs);
     }
 
+    @JsonPOJOBuilder(withPrefix = "")
     public static final class Builder {
         private String text;
         private TokenUsage usage;
         private List<LogProb> logProbs;
 
+        @JsonProperty("choices")
         public Builder text(String text) {
             this.text = text;
             return this;
@@ -65,6 +70,7 @@ public final class PromptResponse {
             return this;
         }
 
+        @JsonProperty("logprobs")
         public Builder logProbs(List<LogProb> logProbs) {
             this.logProbs = logProbs;
             return this;
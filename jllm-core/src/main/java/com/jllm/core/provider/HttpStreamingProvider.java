@@ -0,0 +1,38 @@
+package com.jllm.core.provider;
+
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.stream.nio.HttpStreamRequest;
+import com.jllm.core.stream.sse.SseDecoder;
+
+import java.io.IOException;
+
+/**
+ * A provider whose streams are plain HTTP requests answered with server-sent events, so that they can
+ * be run without a thread per stream by a {@link com.jllm.core.stream.nio.NioStreamingEngine}.
+ * <p>
+ * The provider only describes the request and decodes the events; the engine owns the connection.
+ * {@link #executeStream(PromptRequest, StreamingListener, com.jllm.core.stream.StreamHandle)} remains
+ * the blocking way of running the same stream.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public interface HttpStreamingProvider extends Provider {
+
+    /**
+     * @param request The request to stream, already routed to its model.
+     * @return The HTTP request starting the stream.
+     */
+    HttpStreamRequest streamRequest(PromptRequest request) throws IOException;
+
+    /**
+     * Creates the handler for the events of one stream. It turns events into listener callbacks and
+     * returns false from {@link SseDecoder.EventHandler#onEvent} once the final event has arrived; a
+     * stream whose body ends before that is a failure.
+     *
+     * @param listener The listener of the stream.
+     * @return A handler serving this stream only.
+     */
+    SseDecoder.EventHandler streamEventHandler(StreamingListener listener) throws IOException;
+}
@@ -2,6 +2,7 @@ package com.jllm.core.provider;
 
 import com.jllm.core.model.PromptRequest;
 import com.jllm.core.model.PromptResponse;
+import com.jllm.core.stream.StreamHandle;
 
 import java.io.IOException;
 
@@ -59,6 +60,26 @@ public interface Provider {
      */
     String getApiUrl();
 
+    /**
+     * Returns a short, stable name identifying the provider, e.g. in routing tables and metrics.
+     *
+     * @return The provider name (defaults to the simple class name).
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Checks whether the provider can serve the given model. Used to decide which providers are
+     * eligible when requests are routed across several of them.
+     *
+     * @param model The model name.
+     * @return true if the provider accepts requests for the model (defaults to true).
+     */
+    default boolean supportsModel(String model) {
+        return true;
+    }
+
     /**
      * Executes a synchronous prompt request to the provider.
      *
@@ -77,4 +98,22 @@ public interface Provider {
      * @throws IOException If there is an issue with the request.
      */
     void executeStream(PromptRequest request, StreamingListener listener) throws IOException;
+
+    /**
+     * Executes a cancellable streaming prompt request to the provider.
+     * <p>
+     * Providers holding a network connection should register its release through
+     * {@link StreamHandle#onCancel(Runnable)} so a cancelled stream stops immediately, even while
+     * blocked on a read. The default implementation ignores the handle; such providers are still
+     * stopped by the client at the next token they deliver.
+     * </p>
+     *
+     * @param request  The prompt request.
+     * @param listener The listener that processes each token.
+     * @param handle   The handle through which the stream may be cancelled.
+     * @throws IOException If there is an issue with the request.
+     */
+    default void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle) throws IOException {
+        executeStream(request, listener);
+    }
 }
@@ -1,6 +1,8 @@
 package com.jllm.core.provider;
 
+import com.jllm.core.model.LogProb;
 import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
 
 /**
  * The StreamingListener interface defines methods for handling real-time streaming responses from LLM providers.
@@ -17,6 +19,10 @@ import com.jllm.core.model.PromptResponse;
  *     <li>{@link #onData(String)}: Called whenever a new chunk of data is received.</li>
  *     <li>{@link #onEnd()}: Called when the streaming process ends.</li>
  *     <li>{@link #onError(Exception)}: Called if an error occurs during the streaming process.</li>
+ *     <li>{@link #shouldContinue()}: Lets the listener stop the stream early.</li>
+ *     <li>{@link #onTokenChars(CharSequence)}: Called with a token that is only valid during the call.</li>
+ *     <li>{@link #onStreamCancelled(TokenUsage)}: Called when the stream was cancelled.</li>
+ *     <li>{@link #onLogProb(LogProb)}: Called with a token's log probability, if requested.</li>
  * </ul>
  *
  * @author @Noro
@@ -58,6 +64,18 @@ public interface StreamingListener {
      */
     void onTokenReceived(String token);
 
+    /**
+     * Called instead of {@link #onTokenReceived(String)} by stages that pass on a view of their own
+     * buffer rather than a new string. The characters are only valid during the call; a listener that
+     * keeps them must copy them. By default they are copied into a string and handed to
+     * {@link #onTokenReceived(String)}.
+     *
+     * @param token The token's characters.
+     */
+    default void onTokenChars(CharSequence token) {
+        onTokenReceived(token.toString());
+    }
+
     /**
      * This method is called when the streaming operation completes, either successfully or with an error.
      *
@@ -67,4 +85,33 @@ public interface StreamingListener {
     void onStreamCompleted(PromptResponse response, Exception error);
 
     void onStreamComplete();
+
+    /**
+     * Asked by the client after each delivered token. Returning false stops the stream early:
+     * the underlying connection is closed and no further tokens are generated or billed.
+     *
+     * @return true to keep receiving tokens; false once the listener has what it needs.
+     */
+    default boolean shouldContinue() {
+        return true;
+    }
+
+    /**
+     * Called instead of the completion callbacks when the stream was cancelled, either through its
+     * handle or because {@link #shouldContinue()} returned false.
+     *
+     * @param partialUsage The token usage up to the point of cancellation.
+     */
+    default void onStreamCancelled(TokenUsage partialUsage) {
+    }
+
+    /**
+     * Called with the log probability of a generated token when the request asked for log
+     * probabilities and the provider streams them. Providers call it right after the token's
+     * {@link #onTokenReceived(String)}.
+     *
+     * @param logProb The token's log probability.
+     */
+    default void onLogProb(LogProb logProb) {
+    }
 }
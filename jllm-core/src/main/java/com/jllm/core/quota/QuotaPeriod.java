@@ -0,0 +1,26 @@
+package com.jllm.core.quota;
+
+import java.time.LocalDate;
+
+/**
+ * The periods over which {@link TokenQuotaManager} enforces token quotas, in UTC calendar terms.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public enum QuotaPeriod {
+
+    DAILY,
+    MONTHLY;
+
+    /**
+     * @return A number identifying the period that contains the given day; consecutive periods get consecutive ids.
+     */
+    long id(long epochDay) {
+        if (this == DAILY) {
+            return epochDay;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,415 @@
+package com.jllm.core.quota;
+
+import com.jllm.core.accounting.UsageAccountant;
+import com.jllm.core.exception.QuotaExceededException;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.TokenUsage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent daily and monthly token quotas per tenant, kept in a memory-mapped file.
+ * <p>
+ * The file is an open-addressed hash table with linear probing. After a 64-byte header, every slot is
+ * 24 bytes: the tenant's 64-bit key (a hash of its id, 0 meaning empty), then one counter per
+ * {@link QuotaPeriod}. A counter packs the low 16 bits of its period id into its high bits and the tokens
+ * used in that period into the low 48 bits. All slot words are read and updated with {@link VarHandle}
+ * volatile reads and CASes directly on the mapping, so checks and increments are lock-free, need no
+ * heap per tenant, and survive restarts (the OS writes the pages back; {@link #force()} forces it).
+ * </p>
+ * <p>
+ * Periods roll over lazily: a counter tagged with an older period reads as 0 and the next increment
+ * replaces it, so there is no global reset. Sizing for a million tenants at 75% load takes 2^21 slots,
+ * 48 MB of (sparse) file.
+ * </p>
+ * <p>
+ * Quotas are checked against {@link PromptRequest#getMaxTokens()} before a call and charged with the
+ * actual {@link TokenUsage#getTotalTokens()} after it. Concurrent calls of one tenant are not reserved
+ * against each other, so a tenant can overshoot its quota by the requests in flight when it ran out.
+ * Tenant ids are identified by a 64-bit hash; two ids colliding would share a quota.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     TokenQuotaManager quotas = TokenQuotaManager.builder()
+ *         .path(Path.of("/var/lib/app/quotas.bin"))
+ *         .maxTenants(1_000_000)
+ *         .defaultLimits(200_000, 5_000_000)
+ *         .open();
+ *     LLMClient client = LLMClient.builder().provider(provider).model("gpt-4o").quotaManager(quotas).build();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class TokenQuotaManager implements Closeable {
+
+    /**
+     * Limit value meaning "no quota".
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final long MAGIC = 0x4A4C4C4D51554F54L;      // "JLLMQUOT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int VERSION_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int TENANTS_OFFSET = 16;
+    private static final int SLOT_BYTES = 24;
+    private static final int PERIOD_SHIFT = 48;
+    private static final long PERIOD_TAG_MASK = 0xFFFF;
+    private static final long TOKENS_MASK = (1L << PERIOD_SHIFT) - 1;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer table;
+    private final int capacity;
+    private final int mask;
+    private final int maxTenants;
+    private final Clock clock;
+    private final long[] defaultLimits;
+    private final ConcurrentHashMap<String, long[]> tenantLimits = new ConcurrentHashMap<>();
+    private volatile Periods periods = new Periods(Long.MIN_VALUE, 0, 0);
+
+    private TokenQuotaManager(Builder builder) throws IOException {
+        this.clock = builder.clock;
+        this.defaultLimits = new long[]{builder.dailyLimit, builder.monthlyLimit};
+        this.tenantLimits.putAll(builder.tenantLimits);
+        int requested = slotsFor(builder.maxTenants);
+        this.channel = FileChannel.open(builder.path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            int slots = fresh ? requested : readCapacity(channel);
+            this.table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * SLOT_BYTES);
+            if (fresh) {
+                table.order(ByteOrder.LITTLE_ENDIAN).putInt(VERSION_OFFSET, VERSION).putInt(CAPACITY_OFFSET, slots);
+                LONGS.setVolatile(table, 0, MAGIC);
+            }
+            this.capacity = slots;
+            this.mask = slots - 1;
+            this.maxTenants = slots / 4 * 3;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int slotsFor(int maxTenants) {
+        long needed = (long) Math.ceil(maxTenants / 0.75);
+        long slots = Long.highestOneBit(Math.max(needed, 16) - 1) << 1;
+        if (HEADER_BYTES + slots * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tenants for one quota file: " + maxTenants);
+        }
+        return (int) slots;
+    }
+
+    private static int readCapacity(FileChannel channel) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getLong(0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Not a quota file of version " + VERSION);
+        }
+        int slots = header.getInt(CAPACITY_OFFSET);
+        if (Integer.bitCount(slots) != 1 || channel.size() < HEADER_BYTES + (long) slots * SLOT_BYTES) {
+            throw new IOException("Corrupt quota file: capacity " + slots + ", size " + channel.size());
+        }
+        return slots;
+    }
+
+    /**
+     * Rejects a request whose {@link PromptRequest#getMaxTokens()} exceeds what its user has left.
+     * Requests without a user are charged to {@link UsageAccountant#ANONYMOUS}.
+     *
+     * @throws QuotaExceededException if the daily or monthly quota would be exceeded.
+     */
+    public void check(PromptRequest request) {
+        check(tenantOf(request), request.getMaxTokens());
+    }
+
+    /**
+     * @throws QuotaExceededException if {@code tokens} more would exceed the tenant's daily or monthly quota.
+     */
+    public void check(String tenant, long tokens) {
+        long[] limits = limitsOf(tenant);
+        if (limits[0] == UNLIMITED && limits[1] == UNLIMITED) {
+            return;
+        }
+        int slot = find(key(tenant), false);
+        if (slot < 0) {
+            if (tokens > limits[0] || tokens > limits[1]) {
+                throw exceeded(tenant, tokens, tokens > limits[0] ? QuotaPeriod.DAILY : QuotaPeriod.MONTHLY, 0);
+            }
+            return;
+        }
+        Periods p = periods();
+        for (QuotaPeriod period : QuotaPeriod.values()) {
+            long limit = limits[period.ordinal()];
+            long used = used(counterOffset(slot, period), p.ids[period.ordinal()]);
+            if (limit != UNLIMITED && used + tokens > limit) {
+                throw exceeded(tenant, tokens, period, used);
+            }
+        }
+    }
+
+    /**
+     * Charges the request's user with the tokens actually used.
+     */
+    public void record(PromptRequest request, TokenUsage usage) {
+        record(tenantOf(request), usage);
+    }
+
+    /**
+     * Charges a tenant with {@link TokenUsage#getTotalTokens()} in every period.
+     */
+    public void record(String tenant, TokenUsage usage) {
+        if (usage == null || usage.getTotalTokens() <= 0) {
+            return;
+        }
+        int slot = find(key(tenant), true);
+        Periods p = periods();
+        for (QuotaPeriod period : QuotaPeriod.values()) {
+            add(counterOffset(slot, period), p.ids[period.ordinal()], usage.getTotalTokens());
+        }
+    }
+
+    /**
+     * @return The tokens the tenant used in the current period.
+     */
+    public long getUsed(String tenant, QuotaPeriod period) {
+        int slot = find(key(tenant), false);
+        return slot < 0 ? 0 : used(counterOffset(slot, period), periods().ids[period.ordinal()]);
+    }
+
+    /**
+     * @return The tokens the tenant has left in the current period, or {@link #UNLIMITED}.
+     */
+    public long getRemaining(String tenant, QuotaPeriod period) {
+        long limit = limitsOf(tenant)[period.ordinal()];
+        return limit == UNLIMITED ? UNLIMITED : Math.max(0, limit - getUsed(tenant, period));
+    }
+
+    /**
+     * Overrides the default limits of one tenant. Limits are configuration and are not persisted.
+     */
+    public void setLimits(String tenant, long dailyTokens, long monthlyTokens) {
+        tenantLimits.put(Objects.requireNonNull(tenant, "tenant cannot be null"), new long[]{dailyTokens, monthlyTokens});
+    }
+
+    /**
+     * @return The number of tenants that have a slot in the file.
+     */
+    public long getTenantCount() {
+        return (long) LONGS.getVolatile(table, TENANTS_OFFSET);
+    }
+
+    /**
+     * @return The number of slots in the file.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes all counters to the storage device.
+     */
+    public void force() {
+        table.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * @return The offset of the tenant's slot, or -1 if it has none and {@code create} is false.
+     */
+    private int find(long key, boolean create) {
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = HEADER_BYTES + index * SLOT_BYTES;
+            long current = (long) LONGS.getVolatile(table, offset);
+            if (current == key) {
+                return offset;
+            }
+            if (current == 0) {
+                if (!create) {
+                    return -1;
+                }
+                if (getTenantCount() >= maxTenants) {
+                    throw new IllegalStateException("Quota file is full: " + maxTenants + " tenants");
+                }
+                if (LONGS.compareAndSet(table, offset, 0L, key)) {
+                    LONGS.getAndAdd(table, TENANTS_OFFSET, 1L);
+                    return offset;
+                }
+                if ((long) LONGS.getVolatile(table, offset) == key) {
+                    return offset;                               // another thread added the same tenant
+                }
+            }
+            index = (index + 1) & mask;
+        }
+        throw new IllegalStateException("Quota file is full");
+    }
+
+    private static int counterOffset(int slot, QuotaPeriod period) {
+        return slot + Long.BYTES * (1 + period.ordinal());
+    }
+
+    private long used(int offset, long periodId) {
+        long value = (long) LONGS.getVolatile(table, offset);
+        return (value >>> PERIOD_SHIFT) == (periodId & PERIOD_TAG_MASK) ? value & TOKENS_MASK : 0;
+    }
+
+    private void add(int offset, long periodId, long tokens) {
+        long tag = periodId & PERIOD_TAG_MASK;
+        while (true) {
+            long prev = (long) LONGS.getVolatile(table, offset);
+            long used = (prev >>> PERIOD_SHIFT) == tag ? prev & TOKENS_MASK : 0;   // older period: start over
+            long next = (tag << PERIOD_SHIFT) | Math.min(used + tokens, TOKENS_MASK);
+            if (LONGS.compareAndSet(table, offset, prev, next)) {
+                return;
+            }
+        }
+    }
+
+    private long[] limitsOf(String tenant) {
+        return tenantLimits.getOrDefault(tenant, defaultLimits);
+    }
+
+    private Periods periods() {
+        long day = Math.floorDiv(clock.millis(), MILLIS_PER_DAY);
+        Periods p = periods;
+        if (p.epochDay != day) {
+            p = new Periods(day, QuotaPeriod.DAILY.id(day), QuotaPeriod.MONTHLY.id(day));
+            periods = p;
+        }
+        return p;
+    }
+
+    private static String tenantOf(PromptRequest request) {
+        return request.getUser() != null ? request.getUser() : UsageAccountant.ANONYMOUS;
+    }
+
+    private QuotaExceededException exceeded(String tenant, long tokens, QuotaPeriod period, long used) {
+        long limit = limitsOf(tenant)[period.ordinal()];
+        return new QuotaExceededException(period.name().toLowerCase() + " token quota of tenant " + tenant
+                + " exceeded: " + used + " of " + limit + " used, " + tokens + " requested");
+    }
+
+    /**
+     * 64-bit FNV-1a over the tenant id, finished with a murmur3 mix; never 0, which marks empty slots.
+     */
+    static long key(String tenant) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < tenant.length(); i++) {
+            h ^= tenant.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+
+    /**
+     * The period ids of one UTC day, cached because computing the month allocates.
+     */
+    private static final class Periods {
+        final long epochDay;
+        final long[] ids;
+
+        Periods(long epochDay, long dailyId, long monthlyId) {
+            this.epochDay = epochDay;
+            this.ids = new long[]{dailyId, monthlyId};
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pattern to construct a TokenQuotaManager.
+     */
+    public static class Builder {
+        private Path path;
+        private int maxTenants = 1_000_000;
+        private long dailyLimit = UNLIMITED;
+        private long monthlyLimit = UNLIMITED;
+        private final ConcurrentHashMap<String, long[]> tenantLimits = new ConcurrentHashMap<>();
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * The counter file; created if missing, reopened with its counters otherwise.
+         */
+        public Builder path(Path path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * How many tenants a new file is sized for (default one million). Ignored when reopening a file.
+         */
+        public Builder maxTenants(int maxTenants) {
+            if (maxTenants <= 0) {
+                throw new IllegalArgumentException("maxTenants must be positive");
+            }
+            this.maxTenants = maxTenants;
+            return this;
+        }
+
+        /**
+         * Limits of tenants without their own, in tokens per day and per month (default: unlimited).
+         */
+        public Builder defaultLimits(long dailyTokens, long monthlyTokens) {
+            this.dailyLimit = dailyTokens;
+            this.monthlyLimit = monthlyTokens;
+            return this;
+        }
+
+        /**
+         * Limits of one tenant, in tokens per day and per month.
+         */
+        public Builder tenantLimits(String tenant, long dailyTokens, long monthlyTokens) {
+            this.tenantLimits.put(Objects.requireNonNull(tenant, "tenant cannot be null"),
+                    new long[]{dailyTokens, monthlyTokens});
+            return this;
+        }
+
+        /**
+         * Clock deciding the current day and month (default: system UTC clock).
+         */
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+            return this;
+        }
+
+        /**
+         * Opens or creates the counter file.
+         */
+        public TokenQuotaManager open() throws IOException {
+            Objects.requireNonNull(path, "path must be set");
+            return new TokenQuotaManager(this);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.jllm.core.rate;
+
+import com.jllm.core.exception.ConcurrencyLimitExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of calls in flight and adapts the cap to the latency the callee is showing.
+ * <p>
+ * Where {@link RateLimiter} controls how fast requests start, this limiter controls how many may be
+ * outstanding at once. The limit follows a gradient algorithm: a short-term average of round-trip
+ * times is compared with a long-term one. While both agree the limit grows by roughly its square root
+ * per sample; once the short-term latency drifts above the long-term one by more than the configured
+ * tolerance (requests are queuing at the provider), the limit shrinks in proportion. Samples taken
+ * while less than half of the limit was in use do not raise it, so the limit does not run away during
+ * quiet periods. Calls that were rejected by the provider (rate limited or timed out) cut the limit
+ * multiplicatively.
+ * </p>
+ * <p>
+ * A caller that finds the limit reached waits up to {@code maxWait} for a permit and is then rejected
+ * with {@link ConcurrencyLimitExceededException}. Permits are taken with a single CAS on the fast path;
+ * the lock is only touched by callers that have to wait and by releases while someone is waiting.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+ *         .initialLimit(20)
+ *         .maxLimit(200)
+ *         .maxWait(Duration.ofMillis(50))
+ *         .build();
+ *     long start = limiter.acquire();
+ *     try {
+ *         call();
+ *         limiter.onSuccess(start);
+ *     } catch (RateLimitException e) {
+ *         limiter.onDropped();
+ *         throw e;
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Multiplicative decrease applied when the callee drops a request
+    private static final double DROP_BACKOFF = 0.9;
+    // Weight of a sample in the short-term round-trip average
+    private static final double SHORT_ALPHA = 0.5;
+    // Weight of a sample in the long-term round-trip average
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    // Written under the instance monitor, read without it
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    private AdaptiveConcurrencyLimiter(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxWaitNanos = builder.maxWait.toNanos();
+        this.tolerance = builder.tolerance;
+        this.smoothing = builder.smoothing;
+        this.limit = builder.initialLimit;
+        this.estimatedLimit = builder.initialLimit;
+    }
+
+    /**
+     * Takes a permit, waiting up to the configured maximum if the limit is reached. Every successful
+     * call must be followed by exactly one of {@link #onSuccess(long)}, {@link #onDropped()} or
+     * {@link #onIgnore()}.
+     *
+     * @return The start time in {@link System#nanoTime()} units, to be passed to {@link #onSuccess(long)}.
+     * @throws ConcurrencyLimitExceededException if no permit became free in time.
+     * @throws InterruptedException              if the thread is interrupted while waiting.
+     */
+    public long acquire() throws InterruptedException {
+        if (tryAcquire()) {
+            return System.nanoTime();
+        }
+        if (maxWaitNanos > 0) {
+            long remaining = maxWaitNanos;
+            waiters.incrementAndGet();
+            lock.lockInterruptibly();
+            try {
+                while (!tryAcquire()) {
+                    if (remaining <= 0) {
+                        throw rejected();
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return System.nanoTime();
+            } finally {
+                lock.unlock();
+                waiters.decrementAndGet();
+            }
+        }
+        throw rejected();
+    }
+
+    /**
+     * Takes a permit if one is free right now.
+     *
+     * @return true if a permit was taken.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of a call that completed normally and feeds its round-trip time to the
+     * limit.
+     *
+     * @param startNanos The value returned by {@link #acquire()}.
+     */
+    public void onSuccess(long startNanos) {
+        int outstanding = inFlight.get();
+        sample(System.nanoTime() - startNanos, outstanding);
+        release();
+    }
+
+    /**
+     * Releases the permit of a call the callee refused or timed out, lowering the limit.
+     */
+    public void onDropped() {
+        synchronized (this) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * DROP_BACKOFF);
+            limit = (int) estimatedLimit;
+        }
+        release();
+    }
+
+    /**
+     * Releases the permit of a call whose outcome says nothing about the callee's load, e.g. a
+     * rejected request or a cancelled stream.
+     */
+    public void onIgnore() {
+        release();
+    }
+
+    private synchronized void sample(long rttNanos, int outstanding) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += SHORT_ALPHA * (rttNanos - shortRtt);
+        longRtt += LONG_ALPHA * (rttNanos - longRtt);
+        if (longRtt / shortRtt > 2) {
+            // Latency improved a lot (e.g. after an incident); let the baseline catch up quickly
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        if (gradient == 1.0 && outstanding < estimatedLimit / 2) {
+            return;                                              // app-limited: no evidence the limit is too low
+        }
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double next = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        int previous = limit;
+        limit = (int) estimatedLimit;
+        if (limit > previous && waiters.get() > 0) {
+            signal(true);
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (waiters.get() > 0) {
+            signal(false);
+        }
+    }
+
+    private void signal(boolean all) {
+        lock.lock();
+        try {
+            if (all) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ConcurrencyLimitExceededException rejected() {
+        return new ConcurrencyLimitExceededException(
+                "Concurrency limit of " + limit + " reached (" + inFlight.get() + " in flight)");
+    }
+
+    /**
+     * @return The current concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return The number of permits currently held.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private Duration maxWait = Duration.ZERO;
+        private double tolerance = 1.5;
+        private double smoothing = 0.2;
+
+        /**
+         * Sets the limit used until latency samples arrive (default 20).
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the lowest value the limit may shrink to (default 1).
+         */
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * Sets the highest value the limit may grow to (default 200).
+         */
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets how long a caller may wait for a permit before it is rejected (default zero: reject
+         * immediately).
+         */
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Sets how far short-term latency may rise above the long-term average before the limit
+         * shrinks, as a ratio (default 1.5).
+         */
+        public Builder tolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Sets how much of each computed change is applied to the limit, between 0 and 1 (default 0.2).
+         */
+        public Builder smoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimiter build() {
+            if (minLimit < 1 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("Invalid limit bounds: " + minLimit + ".." + maxLimit);
+            }
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Initial limit outside " + minLimit + ".." + maxLimit);
+            }
+            if (maxWait.isNegative()) {
+                throw new IllegalArgumentException("maxWait must not be negative");
+            }
+            if (tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("Invalid tolerance or smoothing");
+            }
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+}
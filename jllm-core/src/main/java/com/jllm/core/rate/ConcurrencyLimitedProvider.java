@@ -0,0 +1,166 @@
+package com.jllm.core.rate;
+
+import com.jllm.core.exception.ConcurrencyLimitExceededException;
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.FirstTokenListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Objects;
+
+/**
+ * A {@link Provider} decorator that acts as a bulkhead: every call holds a permit of an
+ * {@link AdaptiveConcurrencyLimiter} for as long as it runs, so a slow provider cannot pile up an
+ * unbounded number of waiting requests.
+ * <p>
+ * Successful calls feed their latency to the limiter; for streams this is the time to the first
+ * token, since the total duration depends on the length of the output. A stream keeps its permit
+ * until it ends. Rate limit responses and socket timeouts count as dropped requests and lower the
+ * limit; other failures and cancelled streams release the permit without affecting it.
+ * </p>
+ * <p>
+ * When no permit is available the call fails with {@link ConcurrencyLimitExceededException}, which a
+ * {@code RoutingProvider} treats like an unavailable provider and fails over.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     Provider limited = new ConcurrencyLimitedProvider(openAi, AdaptiveConcurrencyLimiter.builder()
+ *         .maxWait(Duration.ofMillis(100))
+ *         .build());
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class ConcurrencyLimitedProvider implements Provider {
+
+    private final Provider delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitedProvider(Provider delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.limiter = Objects.requireNonNull(limiter, "limiter cannot be null");
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        long start;
+        try {
+            start = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProviderNotAvailableException("Interrupted while waiting for a concurrency permit", e);
+        }
+        try {
+            PromptResponse response = delegate.sendRequest(promptRequest);
+            limiter.onSuccess(start);
+            return response;
+        } catch (RuntimeException e) {
+            release(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        long start = acquire();
+        try {
+            PromptResponse response = delegate.execute(request);
+            limiter.onSuccess(start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            release(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        long start = acquire();
+        FirstTokenListener tracking = new FirstTokenListener(listener);
+        try {
+            delegate.executeStream(request, tracking, handle);
+        } catch (IOException | RuntimeException e) {
+            if (handle.isCancelled()) {
+                limiter.onIgnore();
+            } else {
+                release(e);
+            }
+            throw e;
+        }
+        long firstToken = tracking.getFirstTokenNanos();
+        if (firstToken == 0 || handle.isCancelled()) {
+            limiter.onIgnore();
+        } else {
+            // onSuccess measures up to now; shift the start so the sample is the time to first token
+            limiter.onSuccess(start + System.nanoTime() - firstToken);
+        }
+    }
+
+    private long acquire() throws InterruptedIOException {
+        try {
+            return limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted =
+                    new InterruptedIOException("Interrupted while waiting for a concurrency permit");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    private void release(Exception e) {
+        if (e instanceof RateLimitException || e instanceof SocketTimeoutException) {
+            limiter.onDropped();
+        } else {
+            limiter.onIgnore();
+        }
+    }
+
+    /**
+     * @return The limiter guarding the underlying provider.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean supportsModel(String model) {
+        return delegate.supportsModel(model);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public void setAuthToken(String token) {
+        delegate.setAuthToken(token);
+    }
+
+    @Override
+    public String getApiUrl() {
+        return delegate.getApiUrl();
+    }
+}
@@ -1,5 +1,8 @@
 package com.jllm.core.rate;
 
+import com.jllm.core.time.TimeSource;
+
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -23,6 +26,8 @@ public class RateLimiter {
     private final AtomicInteger requestCount;
     // Lock to synchronize access to the request count
     private final ReentrantLock lock;
+    // Clock and sleep, real unless a test supplies a virtual one
+    private final TimeSource time;
 
     // Timestamp of the last reset (start of the time window)
     private long windowStartTime;
@@ -34,51 +39,112 @@ public class RateLimiter {
      * @param windowTime  The time window in milliseconds.
      */
     public RateLimiter(int maxRequests, long windowTime) {
+        this(maxRequests, windowTime, TimeSource.system());
+    }
+
+    /**
+     * Constructs a RateLimiter that reads the time from and waits on the given time source.
+     *
+     * @param maxRequests The maximum number of requests allowed in the time window.
+     * @param windowTime  The time window in milliseconds.
+     * @param time        The time source, e.g. a virtual clock in tests.
+     */
+    public RateLimiter(int maxRequests, long windowTime, TimeSource time) {
         this.maxRequests = maxRequests;
         this.windowTime = windowTime;
         this.requestCount = new AtomicInteger(0);
         this.lock = new ReentrantLock();
-        this.windowStartTime = System.currentTimeMillis();
+        this.time = Objects.requireNonNull(time, "time cannot be null");
+        this.windowStartTime = time.currentTimeMillis();
     }
 
     /**
      * Acquires a permit for a request. If the rate limit has been reached, this method will block until a request can be made.
+     * <p>
+     * The lock is only held while the window is checked, never while waiting for the next one, so
+     * that waiting callers do not hold up {@link #tryAcquire(long, TimeUnit)} or each other.
+     * </p>
      *
      * @throws InterruptedException if the thread is interrupted while waiting
      */
     public void acquire() throws InterruptedException {
-        // Ensure thread-safe access to request count
-        lock.lock();
-        try {
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - windowStartTime > windowTime) {
-                // Reset the window if the time window has passed
-                resetWindow();
+        while (true) {
+            long waitTime;
+            lock.lock();
+            try {
+                waitTime = takePermit();
+            } finally {
+                lock.unlock();
+            }
+            if (waitTime == 0) {
+                return;
             }
+            // Wait outside the lock until the next time window, then check again
+            time.sleep(waitTime, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            // Check if the request count exceeds the maximum allowed requests
-            while (requestCount.get() >= maxRequests) {
-                // If exceeded, wait until the next time window
-                long waitTime = windowStartTime + windowTime - currentTime;
-                if (waitTime > 0) {
-                    Thread.sleep(waitTime);
-                }
-                currentTime = System.currentTimeMillis();
-                resetWindow();
+    /**
+     * Acquires a permit if one becomes available within the given timeout.
+     * <p>
+     * If the current window is full and the next one starts later than the timeout allows, this
+     * returns false at once instead of sleeping until the timeout: the permit is left for requests
+     * that can still use it. Waiting for the lock counts against the timeout as well.
+     * </p>
+     *
+     * @param timeout The longest time to wait for a permit.
+     * @param unit    The unit of the timeout.
+     * @return true if a permit was acquired, false if none was available in time.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = time.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            long remaining = Math.max(0, deadline - time.currentTimeMillis());
+            if (!lock.tryLock(remaining, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            long waitTime;
+            try {
+                waitTime = takePermit();
+            } finally {
+                lock.unlock();
+            }
+            if (waitTime == 0) {
+                return true;
+            }
+            if (time.currentTimeMillis() + waitTime > deadline) {
+                return false;
             }
+            time.sleep(waitTime, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            // Increment request count as the request is allowed
-            requestCount.incrementAndGet();
-        } finally {
-            lock.unlock();
+    /**
+     * Takes a permit from the current window, starting a new window if the current one has passed.
+     * Must be called with the lock held.
+     *
+     * @return 0 if a permit was taken, otherwise the milliseconds until the current window ends.
+     */
+    private long takePermit() {
+        long currentTime = time.currentTimeMillis();
+        long windowEnd = windowStartTime + windowTime;
+        if (currentTime >= windowEnd) {
+            // Reset the window if the time window has passed
+            resetWindow();
+        } else if (requestCount.get() >= maxRequests) {
+            return windowEnd - currentTime;
         }
+        // Increment request count as the request is allowed
+        requestCount.incrementAndGet();
+        return 0;
     }
 
     /**
      * Resets the rate limit window.
      */
     private void resetWindow() {
-        windowStartTime = System.currentTimeMillis();
+        windowStartTime = time.currentTimeMillis();
         requestCount.set(0);
     }
 
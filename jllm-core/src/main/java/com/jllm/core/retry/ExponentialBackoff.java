@@ -1,5 +1,7 @@
 package com.jllm.core.retry;
 
+import com.jllm.core.jfr.RetryEvent;
+
 /**
  * ExponentialBackoff implements the exponential backoff strategy for retrying operations
  * that might fail intermittently, such as interacting with an external service or API.
@@ -77,7 +79,12 @@ public class ExponentialBackoff {
                 }
 
                 // Sleep for the current delay before retrying
-                Thread.sleep(delay);
+                RetryEvent event = RetryEvent.start(attempts, delay, e);
+                try {
+                    Thread.sleep(delay);
+                } finally {
+                    event.finish();
+                }
 
                 // Exponentially increase the delay, but ensure it doesn't exceed maxDelayMillis
                 delay = Math.min((long) (delay * backoffFactor), maxDelayMillis);
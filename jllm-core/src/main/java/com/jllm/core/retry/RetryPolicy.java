@@ -1,5 +1,11 @@
 package com.jllm.core.retry;
 
+import com.jllm.core.jfr.RetryEvent;
+import com.jllm.core.time.Deadline;
+import com.jllm.core.time.TimeSource;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -12,6 +18,7 @@ public class RetryPolicy {
 
     private final int maxRetries;
     private final long delayMs;
+    private final TimeSource time;
 
     /**
      * Constructs a RetryPolicy with a maximum number of retries and a delay between retries.
@@ -20,8 +27,20 @@ public class RetryPolicy {
      * @param delayMs The delay between retries in milliseconds.
      */
     public RetryPolicy(int maxRetries, long delayMs) {
+        this(maxRetries, delayMs, TimeSource.system());
+    }
+
+    /**
+     * Constructs a RetryPolicy that waits out its backoff on the given time source.
+     *
+     * @param maxRetries The maximum number of retry attempts.
+     * @param delayMs The delay between retries in milliseconds.
+     * @param time The time source, e.g. a virtual clock in tests.
+     */
+    public RetryPolicy(int maxRetries, long delayMs, TimeSource time) {
         this.maxRetries = maxRetries;
         this.delayMs = delayMs;
+        this.time = Objects.requireNonNull(time, "time cannot be null");
     }
 
     /**
@@ -33,16 +52,30 @@ public class RetryPolicy {
      * @throws InterruptedException If the thread is interrupted during a retry.
      */
     public <T> T execute(Supplier<T> task) throws InterruptedException {
+        return execute(task, null);
+    }
+
+    /**
+     * Executes a task with retry logic within a deadline. A failure is not retried if the deadline
+     * would pass before the backoff delay ends; the failure is rethrown instead.
+     *
+     * @param task     The task to execute.
+     * @param deadline The deadline of the request, or null for none.
+     * @param <T>      The return type of the task.
+     * @return The result of the task execution.
+     * @throws InterruptedException If the thread is interrupted during a retry.
+     */
+    public <T> T execute(Supplier<T> task, Deadline deadline) throws InterruptedException {
         int attempt = 0;
         while (attempt < maxRetries) {
             try {
                 return task.get();
             } catch (Exception e) {
                 attempt++;
-                if (attempt >= maxRetries) {
+                if (attempt >= maxRetries || !canRetry(attempt, deadline)) {
                     throw e;
                 }
-                Thread.sleep(delayMs * attempt); // Exponential backoff (or simple delay)
+                backoff(attempt, e);
             }
         }
         throw new IllegalStateException("Max retries reached");
@@ -55,6 +88,18 @@ public class RetryPolicy {
      * @throws InterruptedException If the thread is interrupted during a retry.
      */
     public void executeVoid(Runnable task) throws InterruptedException {
+        executeVoid(task, null);
+    }
+
+    /**
+     * Executes a void task with retry logic within a deadline.
+     *
+     * @param task     The task to execute.
+     * @param deadline The deadline of the request, or null for none.
+     * @throws InterruptedException If the thread is interrupted during a retry.
+     * @see #execute(Supplier, Deadline)
+     */
+    public void executeVoid(Runnable task, Deadline deadline) throws InterruptedException {
         int attempt = 0;
         while (attempt < maxRetries) {
             try {
@@ -62,15 +107,55 @@ public class RetryPolicy {
                 return;
             } catch (Exception e) {
                 attempt++;
-                if (attempt >= maxRetries) {
+                if (attempt >= maxRetries || !canRetry(attempt, deadline)) {
                     throw e;
                 }
-                Thread.sleep(delayMs * attempt); // Exponential backoff (or simple delay)
+                backoff(attempt, e);
             }
         }
         throw new IllegalStateException("Max retries reached");
     }
 
+    /**
+     * For callers that schedule their own retries instead of blocking in {@link #execute}.
+     *
+     * @param failures The number of times the task has failed so far.
+     * @param deadline The deadline of the request, or null for none.
+     * @return true if the task may run again after {@link #backoffMillis(int)}.
+     */
+    public boolean shouldRetry(int failures, Deadline deadline) {
+        return failures < maxRetries && canRetry(failures, deadline);
+    }
+
+    /**
+     * @param failures The number of times the task has failed so far.
+     * @return The delay in milliseconds before the next attempt.
+     */
+    public long backoffMillis(int failures) {
+        return delay(failures);
+    }
+
+    /**
+     * A retry is pointless if the deadline passes before the backoff delay is over.
+     */
+    private boolean canRetry(int attempt, Deadline deadline) {
+        return deadline == null || deadline.remainingNanos() > TimeUnit.MILLISECONDS.toNanos(delay(attempt));
+    }
+
+    private long delay(int attempt) {
+        return delayMs * attempt;                                // Exponential backoff (or simple delay)
+    }
+
+    private void backoff(int attempt, Exception error) throws InterruptedException {
+        long delay = delay(attempt);
+        RetryEvent event = RetryEvent.start(attempt, delay, error);
+        try {
+            time.sleep(delay, TimeUnit.MILLISECONDS);
+        } finally {
+            event.finish();
+        }
+    }
+
     /**
      * Default retry policy with 3 retries and a 1-second delay.
      */
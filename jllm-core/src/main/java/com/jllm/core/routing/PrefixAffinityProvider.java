@@ -0,0 +1,558 @@
+package com.jllm.core.routing;
+
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.FirstTokenListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A {@link Provider} balancing requests across self-hosted inference replicas (vLLM/TGI-style
+ * endpoints) so that requests sharing a prompt prefix land on the same replica.
+ * <p>
+ * Replica KV prefix caches only help if requests with the same long system prompt hit the same replica.
+ * The leading {@link Message}s of each request are hashed onto a consistent-hash ring with virtual nodes;
+ * the request goes to the first replica clockwise from that hash that is healthy and not overloaded.
+ * Load is bounded as in "consistent hashing with bounded loads": a replica only accepts a request while
+ * its in-flight count is below {@code loadFactor} times the average, so a hot prefix spills over to the
+ * next replica on the ring instead of overloading one node.
+ * </p>
+ * <p>
+ * Replicas can join and leave at runtime; only the keys owned by the affected virtual nodes move.
+ * A replica failing with {@link ProviderNotAvailableException} or an I/O error is skipped for a
+ * cooldown period and the request moves on to the next replica on the ring.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     PrefixAffinityProvider replicas = PrefixAffinityProvider.builder()
+ *         .replicas(List.of("http://gpu-1:8000", "http://gpu-2:8000"), url -> new OpenAIProvider(url))
+ *         .prefixMessages(1)
+ *         .build();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class PrefixAffinityProvider implements Provider {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // Replicas tried during one request are tracked in a long bitmask
+    private static final int MAX_REPLICAS = 64;
+
+    private final int virtualNodes;
+    private final double loadFactor;
+    private final int prefixMessages;
+    private final long unhealthyCooldownNanos;
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    // Copy-on-write: membership changes are rare, lookups read one volatile reference
+    private volatile Ring ring = new Ring(new Replica[0], new long[0], new int[0]);
+
+    private PrefixAffinityProvider(Builder builder) {
+        this.virtualNodes = builder.virtualNodes;
+        this.loadFactor = builder.loadFactor;
+        this.prefixMessages = builder.prefixMessages;
+        this.unhealthyCooldownNanos = builder.unhealthyCooldown.toNanos();
+        for (Replica replica : builder.replicas) {
+            addReplica(replica.url, replica.provider);
+        }
+    }
+
+    /**
+     * Adds a replica to the ring. Only keys falling on the new replica's virtual nodes are remapped.
+     *
+     * @param url      The replica endpoint, used as its identity on the ring.
+     * @param provider The provider talking to that endpoint.
+     */
+    public synchronized void addReplica(String url, Provider provider) {
+        Ring current = ring;
+        if (current.replicas.length == MAX_REPLICAS) {
+            throw new IllegalStateException("At most " + MAX_REPLICAS + " replicas are supported");
+        }
+        for (Replica replica : current.replicas) {
+            if (replica.url.equals(url)) {
+                throw new IllegalArgumentException("Replica already present: " + url);
+            }
+        }
+        Replica[] replicas = Arrays.copyOf(current.replicas, current.replicas.length + 1);
+        replicas[replicas.length - 1] = new Replica(url, provider);
+        ring = Ring.build(replicas, virtualNodes);
+    }
+
+    /**
+     * Removes a replica from the ring. Only keys it owned are remapped.
+     *
+     * @param url The replica endpoint.
+     * @return true if the replica was present.
+     */
+    public synchronized boolean removeReplica(String url) {
+        Ring current = ring;
+        List<Replica> remaining = new ArrayList<>();
+        for (Replica replica : current.replicas) {
+            if (!replica.url.equals(url)) {
+                remaining.add(replica);
+            }
+        }
+        if (remaining.size() == current.replicas.length) {
+            return false;
+        }
+        ring = Ring.build(remaining.toArray(new Replica[0]), virtualNodes);
+        return true;
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        try {
+            return route(promptRequest, false);
+        } catch (IOException e) {
+            throw new ProviderNotAvailableException("Request failed", e);
+        }
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        return route(request, true);
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        Ring current = ring;
+        long hash = prefixHash(request);
+        int start = current.firstNodeAtOrAfter(hash);
+        Exception lastFailure = null;
+        long tried = 0;
+        for (int attempt = 0; attempt < current.replicas.length; attempt++) {
+            int index = current.select(start, tried, this);
+            if (index < 0) {
+                break;
+            }
+            tried |= 1L << index;
+            Replica replica = current.replicas[index];
+            FirstTokenListener tracking = new FirstTokenListener(listener);
+            replica.begin(totalInFlight);
+            try {
+                replica.provider.executeStream(request, tracking, handle);
+                replica.succeeded();
+                return;
+            } catch (ProviderNotAvailableException | IOException e) {
+                if (handle.isCancelled()) {
+                    throw e;                                     // connection closed by the caller
+                }
+                replica.failed(unhealthyCooldownNanos);
+                if (tracking.hasStarted()) {
+                    throw e;                                     // can't replay delivered tokens
+                }
+                lastFailure = e;
+            } finally {
+                replica.end(totalInFlight);
+            }
+        }
+        throw new ProviderNotAvailableException("No replica available", lastFailure);
+    }
+
+    private PromptResponse route(PromptRequest request, boolean execute) throws IOException {
+        Ring current = ring;
+        long hash = prefixHash(request);
+        int start = current.firstNodeAtOrAfter(hash);
+        Exception lastFailure = null;
+        long tried = 0;
+        for (int attempt = 0; attempt < current.replicas.length; attempt++) {
+            int index = current.select(start, tried, this);
+            if (index < 0) {
+                break;
+            }
+            tried |= 1L << index;
+            Replica replica = current.replicas[index];
+            replica.begin(totalInFlight);
+            try {
+                PromptResponse response = execute
+                        ? replica.provider.execute(request)
+                        : replica.provider.sendRequest(request);
+                replica.succeeded();
+                return response;
+            } catch (ProviderNotAvailableException | IOException e) {
+                replica.failed(unhealthyCooldownNanos);
+                lastFailure = e;
+            } finally {
+                replica.end(totalInFlight);
+            }
+        }
+        throw new ProviderNotAvailableException("No replica available", lastFailure);
+    }
+
+    /**
+     * 64-bit FNV-1a over role and content of the leading messages, finished with a MurmurHash3 mix
+     * so nearby prefixes spread evenly over the ring. Allocation-free.
+     */
+    long prefixHash(PromptRequest request) {
+        long h = FNV_OFFSET;
+        List<Message> messages = request.getMessages();
+        int count = Math.min(prefixMessages, messages.size());
+        for (int m = 0; m < count; m++) {
+            Message message = messages.get(m);
+            h = fnv(h, message.getRole());
+            h = (h ^ 0xff) * FNV_PRIME;                          // separator between fields
+            h = fnv(h, message.getContent());
+            h = (h ^ 0xfe) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    private static long fnv(long h, String s) {
+        if (s == null) {
+            return h;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            h = (h ^ (c & 0xff)) * FNV_PRIME;
+            h = (h ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @return The maximum number of in-flight requests a replica may hold right now.
+     */
+    private int capacity(int healthyReplicas) {
+        int total = totalInFlight.get() + 1;
+        return (int) Math.ceil(loadFactor * total / Math.max(1, healthyReplicas));
+    }
+
+    /**
+     * @return The statistics of each replica currently on the ring.
+     */
+    public List<ReplicaStats> getReplicaStats() {
+        List<ReplicaStats> stats = new ArrayList<>();
+        for (Replica replica : ring.replicas) {
+            stats.add(new ReplicaStats(replica.url, replica.inFlight.get(), replica.requests.get(),
+                    replica.failures.get(), replica.isHealthy(System.nanoTime())));
+        }
+        return stats;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        long now = System.nanoTime();
+        for (Replica replica : ring.replicas) {
+            if (replica.isHealthy(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the token on every replica; they all belong to the same deployment.
+     */
+    @Override
+    public void setAuthToken(String token) {
+        for (Replica replica : ring.replicas) {
+            replica.provider.setAuthToken(token);
+        }
+    }
+
+    /**
+     * @return null, since requests are spread over several endpoints.
+     */
+    @Override
+    public String getApiUrl() {
+        return null;
+    }
+
+    @Override
+    public boolean supportsModel(String model) {
+        for (Replica replica : ring.replicas) {
+            if (replica.provider.supportsModel(model)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Immutable snapshot of a replica's counters.
+     */
+    public static final class ReplicaStats {
+        private final String url;
+        private final int inFlight;
+        private final long requests;
+        private final long failures;
+        private final boolean healthy;
+
+        ReplicaStats(String url, int inFlight, long requests, long failures, boolean healthy) {
+            this.url = url;
+            this.inFlight = inFlight;
+            this.requests = requests;
+            this.failures = failures;
+            this.healthy = healthy;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        @Override
+        public String toString() {
+            return "ReplicaStats{" +
+                    "url='" + url + '\'' +
+                    ", inFlight=" + inFlight +
+                    ", requests=" + requests +
+                    ", failures=" + failures +
+                    ", healthy=" + healthy +
+                    '}';
+        }
+    }
+
+    private static final class Replica {
+        private final String url;
+        private final Provider provider;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        // System.nanoTime() until which the replica is skipped; 0 when healthy
+        private volatile long unhealthyUntil;
+
+        private Replica(String url, Provider provider) {
+            this.url = Objects.requireNonNull(url, "url cannot be null");
+            this.provider = Objects.requireNonNull(provider, "provider cannot be null");
+        }
+
+        private boolean isHealthy(long now) {
+            long until = unhealthyUntil;
+            return until == 0 || now - until >= 0;
+        }
+
+        private void begin(AtomicInteger total) {
+            inFlight.incrementAndGet();
+            total.incrementAndGet();
+            requests.incrementAndGet();
+        }
+
+        private void end(AtomicInteger total) {
+            inFlight.decrementAndGet();
+            total.decrementAndGet();
+        }
+
+        private void succeeded() {
+            unhealthyUntil = 0;
+        }
+
+        private void failed(long cooldownNanos) {
+            failures.incrementAndGet();
+            long until = System.nanoTime() + cooldownNanos;
+            unhealthyUntil = until == 0 ? 1 : until;
+        }
+    }
+
+    /**
+     * Sorted virtual node positions and the replica owning each of them.
+     */
+    private static final class Ring {
+        private final Replica[] replicas;
+        private final long[] positions;
+        private final int[] owners;
+
+        private Ring(Replica[] replicas, long[] positions, int[] owners) {
+            this.replicas = replicas;
+            this.positions = positions;
+            this.owners = owners;
+        }
+
+        private static Ring build(Replica[] replicas, int virtualNodes) {
+            int size = replicas.length * virtualNodes;
+            long[] keyed = new long[size];
+            long[] positions = new long[size];
+            int[] owners = new int[size];
+            // Sort (position, owner) pairs by position; the owner index fits in the array index
+            Long[] order = new Long[size];
+            for (int r = 0; r < replicas.length; r++) {
+                for (int v = 0; v < virtualNodes; v++) {
+                    int i = r * virtualNodes + v;
+                    keyed[i] = mix(fnv(FNV_OFFSET, replicas[r].url + "#" + v));
+                    order[i] = (long) i;
+                }
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keyed[a.intValue()], keyed[b.intValue()]));
+            for (int i = 0; i < size; i++) {
+                int node = order[i].intValue();
+                positions[i] = keyed[node];
+                owners[i] = node / virtualNodes;
+            }
+            return new Ring(replicas, positions, owners);
+        }
+
+        private int firstNodeAtOrAfter(long hash) {
+            int index = Arrays.binarySearch(positions, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return positions.length == 0 ? 0 : index % positions.length;
+        }
+
+        /**
+         * Walks clockwise from {@code start} and returns the index of the first replica not tried yet
+         * that is healthy and below the load bound. Falls back to ignoring the load bound (but never
+         * health) when every remaining healthy replica is at capacity.
+         *
+         * @return The replica index, or -1 if no healthy replica is left.
+         */
+        private int select(int start, long tried, PrefixAffinityProvider owner) {
+            if (positions.length == 0) {
+                return -1;
+            }
+            long now = System.nanoTime();
+            int healthy = 0;
+            for (Replica replica : replicas) {
+                if (replica.isHealthy(now)) {
+                    healthy++;
+                }
+            }
+            int capacity = owner.capacity(healthy);
+            int fallback = -1;
+            long visited = tried;
+            for (int i = 0; i < positions.length; i++) {
+                int index = owners[(start + i) % positions.length];
+                if ((visited & (1L << index)) != 0) {
+                    continue;
+                }
+                visited |= 1L << index;
+                Replica replica = replicas[index];
+                if (!replica.isHealthy(now)) {
+                    continue;
+                }
+                if (replica.inFlight.get() < capacity) {
+                    return index;
+                }
+                if (fallback < 0) {
+                    fallback = index;
+                }
+            }
+            return fallback;
+        }
+    }
+
+    /**
+     * Builder pattern to construct a PrefixAffinityProvider.
+     */
+    public static class Builder {
+        private final List<Replica> replicas = new ArrayList<>();
+        private int virtualNodes = 128;
+        private double loadFactor = 1.25;
+        private int prefixMessages = 1;
+        private Duration unhealthyCooldown = Duration.ofSeconds(5);
+
+        /**
+         * Adds a replica endpoint served by the given provider.
+         */
+        public Builder replica(String url, Provider provider) {
+            this.replicas.add(new Replica(url, provider));
+            return this;
+        }
+
+        /**
+         * Adds one replica per endpoint URL, creating its provider with the given factory.
+         */
+        public Builder replicas(List<String> urls, Function<String, Provider> factory) {
+            for (String url : urls) {
+                replica(url, factory.apply(url));
+            }
+            return this;
+        }
+
+        /**
+         * Number of points per replica on the ring (default 128). More points give a more even spread.
+         */
+        public Builder virtualNodes(int virtualNodes) {
+            if (virtualNodes <= 0) {
+                throw new IllegalArgumentException("virtualNodes must be positive");
+            }
+            this.virtualNodes = virtualNodes;
+            return this;
+        }
+
+        /**
+         * Maximum load of a replica relative to the average, must be greater than 1 (default 1.25).
+         */
+        public Builder loadFactor(double loadFactor) {
+            if (loadFactor <= 1) {
+                throw new IllegalArgumentException("loadFactor must be greater than 1");
+            }
+            this.loadFactor = loadFactor;
+            return this;
+        }
+
+        /**
+         * Number of leading messages hashed for affinity (default 1, typically the system prompt).
+         */
+        public Builder prefixMessages(int prefixMessages) {
+            if (prefixMessages <= 0) {
+                throw new IllegalArgumentException("prefixMessages must be positive");
+            }
+            this.prefixMessages = prefixMessages;
+            return this;
+        }
+
+        /**
+         * How long a failed replica is skipped before it is tried again (default 5 seconds).
+         */
+        public Builder unhealthyCooldown(Duration cooldown) {
+            this.unhealthyCooldown = Objects.requireNonNull(cooldown, "cooldown cannot be null");
+            return this;
+        }
+
+        public PrefixAffinityProvider build() {
+            return new PrefixAffinityProvider(this);
+        }
+    }
+}
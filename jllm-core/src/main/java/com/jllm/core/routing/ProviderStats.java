@@ -0,0 +1,143 @@
+package com.jllm.core.routing;
+
+import com.jllm.core.provider.Provider;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free health and latency statistics of one provider behind a {@link RoutingProvider}.
+ * <p>
+ * Latency and error rate are exponentially weighted moving averages stored as the raw bits of a
+ * {@code double} in an {@link AtomicLong} and updated with a CAS loop, so recording an outcome and
+ * scoring a provider never takes a lock. The error rate decays with time since the last failure,
+ * which lets a provider that recovered be picked again even if nothing was routed to it meanwhile.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class ProviderStats {
+
+    private final Provider provider;
+    private final String name;
+    private final double alpha;
+    private final long errorHalfLifeNanos;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong latencyBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private volatile long lastFailureNanos;
+
+    ProviderStats(Provider provider, double alpha, long errorHalfLifeNanos) {
+        this.provider = provider;
+        this.name = provider.getName();
+        this.alpha = alpha;
+        this.errorHalfLifeNanos = errorHalfLifeNanos;
+    }
+
+    /**
+     * @return The provider these statistics belong to.
+     */
+    public Provider getProvider() {
+        return provider;
+    }
+
+    /**
+     * @return The provider's {@link Provider#getName()}, resolved once.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of requests currently in flight on the provider.
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return The EWMA of successful request latency in nanoseconds (0 until the first success).
+     */
+    public double getLatencyNanos() {
+        return Double.longBitsToDouble(latencyBits.get());
+    }
+
+    /**
+     * @return The EWMA error rate in [0, 1], decayed by the time since the last failure.
+     */
+    public double getErrorRate() {
+        return errorRate(System.nanoTime());
+    }
+
+    void begin() {
+        outstanding.incrementAndGet();
+    }
+
+    void success(long latencyNanos) {
+        outstanding.decrementAndGet();
+        update(latencyBits, latencyNanos, true);
+        update(errorRateBits, 0, false);
+    }
+
+    /**
+     * Ends a request without recording an outcome, e.g. a stream cancelled by the caller.
+     */
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    void failure() {
+        outstanding.decrementAndGet();
+        lastFailureNanos = System.nanoTime();
+        update(errorRateBits, 1, false);
+    }
+
+    /**
+     * Lower is better: expected latency scaled by queueing on the provider and by recent errors.
+     * A provider without a latency sample yet, e.g. one that has only failed, is scored with the given
+     * prior instead, so that its errors still count against it.
+     *
+     * @param now                The current System.nanoTime().
+     * @param priorLatencyNanos  The latency assumed for a provider without samples.
+     */
+    double score(long now, double priorLatencyNanos) {
+        double latency = getLatencyNanos();
+        if (latency == 0) {
+            latency = priorLatencyNanos;
+        }
+        double errorPenalty = 1 + 10 * errorRate(now);
+        return latency * (outstanding.get() + 1) * errorPenalty;
+    }
+
+    private double errorRate(long now) {
+        double rate = Double.longBitsToDouble(errorRateBits.get());
+        if (rate == 0) {
+            return 0;
+        }
+        double halfLives = (double) (now - lastFailureNanos) / errorHalfLifeNanos;
+        return rate * Math.pow(0.5, halfLives);
+    }
+
+    private void update(AtomicLong bits, double sample, boolean seedWithFirstSample) {
+        long prevBits;
+        long nextBits;
+        do {
+            prevBits = bits.get();
+            double prev = Double.longBitsToDouble(prevBits);
+            double next = seedWithFirstSample && prev == 0 ? sample : prev + alpha * (sample - prev);
+            nextBits = Double.doubleToRawLongBits(next);
+        } while (!bits.compareAndSet(prevBits, nextBits));
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderStats{" +
+                "provider=" + name +
+                ", outstanding=" + getOutstanding() +
+                ", latencyNanos=" + getLatencyNanos() +
+                ", errorRate=" + getErrorRate() +
+                '}';
+    }
+}
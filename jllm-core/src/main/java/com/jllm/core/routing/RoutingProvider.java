@@ -0,0 +1,385 @@
+package com.jllm.core.routing;
+
+import com.jllm.core.exception.ModelNotSupportedException;
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.FirstTokenListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link Provider} that routes each request to one of several underlying providers.
+ * <p>
+ * Providers are typically discovered through {@link ServiceLoader} ({@code META-INF/services/com.jllm.core.provider.Provider}).
+ * For every model the eligible providers are resolved once, either from an explicit route or from
+ * {@link Provider#supportsModel(String)}, and cached. Each request then picks a provider with the
+ * "power of two choices" rule: two random candidates are scored by EWMA latency, outstanding requests
+ * and recent error rate (see {@link ProviderStats}) and the better one wins. Selection only reads
+ * atomics and a thread-local random, so it is lock-free and cheap enough to run on every request.
+ * </p>
+ * <p>
+ * If the chosen provider throws {@link ProviderNotAvailableException}, the request fails over to the
+ * remaining eligible providers. Streams only fail over before their first token was delivered.
+ * Every attempt is reported to the configured {@link MetricsRecorder} under the name of the provider
+ * that served it.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     Provider router = RoutingProvider.builder()
+ *         .discover()
+ *         .route("gpt-4", "OpenAIProvider")
+ *         .build();
+ *     LLMClient client = LLMClient.builder().provider(router).model("gpt-4").build();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class RoutingProvider implements Provider {
+
+    // Failed candidates are tracked in a long bitmask during failover
+    private static final int MAX_CANDIDATES = 64;
+    // Latency assumed when no candidate of a model has succeeded yet
+    private static final double DEFAULT_LATENCY_PRIOR_NANOS = 1_000_000_000;
+
+    private final List<ProviderStats> providers;
+    private final Map<String, List<String>> routes;
+    private final MetricsRecorder metrics;
+    private final ConcurrentHashMap<String, ProviderStats[]> eligibleByModel = new ConcurrentHashMap<>();
+
+    private RoutingProvider(Builder builder) {
+        List<ProviderStats> stats = new ArrayList<>();
+        long halfLife = builder.errorHalfLife.toNanos();
+        for (Provider provider : builder.providers) {
+            stats.add(new ProviderStats(provider, builder.ewmaAlpha, halfLife));
+        }
+        this.providers = List.copyOf(stats);
+        this.routes = Map.copyOf(builder.routes);
+        this.metrics = builder.metrics;
+    }
+
+    /**
+     * Creates a router over all providers found by {@link ServiceLoader}.
+     */
+    public static RoutingProvider discover() {
+        return builder().discover().build();
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        try {
+            return route(promptRequest, false);
+        } catch (IOException e) {
+            throw new ProviderNotAvailableException("Request failed", e);
+        }
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        return route(request, true);
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        ProviderStats[] candidates = eligible(request.getModel());
+        long excluded = 0;
+        ProviderNotAvailableException lastFailure = null;
+        for (int attempt = 0; attempt < candidates.length; attempt++) {
+            int index = choose(candidates, excluded);
+            ProviderStats chosen = candidates[index];
+            FirstTokenListener tracking = new FirstTokenListener(listener);
+            long start = System.nanoTime();
+            chosen.begin();
+            try {
+                chosen.getProvider().executeStream(request, tracking, handle);
+                long firstToken = tracking.getFirstTokenNanos();
+                chosen.success((firstToken != 0 ? firstToken : System.nanoTime()) - start);
+                recordStream(chosen, request, tracking, start, true);
+                return;
+            } catch (ProviderNotAvailableException e) {
+                if (handle.isCancelled()) {
+                    chosen.release();                            // torn down by the caller, not a failure
+                    recordStream(chosen, request, tracking, start, true);
+                    throw e;
+                }
+                chosen.failure();
+                recordStream(chosen, request, tracking, start, false);
+                if (tracking.hasStarted()) {
+                    throw e;                                     // can't replay delivered tokens
+                }
+                excluded |= 1L << index;
+                lastFailure = e;
+            } catch (IOException | RuntimeException e) {
+                boolean cancelled = handle.isCancelled();
+                if (cancelled) {
+                    chosen.release();
+                } else {
+                    chosen.failure();
+                }
+                recordStream(chosen, request, tracking, start, cancelled);
+                throw e;
+            }
+        }
+        throw new ProviderNotAvailableException("No provider available for model " + request.getModel(), lastFailure);
+    }
+
+    private PromptResponse route(PromptRequest request, boolean execute) throws IOException {
+        ProviderStats[] candidates = eligible(request.getModel());
+        long excluded = 0;
+        ProviderNotAvailableException lastFailure = null;
+        for (int attempt = 0; attempt < candidates.length; attempt++) {
+            int index = choose(candidates, excluded);
+            ProviderStats chosen = candidates[index];
+            long start = System.nanoTime();
+            chosen.begin();
+            try {
+                Provider provider = chosen.getProvider();
+                PromptResponse response = execute ? provider.execute(request) : provider.sendRequest(request);
+                long latency = System.nanoTime() - start;
+                chosen.success(latency);
+                metrics.recordRequest(chosen.getName(), request.getModel(), latency, true);
+                if (response != null) {
+                    metrics.recordUsage(chosen.getName(), request.getModel(), response.getUsage(), latency);
+                }
+                return response;
+            } catch (ProviderNotAvailableException e) {
+                chosen.failure();
+                metrics.recordRequest(chosen.getName(), request.getModel(), System.nanoTime() - start, false);
+                excluded |= 1L << index;
+                lastFailure = e;
+            } catch (IOException | RuntimeException e) {
+                chosen.failure();
+                metrics.recordRequest(chosen.getName(), request.getModel(), System.nanoTime() - start, false);
+                throw e;
+            }
+        }
+        throw new ProviderNotAvailableException("No provider available for model " + request.getModel(), lastFailure);
+    }
+
+    private void recordStream(ProviderStats chosen, PromptRequest request, FirstTokenListener tracking,
+                              long start, boolean success) {
+        long firstToken = tracking.getFirstTokenNanos();
+        if (firstToken != 0) {
+            metrics.recordTimeToFirstToken(chosen.getName(), request.getModel(), firstToken - start);
+        }
+        metrics.recordRequest(chosen.getName(), request.getModel(), System.nanoTime() - start, success);
+    }
+
+    /**
+     * Power of two choices among the candidates not excluded yet.
+     */
+    private static int choose(ProviderStats[] candidates, long excluded) {
+        int n = candidates.length;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = nextAvailable(excluded, n, random.nextInt(n));
+        int b = nextAvailable(excluded, n, random.nextInt(n));
+        if (a == b) {
+            b = nextAvailable(excluded, n, (a + 1) % n);
+        }
+        long now = System.nanoTime();
+        double prior = candidates[a].getLatencyNanos() == 0 || candidates[b].getLatencyNanos() == 0
+                ? latencyPrior(candidates)
+                : 0;
+        return candidates[b].score(now, prior) < candidates[a].score(now, prior) ? b : a;
+    }
+
+    /**
+     * The mean latency of the candidates that have succeeded, assumed for the ones that have not.
+     */
+    private static double latencyPrior(ProviderStats[] candidates) {
+        double sum = 0;
+        int sampled = 0;
+        for (ProviderStats candidate : candidates) {
+            double latency = candidate.getLatencyNanos();
+            if (latency != 0) {
+                sum += latency;
+                sampled++;
+            }
+        }
+        return sampled > 0 ? sum / sampled : DEFAULT_LATENCY_PRIOR_NANOS;
+    }
+
+    private static int nextAvailable(long excluded, int n, int from) {
+        for (int i = 0; i < n; i++) {
+            int index = (from + i) % n;
+            if ((excluded & (1L << index)) == 0) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("No candidate left");
+    }
+
+    private ProviderStats[] eligible(String model) {
+        ProviderStats[] cached = eligibleByModel.get(model);
+        if (cached != null) {
+            return cached;
+        }
+        return eligibleByModel.computeIfAbsent(model, this::resolve);
+    }
+
+    private ProviderStats[] resolve(String model) {
+        List<ProviderStats> eligible = new ArrayList<>();
+        List<String> names = routes.get(model);
+        for (ProviderStats stats : providers) {
+            Provider provider = stats.getProvider();
+            boolean matches = names != null
+                    ? names.contains(provider.getName())
+                    : provider.supportsModel(model);
+            if (matches && eligible.size() < MAX_CANDIDATES) {
+                eligible.add(stats);
+            }
+        }
+        if (eligible.isEmpty()) {
+            throw new ModelNotSupportedException("No provider supports model " + model);
+        }
+        return eligible.toArray(new ProviderStats[0]);
+    }
+
+    /**
+     * @return The statistics of every provider behind this router.
+     */
+    public List<ProviderStats> getProviderStats() {
+        return providers;
+    }
+
+    /**
+     * @return true if at least one underlying provider is available.
+     */
+    @Override
+    public boolean isAvailable() {
+        for (ProviderStats stats : providers) {
+            if (stats.getProvider().isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the token on every underlying provider, e.g. replicas behind one gateway sharing a key.
+     * Providers with credentials of their own should be configured directly instead.
+     */
+    @Override
+    public void setAuthToken(String token) {
+        for (ProviderStats stats : providers) {
+            stats.getProvider().setAuthToken(token);
+        }
+    }
+
+    /**
+     * @return null, since requests are spread over several base URLs.
+     */
+    @Override
+    public String getApiUrl() {
+        return null;
+    }
+
+    @Override
+    public boolean supportsModel(String model) {
+        try {
+            eligible(model);
+            return true;
+        } catch (ModelNotSupportedException e) {
+            return false;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pattern to construct a RoutingProvider.
+     */
+    public static class Builder {
+        private final List<Provider> providers = new ArrayList<>();
+        private final Map<String, List<String>> routes = new HashMap<>();
+        private double ewmaAlpha = 0.2;
+        private Duration errorHalfLife = Duration.ofSeconds(10);
+        private MetricsRecorder metrics = MetricsRecorder.noop();
+
+        /**
+         * Adds a provider to route to.
+         */
+        public Builder provider(Provider provider) {
+            this.providers.add(Objects.requireNonNull(provider, "provider cannot be null"));
+            return this;
+        }
+
+        /**
+         * Adds every provider registered through {@link ServiceLoader}.
+         */
+        public Builder discover() {
+            for (Provider provider : ServiceLoader.load(Provider.class)) {
+                provider(provider);
+            }
+            return this;
+        }
+
+        /**
+         * Restricts a model to the providers with the given names ({@link Provider#getName()}).
+         * Models without a route go to every provider whose {@link Provider#supportsModel(String)} accepts them.
+         */
+        public Builder route(String model, String... providerNames) {
+            this.routes.put(model, List.copyOf(Arrays.asList(providerNames)));
+            return this;
+        }
+
+        /**
+         * Weight of the newest sample in the latency and error rate averages (default 0.2).
+         */
+        public Builder ewmaAlpha(double alpha) {
+            if (alpha <= 0 || alpha > 1) {
+                throw new IllegalArgumentException("alpha must be in (0, 1]");
+            }
+            this.ewmaAlpha = alpha;
+            return this;
+        }
+
+        /**
+         * Time after which half of a provider's error rate is forgotten (default 10 seconds).
+         */
+        public Builder errorHalfLife(Duration halfLife) {
+            this.errorHalfLife = Objects.requireNonNull(halfLife, "halfLife cannot be null");
+            return this;
+        }
+
+        /**
+         * Records the latency and outcome of every attempt per underlying provider (default: discarded).
+         */
+        public Builder metrics(MetricsRecorder recorder) {
+            this.metrics = Objects.requireNonNull(recorder, "recorder cannot be null");
+            return this;
+        }
+
+        public RoutingProvider build() {
+            if (providers.isEmpty()) {
+                throw new ProviderNotAvailableException("No providers to route to");
+            }
+            return new RoutingProvider(this);
+        }
+    }
+}
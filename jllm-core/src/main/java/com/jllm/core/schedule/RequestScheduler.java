@@ -0,0 +1,451 @@
+package com.jllm.core.schedule;
+
+import com.jllm.core.accounting.UsageAccountant;
+import com.jllm.core.exception.ConcurrencyLimitExceededException;
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.metrics.LogLinearHistogram;
+import com.jllm.core.metrics.MetricsRecorder;
+import com.jllm.core.model.Priority;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.time.Deadline;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides which waiting request is dispatched next when requests of several priority classes and
+ * tenants compete for a limited number of concurrent slots.
+ * <p>
+ * Every call takes a slot through {@link #acquire(PromptRequest)} before it reaches the rate limiter
+ * and the provider, and gives it back with {@link Permit#close()}. While slots are free and nobody is
+ * queued a request passes straight through. Otherwise it queues under its {@link Priority} and its
+ * {@link PromptRequest#getUser() user}, and freed slots are handed out by start-time fair queuing on
+ * two levels: the priority classes share capacity in proportion to their weights, and within a class
+ * every tenant gets an equal share. A nightly batch therefore cannot hold interactive traffic back,
+ * and one tenant's burst cannot hold back the other tenants of its class.
+ * </p>
+ * <p>
+ * With {@link Builder#shortestJobFirst(boolean)} each tenant's requests are served smallest
+ * {@link PromptRequest#getMaxTokens() maxTokens} first, and fairness is measured in requested tokens
+ * instead of requests.
+ * </p>
+ * <p>
+ * Enqueueing is lock-free: tenants have their own queues (lock-free, or a per-tenant lock with
+ * shortest-job-first) and the fair-queuing state is only touched by a single dispatching thread at a
+ * time, elected through an atomic counter rather than a lock. Queue depth and wait time are kept per
+ * class and reported to the configured {@link MetricsRecorder}.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     RequestScheduler scheduler = RequestScheduler.builder()
+ *         .maxConcurrency(32)
+ *         .weight(Priority.BATCH, 1)
+ *         .build();
+ *     LLMClient client = LLMClient.builder().provider(provider).model("gpt-4").scheduler(scheduler).build();
+ *     client.send(PromptRequest.builder()...priority(Priority.BATCH).build());
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class RequestScheduler {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private static final Comparator<Waiter> SMALLEST_FIRST =
+            Comparator.<Waiter>comparingLong(w -> w.cost).thenComparingLong(w -> w.enqueuedNanos);
+
+    private final int maxConcurrency;
+    private final long maxWaitNanos;
+    private final boolean shortestJobFirst;
+    private final MetricsRecorder metrics;
+    private final ClassQueue[] classes;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Number of dispatch requests; whoever moves it away from zero dispatches for everyone
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    // Tenants whose queue went from empty to non-empty, waiting to be picked up by the dispatcher
+    private final ConcurrentLinkedQueue<TenantQueue> activated = new ConcurrentLinkedQueue<>();
+
+    // Dispatcher-only state, see dispatch()
+    private final PriorityQueue<ClassQueue> activeClasses = new PriorityQueue<>(
+            Comparator.<ClassQueue>comparingDouble(c -> c.tag).thenComparingInt(c -> -c.weight));
+    private double virtualTime;
+
+    private RequestScheduler(Builder builder) {
+        this.maxConcurrency = builder.maxConcurrency;
+        this.maxWaitNanos = builder.maxWait != null ? builder.maxWait.toNanos() : 0;
+        this.shortestJobFirst = builder.shortestJobFirst;
+        this.metrics = builder.metrics;
+        Priority[] priorities = Priority.values();
+        this.classes = new ClassQueue[priorities.length];
+        for (Priority priority : priorities) {
+            classes[priority.ordinal()] = new ClassQueue(priority, builder.weights.get(priority));
+        }
+    }
+
+    /**
+     * Waits until the request may be dispatched and takes a slot for it.
+     *
+     * @return The permit to close once the call has finished.
+     * @throws ConcurrencyLimitExceededException if the request waited longer than the configured maximum.
+     * @throws DeadlineExceededException         if the request's deadline passed while it was queued.
+     * @throws InterruptedException              if the thread is interrupted while waiting.
+     */
+    public Permit acquire(PromptRequest request) throws InterruptedException {
+        Deadline expiry = request.getDeadline();
+        if (expiry != null) {
+            expiry.check("scheduling");
+        }
+        ClassQueue cls = classes[request.getPriority().ordinal()];
+        if (queued.get() == 0 && tryTakeSlot()) {
+            cls.dispatched(0);
+            return new Permit();
+        }
+
+        Waiter waiter = new Waiter(Thread.currentThread(), cost(request));
+        TenantQueue tenant = cls.tenant(request.getUser() != null ? request.getUser() : UsageAccountant.ANONYMOUS);
+        queued.incrementAndGet();
+        metrics.recordQueueDepth(cls.name, cls.depth.incrementAndGet());
+        tenant.waiters.add(waiter);
+        if (tenant.pending.getAndIncrement() == 0) {
+            activated.add(tenant);
+        }
+        dispatch();
+        return await(waiter, cls, expiry);
+    }
+
+    private Permit await(Waiter waiter, ClassQueue cls, Deadline expiry) throws InterruptedException {
+        long deadline = waiter.enqueuedNanos + maxWaitNanos;
+        boolean bounded = maxWaitNanos != 0;
+        if (expiry != null) {
+            long expiryNanos = System.nanoTime() + expiry.remainingNanos();
+            if (!bounded || expiryNanos - deadline < 0) {
+                deadline = expiryNanos;                          // the request's own deadline binds first
+            } else {
+                expiry = null;
+            }
+            bounded = true;
+        }
+        while (waiter.state.get() == WAITING) {
+            if (Thread.interrupted()) {
+                if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+                    abandoned(cls);
+                } else {
+                    release();                                   // granted meanwhile, hand the slot on
+                }
+                throw new InterruptedException();
+            }
+            if (!bounded) {
+                LockSupport.park(this);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+                    abandoned(cls);
+                    if (expiry != null) {
+                        throw new DeadlineExceededException("Deadline exceeded in the " + cls.name + " queue");
+                    }
+                    throw new ConcurrencyLimitExceededException("Request waited longer than "
+                            + Duration.ofNanos(maxWaitNanos) + " in the " + cls.name + " queue");
+                }
+                break;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+        return new Permit();
+    }
+
+    private void abandoned(ClassQueue cls) {
+        queued.decrementAndGet();
+        metrics.recordQueueDepth(cls.name, cls.depth.decrementAndGet());
+        // The waiter stays in its tenant queue and is skipped by the dispatcher
+    }
+
+    private long cost(PromptRequest request) {
+        return shortestJobFirst ? Math.max(1, request.getMaxTokens()) : 1;
+    }
+
+    private boolean tryTakeSlot() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrency) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (queued.get() > 0) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Hands free slots to waiting requests. Only one thread runs the loop at a time; calls made
+     * meanwhile bump the counter so the running thread goes round once more on their behalf.
+     */
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            TenantQueue tenant;
+            while ((tenant = activated.poll()) != null) {
+                activate(tenant);
+            }
+            while (!activeClasses.isEmpty() && tryTakeSlot()) {
+                if (!grantNext()) {
+                    inFlight.decrementAndGet();                  // only abandoned waiters were left
+                    break;
+                }
+            }
+            missed = dispatchRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void activate(TenantQueue tenant) {
+        ClassQueue cls = tenant.owner;
+        tenant.tag = Math.max(cls.virtualTime, tenant.lastFinish);
+        boolean classWasIdle = cls.activeTenants.isEmpty();
+        cls.activeTenants.add(tenant);
+        if (classWasIdle) {
+            cls.tag = Math.max(virtualTime, cls.lastFinish);
+            activeClasses.add(cls);
+        }
+    }
+
+    /**
+     * Grants the slot already taken to the waiter with the smallest start tag, first across classes
+     * and then across the tenants of the chosen class.
+     *
+     * @return false if no live waiter was left.
+     */
+    private boolean grantNext() {
+        while (!activeClasses.isEmpty()) {
+            ClassQueue cls = activeClasses.poll();
+            TenantQueue tenant = cls.activeTenants.poll();
+            Waiter waiter = tenant.waiters.poll();               // never null: pending counts added waiters
+            boolean more = tenant.pending.decrementAndGet() > 0;
+            boolean granted = waiter.state.compareAndSet(WAITING, GRANTED);
+            if (granted) {
+                virtualTime = cls.tag;
+                cls.virtualTime = tenant.tag;
+                cls.lastFinish = cls.tag + (double) waiter.cost / cls.weight;
+                tenant.lastFinish = tenant.tag + waiter.cost;
+            }
+            if (more) {
+                tenant.tag = Math.max(cls.virtualTime, tenant.lastFinish);
+                cls.activeTenants.add(tenant);
+            }
+            if (!cls.activeTenants.isEmpty()) {
+                cls.tag = Math.max(virtualTime, cls.lastFinish);
+                activeClasses.add(cls);
+            }
+            if (granted) {
+                queued.decrementAndGet();
+                metrics.recordQueueDepth(cls.name, cls.depth.decrementAndGet());
+                cls.dispatched(System.nanoTime() - waiter.enqueuedNanos);
+                LockSupport.unpark(waiter.thread);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of requests of the given class waiting for a slot.
+     */
+    public int getQueueDepth(Priority priority) {
+        return classes[priority.ordinal()].depth.get();
+    }
+
+    /**
+     * @return The time requests of the given class waited for a slot, in nanoseconds.
+     */
+    public LogLinearHistogram getWaitTime(Priority priority) {
+        return classes[priority.ordinal()].waitTime;
+    }
+
+    /**
+     * @return The number of slots currently held.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A dispatch slot held by a running call. Closing it more than once has no effect.
+     */
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Thread thread;
+        private final long cost;
+        private final long enqueuedNanos = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(Thread thread, long cost) {
+            this.thread = thread;
+            this.cost = cost;
+        }
+    }
+
+    private final class ClassQueue {
+        private final String name;
+        private final int weight;
+        private final ConcurrentHashMap<String, TenantQueue> tenants = new ConcurrentHashMap<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final LogLinearHistogram waitTime = new LogLinearHistogram();
+
+        // Dispatcher-only
+        private final PriorityQueue<TenantQueue> activeTenants =
+                new PriorityQueue<>(Comparator.comparingDouble(t -> t.tag));
+        private double tag;
+        private double lastFinish;
+        private double virtualTime;
+
+        private ClassQueue(Priority priority, int weight) {
+            this.name = priority.name().toLowerCase(Locale.ROOT);
+            this.weight = weight;
+        }
+
+        private TenantQueue tenant(String tenant) {
+            TenantQueue queue = tenants.get(tenant);
+            return queue != null ? queue : tenants.computeIfAbsent(tenant, k -> new TenantQueue(this));
+        }
+
+        private void dispatched(long waitNanos) {
+            waitTime.record(waitNanos);
+            metrics.recordQueueWait(name, waitNanos);
+        }
+    }
+
+    private final class TenantQueue {
+        private final ClassQueue owner;
+        private final Queue<Waiter> waiters = shortestJobFirst
+                ? new PriorityBlockingQueue<>(4, SMALLEST_FIRST)
+                : new ConcurrentLinkedQueue<>();
+        // Waiters added and not yet taken by the dispatcher
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // Dispatcher-only
+        private double tag;
+        private double lastFinish;
+
+        private TenantQueue(ClassQueue owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Builder pattern to construct a RequestScheduler.
+     */
+    public static class Builder {
+        private final Map<Priority, Integer> weights = new EnumMap<>(Priority.class);
+        private int maxConcurrency = 16;
+        private Duration maxWait;
+        private boolean shortestJobFirst;
+        private MetricsRecorder metrics = MetricsRecorder.noop();
+
+        private Builder() {
+            weights.put(Priority.INTERACTIVE, 8);
+            weights.put(Priority.NORMAL, 4);
+            weights.put(Priority.BATCH, 1);
+        }
+
+        /**
+         * Sets the share of a priority class relative to the others while they compete
+         * (defaults: interactive 8, normal 4, batch 1).
+         */
+        public Builder weight(Priority priority, int weight) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("weight must be positive");
+            }
+            this.weights.put(Objects.requireNonNull(priority, "priority cannot be null"), weight);
+            return this;
+        }
+
+        /**
+         * Sets how many requests may be dispatched at once (default 16).
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Rejects requests that waited longer than this for a slot (default: wait as long as it takes).
+         */
+        public Builder maxWait(Duration maxWait) {
+            if (maxWait.isNegative() || maxWait.isZero()) {
+                throw new IllegalArgumentException("maxWait must be positive");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Serves each tenant's smallest requests first, using {@link PromptRequest#getMaxTokens()} as
+         * the size hint (default false).
+         */
+        public Builder shortestJobFirst(boolean shortestJobFirst) {
+            this.shortestJobFirst = shortestJobFirst;
+            return this;
+        }
+
+        /**
+         * Records queue depth and wait time per priority class (default: discarded).
+         */
+        public Builder metrics(MetricsRecorder recorder) {
+            this.metrics = Objects.requireNonNull(recorder, "recorder cannot be null");
+            return this;
+        }
+
+        public RequestScheduler build() {
+            return new RequestScheduler(this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.exception.StreamCancelledException;
+import com.jllm.core.jfr.TokenBurstEvent;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+
+import java.util.Objects;
+
+/**
+ * A {@link StreamingListener} decorator that enforces cancellation of a stream.
+ * <p>
+ * Once the {@link StreamHandle} is cancelled, or the delegate's {@link StreamingListener#shouldContinue()}
+ * returns false, the next callback from the provider throws {@link StreamCancelledException}. This unwinds
+ * providers that know nothing about cancellation; providers that do register a connection close through
+ * {@link StreamHandle#onCancel(Runnable)} and stop even while blocked on the network.
+ * </p>
+ * <p>
+ * The listener also counts the delivered tokens so a partial {@link TokenUsage} can be reported for
+ * streams that never reached the provider's final usage report, and records the tokens as
+ * {@link TokenBurstEvent}s for Java Flight Recorder.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class CancellableStreamingListener extends ForwardingStreamingListener {
+
+    // Common heuristic for estimating prompt tokens client-side when the provider never reported usage
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final StreamHandle handle;
+    private final PromptRequest request;
+
+    private volatile TokenUsage reportedUsage;
+    private volatile int tokensReceived;
+    private long bytesReceived;
+    private long firstTokenNanos;
+    // Read by the stream's watchdog on the timer thread
+    private volatile long lastTokenNanos;
+    private TokenBurstEvent burst;
+
+    /**
+     * @param delegate The listener receiving tokens until the stream is cancelled.
+     * @param handle   The handle controlling the stream.
+     * @param request  The request being streamed, used to estimate prompt tokens.
+     */
+    public CancellableStreamingListener(StreamingListener delegate, StreamHandle handle, PromptRequest request) {
+        super(delegate);
+        this.handle = Objects.requireNonNull(handle, "handle cannot be null");
+        this.request = Objects.requireNonNull(request, "request cannot be null");
+    }
+
+    @Override
+    public void onTokenReceived(String token) {
+        if (handle.isCancelled()) {
+            throw new StreamCancelledException("Stream cancelled");
+        }
+        long now = System.nanoTime();
+        if (tokensReceived++ == 0) {
+            firstTokenNanos = now;
+        }
+        lastTokenNanos = now;
+        int bytes = CoalescingStreamingListener.utf8Length(token);
+        bytesReceived += bytes;
+        if (burst == null) {
+            burst = TokenBurstEvent.start(request.getModel());
+        }
+        if (burst.add(bytes)) {
+            finishTokenBurst();
+        }
+        super.onTokenReceived(token);
+        if (!delegate.shouldContinue()) {
+            handle.cancel();
+            throw new StreamCancelledException("Stream stopped by listener");
+        }
+    }
+
+    @Override
+    public void onStreamCompleted(PromptResponse response, Exception error) {
+        if (response != null) {
+            reportedUsage = response.getUsage();
+        }
+        super.onStreamCompleted(response, error);
+    }
+
+    @Override
+    public void onError(Exception e) {
+        finishTokenBurst();
+        super.onError(e);
+    }
+
+    @Override
+    public void onStreamComplete() {
+        finishTokenBurst();
+        super.onStreamComplete();
+    }
+
+    /**
+     * Commits the tokens received since the last {@link TokenBurstEvent}. Called at the end of the stream;
+     * does nothing if there are none.
+     */
+    public void finishTokenBurst() {
+        TokenBurstEvent event = burst;
+        if (event != null) {
+            burst = null;
+            event.finish();
+        }
+    }
+
+    /**
+     * @return true once at least one token has been delivered.
+     */
+    public boolean hasReceivedTokens() {
+        return tokensReceived > 0;
+    }
+
+    /**
+     * @return The System.nanoTime() at which the first token arrived, or 0 if none has.
+     */
+    public long getFirstTokenNanos() {
+        return firstTokenNanos;
+    }
+
+    /**
+     * @return The System.nanoTime() at which the latest token arrived, or 0 if none has.
+     */
+    public long getLastTokenNanos() {
+        return lastTokenNanos;
+    }
+
+    /**
+     * @return The usage reported by the provider or, if there is none (e.g. after cancellation),
+     * the completion tokens counted so far plus an estimate of the prompt tokens.
+     */
+    public TokenUsage usage() {
+        TokenUsage usage = reportedUsage;
+        if (usage != null) {
+            return usage;
+        }
+        int completionTokens = tokensReceived;
+        int promptTokens = estimatePromptTokens(request);
+        return new TokenUsage(promptTokens, completionTokens, promptTokens + completionTokens);
+    }
+
+    /**
+     * @return Delivery statistics treating every token as its own chunk.
+     */
+    public StreamStats stats() {
+        return new StreamStats(tokensReceived, tokensReceived, bytesReceived);
+    }
+
+    private static int estimatePromptTokens(PromptRequest request) {
+        long chars = 0;
+        for (Message message : request.getMessages()) {
+            if (message.getContent() != null) {
+                chars += message.getContent().length();
+            }
+        }
+        return (int) ((chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN);
+    }
+}
@@ -0,0 +1,30 @@
+package com.jllm.core.stream;
+
+/**
+ * Why a stream ended, as reported by {@link StreamHandle#getFinishReason()}.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public enum FinishReason {
+
+    /**
+     * The model finished its output, or the client cut it at one of the request's stop sequences.
+     */
+    STOP,
+
+    /**
+     * The stream was cancelled through its handle or by the listener's stop signal.
+     */
+    CANCELLED,
+
+    /**
+     * The stream ran out of time: its deadline, first-token or idle timeout passed.
+     */
+    TIMEOUT,
+
+    /**
+     * The stream failed with an error.
+     */
+    ERROR
+}
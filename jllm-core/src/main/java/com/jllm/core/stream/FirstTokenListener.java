@@ -0,0 +1,43 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.provider.StreamingListener;
+
+/**
+ * Records when the first token of a stream arrived. Routers and limiters use it as the latency sample
+ * of a stream, whose total duration depends on the length of the output. Routers also use it to decide
+ * whether failing over to another provider is still possible: once a token has been delivered,
+ * retrying elsewhere would replay it.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class FirstTokenListener extends ForwardingStreamingListener {
+
+    private long firstTokenNanos;
+
+    public FirstTokenListener(StreamingListener delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void onTokenReceived(String token) {
+        if (firstTokenNanos == 0) {
+            firstTokenNanos = System.nanoTime();
+        }
+        super.onTokenReceived(token);
+    }
+
+    /**
+     * @return The System.nanoTime() of the first token, or 0 if none has been delivered.
+     */
+    public long getFirstTokenNanos() {
+        return firstTokenNanos;
+    }
+
+    /**
+     * @return true once a token has been delivered.
+     */
+    public boolean hasStarted() {
+        return firstTokenNanos != 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+
+import java.util.Objects;
+
+/**
+ * Base class for {@link StreamingListener} decorators.
+ * <p>
+ * Every callback is forwarded to the wrapped listener unchanged, so subclasses only
+ * override the callbacks they actually need to intercept (usually {@link #onTokenReceived(String)}
+ * and the completion callbacks).
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public abstract class ForwardingStreamingListener implements StreamingListener {
+
+    protected final StreamingListener delegate;
+
+    protected ForwardingStreamingListener(StreamingListener delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    }
+
+    @Override
+    public void onStart() {
+        delegate.onStart();
+    }
+
+    @Override
+    public void onData(String chunk) {
+        delegate.onData(chunk);
+    }
+
+    @Override
+    public void onEnd() {
+        delegate.onEnd();
+    }
+
+    @Override
+    public void onError(Exception e) {
+        delegate.onError(e);
+    }
+
+    @Override
+    public void onTokenReceived(String token) {
+        delegate.onTokenReceived(token);
+    }
+
+    @Override
+    public void onStreamCompleted(PromptResponse response, Exception error) {
+        delegate.onStreamCompleted(response, error);
+    }
+
+    @Override
+    public void onStreamComplete() {
+        delegate.onStreamComplete();
+    }
+
+    @Override
+    public boolean shouldContinue() {
+        return delegate.shouldContinue();
+    }
+
+    @Override
+    public void onStreamCancelled(TokenUsage partialUsage) {
+        delegate.onStreamCancelled(partialUsage);
+    }
+
+    @Override
+    public void onLogProb(LogProb logProb) {
+        delegate.onLogProb(logProb);
+    }
+}
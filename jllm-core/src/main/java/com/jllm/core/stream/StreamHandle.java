@@ -0,0 +1,213 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.model.TokenUsage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle to a running or finished stream, returned by {@code LLMClient.sendStream}.
+ * <p>
+ * {@link #cancel()} stops the generation as early as possible: providers register the
+ * release of their underlying connection through {@link #onCancel(Runnable)}, so a stream
+ * blocked on the network is closed immediately instead of running to completion.
+ * Once the stream has finished, {@link #getUsage()} reports the token usage, which is
+ * partial (counted client-side) for a cancelled stream.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     StreamHandle handle = client.sendStreamAsync(request, listener);
+ *     ...
+ *     handle.cancel();                     // user navigated away
+ *     handle.await();
+ *     System.out.println(handle.getUsage());
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamHandle {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final CountDownLatch done = new CountDownLatch(1);
+    // Actions registered by the provider to release the connection on cancel
+    private final List<Runnable> cancelActions = new CopyOnWriteArrayList<>();
+
+    private volatile TokenUsage usage;
+    private volatile StreamStats stats;
+    private volatile Exception error;
+    private volatile DeadlineExceededException expiry;
+    private volatile boolean stopped;
+
+    /**
+     * Requests the stream to stop. Safe to call from any thread and more than once.
+     *
+     * @return true if this call cancelled the stream, false if it was already cancelled or finished.
+     */
+    public boolean cancel() {
+        if (isDone() || !cancelled.compareAndSet(false, true)) {
+            return false;
+        }
+        for (Runnable action : cancelActions) {
+            // remove() guarantees each action runs once even if onCancel races with cancel
+            if (cancelActions.remove(action)) {
+                action.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the stream because it ran out of time. Unlike {@link #cancel()}, the stream then finishes
+     * with the given reason as its error.
+     *
+     * @param reason The timeout that was exceeded.
+     * @return true if this call stopped the stream.
+     */
+    public boolean expire(DeadlineExceededException reason) {
+        if (isDone() || isCancelled()) {
+            return false;
+        }
+        expiry = reason;
+        if (cancel()) {
+            return true;
+        }
+        expiry = null;                                           // lost the race with a regular cancel
+        return false;
+    }
+
+    /**
+     * Ends the stream because its output is complete, e.g. at a stop sequence matched on the client.
+     * The connection is released as on {@link #cancel()}, but the stream then finishes normally, with
+     * {@link FinishReason#STOP}.
+     *
+     * @return true if this call stopped the stream.
+     */
+    public boolean stop() {
+        if (isDone() || isCancelled()) {
+            return false;
+        }
+        stopped = true;
+        if (cancel()) {
+            return true;
+        }
+        stopped = false;                                         // lost the race with a regular cancel
+        return false;
+    }
+
+    /**
+     * @return true if the stream was ended through {@link #stop()}.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return The timeout that stopped the stream, or null if it was not stopped by {@link #expire}.
+     */
+    public DeadlineExceededException getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * Registers an action to run when the stream is cancelled, typically closing the connection.
+     * Runs the action immediately if the stream is already cancelled.
+     *
+     * @param action The action to run on cancel.
+     */
+    public void onCancel(Runnable action) {
+        cancelActions.add(action);
+        if (cancelled.get() && cancelActions.remove(action)) {
+            action.run();
+        }
+    }
+
+    /**
+     * @return true if the stream was cancelled by the caller, by the listener's stop signal or by a timeout,
+     * or ended early through {@link #stop()}.
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * @return true once the stream has finished, successfully, with an error or by cancellation.
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Waits until the stream has finished.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    /**
+     * Waits until the stream has finished or the timeout elapses.
+     *
+     * @return true if the stream finished within the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * @return The token usage of the stream (partial if cancelled), or null while it is running.
+     */
+    public TokenUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * @return Statistics about what was delivered to the listener, or null while the stream is running.
+     */
+    public StreamStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The error that terminated the stream, or null if it completed or was cancelled.
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return Why the stream ended, or null while it is running.
+     */
+    public FinishReason getFinishReason() {
+        if (!isDone()) {
+            return null;
+        }
+        if (error != null) {
+            return error instanceof DeadlineExceededException ? FinishReason.TIMEOUT : FinishReason.ERROR;
+        }
+        return isCancelled() && !stopped ? FinishReason.CANCELLED : FinishReason.STOP;
+    }
+
+    /**
+     * Marks the stream as finished. Called by the client once the provider call has returned.
+     *
+     * @param usage The final (or partial) token usage.
+     * @param stats The delivery statistics.
+     * @param error The terminating error, if any.
+     */
+    public void complete(TokenUsage usage, StreamStats stats, Exception error) {
+        this.usage = usage;
+        this.stats = stats;
+        this.error = error;
+        cancelActions.clear();
+        done.countDown();
+    }
+}
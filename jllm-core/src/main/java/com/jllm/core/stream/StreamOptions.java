@@ -0,0 +1,249 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.stream.match.AhoCorasickMatcher;
+import com.jllm.core.stream.match.PatternFilteringListener;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-call options for {@code LLMClient.sendStream}.
+ * <p>
+ * Token coalescing aggregates the tiny per-event tokens emitted by providers into larger chunks
+ * before they reach the listener. A chunk is flushed as soon as one of the thresholds is reached:
+ * the buffered UTF-8 byte count, the buffered token count, or the maximum delay since the first
+ * buffered token. The very first token of a stream is always delivered immediately so the
+ * time-to-first-token seen by the caller is not affected.
+ * </p>
+ * <p>
+ * Stop sequences of the request can additionally be enforced client-side for providers that ignore
+ * them, and redaction patterns (secrets, PII) can be masked before tokens reach the listener.
+ * Both are matched across token boundaries by a {@link PatternFilteringListener}.
+ * </p>
+ * <p>
+ * A stream that produces no first token within {@code firstTokenTimeout}, or then goes silent for
+ * longer than {@code idleTimeout}, is torn down and fails with a
+ * {@link com.jllm.core.exception.DeadlineExceededException}, as does one still running at the
+ * request's deadline.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     StreamOptions options = StreamOptions.builder()
+ *         .coalesce(512, 32, Duration.ofMillis(50))
+ *         .build();
+ *     client.sendStream(request, listener, options);
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@Getter
+public final class StreamOptions {
+
+    private static final StreamOptions DEFAULTS = builder().build();
+
+    // Distinct stop-sequence sets whose automaton is kept; beyond that they are built per stream
+    private static final int MAX_CACHED_MATCHERS = 256;
+
+    /**
+     * Maximum number of buffered UTF-8 bytes before a chunk is flushed.
+     */
+    private final int coalesceMaxBytes;
+
+    /**
+     * Maximum number of buffered tokens before a chunk is flushed.
+     */
+    private final int coalesceMaxTokens;
+
+    /**
+     * Maximum time a buffered token may wait before its chunk is flushed.
+     */
+    private final Duration coalesceMaxDelay;
+
+    /**
+     * Whether the request's stop sequences are enforced on the client as well.
+     */
+    private final boolean enforceStopSequences;
+
+    /**
+     * Patterns masked in the stream before tokens reach the listener.
+     */
+    private final List<String> redactionPatterns;
+
+    /**
+     * Character replacing each redacted character.
+     */
+    private final char redactionMask;
+
+    /**
+     * Longest time to wait for the first token, or null for no limit.
+     */
+    private final Duration firstTokenTimeout;
+
+    /**
+     * Longest silence allowed between two tokens, or null for no limit.
+     */
+    private final Duration idleTimeout;
+
+    // Built once per options instance so streams without stop sequences don't rebuild the automaton
+    private final AhoCorasickMatcher redactionMatcher;
+    // Built once per stop-sequence set, as requests of one application reuse a handful of them
+    @Getter(AccessLevel.NONE)
+    private final Map<List<String>, AhoCorasickMatcher> stopMatchers = new ConcurrentHashMap<>();
+
+    private StreamOptions(Builder builder) {
+        this.coalesceMaxBytes = builder.coalesceMaxBytes;
+        this.coalesceMaxTokens = builder.coalesceMaxTokens;
+        this.coalesceMaxDelay = builder.coalesceMaxDelay;
+        this.enforceStopSequences = builder.enforceStopSequences;
+        this.redactionPatterns = List.copyOf(builder.redactionPatterns);
+        this.redactionMask = builder.redactionMask;
+        this.firstTokenTimeout = builder.firstTokenTimeout;
+        this.idleTimeout = builder.idleTimeout;
+        this.redactionMatcher = AhoCorasickMatcher.builder().redact(redactionPatterns).build();
+    }
+
+    /**
+     * Returns the automaton to run over a stream of a request with the given stop sequences. The automaton
+     * for a set of stop sequences is built once and shared by the streams using these options.
+     *
+     * @param stopSequences The stop sequences of the request.
+     * @return The matcher, or null if there is nothing to match.
+     */
+    public AhoCorasickMatcher matcherFor(List<String> stopSequences) {
+        if (!enforceStopSequences || stopSequences == null || stopSequences.isEmpty()) {
+            return redactionMatcher.isEmpty() ? null : redactionMatcher;
+        }
+        AhoCorasickMatcher matcher = stopMatchers.get(stopSequences);
+        if (matcher != null) {
+            return matcher;
+        }
+        matcher = AhoCorasickMatcher.builder()
+                .stop(stopSequences)
+                .redact(redactionPatterns)
+                .build();
+        if (stopMatchers.size() < MAX_CACHED_MATCHERS) {
+            // Keyed by a copy so a caller reusing its list cannot change the key
+            AhoCorasickMatcher cached = stopMatchers.putIfAbsent(new ArrayList<>(stopSequences), matcher);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * @return true if tokens should be aggregated into chunks before reaching the listener.
+     */
+    public boolean isCoalescing() {
+        return coalesceMaxTokens > 1;
+    }
+
+    /**
+     * @return Options that deliver every token as-is.
+     */
+    public static StreamOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pattern to construct StreamOptions.
+     */
+    public static class Builder {
+        private int coalesceMaxBytes = Integer.MAX_VALUE;
+        private int coalesceMaxTokens = 1;
+        private Duration coalesceMaxDelay = Duration.ZERO;
+        private boolean enforceStopSequences;
+        private final List<String> redactionPatterns = new ArrayList<>();
+        private char redactionMask = PatternFilteringListener.DEFAULT_MASK;
+        private Duration firstTokenTimeout;
+        private Duration idleTimeout;
+
+        /**
+         * Enables token coalescing.
+         *
+         * @param maxBytes  Flush once this many UTF-8 bytes are buffered.
+         * @param maxTokens Flush once this many tokens are buffered.
+         * @param maxDelay  Flush once the oldest buffered token has waited this long.
+         */
+        public Builder coalesce(int maxBytes, int maxTokens, Duration maxDelay) {
+            if (maxBytes <= 0 || maxTokens <= 0) {
+                throw new IllegalArgumentException("maxBytes and maxTokens must be positive");
+            }
+            Objects.requireNonNull(maxDelay, "maxDelay cannot be null");
+            if (maxDelay.isNegative() || maxDelay.isZero()) {
+                throw new IllegalArgumentException("maxDelay must be positive");
+            }
+            this.coalesceMaxBytes = maxBytes;
+            this.coalesceMaxTokens = maxTokens;
+            this.coalesceMaxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Enforces the request's stop sequences on the client: the stream is truncated before the
+         * first stop sequence, the request is closed and the stream finishes with {@link FinishReason#STOP}.
+         */
+        public Builder enforceStopSequences(boolean enforce) {
+            this.enforceStopSequences = enforce;
+            return this;
+        }
+
+        /**
+         * Masks every occurrence of the given patterns in the stream.
+         */
+        public Builder redact(Collection<String> patterns) {
+            this.redactionPatterns.addAll(patterns);
+            return this;
+        }
+
+        /**
+         * Sets the character replacing each redacted character (default {@code '*'}).
+         */
+        public Builder redactionMask(char mask) {
+            this.redactionMask = mask;
+            return this;
+        }
+
+        /**
+         * Fails the stream if no token arrives within the given time after it was started (default: no limit).
+         */
+        public Builder firstTokenTimeout(Duration timeout) {
+            this.firstTokenTimeout = positive(timeout);
+            return this;
+        }
+
+        /**
+         * Fails the stream if the gap between two tokens exceeds the given time (default: no limit).
+         */
+        public Builder idleTimeout(Duration timeout) {
+            this.idleTimeout = positive(timeout);
+            return this;
+        }
+
+        private static Duration positive(Duration timeout) {
+            Objects.requireNonNull(timeout, "timeout cannot be null");
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("timeout must be positive");
+            }
+            return timeout;
+        }
+
+        public StreamOptions build() {
+            return new StreamOptions(this);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jllm.core.stream;
+
+/**
+ * Immutable snapshot of what was delivered to a listener during a stream.
+ *
+ * <p>Example usage:
+ * <pre>
+ *     StreamStats stats = client.sendStream(request, listener, options).getStats();
+ *     System.out.println("Average chunk size: " + stats.getAverageChunkBytes());
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamStats {
+
+    private final long tokensReceived;
+    private final long chunksDelivered;
+    private final long bytesDelivered;
+
+    public StreamStats(long tokensReceived, long chunksDelivered, long bytesDelivered) {
+        this.tokensReceived = tokensReceived;
+        this.chunksDelivered = chunksDelivered;
+        this.bytesDelivered = bytesDelivered;
+    }
+
+    /**
+     * @return The number of tokens emitted by the provider.
+     */
+    public long getTokensReceived() {
+        return tokensReceived;
+    }
+
+    /**
+     * @return The number of chunks handed to the listener.
+     */
+    public long getChunksDelivered() {
+        return chunksDelivered;
+    }
+
+    /**
+     * @return The total number of UTF-8 bytes handed to the listener.
+     */
+    public long getBytesDelivered() {
+        return bytesDelivered;
+    }
+
+    /**
+     * @return The achieved average chunk size in UTF-8 bytes, or 0 if nothing was delivered.
+     */
+    public double getAverageChunkBytes() {
+        return chunksDelivered == 0 ? 0 : (double) bytesDelivered / chunksDelivered;
+    }
+
+    /**
+     * @return The achieved average number of tokens per chunk, or 0 if nothing was delivered.
+     */
+    public double getAverageTokensPerChunk() {
+        return chunksDelivered == 0 ? 0 : (double) tokensReceived / chunksDelivered;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamStats{" +
+                "tokensReceived=" + tokensReceived +
+                ", chunksDelivered=" + chunksDelivered +
+                ", bytesDelivered=" + bytesDelivered +
+                '}';
+    }
+}
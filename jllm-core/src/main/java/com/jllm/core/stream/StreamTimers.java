@@ -0,0 +1,47 @@
+package com.jllm.core.stream;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared timer used by stream decorators for deadline based work (e.g. flushing a coalesced chunk).
+ * <p>
+ * A single daemon thread is enough: timer tasks only hand buffered data to a listener and never block.
+ * Cancelled tasks are removed from the queue immediately so short-lived streams don't leak timer entries.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamTimers {
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private StreamTimers() {
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  The task to run.
+     * @param delay The delay before running the task.
+     * @param unit  The unit of the delay.
+     * @return A future that can be used to cancel the task.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return TIMER.schedule(task, delay, unit);
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "jllm-stream-timer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
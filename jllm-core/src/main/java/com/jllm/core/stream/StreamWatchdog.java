@@ -0,0 +1,109 @@
+package com.jllm.core.stream;
+
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.time.Deadline;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires a stream that exceeds its first-token timeout, its inter-token idle timeout or the
+ * request's deadline.
+ * <p>
+ * The watchdog does nothing per token: it reads the arrival time of the latest token recorded by the
+ * {@link CancellableStreamingListener} when its timer fires, and re-arms itself for the next time a
+ * limit could be crossed. An expired stream is stopped through {@link StreamHandle#expire}, which
+ * closes the provider's connection just like a cancel.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamWatchdog {
+
+    private final StreamHandle handle;
+    private final CancellableStreamingListener listener;
+    private final long startNanos;
+    private final long firstTokenTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final Deadline deadline;
+
+    private volatile boolean stopped;
+    private volatile ScheduledFuture<?> timer;
+
+    private StreamWatchdog(StreamHandle handle, CancellableStreamingListener listener, StreamOptions options,
+                           Deadline deadline) {
+        this.handle = handle;
+        this.listener = listener;
+        this.startNanos = System.nanoTime();
+        this.firstTokenTimeoutNanos = nanos(options.getFirstTokenTimeout());
+        this.idleTimeoutNanos = nanos(options.getIdleTimeout());
+        this.deadline = deadline;
+    }
+
+    /**
+     * Starts watching a stream that is about to be sent.
+     *
+     * @param deadline The request's deadline, or null for none.
+     * @return The watchdog to stop once the stream has finished, or null if there is nothing to watch.
+     */
+    public static StreamWatchdog start(StreamHandle handle, CancellableStreamingListener listener,
+                                       StreamOptions options, Deadline deadline) {
+        if (options.getFirstTokenTimeout() == null && options.getIdleTimeout() == null && deadline == null) {
+            return null;
+        }
+        StreamWatchdog watchdog = new StreamWatchdog(handle, listener, options, deadline);
+        watchdog.check();
+        return watchdog;
+    }
+
+    /**
+     * Stops watching. Safe to call more than once.
+     */
+    public void stop() {
+        stopped = true;
+        ScheduledFuture<?> pending = timer;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    private void check() {
+        if (stopped || handle.isDone() || handle.isCancelled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long lastToken = listener.getLastTokenNanos();
+        long dueIn = Long.MAX_VALUE;
+        String limit = null;
+        if (lastToken == 0) {
+            if (firstTokenTimeoutNanos > 0) {
+                dueIn = startNanos + firstTokenTimeoutNanos - now;
+                limit = "No first token within " + Duration.ofNanos(firstTokenTimeoutNanos);
+            }
+            if (idleTimeoutNanos > 0 && idleTimeoutNanos < dueIn) {
+                dueIn = idleTimeoutNanos;                        // idle limit starts with the first token
+                limit = null;
+            }
+        } else if (idleTimeoutNanos > 0) {
+            dueIn = lastToken + idleTimeoutNanos - now;
+            limit = "No token for " + Duration.ofNanos(idleTimeoutNanos);
+        }
+        if (deadline != null && deadline.remainingNanos() < dueIn) {
+            dueIn = deadline.remainingNanos();
+            limit = "Deadline exceeded while streaming";
+        }
+        if (dueIn <= 0) {
+            handle.expire(new DeadlineExceededException(limit));
+            return;
+        }
+        if (dueIn != Long.MAX_VALUE) {
+            timer = StreamTimers.schedule(this::check, dueIn, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static long nanos(Duration timeout) {
+        return timeout != null ? timeout.toNanos() : 0;
+    }
+}
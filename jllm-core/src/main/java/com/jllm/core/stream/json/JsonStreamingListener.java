@@ -0,0 +1,73 @@
+package com.jllm.core.stream.json;
+
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.ForwardingStreamingListener;
+
+/**
+ * A {@link StreamingListener} decorator that parses streamed tokens as JSON while they arrive.
+ * <p>
+ * Every token is fed to a {@link StreamingJsonParser} before being forwarded to the delegate,
+ * so completed fields and array elements reach the {@link JsonValueListener} without waiting
+ * for the end of the generation. The parser is finished when the stream completes or fails.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     client.sendStream(request, new JsonStreamingListener(uiListener, (pointer, value) -> index(value)));
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class JsonStreamingListener extends ForwardingStreamingListener {
+
+    private final StreamingJsonParser parser;
+
+    /**
+     * @param delegate      The listener receiving the raw tokens.
+     * @param valueListener The listener receiving completed JSON values.
+     */
+    public JsonStreamingListener(StreamingListener delegate, JsonValueListener valueListener) {
+        super(delegate);
+        this.parser = new StreamingJsonParser(valueListener);
+    }
+
+    @Override
+    public void onTokenReceived(String token) {
+        parser.feed(token);
+        super.onTokenReceived(token);
+    }
+
+    @Override
+    public void onEnd() {
+        parser.finish();
+        super.onEnd();
+    }
+
+    @Override
+    public void onError(Exception e) {
+        parser.finish();
+        super.onError(e);
+    }
+
+    @Override
+    public void onStreamCompleted(PromptResponse response, Exception error) {
+        parser.finish();
+        super.onStreamCompleted(response, error);
+    }
+
+    @Override
+    public void onStreamComplete() {
+        parser.finish();
+        super.onStreamComplete();
+    }
+
+    /**
+     * @return The parser backing this listener, e.g. to inspect the partial document.
+     */
+    public StreamingJsonParser getParser() {
+        return parser;
+    }
+}
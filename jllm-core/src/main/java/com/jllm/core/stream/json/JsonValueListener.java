@@ -0,0 +1,44 @@
+package com.jllm.core.stream.json;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Receives JSON values from a {@link StreamingJsonParser} as soon as each of them is closed.
+ * <p>
+ * Values are reported bottom-up: the fields of an object are reported before the object itself,
+ * and the elements of an array before the array. The node passed for a container is the same
+ * instance that is attached to the root, so it is fully populated at the time of the callback.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public interface JsonValueListener {
+
+    /**
+     * Called when a value (scalar, object or array) has been completely parsed.
+     *
+     * @param pointer The JSON pointer of the value relative to the document root ("" for the root).
+     * @param value   The completed value.
+     */
+    void onValue(JsonPointer pointer, JsonNode value);
+
+    /**
+     * Called once the root value has been closed.
+     *
+     * @param root The complete document.
+     */
+    default void onComplete(JsonNode root) {
+    }
+
+    /**
+     * Called when the input ends before the root value was closed or when it turns out to be malformed.
+     * Every value that was closed before the problem is part of {@code partialRoot}.
+     *
+     * @param partialRoot The document built so far, or null if no JSON value was started.
+     * @param error       The parse error, or null if the input simply ended too early.
+     */
+    default void onIncomplete(JsonNode partialRoot, Exception error) {
+    }
+}
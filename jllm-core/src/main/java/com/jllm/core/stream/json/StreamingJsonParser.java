@@ -0,0 +1,303 @@
+package com.jllm.core.stream.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jllm.core.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Incremental JSON parser for structured model output.
+ * <p>
+ * Text is fed piece by piece (typically one streamed token at a time) into Jackson's non-blocking
+ * parser, and a {@link JsonNode} tree is built as the document arrives. The text is encoded into a
+ * reused UTF-8 buffer; a surrogate pair split across two pieces (e.g. an emoji spanning two tokens) is
+ * held until its second half arrives. Each value is reported to a
+ * {@link JsonValueListener} together with its JSON pointer as soon as it closes, so downstream work
+ * can start on the first array elements long before the generation finishes.
+ * </p>
+ * <p>
+ * The parser is tolerant of the usual noise around model output: anything before the first
+ * {@code '{'} or {@code '['} (prose, a Markdown code fence) is skipped, and anything after the root
+ * value is ignored. If the input is malformed or ends early, the values closed so far are kept and
+ * reported through {@link JsonValueListener#onIncomplete(JsonNode, Exception)}.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; feed them from the single thread delivering the stream.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     StreamingJsonParser parser = new StreamingJsonParser((pointer, value) -> {
+ *         if (pointer.toString().matches("/items/\\d+")) {
+ *             process(value);
+ *         }
+ *     });
+ *     tokens.forEach(parser::feed);
+ *     parser.finish();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamingJsonParser {
+
+    private final JsonValueListener listener;
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    // Reused once the parser has consumed it, i.e. after every drain()
+    private byte[] buffer = new byte[256];
+    // The high surrogate that ended the previous piece, or 0
+    private char highSurrogate;
+
+    private JsonNode root;
+    private boolean started;
+    private boolean finished;
+
+    /**
+     * Creates a parser reporting completed values to the given listener.
+     *
+     * @param listener The listener receiving completed values.
+     */
+    public StreamingJsonParser(JsonValueListener listener) {
+        this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+        try {
+            this.parser = JsonUtil.mapper().getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next piece of text. Completed values are reported before this method returns.
+     *
+     * @param text The next piece of the document.
+     */
+    public void feed(String text) {
+        if (finished || text.isEmpty()) {
+            return;
+        }
+        int start = 0;
+        if (!started) {
+            // Skip leading prose or code fences until the root value starts
+            start = indexOfRootStart(text);
+            if (start < 0) {
+                return;
+            }
+            started = true;
+        }
+        int length = encode(text, start);
+        if (length == 0) {
+            return;                                              // only half a surrogate pair so far
+        }
+        try {
+            feeder.feedInput(buffer, 0, length);
+            drain();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Signals the end of the input. Reports {@link JsonValueListener#onIncomplete(JsonNode, Exception)}
+     * if the root value was never closed.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        feeder.endOfInput();
+        listener.onIncomplete(root, null);
+    }
+
+    /**
+     * @return The document built so far (possibly partial), or null if no value has started yet.
+     */
+    public JsonNode getRoot() {
+        return root;
+    }
+
+    /**
+     * @return true once the root value was closed or parsing stopped because of malformed input.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Encodes {@code text} from {@code start} as UTF-8 into the buffer, completing a surrogate pair left
+     * open by the previous piece. Unpaired surrogates become {@code '?'}, as in {@link String#getBytes}.
+     *
+     * @return The number of bytes written.
+     */
+    private int encode(String text, int start) {
+        int capacity = (text.length() - start) * 3 + 4;
+        if (capacity > buffer.length) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+        }
+        byte[] out = buffer;
+        int n = 0;
+        char high = highSurrogate;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (high != 0) {
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    out[n++] = (byte) (0xF0 | codePoint >> 18);
+                    out[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    out[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    out[n++] = (byte) (0x80 | codePoint & 0x3F);
+                    high = 0;
+                    continue;
+                }
+                out[n++] = '?';
+                high = 0;
+            }
+            if (c < 0x80) {
+                out[n++] = (byte) c;
+            } else if (c < 0x800) {
+                out[n++] = (byte) (0xC0 | c >> 6);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c)) {
+                high = c;
+            } else if (Character.isLowSurrogate(c)) {
+                out[n++] = '?';
+            } else {
+                out[n++] = (byte) (0xE0 | c >> 12);
+                out[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        highSurrogate = high;
+        return n;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            switch (token) {
+                case START_OBJECT:
+                    push(nodes.objectNode());
+                    break;
+                case START_ARRAY:
+                    push(nodes.arrayNode());
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    Frame closed = stack.pop();
+                    complete(closed.pointer, closed.node);
+                    break;
+                case FIELD_NAME:
+                    stack.peek().fieldName = parser.currentName();
+                    break;
+                default:
+                    JsonNode scalar = scalar(token);
+                    complete(attach(scalar), scalar);
+                    break;
+            }
+        }
+    }
+
+    private void push(ContainerNode<?> node) {
+        JsonPointer pointer = attach(node);
+        stack.push(new Frame(node, pointer));
+    }
+
+    /**
+     * Attaches a freshly started value to its parent and returns the value's pointer.
+     */
+    private JsonPointer attach(JsonNode node) {
+        Frame parent = stack.peek();
+        if (parent == null) {
+            root = node;
+            return JsonPointer.empty();
+        }
+        if (parent.node instanceof ObjectNode) {
+            ((ObjectNode) parent.node).set(parent.fieldName, node);
+            return parent.pointer.appendProperty(parent.fieldName);
+        }
+        ArrayNode array = (ArrayNode) parent.node;
+        array.add(node);
+        return parent.pointer.appendIndex(array.size() - 1);
+    }
+
+    private void complete(JsonPointer pointer, JsonNode value) {
+        listener.onValue(pointer, value);
+        if (stack.isEmpty()) {
+            finished = true;
+            listener.onComplete(root);
+        }
+    }
+
+    private JsonNode scalar(JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return nodes.textNode(parser.getText());
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        return nodes.numberNode(parser.getIntValue());
+                    case LONG:
+                        return nodes.numberNode(parser.getLongValue());
+                    default:
+                        return nodes.numberNode(parser.getBigIntegerValue());
+                }
+            case VALUE_NUMBER_FLOAT:
+                return nodes.numberNode(parser.getDecimalValue());
+            case VALUE_TRUE:
+                return nodes.booleanNode(true);
+            case VALUE_FALSE:
+                return nodes.booleanNode(false);
+            case VALUE_NULL:
+                return nodes.nullNode();
+            default:
+                throw new IOException("Unexpected JSON token: " + token);
+        }
+    }
+
+    private void fail(IOException e) {
+        finished = true;
+        listener.onIncomplete(root, e);
+    }
+
+    private static int indexOfRootStart(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An open object or array together with where it lives in the document.
+     */
+    private static final class Frame {
+        private final ContainerNode<?> node;
+        private final JsonPointer pointer;
+        private String fieldName;
+
+        private Frame(ContainerNode<?> node, JsonPointer pointer) {
+            this.node = node;
+            this.pointer = pointer;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.jllm.core.stream.match;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Immutable Aho-Corasick automaton over two kinds of patterns: stop sequences and redaction patterns.
+ * <p>
+ * The automaton is driven one character at a time through {@link #next(int, char)}, so it can run
+ * across token boundaries without ever re-scanning text: every character is processed in amortized
+ * constant time and no memory is allocated while matching. States are plain {@code int}s, and for each
+ * state the automaton knows the length of the longest stop / redaction pattern ending there, which is
+ * all a streaming filter needs to truncate or mask text.
+ * </p>
+ * <p>
+ * Transitions are stored as sorted {@code char} arrays per state (binary searched), which keeps the
+ * table compact for the full UTF-16 alphabet.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     AhoCorasickMatcher matcher = AhoCorasickMatcher.builder()
+ *         .stop("\n\nUser:")
+ *         .redact("sk-live-")
+ *         .build();
+ *     int state = AhoCorasickMatcher.ROOT;
+ *     for (char c : text.toCharArray()) {
+ *         state = matcher.next(state, c);
+ *         if (matcher.stopLength(state) > 0) { ... }
+ *     }
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class AhoCorasickMatcher {
+
+    /**
+     * The initial state, matching the empty string.
+     */
+    public static final int ROOT = 0;
+
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[] depth;
+    private final int[] stopLength;
+    private final int[] redactLength;
+    private final int maxPatternLength;
+    private final boolean redacting;
+
+    private AhoCorasickMatcher(Builder builder) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> stops = new ArrayList<>();
+        List<Integer> redacts = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        depths.add(0);
+        stops.add(0);
+        redacts.add(0);
+
+        int longest = 0;
+        for (Map.Entry<String, Boolean> pattern : builder.patterns.entrySet()) {
+            String text = pattern.getKey();
+            int state = ROOT;
+            for (int i = 0; i < text.length(); i++) {
+                Integer next = trie.get(state).get(text.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    depths.add(i + 1);
+                    stops.add(0);
+                    redacts.add(0);
+                    trie.get(state).put(text.charAt(i), next);
+                }
+                state = next;
+            }
+            if (pattern.getValue()) {
+                stops.set(state, text.length());
+            } else {
+                redacts.set(state, text.length());
+            }
+            longest = Math.max(longest, text.length());
+        }
+
+        int size = trie.size();
+        this.keys = new char[size][];
+        this.targets = new int[size][];
+        this.fail = new int[size];
+        this.depth = new int[size];
+        this.stopLength = new int[size];
+        this.redactLength = new int[size];
+        this.maxPatternLength = longest;
+        this.redacting = builder.patterns.containsValue(false);
+        for (int s = 0; s < size; s++) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            keys[s] = new char[edges.size()];
+            targets[s] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                keys[s][i] = edge.getKey();
+                targets[s][i] = edge.getValue();
+                i++;
+            }
+            depth[s] = depths.get(s);
+            stopLength[s] = stops.get(s);
+            redactLength[s] = redacts.get(s);
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Breadth-first computation of failure links; match lengths are inherited along them so each
+     * state reports the longest pattern of each kind that is a suffix of its string.
+     */
+    private void buildFailureLinks() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < keys[state].length; i++) {
+                int child = targets[state][i];
+                int f = fail[state];
+                int t;
+                while ((t = goTo(f, keys[state][i])) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = t >= 0 ? t : ROOT;
+                stopLength[child] = Math.max(stopLength[child], stopLength[fail[child]]);
+                redactLength[child] = Math.max(redactLength[child], redactLength[fail[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Advances the automaton by one character.
+     *
+     * @param state The current state.
+     * @param c     The next character of the text.
+     * @return The new state.
+     */
+    public int next(int state, char c) {
+        while (true) {
+            int t = goTo(state, c);
+            if (t >= 0) {
+                return t;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * @return The number of trailing characters that may still turn into a match, i.e. the number of
+     * characters a streaming filter has to hold back in this state.
+     */
+    public int depth(int state) {
+        return depth[state];
+    }
+
+    /**
+     * @return The length of the longest stop sequence ending in this state, or 0 if none.
+     */
+    public int stopLength(int state) {
+        return stopLength[state];
+    }
+
+    /**
+     * @return The length of the longest redaction pattern ending in this state, or 0 if none.
+     */
+    public int redactLength(int state) {
+        return redactLength[state];
+    }
+
+    /**
+     * @return The length of the longest pattern, which bounds the lookahead a filter has to buffer.
+     */
+    public int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * @return true if the automaton has at least one redaction pattern.
+     */
+    public boolean isRedacting() {
+        return redacting;
+    }
+
+    /**
+     * @return true if the automaton has no patterns at all.
+     */
+    public boolean isEmpty() {
+        return maxPatternLength == 0;
+    }
+
+    private int goTo(int state, char c) {
+        char[] k = keys[state];
+        int lo = 0;
+        int hi = k.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char key = k[mid];
+            if (key < c) {
+                lo = mid + 1;
+            } else if (key > c) {
+                hi = mid - 1;
+            } else {
+                return targets[state][mid];
+            }
+        }
+        return -1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder pattern to construct an AhoCorasickMatcher. Empty patterns are ignored; a pattern added
+     * both as stop sequence and redaction pattern is treated as a stop sequence.
+     */
+    public static class Builder {
+        // pattern -> true for stop sequences, false for redaction patterns
+        private final Map<String, Boolean> patterns = new TreeMap<>();
+
+        public Builder stop(String sequence) {
+            if (sequence != null && !sequence.isEmpty()) {
+                patterns.put(sequence, Boolean.TRUE);
+            }
+            return this;
+        }
+
+        public Builder stop(Collection<String> sequences) {
+            if (sequences != null) {
+                sequences.forEach(this::stop);
+            }
+            return this;
+        }
+
+        public Builder redact(String pattern) {
+            if (pattern != null && !pattern.isEmpty()) {
+                patterns.putIfAbsent(pattern, Boolean.FALSE);
+            }
+            return this;
+        }
+
+        public Builder redact(Collection<String> patterns) {
+            if (patterns != null) {
+                patterns.forEach(this::redact);
+            }
+            return this;
+        }
+
+        public AhoCorasickMatcher build() {
+            return new AhoCorasickMatcher(this);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.jllm.core.stream.match;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.FinishReason;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link StreamingListener} decorator enforcing stop sequences and masking redaction patterns
+ * on the token stream, including matches that straddle token boundaries.
+ * <p>
+ * Characters are run through an {@link AhoCorasickMatcher}. Only the trailing characters that could
+ * still become part of a match are held back (at most the longest pattern minus one); everything
+ * before them is forwarded as soon as its token has been processed. Redaction matches are replaced
+ * character by character with the mask character before reaching the delegate. On a stop match the
+ * text before the stop sequence is forwarded, the delegate is completed, the stream's handle is
+ * {@link StreamHandle#stop() stopped} so that it finishes with {@link FinishReason#STOP} rather than as
+ * cancelled, and {@link #shouldContinue()} turns false so the underlying request is closed.
+ * </p>
+ * <p>
+ * Nothing is allocated per token. A token that can be forwarded unchanged is passed through as the
+ * same instance; otherwise the releasable part of the buffer is handed to
+ * {@link StreamingListener#onTokenChars(CharSequence)} as a reused view of the buffer.
+ * Instances are not thread-safe and serve a single stream.
+ * </p>
+ * <p>
+ * A {@link LogProb} is held back with its token's text and forwarded once that text has been
+ * released, or dropped if the text falls after a stop match. With stop sequences only, the log prob is
+ * passed on as is; when the matcher has redaction patterns its token text is stripped, since it could
+ * reveal what was masked.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class PatternFilteringListener extends ForwardingStreamingListener {
+
+    /**
+     * Default character replacing each redacted character.
+     */
+    public static final char DEFAULT_MASK = '*';
+
+    private final AhoCorasickMatcher matcher;
+    private final char mask;
+    private final StreamHandle handle;
+
+    private char[] pending;
+    // View of the start of pending, re-wrapped only when pending grows
+    private CharBuffer released;
+    private int pendingLength;
+    private int state = AhoCorasickMatcher.ROOT;
+    private boolean stopped;
+
+    // Log probs whose token text is still held back, with the stream position at which that token ends
+    private LogProb[] heldLogProbs = new LogProb[8];
+    private long[] heldEnds = new long[8];
+    private int heldCount;
+    private long receivedChars;
+    private long releasedChars;
+
+    /**
+     * @param delegate The listener receiving the filtered tokens.
+     * @param matcher  The automaton holding stop sequences and redaction patterns.
+     * @param mask     The character replacing each redacted character.
+     */
+    public PatternFilteringListener(StreamingListener delegate, AhoCorasickMatcher matcher, char mask) {
+        this(delegate, matcher, mask, null);
+    }
+
+    /**
+     * @param delegate The listener receiving the filtered tokens.
+     * @param matcher  The automaton holding stop sequences and redaction patterns.
+     * @param mask     The character replacing each redacted character.
+     * @param handle   The handle of the stream, stopped on a stop match; may be null.
+     */
+    public PatternFilteringListener(StreamingListener delegate, AhoCorasickMatcher matcher, char mask,
+                                    StreamHandle handle) {
+        super(delegate);
+        this.matcher = Objects.requireNonNull(matcher, "matcher cannot be null");
+        this.mask = mask;
+        this.handle = handle;
+        this.pending = new char[Math.max(64, matcher.getMaxPatternLength() * 2)];
+        this.released = CharBuffer.wrap(pending);
+    }
+
+    @Override
+    public void onTokenReceived(String token) {
+        if (stopped) {
+            return;
+        }
+        int length = token.length();
+        receivedChars += length;
+        boolean unchanged = pendingLength == 0;
+        ensureCapacity(pendingLength + length);
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            pending[pendingLength++] = c;
+            state = matcher.next(state, c);
+
+            int redact = matcher.redactLength(state);
+            if (redact > 0) {
+                // The match is a suffix of the current state, so all its characters are still buffered
+                Arrays.fill(pending, pendingLength - redact, pendingLength, mask);
+                unchanged = false;
+            }
+            int stop = matcher.stopLength(state);
+            if (stop > 0) {
+                release(pendingLength - stop);
+                pendingLength = 0;
+                Arrays.fill(heldLogProbs, 0, heldCount, null);
+                heldCount = 0;
+                stopped = true;
+                if (handle != null) {
+                    handle.stop();
+                }
+                delegate.onStreamComplete();
+                return;
+            }
+        }
+
+        int releasable = pendingLength - matcher.depth(state);
+        if (unchanged && releasable == length) {
+            pendingLength = 0;
+            releasedChars = receivedChars;
+            delegate.onTokenReceived(token);
+        } else {
+            release(releasable);
+        }
+    }
+
+    @Override
+    public boolean shouldContinue() {
+        return !stopped && delegate.shouldContinue();
+    }
+
+    /**
+     * Forwards the log prob of the latest token once its text has been released.
+     */
+    @Override
+    public void onLogProb(LogProb logProb) {
+        if (stopped) {
+            return;
+        }
+        LogProb forwarded = matcher.isRedacting()
+                ? new LogProb("", logProb.getLogProb(), logProb.getTopLogProbs())
+                : logProb;
+        if (receivedChars <= releasedChars) {
+            delegate.onLogProb(forwarded);
+            return;
+        }
+        if (heldCount == heldLogProbs.length) {
+            heldLogProbs = Arrays.copyOf(heldLogProbs, heldCount * 2);
+            heldEnds = Arrays.copyOf(heldEnds, heldCount * 2);
+        }
+        heldLogProbs[heldCount] = forwarded;
+        heldEnds[heldCount++] = receivedChars;
+    }
+
+    @Override
+    public void onEnd() {
+        if (!stopped) {
+            flush();
+            super.onEnd();
+        }
+    }
+
+    @Override
+    public void onError(Exception e) {
+        if (!stopped) {
+            flush();
+            super.onError(e);
+        }
+    }
+
+    @Override
+    public void onStreamCompleted(PromptResponse response, Exception error) {
+        if (!stopped) {
+            flush();
+            super.onStreamCompleted(response, error);
+        }
+    }
+
+    @Override
+    public void onStreamComplete() {
+        if (!stopped) {
+            flush();
+            super.onStreamComplete();
+        }
+    }
+
+    @Override
+    public void onStreamCancelled(TokenUsage partialUsage) {
+        // After a stop match the delegate has already been completed
+        if (!stopped) {
+            flush();
+            super.onStreamCancelled(partialUsage);
+        }
+    }
+
+    /**
+     * @return true once a stop sequence has been matched.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Releases the held-back characters at the end of the stream; they can no longer complete a match.
+     */
+    private void flush() {
+        release(pendingLength);
+        state = AhoCorasickMatcher.ROOT;
+    }
+
+    /**
+     * Forwards the first {@code count} buffered characters and shifts the rest to the front.
+     */
+    private void release(int count) {
+        if (count <= 0) {
+            return;
+        }
+        released.clear();
+        released.limit(count);
+        delegate.onTokenChars(released);
+        System.arraycopy(pending, count, pending, 0, pendingLength - count);
+        pendingLength -= count;
+        releasedChars += count;
+        releaseLogProbs();
+    }
+
+    /**
+     * Forwards the held log probs whose token text has now been released, in order.
+     */
+    private void releaseLogProbs() {
+        int forwarded = 0;
+        while (forwarded < heldCount && heldEnds[forwarded] <= releasedChars) {
+            delegate.onLogProb(heldLogProbs[forwarded++]);
+        }
+        if (forwarded > 0) {
+            System.arraycopy(heldLogProbs, forwarded, heldLogProbs, 0, heldCount - forwarded);
+            System.arraycopy(heldEnds, forwarded, heldEnds, 0, heldCount - forwarded);
+            Arrays.fill(heldLogProbs, heldCount - forwarded, heldCount, null);
+            heldCount -= forwarded;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(capacity, pending.length * 2));
+            released = CharBuffer.wrap(pending);
+        }
+    }
+}
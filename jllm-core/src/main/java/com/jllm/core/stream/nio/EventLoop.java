@@ -0,0 +1,110 @@
+package com.jllm.core.stream.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One selector thread of the {@link NioStreamingEngine}, serving every exchange assigned to it.
+ * <p>
+ * All state of an exchange is touched on this thread only: other threads hand work over through
+ * {@link #execute(Runnable)}, which wakes the selector at most once per batch of tasks.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+final class EventLoop implements Runnable {
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    // Shared by all exchanges of the loop: each read is fully consumed before the next one
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Runs the task on the loop thread, after the current batch of I/O.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        ((StreamExchange) key.attachment()).ready(key);
+                    }
+                }
+                runTasks();
+            } catch (IOException e) {
+                break;                                           // the selector itself is broken
+            }
+        }
+        closed = true;
+        runTasks();                                              // exchanges not yet opened fail in open()
+        IOException shutdown = new IOException("Streaming engine closed");
+        for (SelectionKey key : selector.keys()) {
+            ((StreamExchange) key.attachment()).fail(shutdown);
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Selector selector() {
+        return selector;
+    }
+
+    ByteBuffer readBuffer() {
+        return readBuffer;
+    }
+}
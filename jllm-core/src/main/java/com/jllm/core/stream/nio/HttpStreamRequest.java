@@ -0,0 +1,48 @@
+package com.jllm.core.stream.nio;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An HTTP POST that answers with a server-sent event stream, as described by an
+ * {@link com.jllm.core.provider.HttpStreamingProvider} for the {@link NioStreamingEngine}.
+ * <p>
+ * {@code Host}, {@code Content-Length} and {@code Connection} are set by the engine and must not be
+ * among the headers.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class HttpStreamRequest {
+
+    private final URI uri;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    /**
+     * @param uri     The endpoint; only {@code http} URIs are supported by the engine.
+     * @param headers Additional request headers, e.g. {@code Authorization} and {@code Content-Type}.
+     * @param body    The request body, sent as is.
+     */
+    public HttpStreamRequest(URI uri, Map<String, String> headers, byte[] body) {
+        this.uri = Objects.requireNonNull(uri, "uri cannot be null");
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.body = Objects.requireNonNull(body, "body cannot be null");
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,200 @@
+package com.jllm.core.stream.nio;
+
+import com.jllm.core.stream.sse.SseDecoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many streaming HTTP responses on a few selector threads instead of a thread per stream.
+ * <p>
+ * Each stream gets its own non-blocking connection ({@code Connection: close}), assigned round-robin to
+ * one of the event loops. The loop sends the request, parses the response and feeds the body through an
+ * {@link SseDecoder} into the stream's event handler, so a stream costs a socket, two small decoder
+ * buffers and its parser state, and an idle stream costs no thread at all.
+ * </p>
+ * <p>
+ * Event handlers and completion callbacks run on the loop threads. They must be quick and must never
+ * block: a slow listener holds up every other stream of its loop. Only plain {@code http} endpoints are
+ * supported, e.g. a local gateway or sidecar terminating TLS.
+ * </p>
+ *
+ * <pre>{@code
+ * try (NioStreamingEngine engine = NioStreamingEngine.builder().threads(2).build()) {
+ *     LLMClient client = LLMClient.builder().provider(provider).model("gpt-4o-mini")
+ *             .streamingEngine(engine).build();
+ *     StreamHandle handle = client.sendStreamAsync(request, listener);
+ * }
+ * }</pre>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class NioStreamingEngine implements AutoCloseable {
+
+    /**
+     * Told once, on an event loop thread, how an exchange ended.
+     */
+    public interface CompletionCallback {
+
+        /**
+         * @param failure null if the final event arrived, otherwise why the exchange ended.
+         */
+        void onComplete(Exception failure);
+    }
+
+    private final EventLoop[] loops;
+    private final long connectTimeoutNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    private NioStreamingEngine(Builder builder) throws IOException {
+        this.connectTimeoutNanos = builder.connectTimeout.toNanos();
+        this.loops = new EventLoop[builder.threads];
+        try {
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop("jllm-nio-" + i);
+            }
+        } catch (IOException e) {
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    loop.selector().close();
+                }
+            }
+            throw e;
+        }
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * Starts a streaming exchange. The host name is resolved on the calling thread; everything else
+     * happens on an event loop.
+     *
+     * @param request  The HTTP request to send.
+     * @param events   Receives the events of the response body; returns false after the final event.
+     * @param callback Told when the exchange has ended.
+     * @return The exchange, through which it can be cancelled.
+     * @throws IOException if the endpoint is not a plain {@code http} URI or its host cannot be resolved.
+     */
+    public StreamExchange stream(HttpStreamRequest request, SseDecoder.EventHandler events,
+                                 CompletionCallback callback) throws IOException {
+        Objects.requireNonNull(request, "request cannot be null");
+        Objects.requireNonNull(events, "events cannot be null");
+        Objects.requireNonNull(callback, "callback cannot be null");
+        if (closed) {
+            throw new IllegalStateException("Streaming engine is closed");
+        }
+        URI uri = request.getUri();
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            throw new IOException("Only plain http endpoints can be streamed by the NIO engine: " + uri);
+        }
+        int port = uri.getPort() != -1 ? uri.getPort() : 80;
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), port);
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(uri.getHost());
+        }
+        EventLoop loop = loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+        openStreams.incrementAndGet();
+        StreamExchange exchange = new StreamExchange(loop, address, connectTimeoutNanos, encode(request, port),
+                events, callback, openStreams::decrementAndGet);
+        loop.execute(exchange::open);
+        return exchange;
+    }
+
+    private static ByteBuffer encode(HttpStreamRequest request, int port) {
+        URI uri = request.getUri();
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        StringBuilder head = new StringBuilder(256)
+                .append("POST ").append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(uri.getHost());
+        if (port != 80) {
+            head.append(':').append(port);
+        }
+        head.append("\r\n");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("Content-Length: ").append(request.getBody().length).append("\r\n")
+                .append("Connection: close\r\n\r\n");
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + request.getBody().length);
+        buffer.put(headBytes).put(request.getBody()).flip();
+        return buffer;
+    }
+
+    /**
+     * @return The number of exchanges started and not yet completed.
+     */
+    public int getOpenStreams() {
+        return openStreams.get();
+    }
+
+    /**
+     * Stops the event loops. Exchanges still open complete with an {@link IOException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (EventLoop loop : loops) {
+            loop.close();
+        }
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for NioStreamingEngine.
+     */
+    public static final class Builder {
+        private int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * The number of event loop threads (default: the number of processors, at most 4).
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be at least 1");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * How long a connection may take to be established (default: 10 seconds).
+         */
+        public Builder connectTimeout(Duration timeout) {
+            this.connectTimeout = Objects.requireNonNull(timeout, "timeout cannot be null");
+            return this;
+        }
+
+        /**
+         * Start the event loops.
+         *
+         * @throws IOException if a selector cannot be opened.
+         */
+        public NioStreamingEngine build() throws IOException {
+            return new NioStreamingEngine(this);
+        }
+    }
+}
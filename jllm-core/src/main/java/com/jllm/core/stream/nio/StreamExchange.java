@@ -0,0 +1,362 @@
+package com.jllm.core.stream.nio;
+
+import com.jllm.core.exception.AuthenticationException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.exception.StreamCancelledException;
+import com.jllm.core.stream.StreamTimers;
+import com.jllm.core.stream.sse.SseDecoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One streaming HTTP exchange run by the {@link NioStreamingEngine}: connect, send the request, parse
+ * the response head and feed the body to an {@link SseDecoder}, whether it is chunked, has a
+ * {@code Content-Length} or runs until the connection closes.
+ * <p>
+ * The exchange lives on its event loop thread; the only methods meant for other threads are
+ * {@link #cancel()} and {@link #isDone()}. It completes exactly once, when the event handler reports the
+ * final event (success), or on an error status, an I/O error, a cancel or the connection closing early.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StreamExchange {
+
+    private static final int CONNECTING = 0;
+    private static final int WRITING = 1;
+    private static final int HEAD = 2;
+    private static final int BODY = 3;
+    private static final int DONE = 4;
+
+    private static final int CHUNK_SIZE = 0;
+    private static final int CHUNK_DATA = 1;
+    private static final int CHUNK_DATA_END = 2;
+
+    private static final int MAX_HEAD_SIZE = 16 * 1024;
+    private static final int MAX_ERROR_BODY = 4096;
+
+    private final EventLoop loop;
+    private final InetSocketAddress address;
+    private final long connectTimeoutNanos;
+    private final SseDecoder decoder;
+    private final NioStreamingEngine.CompletionCallback callback;
+    private final Runnable onClose;
+
+    private ByteBuffer request;
+    private SocketChannel channel;
+    private SelectionKey key;
+    private ScheduledFuture<?> connectTimer;
+    private int state = CONNECTING;
+
+    private byte[] head = new byte[512];
+    private int headLength;
+    private int status;
+    private long remaining = -1;                                 // body bytes left, -1 if unknown
+    private boolean chunked;
+    private int chunkState = CHUNK_SIZE;
+    private long chunkRemaining;
+    private boolean chunkExtension;
+    private ByteArrayOutputStream errorBody;
+
+    private volatile boolean done;
+
+    StreamExchange(EventLoop loop, InetSocketAddress address, long connectTimeoutNanos, ByteBuffer request,
+                   SseDecoder.EventHandler events, NioStreamingEngine.CompletionCallback callback,
+                   Runnable onClose) {
+        this.loop = loop;
+        this.address = address;
+        this.connectTimeoutNanos = connectTimeoutNanos;
+        this.request = request;
+        this.decoder = new SseDecoder(events);
+        this.callback = callback;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Stops the exchange and closes its connection; it completes with a {@link StreamCancelledException}
+     * unless it has already finished. Safe to call from any thread and more than once.
+     */
+    public void cancel() {
+        if (!done) {
+            loop.execute(() -> fail(new StreamCancelledException("Stream cancelled")));
+        }
+    }
+
+    /**
+     * @return true once the exchange has completed, successfully or not.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    void open() {
+        if (loop.isClosed()) {
+            fail(new IOException("Streaming engine closed"));
+            return;
+        }
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            key = channel.register(loop.selector(), 0, this);
+            if (channel.connect(address)) {
+                connected();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_CONNECT);
+            connectTimer = StreamTimers.schedule(() -> loop.execute(() -> {
+                if (state == CONNECTING) {
+                    fail(new SocketTimeoutException("Connect to " + address + " timed out"));
+                }
+            }), connectTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    void ready(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                if (channel.finishConnect()) {
+                    connected();
+                }
+            } else if (key.isWritable()) {
+                write();
+            } else if (key.isReadable()) {
+                read();
+            }
+        } catch (Exception e) {                                  // includes listener failures
+            fail(e);
+        }
+    }
+
+    private void connected() throws IOException {
+        if (connectTimer != null) {
+            connectTimer.cancel(false);
+            connectTimer = null;
+        }
+        state = WRITING;
+        write();
+    }
+
+    private void write() throws IOException {
+        channel.write(request);
+        if (request.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+        request = null;
+        state = HEAD;
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void read() throws IOException {
+        ByteBuffer buffer = loop.readBuffer();
+        buffer.clear();
+        int read = channel.read(buffer);
+        if (read < 0) {
+            if (state == HEAD) {
+                fail(new IOException("Connection closed before the response head"));
+            } else {
+                endOfBody();                                     // a body without length ends here
+            }
+            return;
+        }
+        consume(buffer.array(), read);
+    }
+
+    private void consume(byte[] bytes, int length) throws IOException {
+        int i = 0;
+        if (state == HEAD) {
+            i = readHead(bytes, length);
+        }
+        while (i < length && state == BODY) {
+            if (chunked) {
+                i = readChunked(bytes, i, length);
+            } else {
+                int n = remaining >= 0 ? (int) Math.min(length - i, remaining) : length - i;
+                body(bytes, i, n);
+                i += n;
+                if (remaining >= 0 && (remaining -= n) == 0 && state == BODY) {
+                    endOfBody();
+                }
+            }
+        }
+    }
+
+    private int readHead(byte[] bytes, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (headLength == head.length) {
+                if (headLength == MAX_HEAD_SIZE) {
+                    throw new IOException("Response head exceeds " + MAX_HEAD_SIZE + " bytes");
+                }
+                head = Arrays.copyOf(head, Math.min(MAX_HEAD_SIZE, headLength * 2));
+            }
+            head[headLength++] = bytes[i];
+            if (headLength >= 4 && head[headLength - 1] == '\n' && head[headLength - 2] == '\r'
+                    && head[headLength - 3] == '\n' && head[headLength - 4] == '\r') {
+                parseHead();
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private void parseHead() throws IOException {
+        String[] lines = new String(head, 0, headLength - 4, StandardCharsets.ISO_8859_1).split("\r\n");
+        head = null;
+        String[] statusLine = lines[0].split(" ", 3);
+        if (statusLine.length < 2 || !statusLine[0].startsWith("HTTP/")) {
+            throw new IOException("Malformed status line: " + lines[0]);
+        }
+        try {
+            status = Integer.parseInt(statusLine[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed status line: " + lines[0], e);
+        }
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = lines[i].substring(0, colon).trim();
+            String value = lines[i].substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                chunked = value.toLowerCase().contains("chunked");
+            } else if (name.equalsIgnoreCase("Content-Length")) {
+                try {
+                    remaining = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed Content-Length: " + value, e);
+                }
+            }
+        }
+        if (chunked) {
+            remaining = -1;
+        }
+        if (!isSuccess()) {
+            errorBody = new ByteArrayOutputStream();
+        }
+        state = BODY;
+        if (remaining == 0) {
+            endOfBody();
+        }
+    }
+
+    private int readChunked(byte[] bytes, int i, int length) throws IOException {
+        if (chunkState == CHUNK_DATA) {
+            int n = (int) Math.min(length - i, chunkRemaining);
+            body(bytes, i, n);
+            if ((chunkRemaining -= n) == 0) {
+                chunkState = CHUNK_DATA_END;
+            }
+            return i + n;
+        }
+        while (i < length) {
+            byte b = bytes[i++];
+            if (chunkState == CHUNK_DATA_END) {
+                if (b == '\n') {
+                    chunkState = CHUNK_SIZE;
+                    return i;
+                }
+                if (b != '\r') {
+                    throw new IOException("Malformed chunk: missing line break after the data");
+                }
+            } else if (b == '\n') {
+                chunkExtension = false;
+                if (chunkRemaining == 0) {
+                    endOfBody();                                 // last chunk; trailers are not read
+                    return length;
+                }
+                chunkState = CHUNK_DATA;
+                return i;
+            } else if (b == ';' || b == '\r') {
+                chunkExtension = true;
+            } else if (!chunkExtension) {
+                int digit = Character.digit(b, 16);
+                if (digit < 0) {
+                    throw new IOException("Malformed chunk size");
+                }
+                chunkRemaining = chunkRemaining * 16 + digit;
+            }
+        }
+        return i;
+    }
+
+    private void body(byte[] bytes, int offset, int length) throws IOException {
+        if (errorBody != null) {
+            errorBody.write(bytes, offset, Math.min(length, MAX_ERROR_BODY - errorBody.size()));
+            return;
+        }
+        decoder.feed(bytes, offset, length);
+        if (decoder.isStopped()) {
+            complete(null);
+        }
+    }
+
+    private void endOfBody() {
+        if (errorBody != null) {
+            fail(statusFailure());
+        } else {
+            fail(new IOException("Stream ended before its final event"));
+        }
+    }
+
+    private boolean isSuccess() {
+        return status >= 200 && status < 300;
+    }
+
+    private Exception statusFailure() {
+        String detail = errorBody.size() > 0 ? ": " + errorBody.toString(StandardCharsets.UTF_8) : "";
+        if (status == 401 || status == 403) {
+            return new AuthenticationException("Stream rejected with status code " + status + detail);
+        }
+        if (status == 429) {
+            return new RateLimitException("Rate limit exceeded" + detail);
+        }
+        return new IOException("Stream failed with status code " + status + detail);
+    }
+
+    void fail(Exception failure) {
+        complete(failure);
+    }
+
+    private void complete(Exception failure) {
+        if (state == DONE) {
+            return;
+        }
+        state = DONE;
+        done = true;
+        if (connectTimer != null) {
+            connectTimer.cancel(false);
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the exchange is over either way
+            }
+        }
+        onClose.run();
+        try {
+            callback.onComplete(failure);
+        } catch (RuntimeException ignored) {
+            // a failing callback must not take the event loop down
+        }
+    }
+}
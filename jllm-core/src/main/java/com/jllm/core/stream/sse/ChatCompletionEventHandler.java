@@ -0,0 +1,270 @@
+package com.jllm.core.stream.sse;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.util.JsonUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Turns the events of an OpenAI-style chat completion stream into {@link StreamingListener} callbacks.
+ * <p>
+ * Each event carries one JSON chunk; the text of {@code choices[].delta.content} (or {@code choices[].text}
+ * for the legacy completions API) is delivered through {@link StreamingListener#onTokenReceived(String)},
+ * followed by the token log probabilities if the request asked for them. The {@code usage} of the final
+ * chunk and the {@code [DONE]} sentinel end the stream with {@link StreamingListener#onEnd()},
+ * {@link StreamingListener#onStreamCompleted(PromptResponse, Exception)} (if usage was reported) and
+ * {@link StreamingListener#onStreamComplete()}.
+ * </p>
+ * <p>
+ * All chunks of a stream are read by the same non-blocking Jackson parser, fed the event bytes in place:
+ * there is no parser, string or tree per chunk. Field names come from Jackson's symbol table, so the
+ * only allocation per token is the token string itself. Choices other than the first are ignored.
+ * </p>
+ * <p>
+ * Instances serve a single stream and are not thread-safe.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class ChatCompletionEventHandler implements SseDecoder.EventHandler {
+
+    private static final byte[] DONE = {'[', 'D', 'O', 'N', 'E', ']'};
+
+    private final StreamingListener listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final StringBuilder text = new StringBuilder();
+    private final List<LogProb> pendingLogProbs = new ArrayList<>();
+
+    private TokenUsage usage;
+    private String finishReason;
+    private boolean done;
+
+    public ChatCompletionEventHandler(StreamingListener listener) throws IOException {
+        this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+        this.parser = JsonUtil.mapper().getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public boolean onEvent(byte[] data, int length) throws IOException {
+        if (isDone(data, length)) {
+            finish();
+            return false;
+        }
+        feeder.feedInput(data, 0, length);
+        if (next() != JsonToken.START_OBJECT) {
+            throw new IOException("Malformed stream chunk: expected a JSON object");
+        }
+        readChunk();
+        JsonToken trailing;
+        do {
+            trailing = parser.nextToken();                       // consumes trailing whitespace
+        } while (trailing != JsonToken.NOT_AVAILABLE && trailing != null);
+        return true;
+    }
+
+    private void readChunk() throws IOException {
+        while (next() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = next();
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                int index = 0;
+                while (next() == JsonToken.START_OBJECT) {
+                    if (index++ == 0) {
+                        readChoice();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                readUsage();
+            } else if ("error".equals(field) && value == JsonToken.START_OBJECT) {
+                throw new IOException("Provider reported an error mid-stream: " + readErrorMessage());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readChoice() throws IOException {
+        while (next() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = next();
+            if ("delta".equals(field) && value == JsonToken.START_OBJECT) {
+                while (next() == JsonToken.FIELD_NAME) {
+                    String deltaField = parser.currentName();
+                    if (next() == JsonToken.VALUE_STRING && "content".equals(deltaField)) {
+                        token(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("text".equals(field) && value == JsonToken.VALUE_STRING) {
+                token(parser.getText());
+            } else if ("logprobs".equals(field) && value == JsonToken.START_OBJECT) {
+                readLogProbs();
+            } else if ("finish_reason".equals(field) && value == JsonToken.VALUE_STRING) {
+                finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        for (int i = 0; i < pendingLogProbs.size(); i++) {
+            listener.onLogProb(pendingLogProbs.get(i));
+        }
+        pendingLogProbs.clear();
+    }
+
+    private void token(String token) {
+        if (!token.isEmpty()) {
+            text.append(token);
+            listener.onTokenReceived(token);
+        }
+    }
+
+    private void readLogProbs() throws IOException {
+        while (next() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (next() != JsonToken.START_ARRAY || !"content".equals(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (next() == JsonToken.START_OBJECT) {
+                String token = null;
+                double logProb = 0;
+                List<Double> top = null;
+                while (next() == JsonToken.FIELD_NAME) {
+                    String entryField = parser.currentName();
+                    JsonToken value = next();
+                    if ("token".equals(entryField) && value == JsonToken.VALUE_STRING) {
+                        token = parser.getText();
+                    } else if ("logprob".equals(entryField) && value.isNumeric()) {
+                        logProb = parser.getDoubleValue();
+                    } else if ("top_logprobs".equals(entryField) && value == JsonToken.START_ARRAY) {
+                        top = readTopLogProbs();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (token != null) {
+                    pendingLogProbs.add(new LogProb(token, logProb, top));
+                }
+            }
+        }
+    }
+
+    private List<Double> readTopLogProbs() throws IOException {
+        List<Double> top = null;
+        while (next() == JsonToken.START_OBJECT) {
+            while (next() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = next();
+                if ("logprob".equals(field) && value.isNumeric()) {
+                    if (top == null) {
+                        top = new ArrayList<>();
+                    }
+                    top.add(parser.getDoubleValue());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return top;
+    }
+
+    private void readUsage() throws IOException {
+        int prompt = 0;
+        int completion = 0;
+        int total = 0;
+        while (next() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = next();
+            if (value != JsonToken.VALUE_NUMBER_INT) {
+                parser.skipChildren();
+            } else if ("prompt_tokens".equals(field)) {
+                prompt = parser.getIntValue();
+            } else if ("completion_tokens".equals(field)) {
+                completion = parser.getIntValue();
+            } else if ("total_tokens".equals(field)) {
+                total = parser.getIntValue();
+            }
+        }
+        usage = new TokenUsage(prompt, completion, total);
+    }
+
+    private String readErrorMessage() throws IOException {
+        String message = "unknown error";
+        while (next() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = next();
+            if ("message".equals(field) && value == JsonToken.VALUE_STRING) {
+                message = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return message;
+    }
+
+    private JsonToken next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.NOT_AVAILABLE || token == null) {
+            throw new IOException("Malformed stream chunk: JSON ends early");
+        }
+        return token;
+    }
+
+    private void finish() {
+        done = true;
+        listener.onEnd();
+        if (usage != null) {
+            listener.onStreamCompleted(
+                    new PromptResponse.Builder().text(text.toString()).usage(usage).build(), null);
+        }
+        listener.onStreamComplete();
+    }
+
+    private static boolean isDone(byte[] data, int length) {
+        if (length != DONE.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data[i] != DONE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true once the {@code [DONE]} event arrived, i.e. the stream was not cut short.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return The reason the model stopped generating, or null if not reported yet.
+     */
+    public String getFinishReason() {
+        return finishReason;
+    }
+
+    /**
+     * @return The usage reported in the stream, or null if there was none.
+     */
+    public TokenUsage getUsage() {
+        return usage;
+    }
+}
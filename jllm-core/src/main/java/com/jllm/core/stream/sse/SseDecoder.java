@@ -0,0 +1,232 @@
+package com.jllm.core.stream.sse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Incremental decoder for server-sent events ({@code text/event-stream}).
+ * <p>
+ * Bytes are fed in chunks of any size, straight from a {@link ByteBuffer} or read from an
+ * {@link InputStream}. Lines are assembled in a reusable buffer and the {@code data:} lines of an event
+ * are joined (with {@code '\n'}, as the specification requires) in a second reusable buffer, which is
+ * handed to the {@link EventHandler} as raw UTF-8 bytes when the blank line ending the event arrives.
+ * Nothing is decoded to a {@code String} here and, once both buffers have grown to the largest event
+ * of the stream, decoding allocates nothing at all.
+ * </p>
+ * <p>
+ * Lines may end with {@code "\n"}, {@code "\r\n"} or {@code "\r"}. Comment lines and the {@code event},
+ * {@code id} and {@code retry} fields are skipped: LLM providers put everything a client needs into the
+ * data payload. An event left unfinished when the input ends is dropped.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and decode one stream at a time; {@link #reset()} makes an instance
+ * reusable for the next stream.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class SseDecoder {
+
+    private static final byte[] DATA = {'d', 'a', 't', 'a'};
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Receives the data of each decoded event.
+     */
+    public interface EventHandler {
+
+        /**
+         * @param data   The event's data, valid only until this method returns.
+         * @param length The number of data bytes, starting at index 0.
+         * @return true to keep decoding; false to stop, e.g. after a terminal event.
+         */
+        boolean onEvent(byte[] data, int length) throws IOException;
+    }
+
+    private final EventHandler handler;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private byte[] data = new byte[1024];
+    private int dataLength;
+    private boolean hasData;
+    private boolean afterCarriageReturn;
+    private boolean stopped;
+    private byte[] readBuffer;
+
+    public SseDecoder(EventHandler handler) {
+        this.handler = Objects.requireNonNull(handler, "handler cannot be null");
+    }
+
+    /**
+     * Decodes the bytes remaining in the buffer, advancing its position past those consumed.
+     *
+     * @return false once the handler has stopped decoding; the rest of the buffer is left unread.
+     */
+    public boolean feed(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            int consumed = decode(buffer.array(), start, buffer.remaining());
+            buffer.position(buffer.position() + consumed);
+        } else {
+            while (buffer.hasRemaining() && !stopped) {
+                accept(buffer.get());
+            }
+        }
+        return !stopped;
+    }
+
+    /**
+     * Decodes {@code length} bytes of the array starting at {@code offset}.
+     *
+     * @return false once the handler has stopped decoding.
+     */
+    public boolean feed(byte[] bytes, int offset, int length) throws IOException {
+        decode(bytes, offset, length);
+        return !stopped;
+    }
+
+    /**
+     * Decodes the stream until it ends or the handler stops decoding. The stream is not closed.
+     */
+    public void readFrom(InputStream in) throws IOException {
+        if (readBuffer == null) {
+            readBuffer = new byte[READ_BUFFER_SIZE];
+        }
+        int read;
+        while (!stopped && (read = in.read(readBuffer)) != -1) {
+            decode(readBuffer, 0, read);
+        }
+    }
+
+    /**
+     * @return true once the handler has asked to stop.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Forgets any partial line or event so the decoder can serve a new stream. The buffers are kept.
+     */
+    public void reset() {
+        lineLength = 0;
+        dataLength = 0;
+        hasData = false;
+        afterCarriageReturn = false;
+        stopped = false;
+    }
+
+    private int decode(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        int i = offset;
+        while (i < end && !stopped) {
+            byte b = bytes[i++];
+            if (b == '\n' || b == '\r') {
+                endOfLine(b);
+                continue;
+            }
+            afterCarriageReturn = false;
+            // Copy the run of plain bytes up to the next line break in one go
+            int runEnd = i;
+            while (runEnd < end && bytes[runEnd] != '\n' && bytes[runEnd] != '\r') {
+                runEnd++;
+            }
+            int run = runEnd - i + 1;
+            ensureLineCapacity(lineLength + run);
+            System.arraycopy(bytes, i - 1, line, lineLength, run);
+            lineLength += run;
+            i = runEnd;
+        }
+        return i - offset;
+    }
+
+    private void accept(byte b) throws IOException {
+        if (b == '\n' || b == '\r') {
+            endOfLine(b);
+            return;
+        }
+        afterCarriageReturn = false;
+        ensureLineCapacity(lineLength + 1);
+        line[lineLength++] = b;
+    }
+
+    private void endOfLine(byte b) throws IOException {
+        if (b == '\n' && afterCarriageReturn) {
+            afterCarriageReturn = false;                         // second half of "\r\n"
+            return;
+        }
+        afterCarriageReturn = b == '\r';
+        if (lineLength == 0) {
+            dispatch();
+        } else {
+            processLine();
+            lineLength = 0;
+        }
+    }
+
+    private void processLine() {
+        if (line[0] == ':') {
+            return;                                              // comment, often used as a keep-alive
+        }
+        if (!isDataField()) {
+            return;
+        }
+        int valueStart = DATA.length;
+        if (valueStart < lineLength) {
+            valueStart++;                                        // the colon
+            if (valueStart < lineLength && line[valueStart] == ' ') {
+                valueStart++;
+            }
+        }
+        int valueLength = lineLength - valueStart;
+        int separator = hasData ? 1 : 0;
+        ensureDataCapacity(dataLength + separator + valueLength);
+        if (hasData) {
+            data[dataLength++] = '\n';
+        }
+        System.arraycopy(line, valueStart, data, dataLength, valueLength);
+        dataLength += valueLength;
+        hasData = true;
+    }
+
+    private boolean isDataField() {
+        if (lineLength < DATA.length || (lineLength > DATA.length && line[DATA.length] != ':')) {
+            return false;
+        }
+        for (int i = 0; i < DATA.length; i++) {
+            if (line[i] != DATA[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dispatch() throws IOException {
+        if (!hasData) {
+            return;
+        }
+        int length = dataLength;
+        dataLength = 0;
+        hasData = false;
+        if (!handler.onEvent(data, length)) {
+            stopped = true;
+        }
+    }
+
+    private void ensureLineCapacity(int capacity) {
+        if (capacity > line.length) {
+            line = Arrays.copyOf(line, Math.max(capacity, line.length * 2));
+        }
+    }
+
+    private void ensureDataCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.jllm.core.time;
+
+import com.jllm.core.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A point in time by which a request must have finished, measured on the {@link System#nanoTime()}
+ * clock (or the monotonic clock of another {@link TimeSource}) so that wall-clock adjustments do not move it.
+ * <p>
+ * A deadline is set once, where the caller decides how long it is willing to wait, and then travels
+ * with the {@link com.jllm.core.model.PromptRequest}. Every stage that may block (rate limiter,
+ * retry backoff, HTTP connect and read) bounds its wait by {@link #remainingNanos()} instead of its
+ * own fixed timeout, so no stage keeps working for a caller that has already given up.
+ * </p>
+ *
+ * <p>Example usage:
+ * <pre>
+ *     PromptRequest request = PromptRequest.builder()
+ *         .model("gpt-4")
+ *         .messages(messages)
+ *         .deadline(Deadline.after(Duration.ofSeconds(2)))
+ *         .build();
+ * </pre>
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class Deadline implements Comparable<Deadline> {
+
+    private final long deadlineNanos;
+    private final TimeSource time;
+
+    private Deadline(long deadlineNanos, TimeSource time) {
+        this.deadlineNanos = deadlineNanos;
+        this.time = time;
+    }
+
+    /**
+     * @return A deadline the given time from now.
+     */
+    public static Deadline after(Duration timeout) {
+        return after(timeout, TimeSource.system());
+    }
+
+    /**
+     * @return A deadline the given time from now on the given time source. Deadlines of different
+     * time sources must not be compared.
+     */
+    public static Deadline after(Duration timeout, TimeSource time) {
+        Objects.requireNonNull(timeout, "timeout cannot be null");
+        Objects.requireNonNull(time, "time cannot be null");
+        return new Deadline(time.nanoTime() + saturatedNanos(timeout), time);
+    }
+
+    /**
+     * @return The time left in nanoseconds; zero or negative once the deadline has passed.
+     */
+    public long remainingNanos() {
+        return deadlineNanos - time.nanoTime();
+    }
+
+    /**
+     * @return The time left; zero or negative once the deadline has passed.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    /**
+     * @return true once the deadline has passed.
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Throws if the deadline has passed.
+     *
+     * @param stage What was about to start, for the error message.
+     * @throws DeadlineExceededException if the deadline has passed.
+     */
+    public void check(String stage) {
+        long remaining = remainingNanos();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded by " + Duration.ofNanos(-remaining)
+                    + " before " + stage);
+        }
+    }
+
+    /**
+     * @return The earlier of this deadline and the given one; this deadline if the other is null.
+     */
+    public Deadline earliest(Deadline other) {
+        return other == null || compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * Bounds a fixed timeout by the time left.
+     *
+     * @param timeoutMillis The timeout to bound, in milliseconds.
+     * @return The smaller of the two in milliseconds, at least 1 so it is never mistaken for "no timeout".
+     */
+    public int boundMillis(int timeoutMillis) {
+        long remainingMillis = Math.max(1, Duration.ofNanos(remainingNanos()).toMillis());
+        return (int) Math.min(timeoutMillis, remainingMillis);
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        return Long.compare(deadlineNanos - other.deadlineNanos, 0);      // overflow-safe for nanoTime
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + "]";
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE / 2 : Long.MAX_VALUE / 2;
+        }
+    }
+}
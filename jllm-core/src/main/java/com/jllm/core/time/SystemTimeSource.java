@@ -0,0 +1,32 @@
+package com.jllm.core.time;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default {@link TimeSource}: {@link System} clocks and {@link Thread#sleep}.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+final class SystemTimeSource implements TimeSource {
+
+    static final SystemTimeSource INSTANCE = new SystemTimeSource();
+
+    private SystemTimeSource() {
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long duration, TimeUnit unit) throws InterruptedException {
+        unit.sleep(duration);
+    }
+}
@@ -0,0 +1,43 @@
+package com.jllm.core.time;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clocks and the sleep that time-based components ({@link com.jllm.core.rate.RateLimiter},
+ * {@link com.jllm.core.retry.RetryPolicy}, {@link Deadline}) use, so that tests can replace real time
+ * with a virtual one.
+ * <p>
+ * The default is {@link #system()}. A virtual implementation advances its clocks when asked to sleep
+ * instead of blocking, which lets a test run hours of rate limiting and backoff in milliseconds and
+ * get the same timings on every run.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public interface TimeSource {
+
+    /**
+     * @return A monotonic time in nanoseconds, only meaningful as a difference, like {@link System#nanoTime()}.
+     */
+    long nanoTime();
+
+    /**
+     * @return The wall-clock time in milliseconds since the epoch, like {@link System#currentTimeMillis()}.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Waits for the given time to pass on this time source.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void sleep(long duration, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * @return The real clocks and {@link Thread#sleep}.
+     */
+    static TimeSource system() {
+        return SystemTimeSource.INSTANCE;
+    }
+}
@@ -0,0 +1,137 @@
+package com.jllm.core.util;
+
+import com.jllm.core.metrics.MetricsRecorder;
+
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * Compression settings of {@link HttpUtil}.
+ * <p>
+ * Request bodies are gzip-compressed only if enabled, since the endpoint has to accept
+ * {@code Content-Encoding: gzip}, and only once they exceed the threshold: below a few kilobytes the
+ * codec costs more time than the smaller upload saves. Compressed responses ({@code gzip} or
+ * {@code deflate}) are asked for with {@code Accept-Encoding} and decoded transparently. Either way the
+ * body is streamed through the codec, never held in memory as a whole.
+ * </p>
+ * <p>
+ * Sizes and codec time of every compressed body are reported to the metrics recorder, so that the
+ * threshold and level can be tuned from {@link com.jllm.core.metrics.MetricsRegistry.CompressionSeries}.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class HttpCompression {
+
+    private static final HttpCompression DEFAULTS = builder().build();
+
+    private final boolean compressRequests;
+    private final int requestThreshold;
+    private final int level;
+    private final boolean acceptCompressedResponses;
+    private final MetricsRecorder metrics;
+
+    private HttpCompression(Builder builder) {
+        this.compressRequests = builder.compressRequests;
+        this.requestThreshold = builder.requestThreshold;
+        this.level = builder.level;
+        this.acceptCompressedResponses = builder.acceptCompressedResponses;
+        this.metrics = builder.metrics;
+    }
+
+    /**
+     * @return Uncompressed requests, compressed responses accepted, no metrics.
+     */
+    public static HttpCompression defaults() {
+        return DEFAULTS;
+    }
+
+    public boolean isCompressRequests() {
+        return compressRequests;
+    }
+
+    public int getRequestThreshold() {
+        return requestThreshold;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isAcceptCompressedResponses() {
+        return acceptCompressedResponses;
+    }
+
+    public MetricsRecorder getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for HttpCompression.
+     */
+    public static final class Builder {
+        private boolean compressRequests;
+        private int requestThreshold = 16 * 1024;
+        private int level = Deflater.BEST_SPEED;
+        private boolean acceptCompressedResponses = true;
+        private MetricsRecorder metrics = MetricsRecorder.noop();
+
+        /**
+         * Gzip request bodies larger than the threshold (default: off).
+         */
+        public Builder compressRequests(boolean compress) {
+            this.compressRequests = compress;
+            return this;
+        }
+
+        /**
+         * Size in bytes above which request bodies are compressed (default: 16 KiB).
+         */
+        public Builder requestThreshold(int bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("requestThreshold cannot be negative");
+            }
+            this.requestThreshold = bytes;
+            return this;
+        }
+
+        /**
+         * Deflate level from 1 (fastest) to 9 (smallest) (default: 1, as upload time is what is saved).
+         */
+        public Builder level(int level) {
+            if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("level must be between 1 and 9");
+            }
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Send {@code Accept-Encoding: gzip, deflate} and decode compressed responses (default: on).
+         */
+        public Builder acceptCompressedResponses(boolean accept) {
+            this.acceptCompressedResponses = accept;
+            return this;
+        }
+
+        /**
+         * Where compression ratios and codec times are reported (default: nowhere).
+         */
+        public Builder metrics(MetricsRecorder metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics cannot be null");
+            return this;
+        }
+
+        public HttpCompression build() {
+            return new HttpCompression(this);
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.jllm.core.util;
 
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.io.OutputStream;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.jfr.HttpExchangeEvent;
+import com.jllm.core.time.Deadline;
 
 /**
  * HttpUtil provides utility methods for making HTTP requests.
@@ -13,13 +25,43 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * This class simplifies the process of making HTTP requests to external APIs
  * and handles common tasks such as setting headers, sending data, and parsing responses.
  * </p>
+ * <p>
+ * JSON bodies are streamed: payloads are serialized by {@link JsonUtil}'s shared writers straight into
+ * the connection (small ones with a {@code Content-Length}, larger ones chunked, so the connection does
+ * not buffer them either), and typed responses are parsed straight from the connection's input stream.
+ * Text responses are decoded as UTF-8.
+ * </p>
+ * <p>
+ * Large request bodies can be gzip-compressed and compressed responses are decoded on the fly, as
+ * configured by {@link #setCompression(HttpCompression)}.
+ * </p>
  *
  * @author @Noro
  * @version 1.0
  */
 public class HttpUtil {
 
-    private static final ObjectMapper  objectMapper = new ObjectMapper();
+    private static final int CHUNK_SIZE = 8192;
+
+    // Connect and read timeout of requests without a deadline, and upper bound for those with one
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    private static volatile HttpCompression compression = HttpCompression.defaults();
+
+    /**
+     * Sets how request and response bodies are compressed from now on (default:
+     * {@link HttpCompression#defaults()}).
+     */
+    public static void setCompression(HttpCompression settings) {
+        compression = Objects.requireNonNull(settings, "settings cannot be null");
+    }
+
+    /**
+     * @return The compression settings in use.
+     */
+    public static HttpCompression getCompression() {
+        return compression;
+    }
 
     /**
      * Makes a GET request to the specified URL.
@@ -29,12 +71,34 @@ public class HttpUtil {
      * @throws IOException if an I/O error occurs.
      */
     public static String get(String url) throws IOException {
+        return get(url, null);
+    }
+
+    /**
+     * Makes a GET request to the specified URL, with connect and read timeouts bounded by the deadline.
+     *
+     * @param url The URL to make the GET request to.
+     * @param deadline The deadline of the request, or null for the default timeouts.
+     * @return The response body as a String.
+     * @throws IOException if an I/O error occurs.
+     * @throws DeadlineExceededException if the deadline passes before the response is read.
+     */
+    public static String get(String url, Deadline deadline) throws IOException {
         HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
         connection.setRequestMethod("GET");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(5000);
+        HttpCompression settings = compression;
+        acceptEncoding(connection, settings);
+        applyTimeouts(connection, deadline, "GET " + url);
 
-        return handleResponse(connection);
+        HttpExchangeEvent event = HttpExchangeEvent.start("GET", url);
+        try {
+            connection.connect();
+            event.connected();
+            applyTimeouts(connection, deadline, "reading " + url);
+            return handleResponse(connection, event, 0, settings, HttpUtil::readText);
+        } catch (SocketTimeoutException e) {
+            throw timedOut(e, deadline);
+        }
     }
 
     /**
@@ -46,34 +110,337 @@ public class HttpUtil {
      * @throws IOException if an I/O error occurs.
      */
     public static String post(String url, Object payload) throws IOException {
+        return post(url, payload, (Deadline) null);
+    }
+
+    /**
+     * Makes a POST request to the specified URL with a JSON body, with connect and read timeouts
+     * bounded by the deadline.
+     *
+     * @param url The URL to make the POST request to.
+     * @param payload The JSON payload to send in the request body.
+     * @param deadline The deadline of the request, or null for the default timeouts.
+     * @return The response body as a String.
+     * @throws IOException if an I/O error occurs.
+     * @throws DeadlineExceededException if the deadline passes before the response is read.
+     */
+    public static String post(String url, Object payload, Deadline deadline) throws IOException {
+        return post(url, payload, deadline, HttpUtil::readText);
+    }
+
+    /**
+     * Makes a POST request to the specified URL with a JSON body and reads the JSON response into the
+     * given type, without holding either body in memory as a whole.
+     *
+     * @param url The URL to make the POST request to.
+     * @param payload The JSON payload to send in the request body.
+     * @param responseType The type to read the response body into, e.g. {@code PromptResponse.class}.
+     * @param <T> The type of the response.
+     * @return The response body read into the given type.
+     * @throws IOException if an I/O error occurs or the response is not valid JSON for the type.
+     */
+    public static <T> T post(String url, Object payload, Class<T> responseType) throws IOException {
+        return post(url, payload, responseType, null);
+    }
+
+    /**
+     * Makes a POST request with a JSON body and reads the JSON response into the given type, with
+     * connect and read timeouts bounded by the deadline.
+     *
+     * @param url The URL to make the POST request to.
+     * @param payload The JSON payload to send in the request body.
+     * @param responseType The type to read the response body into, e.g. {@code PromptResponse.class}.
+     * @param deadline The deadline of the request, or null for the default timeouts.
+     * @param <T> The type of the response.
+     * @return The response body read into the given type.
+     * @throws IOException if an I/O error occurs or the response is not valid JSON for the type.
+     * @throws DeadlineExceededException if the deadline passes before the response is read.
+     */
+    public static <T> T post(String url, Object payload, Class<T> responseType, Deadline deadline)
+            throws IOException {
+        return post(url, payload, deadline, in -> JsonUtil.fromJson(in, responseType));
+    }
+
+    private static <T> T post(String url, Object payload, Deadline deadline, BodyReader<T> reader)
+            throws IOException {
         HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
         connection.setRequestMethod("POST");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(5000);
-        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
         connection.setDoOutput(true);
+        HttpCompression settings = compression;
+        acceptEncoding(connection, settings);
+
+        applyTimeouts(connection, deadline, "POST " + url);
+        HttpExchangeEvent event = HttpExchangeEvent.start("POST", url);
+        try {
+            RequestBody body = new RequestBody(connection, event, settings);
+            try {
+                JsonUtil.toJson(body, payload);
+            } catch (IOException | RuntimeException e) {
+                connection.disconnect();                         // never send half a payload
+                throw e;
+            }
+            body.close();
+            applyTimeouts(connection, deadline, "reading " + url);
+            return handleResponse(connection, event, body.wireBytes(), settings, reader);
+        } catch (SocketTimeoutException e) {
+            throw timedOut(e, deadline);
+        }
+    }
+
+    private static void acceptEncoding(HttpURLConnection connection, HttpCompression settings) {
+        if (settings.isAcceptCompressedResponses()) {
+            connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        }
+    }
 
-        try (OutputStream os = connection.getOutputStream()) {
-            byte[] input = objectMapper.writeValueAsBytes(payload);
-            os.write(input, 0, input.length);
+    /**
+     * Sets the connect and read timeouts to the default, or to the time left before the deadline if
+     * that is shorter. Read timeouts apply per read, so they are set again before the response is read.
+     */
+    private static void applyTimeouts(HttpURLConnection connection, Deadline deadline, String stage) {
+        int timeout = TIMEOUT_MILLIS;
+        if (deadline != null) {
+            deadline.check(stage);
+            timeout = deadline.boundMillis(TIMEOUT_MILLIS);
         }
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+    }
 
-        return handleResponse(connection);
+    /**
+     * Reports a timeout caused by the deadline as such, so it is not retried.
+     */
+    private static IOException timedOut(SocketTimeoutException e, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Deadline exceeded during HTTP exchange", e);
+        }
+        return e;
     }
 
     /**
-     * Handles the HTTP response and converts it into a String.
+     * Handles the HTTP response and reads its body.
      *
      * @param connection The connection from which to read the response.
-     * @return The response body as a String.
+     * @param event The flight recorder event of the exchange, finished here.
+     * @param requestBytes The size of the request body.
+     * @param reader Reads the body of a successful response.
+     * @return The response body as read by the reader.
      * @throws IOException if an I/O error occurs.
      */
-    private static String handleResponse(HttpURLConnection connection) throws IOException {
-        int status = connection.getResponseCode();
-        if (status >= 200 && status < 300) {
-            return new String(connection.getInputStream().readAllBytes());
-        } else {
-            throw new IOException("HTTP request failed with status code: " + status);
+    private static <T> T handleResponse(HttpURLConnection connection, HttpExchangeEvent event, long requestBytes,
+                                        HttpCompression settings, BodyReader<T> reader) throws IOException {
+        CountingInputStream wire = null;
+        try {
+            int status = connection.getResponseCode();
+            event.firstByte(status, requestBytes);
+            if (status >= 200 && status < 300) {
+                wire = new CountingInputStream(connection.getInputStream());
+                String encoding = connection.getContentEncoding();
+                InputStream decoder = decoder(encoding, wire);
+                if (decoder == null) {
+                    try (InputStream body = wire) {
+                        return reader.read(body);
+                    }
+                }
+                CountingInputStream decoded = new CountingInputStream(decoder);
+                T result;
+                try (InputStream body = decoded) {
+                    result = reader.read(body);
+                }
+                // Time in the decoder's reads that was not spent reading the wire is inflating
+                settings.getMetrics().recordCompression("response", encoding.trim().toLowerCase(),
+                        decoded.count, wire.count, decoded.nanos - wire.nanos);
+                return result;
+            } else {
+                throw new IOException("HTTP request failed with status code: " + status);
+            }
+        } finally {
+            event.finish(wire != null ? wire.count : 0);
+        }
+    }
+
+    /**
+     * @return A stream decoding the given content encoding, or null if the body is not encoded.
+     */
+    private static InputStream decoder(String encoding, InputStream in) throws IOException {
+        if (encoding == null) {
+            return null;
+        }
+        switch (encoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(in, CHUNK_SIZE);
+            case "deflate":
+                return new InflaterInputStream(in);
+            case "identity":
+            case "":
+                return null;
+            default:
+                throw new IOException("Unsupported response content encoding: " + encoding);
+        }
+    }
+
+    private static String readText(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    /**
+     * Buffers the start of a request body to choose how to send it: a body that ends within the buffer
+     * goes out with a {@code Content-Length}; a longer one is sent chunked, and gzip-compressed if enabled.
+     * The connection is only opened once the choice is made, since it fixes the request headers.
+     */
+    private static final class RequestBody extends OutputStream {
+        private final HttpURLConnection connection;
+        private final HttpExchangeEvent event;
+        private final HttpCompression settings;
+        private final int limit;
+        private byte[] pending = new byte[512];
+        private int pendingLength;
+        private long rawBytes;
+        private CountingOutputStream wire;
+        private OutputStream target;
+        private long targetNanos;
+
+        RequestBody(HttpURLConnection connection, HttpExchangeEvent event, HttpCompression settings) {
+            this.connection = connection;
+            this.event = event;
+            this.settings = settings;
+            this.limit = settings.isCompressRequests() ? Math.max(settings.getRequestThreshold(), 1) : CHUNK_SIZE;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            rawBytes += len;
+            if (target == null) {
+                if (pendingLength + len <= limit) {
+                    if (pendingLength + len > pending.length) {
+                        int capacity = Math.max(pendingLength + len, pending.length * 2);
+                        pending = Arrays.copyOf(pending, Math.min(limit, capacity));
+                    }
+                    System.arraycopy(b, off, pending, pendingLength, len);
+                    pendingLength += len;
+                    return;
+                }
+                open(true);
+            }
+            long start = System.nanoTime();
+            target.write(b, off, len);
+            targetNanos += System.nanoTime() - start;
+        }
+
+        private void open(boolean overLimit) throws IOException {
+            boolean gzip = overLimit && settings.isCompressRequests();
+            if (gzip) {
+                connection.setRequestProperty("Content-Encoding", "gzip");
+            }
+            if (overLimit) {
+                connection.setChunkedStreamingMode(CHUNK_SIZE);
+            } else {
+                connection.setFixedLengthStreamingMode(pendingLength);
+            }
+            connection.connect();
+            event.connected();
+            wire = new CountingOutputStream(connection.getOutputStream());
+            target = gzip ? new LeveledGzipOutputStream(wire, settings.getLevel()) : wire;
+            long start = System.nanoTime();
+            target.write(pending, 0, pendingLength);
+            targetNanos += System.nanoTime() - start;
+            pending = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (target == null) {
+                open(false);
+            }
+            long start = System.nanoTime();
+            target.close();                                      // writes the gzip trailer
+            targetNanos += System.nanoTime() - start;
+            if (target != wire) {
+                settings.getMetrics().recordCompression("request", "gzip", rawBytes, wire.count,
+                        targetNanos - wire.nanos);
+            }
+        }
+
+        long wireBytes() {
+            return wire != null ? wire.count : 0;
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, CHUNK_SIZE);
+            def.setLevel(level);
+        }
+    }
+
+    /**
+     * Counts the bytes passing through and the time spent passing them on, which lets the codec time be
+     * told apart from network I/O.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+        long nanos;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            nanos += System.nanoTime() - start;
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            nanos += System.nanoTime() - start;
+            count += len;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+        long nanos;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = in.read();
+            nanos += System.nanoTime() - start;
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int read = in.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (read > 0) {
+                count += read;
+            }
+            return read;
         }
     }
 }
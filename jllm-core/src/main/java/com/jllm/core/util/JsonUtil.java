@@ -1,8 +1,18 @@
 package com.jllm.core.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * JsonUtil provides utility methods for serializing and deserializing JSON data.
@@ -10,13 +20,52 @@ import java.io.IOException;
  * This class simplifies the process of converting Java objects to JSON and vice versa,
  * using the Jackson library for JSON processing.
  * </p>
+ * <p>
+ * There is one {@link ObjectMapper} for the whole SDK, and an {@link ObjectReader} and
+ * {@link ObjectWriter} per type, created once and then shared: both are immutable and resolve their
+ * (de)serializer up front, so a call skips the mapper's per-call lookups. The stream methods read and
+ * write UTF-8 bytes directly, without an intermediate {@code String} or {@code byte[]} of the payload,
+ * and leave closing the stream to the caller.
+ * </p>
  *
  * @author @Noro
  * @version 1.0
  */
 public class JsonUtil {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    private static final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @return The shared mapper, for callers that need the tree model or a custom reader.
+     */
+    public static ObjectMapper mapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @param valueType The type to read.
+     * @return The shared reader for the type.
+     */
+    public static ObjectReader reader(Class<?> valueType) {
+        ObjectReader reader = readers.get(valueType);
+        return reader != null ? reader : readers.computeIfAbsent(valueType, objectMapper::readerFor);
+    }
+
+    /**
+     * @param valueType The type to write.
+     * @return The shared writer for the type.
+     */
+    public static ObjectWriter writer(Class<?> valueType) {
+        ObjectWriter writer = writers.get(valueType);
+        return writer != null ? writer : writers.computeIfAbsent(valueType, objectMapper::writerFor);
+    }
 
     /**
      * Converts a Java object to a JSON string.
@@ -26,7 +75,18 @@ public class JsonUtil {
      * @throws IOException If an error occurs during conversion.
      */
     public static String toJson(Object object) throws IOException {
-        return objectMapper.writeValueAsString(object);
+        return writer(object.getClass()).writeValueAsString(object);
+    }
+
+    /**
+     * Writes a Java object as UTF-8 JSON to the stream, which is left open.
+     *
+     * @param out    The stream to write to.
+     * @param object The Java object to write.
+     * @throws IOException If an error occurs during conversion or writing.
+     */
+    public static void toJson(OutputStream out, Object object) throws IOException {
+        writer(object.getClass()).writeValue(out, object);
     }
 
     /**
@@ -39,6 +99,20 @@ public class JsonUtil {
      * @throws IOException If an error occurs during conversion.
      */
     public static <T> T fromJson(String json, Class<T> valueType) throws IOException {
-        return objectMapper.readValue(json, valueType);
+        return reader(valueType).readValue(json);
+    }
+
+    /**
+     * Reads a Java object from JSON in the stream, which is left open. The encoding is detected
+     * (UTF-8 unless the content says otherwise).
+     *
+     * @param in        The stream to read from.
+     * @param valueType The class type to convert the JSON to.
+     * @param <T>       The type of the object to return.
+     * @return The Java object read from the stream.
+     * @throws IOException If an error occurs during reading or conversion.
+     */
+    public static <T> T fromJson(InputStream in, Class<T> valueType) throws IOException {
+        return reader(valueType).readValue(in);
     }
 }
@@ -0,0 +1,148 @@
+package accounting;
+
+import com.jllm.core.accounting.PriceTable;
+import com.jllm.core.accounting.UsageAccountant;
+import com.jllm.core.accounting.UsageSnapshot;
+import com.jllm.core.accounting.UsageWindow;
+import com.jllm.core.model.TokenUsage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageAccountantTest {
+
+    private static final PriceTable PRICES = PriceTable.builder()
+            .price("gpt-4o", 2.50, 10.00)
+            .price("gpt-4o-mini", 0.15, 0.60)
+            .build();
+
+    @Test
+    void costsArePricedPerModel() {
+        UsageAccountant accountant = UsageAccountant.builder().prices(PRICES).build();
+
+        accountant.record("alice", "gpt-4o", new TokenUsage(1000, 500, 1500));
+        accountant.record("alice", "gpt-4o-mini", new TokenUsage(1000, 500, 1500));
+        accountant.record("alice", "unpriced", new TokenUsage(1000, 500, 1500));
+
+        assertEquals(new BigDecimal("0.0075"),
+                accountant.usage("alice", "gpt-4o", UsageWindow.ALL_TIME).getCostUsd().stripTrailingZeros());
+        assertEquals(450_000, accountant.usage("alice", "gpt-4o-mini", UsageWindow.ALL_TIME).getCostNanos());
+        UsageSnapshot free = accountant.usage("alice", "unpriced", UsageWindow.ALL_TIME);
+        assertEquals(0, free.getCostNanos());
+        assertEquals(1500, free.getTotalTokens());
+    }
+
+    @Test
+    void windowsForgetOldBuckets() {
+        MutableClock clock = new MutableClock();
+        UsageAccountant accountant = UsageAccountant.builder().prices(PRICES).clock(clock).build();
+
+        accountant.record("bob", "gpt-4o", new TokenUsage(10, 10, 20));
+        clock.advance(Duration.ofSeconds(30));
+        accountant.record("bob", "gpt-4o", new TokenUsage(10, 10, 20));
+        assertEquals(2, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_MINUTE).getRequests());
+
+        clock.advance(Duration.ofSeconds(45));
+        assertEquals(1, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_MINUTE).getRequests());
+        assertEquals(2, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_HOUR).getRequests());
+
+        clock.advance(Duration.ofHours(2));
+        assertEquals(0, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_HOUR).getRequests());
+        assertEquals(2, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_DAY).getRequests());
+
+        clock.advance(Duration.ofDays(1));
+        assertEquals(0, accountant.usage("bob", "gpt-4o", UsageWindow.LAST_DAY).getRequests());
+        assertEquals(2, accountant.usage("bob", "gpt-4o", UsageWindow.ALL_TIME).getRequests());
+        assertTrue(accountant.snapshot(UsageWindow.LAST_DAY).isEmpty());
+    }
+
+    @Test
+    void topUsersAreRankedBySpendAcrossModels() {
+        UsageAccountant accountant = UsageAccountant.builder().prices(PRICES).build();
+        for (int i = 0; i < 100; i++) {
+            accountant.record("user-" + i, "gpt-4o-mini", new TokenUsage(i, i, 2 * i));
+        }
+        accountant.record("whale", "gpt-4o", new TokenUsage(100_000, 100_000, 200_000));
+        accountant.record("user-99", "gpt-4o", new TokenUsage(1_000, 1_000, 2_000));
+
+        List<UsageSnapshot> top = accountant.topUsers(UsageWindow.LAST_HOUR, 3);
+
+        assertEquals(3, top.size());
+        assertEquals("whale", top.get(0).getUser());
+        assertEquals("user-99", top.get(1).getUser());
+        assertEquals(UsageSnapshot.ALL_MODELS, top.get(1).getModel());
+        assertEquals(2, top.get(1).getRequests());
+        assertEquals("user-98", top.get(2).getUser());
+    }
+
+    @Test
+    void concurrentRecordingIsExact() throws Exception {
+        UsageAccountant accountant = UsageAccountant.builder().prices(PRICES).build();
+        int threads = 16;
+        int perThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String user = "user-" + (t % 4);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        accountant.record(user, "gpt-4o", new TokenUsage(3, 7, 10));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long requests = 0;
+        long tokens = 0;
+        for (UsageSnapshot snapshot : accountant.snapshot(UsageWindow.ALL_TIME)) {
+            requests += snapshot.getRequests();
+            tokens += snapshot.getTotalTokens();
+        }
+        assertEquals(threads * perThread, requests);
+        assertEquals(threads * perThread * 10L, tokens);
+        // 3 tokens at $2.50/M plus 7 tokens at $10/M is 77,500 nano-dollars per request
+        assertEquals(4L * perThread * 77_500,
+                accountant.usage("user-0", "gpt-4o", UsageWindow.ALL_TIME).getCostNanos());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
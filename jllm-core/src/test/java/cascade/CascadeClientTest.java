@@ -0,0 +1,166 @@
+package cascade;
+
+import com.jllm.core.cascade.CascadeClient;
+import com.jllm.core.cascade.CascadeResult;
+import com.jllm.core.cascade.ConfidenceMeasure;
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CascadeClientTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("ignored")
+            .messages(List.of(new Message("user", "Capital of France?")))
+            .build();
+
+    @Test
+    void confidentCheapAnswerIsReturnedWithoutEscalating() throws Exception {
+        Provider cheap = answering("Paris", -0.01, -0.05);
+        Provider strong = answering("Paris", -0.01);
+        CascadeClient cascade = cascade(cheap, strong, ConfidenceMeasure.MEAN_PROBABILITY, 0.9);
+
+        CascadeResult result = cascade.send(REQUEST);
+
+        assertFalse(result.isEscalated());
+        assertTrue(result.getConfidence() > 0.9);
+        verify(strong, never()).execute(any());
+        ArgumentCaptor<PromptRequest> sent = ArgumentCaptor.forClass(PromptRequest.class);
+        verify(cheap).execute(sent.capture());
+        assertTrue(sent.getValue().isLogProbs());
+        assertEquals("mini", sent.getValue().getModel());
+    }
+
+    @Test
+    void singleUncertainTokenEscalatesUnderMinProbability() throws Exception {
+        Provider strong = answering("Paris", -0.01);
+        CascadeClient mean = cascade(answering("Lyon", -0.01, -0.01, -2.5), strong,
+                ConfidenceMeasure.MEAN_PROBABILITY, 0.6);
+        CascadeClient min = cascade(answering("Lyon", -0.01, -0.01, -2.5), strong,
+                ConfidenceMeasure.MIN_PROBABILITY, 0.6);
+
+        assertFalse(mean.send(REQUEST).isEscalated());
+        CascadeResult result = min.send(REQUEST);
+
+        assertTrue(result.isEscalated());
+        assertEquals("Paris", result.getResponse().getText());
+        assertEquals("Lyon", result.getDraft().getText());
+        ArgumentCaptor<PromptRequest> sent = ArgumentCaptor.forClass(PromptRequest.class);
+        verify(strong).execute(sent.capture());
+        assertFalse(sent.getValue().isLogProbs());
+    }
+
+    @Test
+    void failedOrUnjudgeableCheapCallsEscalate() throws Exception {
+        Provider failing = mock(Provider.class);
+        when(failing.execute(any())).thenThrow(new IOException("503"));
+        CascadeClient cascade = cascade(failing, answering("Paris", -0.01), ConfidenceMeasure.MEAN_PROBABILITY, 0.5);
+        CascadeClient blind = cascade(answering("Paris"), answering("Paris", -0.01), ConfidenceMeasure.MEAN_PROBABILITY, 0.5);
+
+        CascadeResult result = cascade.send(REQUEST);
+        assertTrue(result.isEscalated());
+        assertNull(result.getDraft());
+        assertEquals(1, cascade.getStats().getCheapFailures());
+        assertTrue(blind.send(REQUEST).isEscalated());           // no log probabilities, no trust
+    }
+
+    @Test
+    void statsTrackEscalationRateAndLatencySaved() throws Exception {
+        Provider strong = mock(Provider.class);
+        when(strong.execute(any())).thenAnswer(inv -> {
+            Thread.sleep(40);
+            return response("Paris", -0.01);
+        });
+        Provider cheap = mock(Provider.class);
+        when(cheap.execute(any())).thenReturn(
+                response("Paris", -0.01), response("Paris", -0.01), response("Paris", -0.01), response("Nice", -3.0));
+        CascadeClient cascade = cascade(cheap, strong, ConfidenceMeasure.MEAN_PROBABILITY, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            cascade.send(REQUEST);
+        }
+
+        assertEquals(4, cascade.getStats().getRequests());
+        assertEquals(0.25, cascade.getStats().getEscalationRate(), 1e-9);
+        assertTrue(cascade.getStats().getLatencySaved().toMillis() >= 80, cascade.getStats().toString());
+    }
+
+    @Test
+    void streamedDraftIsJudgedByStreamedLogProbs() throws Exception {
+        Provider cheap = mock(Provider.class);
+        doAnswer(inv -> {
+            StreamingListener listener = inv.getArgument(1);
+            listener.onTokenReceived("Mar");
+            listener.onLogProb(new LogProb("Mar", -0.2, null));
+            listener.onTokenReceived("seille");
+            listener.onLogProb(new LogProb("seille", -1.9, null));
+            listener.onStreamComplete();
+            return null;
+        }).when(cheap).executeStream(any(), any(), any());
+        Provider strong = answering("Paris", -0.01);
+        StreamingListener draft = mock(StreamingListener.class);
+        when(draft.shouldContinue()).thenReturn(true);
+
+        CascadeResult result = cascade(cheap, strong, ConfidenceMeasure.MIN_PROBABILITY, 0.5)
+                .sendStream(REQUEST, draft);
+
+        verify(draft).onTokenReceived("Mar");
+        verify(draft).onTokenReceived("seille");
+        verify(draft, times(2)).onLogProb(any());
+        assertEquals("Marseille", result.getDraft().getText());
+        assertTrue(result.isEscalated());
+        assertEquals("Paris", result.getResponse().getText());
+    }
+
+    private static CascadeClient cascade(Provider cheap, Provider strong, ConfidenceMeasure measure, double threshold) {
+        return CascadeClient.builder()
+                .cheap(client(cheap, "mini"))
+                .strong(client(strong, "large"))
+                .measure(measure)
+                .threshold(threshold)
+                .build();
+    }
+
+    private static LLMClient client(Provider provider, String model) {
+        return LLMClient.builder()
+                .provider(provider)
+                .model(model)
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .retryPolicy(new RetryPolicy(1, 1))
+                .build();
+    }
+
+    private static Provider answering(String text, double... logProbs) throws IOException {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenReturn(response(text, logProbs));
+        return provider;
+    }
+
+    private static PromptResponse response(String text, double... logProbs) {
+        return new PromptResponse.Builder()
+                .text(text)
+                .usage(new TokenUsage(5, logProbs.length, 5 + logProbs.length))
+                .logProbs(Arrays.stream(logProbs)
+                        .mapToObj(p -> new LogProb("t", p, null))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package client;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.FinishReason;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StreamCancellationTest {
+
+    private Provider provider;
+    private LLMClient client;
+    private PromptRequest request;
+
+    @BeforeEach
+    void setUp() {
+        provider = mock(Provider.class);
+        client = LLMClient.builder()
+                .provider(provider)
+                .model("test-model")
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .retryPolicy(new RetryPolicy(3, 1))
+                .build();
+        request = PromptRequest.builder()
+                .model("ignored")
+                .messages(List.of(new Message("user", "12345678")))
+                .build();
+    }
+
+    @Test
+    void listenerStopSignal_stopsProviderAndReportsPartialUsage() throws Exception {
+        doAnswer(inv -> {
+            StreamingListener listener = inv.getArgument(1);
+            for (int i = 0; i < 100; i++) {
+                listener.onTokenReceived("t" + i);
+            }
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true, false);
+
+        StreamHandle handle = client.sendStream(request, listener);
+
+        assertTrue(handle.isCancelled());
+        assertTrue(handle.isDone());
+        assertEquals(new TokenUsage(2, 2, 4), handle.getUsage());
+        verify(listener, times(2)).onTokenReceived(any());
+        verify(listener).onStreamCancelled(new TokenUsage(2, 2, 4));
+        verify(listener, never()).onStreamComplete();
+        // A stopped stream must not be retried
+        verify(provider, times(1)).executeStream(any(), any(), any());
+    }
+
+    @Test
+    void clientSideStopSequence_finishesWithStopReason() throws Exception {
+        doAnswer(inv -> {
+            StreamingListener listener = inv.getArgument(1);
+            for (String token : new String[]{"Hello", " wor", "ld E", "ND", "never"}) {
+                listener.onTokenReceived(token);
+            }
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        PromptRequest stopping = PromptRequest.builder()
+                .model("ignored")
+                .messages(request.getMessages())
+                .stopSequences(List.of(" END"))
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        StreamHandle handle = client.sendStream(stopping, listener,
+                StreamOptions.builder().enforceStopSequences(true).build());
+
+        assertEquals(FinishReason.STOP, handle.getFinishReason());
+        assertNull(handle.getError());
+        verify(listener).onStreamComplete();
+        verify(listener, never()).onStreamCancelled(any());
+        verify(provider, times(1)).executeStream(any(), any(), any());
+    }
+
+    @Test
+    void asyncCancel_closesBlockedConnection() throws Exception {
+        CountDownLatch firstToken = new CountDownLatch(1);
+        doAnswer(inv -> {
+            StreamingListener listener = inv.getArgument(1);
+            StreamHandle handle = inv.getArgument(2);
+            CountDownLatch connection = new CountDownLatch(1);
+            handle.onCancel(connection::countDown);       // stands in for closing the socket
+            listener.onTokenReceived("first");
+            firstToken.countDown();
+            connection.await();                            // blocked on the network
+            throw new IOException("Socket closed");
+        }).when(provider).executeStream(any(), any(), any());
+
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        StreamHandle handle = client.sendStreamAsync(request, listener);
+        assertTrue(firstToken.await(5, TimeUnit.SECONDS));
+        assertTrue(handle.cancel());
+
+        assertTrue(handle.await(5, TimeUnit.SECONDS));
+        assertNull(handle.getError());
+        assertEquals(1, handle.getUsage().getCompletionTokens());
+        verify(listener).onStreamCancelled(any());
+    }
+}
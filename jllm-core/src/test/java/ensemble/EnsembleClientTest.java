@@ -0,0 +1,160 @@
+package ensemble;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.ensemble.EnsembleClient;
+import com.jllm.core.ensemble.EnsembleResult;
+import com.jllm.core.ensemble.EnsembleStrategy;
+import com.jllm.core.exception.LLMException;
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EnsembleClientTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("ignored")
+            .messages(List.of(new Message("user", "2+2?")))
+            .build();
+
+    @Test
+    void firstSuccessCancelsTheSlowerMembers() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("slow", client(answering("slow", 10_000, null, interrupted)))
+                .member("fast", client(answering("fast", 0, null)))
+                .build();
+
+        EnsembleResult result = ensemble.send(REQUEST);
+
+        assertEquals("fast", result.getWinner().getMember());
+        assertEquals("fast", result.getResponse().getText());
+        assertEquals(1, result.getCancelled());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void firstPassingSkipsFailuresAndRejectedAnswers() throws Exception {
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("broken", client(failing()))
+                .member("vague", client(answering("maybe", 0, null)))
+                .member("exact", client(answering("4", 50, null)))
+                .strategy(EnsembleStrategy.firstPassing(r -> r.getText().matches("\\d+")))
+                .build();
+
+        assertEquals("exact", ensemble.send(REQUEST).getWinner().getMember());
+    }
+
+    @Test
+    void majorityVoteDecidesOnNormalizedText() throws Exception {
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("a", client(answering("Four ", 0, null)))
+                .member("b", client(answering("three", 0, null)))
+                .member("c", client(answering("  four", 20, null)))
+                .member("d", client(answering("FOUR", 40, null)))
+                .member("e", client(answering("five", 10_000, null)))
+                .strategy(EnsembleStrategy.majorityVote())
+                .build();
+
+        EnsembleResult result = ensemble.send(REQUEST);
+
+        assertEquals("four", result.getResponse().getText().trim().toLowerCase());
+        assertEquals(1, result.getCancelled());                 // three of five already agreed
+    }
+
+    @Test
+    void majorityVoteIgnoresResponsesWithoutText() throws Exception {
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("tools", client(answering(null, 0, null)))
+                .member("a", client(answering("4", 10, null)))
+                .member("b", client(answering("4", 20, null)))
+                .strategy(EnsembleStrategy.majorityVote())
+                .build();
+
+        assertEquals("4", ensemble.send(REQUEST).getResponse().getText());
+    }
+
+    @Test
+    void highestMeanLogProbWaitsForEveryMember() throws Exception {
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("unsure", client(answering("4", 0, List.of(-2.0, -1.0))))
+                .member("sure", client(answering("4", 30, List.of(-0.1, -0.3, -0.2))))
+                .member("silent", client(answering("4", 0, null)))
+                .strategy(EnsembleStrategy.highestMeanLogProb())
+                .build();
+
+        EnsembleResult result = ensemble.send(REQUEST);
+
+        assertEquals("sure", result.getWinner().getMember());
+        assertEquals(3, result.getFinished().size());
+    }
+
+    @Test
+    void failsWithEveryMembersErrorWhenNobodySucceeds() throws Exception {
+        EnsembleClient ensemble = EnsembleClient.builder()
+                .member("x", client(failing()))
+                .member("y", client(failing()))
+                .build();
+
+        LLMException e = assertThrows(LLMException.class, () -> ensemble.send(REQUEST));
+        assertEquals(2, e.getSuppressed().length);
+    }
+
+    private static LLMClient client(Provider provider) {
+        return LLMClient.builder()
+                .provider(provider)
+                .model("m")
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .retryPolicy(new RetryPolicy(1, 1))
+                .build();
+    }
+
+    private static Provider answering(String text, long delayMs, List<Double> logProbs) throws IOException {
+        return answering(text, delayMs, logProbs, new CountDownLatch(1));
+    }
+
+    /**
+     * A provider that answers with {@code text} after {@code delayMs} and counts down {@code interrupted}
+     * if it is interrupted while waiting.
+     */
+    private static Provider answering(String text, long delayMs, List<Double> logProbs,
+                                      CountDownLatch interrupted) throws IOException {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new InterruptedIOException();
+            }
+            PromptResponse.Builder response = new PromptResponse.Builder().text(text).usage(new TokenUsage(1, 1, 2));
+            if (logProbs != null) {
+                response.logProbs(logProbs.stream().map(p -> new LogProb("t", p, null)).collect(Collectors.toList()));
+            }
+            return response.build();
+        });
+        return provider;
+    }
+
+    private static Provider failing() throws IOException {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenThrow(new IOException("503"));
+        return provider;
+    }
+}
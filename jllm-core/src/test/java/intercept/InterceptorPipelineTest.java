@@ -0,0 +1,197 @@
+package intercept;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.intercept.Interceptor;
+import com.jllm.core.intercept.Pipeline;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.nio.NioStreamingEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InterceptorPipelineTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("ignored")
+            .messages(List.of(new Message("user", "hi")))
+            .build();
+
+    @Test
+    void interceptorsRunInOrderOnceAroundRetries() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        Provider provider = scripted(calls, 1);
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("m")
+                .rateLimiter(new RateLimiter(100, 1000))
+                .retryPolicy(new RetryPolicy(3, 1))
+                .interceptor(tracing("a", calls))
+                .interceptor((request, next) -> next.proceed(PromptRequest.builder()
+                        .model(request.getModel())
+                        .messages(request.getMessages())
+                        .user("tagged")
+                        .build()))
+                .interceptor(tracing("b", calls))
+                .build();
+
+        PromptResponse response = client.send(REQUEST);
+
+        assertEquals("answer", response.getText());
+        assertEquals(List.of("a>", "b>", "provider m tagged", "provider m tagged", "<b", "<a"), calls);
+    }
+
+    @Test
+    void interceptorCanAnswerWithoutReachingTheRateLimiter() throws Exception {
+        RateLimiter limiter = mock(RateLimiter.class);
+        Provider provider = mock(Provider.class);
+        PromptResponse cached = new PromptResponse.Builder().text("cached").usage(new TokenUsage(0, 0, 0)).build();
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("m")
+                .rateLimiter(limiter)
+                .interceptor((request, next) -> cached)
+                .build();
+
+        assertSame(cached, client.send(REQUEST));
+        verifyNoInteractions(limiter);
+        verify(provider, never()).execute(any());
+    }
+
+    @Test
+    void streamInterceptorsWrapTheListener() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger seen = new AtomicInteger();
+        LLMClient client = LLMClient.builder()
+                .provider(scripted(calls, 0))
+                .model("m")
+                .rateLimiter(new RateLimiter(100, 1000))
+                .streamInterceptor((request, listener, options, handle, next) -> {
+                    calls.add("s>");
+                    next.proceed(request, new ForwardingStreamingListener(listener) {
+                        @Override
+                        public void onTokenReceived(String token) {
+                            seen.incrementAndGet();
+                            super.onTokenReceived(token.toUpperCase());
+                        }
+                    }, options, handle);
+                    calls.add("<s");
+                })
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        StreamHandle handle = client.sendStream(REQUEST, listener);
+
+        assertNull(handle.getError());
+        assertEquals(2, seen.get());
+        verify(listener).onTokenReceived("X");
+        verify(listener).onTokenReceived("Y");
+        assertEquals(List.of("s>", "stream m", "<s"), calls);
+    }
+
+    @Test
+    void streamInterceptorsRunOnceAroundRateLimitingAndRetries() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        RateLimiter limiter = mock(RateLimiter.class);
+        LLMClient client = LLMClient.builder()
+                .provider(scripted(calls, 1))
+                .model("m")
+                .rateLimiter(limiter)
+                .retryPolicy(new RetryPolicy(3, 1))
+                .streamInterceptor((request, listener, options, handle, next) -> {
+                    calls.add("s>");
+                    next.proceed(request, listener, options, handle);
+                    calls.add("<s");
+                })
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        StreamHandle handle = client.sendStream(REQUEST, listener);
+
+        assertNull(handle.getError());
+        assertEquals(List.of("s>", "stream m", "stream m", "<s"), calls);
+        verify(limiter).acquire();
+        verify(listener).onTokenReceived("x");
+    }
+
+    @Test
+    void streamInterceptorsCannotBeCombinedWithAStreamingEngine() throws IOException {
+        try (NioStreamingEngine engine = NioStreamingEngine.builder().threads(1).build()) {
+            LLMClient.Builder builder = LLMClient.builder()
+                    .model("m")
+                    .streamingEngine(engine)
+                    .streamInterceptor((request, listener, options, handle, next) ->
+                            next.proceed(request, listener, options, handle));
+
+            assertThrows(IllegalStateException.class, builder::build);
+        }
+    }
+
+    @Test
+    void emptyChainIsTheTerminal() {
+        Interceptor.Chain terminal = request -> null;
+        assertSame(terminal, Pipeline.chain(List.of(), terminal));
+    }
+
+    private static Interceptor tracing(String name, List<String> calls) {
+        return (request, next) -> {
+            calls.add(name + ">");
+            try {
+                return next.proceed(request);
+            } finally {
+                calls.add("<" + name);
+            }
+        };
+    }
+
+    /**
+     * A provider that notes each call in {@code calls} and answers "answer" after failing the first
+     * {@code failures} calls; streams the tokens "x" and "y", failing the same way before the first.
+     */
+    private static Provider scripted(List<String> calls, int failures) throws IOException {
+        AtomicInteger failuresLeft = new AtomicInteger(failures);
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            PromptRequest request = invocation.getArgument(0);
+            calls.add("provider " + request.getModel() + " " + request.getUser());
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("try again");
+            }
+            return new PromptResponse.Builder().text("answer").usage(new TokenUsage(1, 1, 2)).build();
+        });
+        doAnswer(invocation -> {
+            PromptRequest request = invocation.getArgument(0);
+            StreamingListener listener = invocation.getArgument(1);
+            calls.add("stream " + request.getModel());
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IOException("try again");
+            }
+            listener.onStart();
+            listener.onTokenReceived("x");
+            listener.onTokenReceived("y");
+            listener.onEnd();
+            listener.onStreamCompleted(new PromptResponse.Builder().text("xy").usage(new TokenUsage(1, 2, 3)).build(),
+                    null);
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        return provider;
+    }
+}
@@ -0,0 +1,146 @@
+package jfr;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.util.HttpUtil;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FlightRecorderEventsTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("ignored")
+            .messages(List.of(new Message("user", "hi")))
+            .build();
+
+    @Test
+    void clientEmitsRequestRetryAndTokenBurstEvents() throws Exception {
+        Provider provider = mock(Provider.class);
+        when(provider.getName()).thenReturn("flaky");
+        when(provider.execute(any()))
+                .thenThrow(new IOException("transient"))
+                .thenReturn(new PromptResponse.Builder().text("ok").usage(new TokenUsage(10, 20, 30)).build());
+        doAnswer(invocation -> {
+            StreamingListener listener = invocation.getArgument(1);
+            listener.onTokenReceived("a");
+            listener.onTokenReceived("b");
+            listener.onTokenReceived("c");
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("gpt-test")
+                .retryPolicy(new RetryPolicy(3, 1))
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .build();
+
+        List<RecordedEvent> events = record(() -> {
+            client.send(REQUEST);
+            client.sendStream(REQUEST, listener);
+        });
+
+        List<RecordedEvent> requests = named(events, "com.jllm.Request");
+        assertEquals(2, requests.size());
+        RecordedEvent send = requests.get(0);
+        assertEquals("flaky", send.getString("provider"));
+        assertEquals("gpt-test", send.getString("model"));
+        assertFalse(send.getBoolean("streaming"));
+        assertTrue(send.getBoolean("success"));
+        assertEquals(2, send.getInt("attempts"));
+        assertEquals(20, send.getInt("completionTokens"));
+        RecordedEvent stream = requests.get(1);
+        assertTrue(stream.getBoolean("streaming"));
+        assertTrue(stream.getDuration("timeToFirstToken").toNanos() > 0);
+
+        List<RecordedEvent> retries = named(events, "com.jllm.Retry");
+        assertEquals(1, retries.size());
+        assertEquals(1, retries.get(0).getInt("attempt"));
+        assertTrue(retries.get(0).getString("error").contains("transient"));
+
+        List<RecordedEvent> bursts = named(events, "com.jllm.TokenBurst");
+        assertEquals(1, bursts.size());
+        assertEquals(3, bursts.get(0).getInt("tokens"));
+        assertEquals("gpt-test", bursts.get(0).getString("model"));
+    }
+
+    @Test
+    void httpUtilEmitsExchangeEvent() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/models", exchange -> {
+            byte[] body = "{\"data\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/models?key=secret";
+            List<RecordedEvent> events = record(() -> HttpUtil.get(url));
+
+            List<RecordedEvent> exchanges = named(events, "com.jllm.HttpExchange");
+            assertEquals(1, exchanges.size());
+            RecordedEvent exchange = exchanges.get(0);
+            assertEquals("GET", exchange.getString("method"));
+            assertFalse(exchange.getString("url").contains("secret"));
+            assertEquals(200, exchange.getInt("status"));
+            assertEquals(11, exchange.getLong("responseBytes"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static List<RecordedEvent> record(Action action) throws Exception {
+        Path file = Files.createTempFile("jllm", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("Request", "RateLimiterWait", "Retry", "HttpExchange", "TokenBurst")) {
+                recording.enable("com.jllm." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
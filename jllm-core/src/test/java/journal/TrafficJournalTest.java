@@ -0,0 +1,214 @@
+package journal;
+
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.journal.JournalEntry;
+import com.jllm.core.journal.JournalReader;
+import com.jllm.core.journal.JournalingProvider;
+import com.jllm.core.journal.ReplayProvider;
+import com.jllm.core.journal.TrafficJournal;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.time.TimeSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrafficJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsExchangesAndReadsThemBack() throws IOException {
+        try (TrafficJournal journal = TrafficJournal.builder().directory(directory).build()) {
+            Provider provider = new JournalingProvider(scripted(), journal);
+            provider.execute(request("hello"));
+            provider.executeStream(request("stream"), mock(StreamingListener.class), new StreamHandle());
+            assertThrows(RateLimitException.class, () -> provider.execute(request("fail")));
+        }
+
+        List<JournalEntry> entries = new JournalReader(directory).readAll();
+        assertEquals(3, entries.size());
+
+        JournalEntry sent = entries.get(0);
+        assertFalse(sent.isStream());
+        assertTrue(sent.isSuccess());
+        assertEquals("m", sent.getRequest().getModel());
+        assertEquals(List.of(new Message("user", "hello")), sent.getRequest().getMessages());
+        assertEquals(0.2, sent.getRequest().getTemperature());
+        assertEquals("alice", sent.getRequest().getUser());
+        assertEquals("answer to hello", sent.getResponse().getText());
+        assertEquals(new TokenUsage(3, 4, 7), sent.getResponse().getUsage());
+
+        JournalEntry streamed = entries.get(1);
+        assertTrue(streamed.isStream());
+        assertEquals(List.of("a", "b", "c"), streamed.getTokens());
+        long[] offsets = streamed.getTokenOffsetsNanos();
+        assertTrue(offsets[0] <= offsets[1] && offsets[1] <= offsets[2]);
+        assertTrue(offsets[2] - offsets[0] >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(streamed.getDurationNanos() >= offsets[2]);
+        assertEquals("abc", streamed.getResponse().getText());
+
+        JournalEntry failed = entries.get(2);
+        assertFalse(failed.isSuccess());
+        assertNull(failed.getResponse());
+        assertEquals(RateLimitException.class.getName(), failed.getErrorType());
+        assertEquals("slow down", failed.getErrorMessage());
+    }
+
+    @Test
+    void rollsOverSegmentsAndAppendsWhenReopened() throws IOException {
+        String filler = "x".repeat(300);
+        try (TrafficJournal journal = TrafficJournal.builder().directory(directory).segmentSize(1024).build()) {
+            Provider provider = new JournalingProvider(scripted(), journal);
+            for (int i = 0; i < 20; i++) {
+                provider.execute(request(i + filler));
+            }
+        }
+        try (TrafficJournal journal = TrafficJournal.builder().directory(directory).segmentSize(1024).build()) {
+            new JournalingProvider(scripted(), journal).execute(request("again"));
+            journal.close();
+            assertEquals(1, journal.getWritten());
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 5);
+        }
+        List<JournalEntry> entries = new JournalReader(directory).readAll();
+        assertEquals(21, entries.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + filler, entries.get(i).getRequest().getMessages().get(0).getContent());
+        }
+        assertEquals("again", entries.get(20).getRequest().getMessages().get(0).getContent());
+    }
+
+    @Test
+    void replaysResponsesTimingAndErrors() throws IOException {
+        try (TrafficJournal journal = TrafficJournal.builder().directory(directory).build()) {
+            Provider provider = new JournalingProvider(scripted(), journal);
+            provider.executeStream(request("stream"), mock(StreamingListener.class), new StreamHandle());
+            assertThrows(RateLimitException.class, () -> provider.execute(request("fail")));
+        }
+        JournalEntry recorded = new JournalReader(directory).readAll().get(0);
+
+        StepClock clock = new StepClock();
+        ReplayProvider replay = ReplayProvider.builder()
+                .journal(directory)
+                .time(clock)
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        replay.executeStream(request("stream"), listener, new StreamHandle());
+
+        verify(listener).onTokenReceived("a");
+        verify(listener).onTokenReceived("b");
+        verify(listener).onTokenReceived("c");
+        verify(listener).onStreamCompleted(any(PromptResponse.class), isNull());
+        assertEquals(recorded.getDurationNanos(), clock.nanos);
+
+        assertThrows(RateLimitException.class, () -> replay.execute(request("fail")));
+        assertThrows(ProviderNotAvailableException.class, () -> replay.execute(request("stream")));
+    }
+
+    @Test
+    void replaysInOrderFasterAndInALoop() throws IOException {
+        try (TrafficJournal journal = TrafficJournal.builder().directory(directory).build()) {
+            Provider provider = new JournalingProvider(scripted(), journal);
+            provider.execute(request("one"));
+            provider.execute(request("two"));
+        }
+        List<JournalEntry> recorded = new JournalReader(directory).readAll();
+
+        StepClock clock = new StepClock();
+        ReplayProvider replay = ReplayProvider.builder()
+                .entries(recorded)
+                .inOrder(true)
+                .loop(true)
+                .speed(2)
+                .time(clock)
+                .build();
+        List<String> answers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            answers.add(replay.execute(request("anything")).getText());
+        }
+
+        assertEquals(List.of("answer to one", "answer to two", "answer to one"), answers);
+        long expected = recorded.get(0).getDurationNanos() / 2 * 2 + recorded.get(1).getDurationNanos() / 2;
+        assertEquals(expected, clock.nanos, 3);
+    }
+
+    private static PromptRequest request(String content) {
+        return PromptRequest.builder()
+                .model("m")
+                .messages(List.of(new Message("user", content)))
+                .temperature(0.2)
+                .user("alice")
+                .build();
+    }
+
+    /**
+     * A provider that answers with the message echoed, streams three tokens 5 ms apart and rate limits "fail".
+     */
+    private static Provider scripted() throws IOException {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            String content = invocation.<PromptRequest>getArgument(0).getMessages().get(0).getContent();
+            if (content.equals("fail")) {
+                throw new RateLimitException("slow down");
+            }
+            Thread.sleep(1);
+            return new PromptResponse.Builder().text("answer to " + content).usage(new TokenUsage(3, 4, 7)).build();
+        });
+        doAnswer(invocation -> {
+            StreamingListener listener = invocation.getArgument(1);
+            listener.onStart();
+            for (String token : List.of("a", "b", "c")) {
+                Thread.sleep(5);
+                listener.onTokenReceived(token);
+            }
+            listener.onEnd();
+            listener.onStreamCompleted(new PromptResponse.Builder().text("abc").usage(new TokenUsage(1, 3, 4)).build(),
+                    null);
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        return provider;
+    }
+
+    /**
+     * A clock that only moves when slept on.
+     */
+    private static final class StepClock implements TimeSource {
+        long nanos;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return nanos / 1_000_000;
+        }
+
+        @Override
+        public void sleep(long duration, TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package metrics;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.metrics.LogLinearHistogram;
+import com.jllm.core.metrics.MetricsRegistry;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MetricsRegistryTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("ignored")
+            .messages(List.of(new Message("user", "hi")))
+            .build();
+    private static final PromptResponse RESPONSE =
+            new PromptResponse.Builder().text("ok").usage(new TokenUsage(10, 20, 30)).build();
+
+    @Test
+    void histogramQuantilesWithinRelativeError() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertWithin(50_000_000, histogram.getValueAtQuantile(0.5), 1.0 / 32);
+        assertWithin(99_000_000, histogram.getValueAtQuantile(0.99), 1.0 / 32);
+        assertEquals(100_000_000, histogram.getValueAtQuantile(1));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int v = 0; v < 32; v++) {
+            histogram.record(v);
+        }
+        assertEquals(15, histogram.getValueAtQuantile(0.5));
+        assertEquals(0, new LogLinearHistogram().getValueAtQuantile(0.99));
+    }
+
+    @Test
+    void clientRecordsLatencyRetriesAndTokens() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Provider provider = provider();
+        when(provider.execute(any())).thenThrow(new IOException("transient")).thenReturn(RESPONSE);
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("gpt-test")
+                .retryPolicy(new RetryPolicy(3, 0))
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .metrics(metrics)
+                .build();
+
+        client.send(REQUEST);
+
+        MetricsRegistry.Series series = metrics.getSeries("flaky", "gpt-test");
+        assertNotNull(series);
+        assertEquals(1, series.getSuccesses());
+        assertEquals(0, series.getFailures());
+        assertEquals(1, series.getRetries());
+        assertEquals(10, series.getPromptTokens());
+        assertEquals(20, series.getCompletionTokens());
+        assertEquals(1, series.getRequestLatency().getCount());
+        assertEquals(1, series.getRateLimiterWait().getCount());
+        assertEquals(1, series.getTokensPerSecond().getCount());
+    }
+
+    @Test
+    void streamRecordsTimeToFirstToken() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Provider provider = provider();
+        doAnswer(invocation -> {
+            StreamingListener listener = invocation.getArgument(1);
+            listener.onTokenReceived("o");
+            listener.onTokenReceived("k");
+            listener.onStreamCompleted(RESPONSE, null);
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("gpt-test")
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .metrics(metrics)
+                .build();
+
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+        client.sendStream(REQUEST, listener);
+
+        MetricsRegistry.Series series = metrics.getSeries("flaky", "gpt-test");
+        assertEquals(1, series.getTimeToFirstToken().getCount());
+        assertEquals(1, series.getSuccesses());
+        assertEquals(20, series.getCompletionTokens());
+    }
+
+    @Test
+    void scrapeUsesPrometheusTextFormat() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.recordRequest("open\"ai", "gpt-4", 250_000_000L, true);
+        metrics.recordRequest("open\"ai", "gpt-4", 250_000_000L, false);
+        metrics.recordRetry("open\"ai", "gpt-4");
+
+        String text = metrics.scrape();
+
+        assertTrue(text.contains("# TYPE jllm_request_duration_seconds summary\n"), text);
+        assertTrue(text.contains("jllm_request_duration_seconds_count{provider=\"open\\\"ai\",model=\"gpt-4\"} 2\n"), text);
+        assertTrue(text.contains("jllm_requests_total{provider=\"open\\\"ai\",model=\"gpt-4\",outcome=\"error\"} 1\n"), text);
+        assertTrue(text.contains("jllm_retries_total{provider=\"open\\\"ai\",model=\"gpt-4\"} 1\n"), text);
+        assertTrue(text.contains("jllm_request_duration_seconds{provider=\"open\\\"ai\",model=\"gpt-4\",quantile=\"0.5\"} 0.25"), text);
+    }
+
+    private static Provider provider() {
+        Provider provider = mock(Provider.class);
+        when(provider.getName()).thenReturn("flaky");
+        return provider;
+    }
+
+    private static void assertWithin(long expected, long actual, double relativeError) {
+        assertTrue(Math.abs(actual - expected) <= expected * relativeError,
+                "expected " + expected + " within " + relativeError + " but was " + actual);
+    }
+}
@@ -0,0 +1,193 @@
+package quota;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.QuotaExceededException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.quota.QuotaPeriod;
+import com.jllm.core.quota.TokenQuotaManager;
+import com.jllm.core.rate.RateLimiter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenQuotaManagerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void countersSurviveReopen() throws Exception {
+        Path file = dir.resolve("quotas.bin");
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder().path(file).maxTenants(1000).open()) {
+            quotas.record("acme", new TokenUsage(100, 50, 150));
+            quotas.record("globex", new TokenUsage(1, 1, 2));
+        }
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder().path(file).maxTenants(5).open()) {
+            assertEquals(150, quotas.getUsed("acme", QuotaPeriod.DAILY));
+            assertEquals(150, quotas.getUsed("acme", QuotaPeriod.MONTHLY));
+            assertEquals(2, quotas.getUsed("globex", QuotaPeriod.DAILY));
+            assertEquals(2, quotas.getTenantCount());
+            assertEquals(2048, quotas.getCapacity());               // sized by the file, not the builder
+        }
+    }
+
+    @Test
+    void rejectsRequestsThatWouldExceedRemainingQuota() throws Exception {
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder()
+                .path(dir.resolve("q.bin"))
+                .defaultLimits(1000, 10_000)
+                .tenantLimits("vip", TokenQuotaManager.UNLIMITED, TokenQuotaManager.UNLIMITED)
+                .open()) {
+            quotas.check("newcomer", 1000);
+            assertThrows(QuotaExceededException.class, () -> quotas.check("newcomer", 1001));
+
+            quotas.record("acme", new TokenUsage(600, 200, 800));
+            quotas.check("acme", 200);
+            QuotaExceededException e = assertThrows(QuotaExceededException.class, () -> quotas.check("acme", 201));
+            assertTrue(e.getMessage().startsWith("daily"), e.getMessage());
+            assertEquals(200, quotas.getRemaining("acme", QuotaPeriod.DAILY));
+
+            quotas.record("vip", new TokenUsage(1_000_000, 0, 1_000_000));
+            quotas.check("vip", 1_000_000);
+            assertEquals(TokenQuotaManager.UNLIMITED, quotas.getRemaining("vip", QuotaPeriod.MONTHLY));
+        }
+    }
+
+    @Test
+    void periodsRollOverPerTenant() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-30T23:00:00Z"));
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder()
+                .path(dir.resolve("q.bin"))
+                .defaultLimits(100, 150)
+                .clock(clock)
+                .open()) {
+            quotas.record("acme", new TokenUsage(100, 0, 100));
+            assertThrows(QuotaExceededException.class, () -> quotas.check("acme", 1));
+
+            clock.advance(Duration.ofHours(2));                   // next day, same month
+            assertEquals(0, quotas.getUsed("acme", QuotaPeriod.DAILY));
+            assertEquals(100, quotas.getUsed("acme", QuotaPeriod.MONTHLY));
+            quotas.check("acme", 50);
+            QuotaExceededException e = assertThrows(QuotaExceededException.class, () -> quotas.check("acme", 60));
+            assertTrue(e.getMessage().startsWith("monthly"), e.getMessage());
+
+            clock.advance(Duration.ofDays(1));                    // April
+            assertEquals(0, quotas.getUsed("acme", QuotaPeriod.MONTHLY));
+            quotas.check("acme", 100);
+        }
+    }
+
+    @Test
+    void holdsManyTenantsInAFewTensOfMegabytes() throws Exception {
+        Path file = dir.resolve("big.bin");
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder().path(file).maxTenants(1_000_000).open()) {
+            for (int i = 0; i < 200_000; i++) {
+                quotas.record("tenant-" + i, new TokenUsage(i % 100, 1, i % 100 + 1));
+            }
+            assertEquals(200_000, quotas.getTenantCount());
+            assertEquals(43, quotas.getUsed("tenant-12342", QuotaPeriod.DAILY));
+        }
+        assertTrue(Files.size(file) <= 50L * 1024 * 1024, "file size " + Files.size(file));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder().path(dir.resolve("q.bin")).open()) {
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            quotas.record("tenant-" + (i % 16), new TokenUsage(1, 1, 2));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(16, quotas.getTenantCount());
+            assertEquals(8 * 10_000 / 16 * 2, quotas.getUsed("tenant-7", QuotaPeriod.MONTHLY));
+        }
+    }
+
+    @Test
+    void clientRejectsBeforeCallingProvider() throws Exception {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any()))
+                .thenReturn(new PromptResponse.Builder().text("ok").usage(new TokenUsage(50, 100, 150)).build());
+        try (TokenQuotaManager quotas = TokenQuotaManager.builder()
+                .path(dir.resolve("q.bin"))
+                .defaultLimits(300, TokenQuotaManager.UNLIMITED)
+                .open()) {
+            LLMClient client = LLMClient.builder()
+                    .provider(provider)
+                    .model("gpt-test")
+                    .rateLimiter(new RateLimiter(1000, 1000))
+                    .quotaManager(quotas)
+                    .build();
+            PromptRequest request = PromptRequest.builder()
+                    .model("gpt-test")
+                    .user("acme")
+                    .maxTokens(100)
+                    .messages(List.of(new Message("user", "hi")))
+                    .build();
+
+            client.send(request);                                 // charged 150
+            client.send(request);                                 // charged 150, quota used up
+            assertThrows(QuotaExceededException.class, () -> client.send(request));
+            verify(provider, times(2)).execute(any());
+            assertEquals(300, quotas.getUsed("acme", QuotaPeriod.DAILY));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
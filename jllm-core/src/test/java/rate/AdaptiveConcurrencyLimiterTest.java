@@ -0,0 +1,143 @@
+package rate;
+
+import com.jllm.core.exception.ConcurrencyLimitExceededException;
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.rate.AdaptiveConcurrencyLimiter;
+import com.jllm.core.rate.ConcurrencyLimitedProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void limitGrowsWhileLatencyIsStableAndShrinksWhenItRises() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .maxLimit(100)
+                .build();
+
+        saturate(limiter, 300, TimeUnit.MILLISECONDS.toNanos(10));
+        int peak = limiter.getLimit();
+        assertTrue(peak > 50, "limit " + peak);
+
+        saturate(limiter, 50, TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(limiter.getLimit() < peak / 2, "limit " + limiter.getLimit() + " after peak " + peak);
+    }
+
+    @Test
+    void droppedRequestsCutTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder().initialLimit(50).build();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.onDropped();
+        }
+        assertEquals(17, limiter.getLimit());                     // 50 * 0.9^10
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void excessCallersWaitBoundedThenAreRejected() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(2)
+                .maxLimit(2)
+                .maxWait(Duration.ofMillis(50))
+                .build();
+        limiter.acquire();
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        ConcurrencyLimitExceededException e =
+                assertThrows(ConcurrencyLimitExceededException.class, limiter::acquire);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(45));
+        assertTrue(e instanceof ProviderNotAvailableException);  // routers fail over on it
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> waiting = pool.submit(limiter::acquire);
+            Thread.sleep(10);
+            limiter.onIgnore();
+            waiting.get(1, TimeUnit.SECONDS);                     // handed the released permit
+            assertEquals(2, limiter.getInFlight());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void providerNeverRunsMoreCallsThanTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(4)
+                .maxLimit(4)
+                .maxWait(Duration.ofSeconds(5))
+                .build();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        Provider slow = mock(Provider.class);
+        when(slow.getName()).thenReturn("slow");
+        when(slow.execute(any())).thenAnswer(invocation -> {
+            maxConcurrent.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            active.decrementAndGet();
+            return new PromptResponse.Builder().text("ok").usage(new TokenUsage(1, 1, 2)).build();
+        });
+        Provider limited = new ConcurrencyLimitedProvider(slow, limiter);
+        PromptRequest request = PromptRequest.builder()
+                .model("m")
+                .messages(List.of(new Message("user", "hi")))
+                .build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(pool.submit(() -> limited.execute(request)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        verify(slow, times(64)).execute(any());
+        assertEquals(4, maxConcurrent.get());
+        assertEquals(0, limiter.getInFlight());
+
+        doThrow(new RateLimitException("429")).when(slow).execute(any());
+        assertThrows(RateLimitException.class, () -> limited.execute(request));
+        assertEquals(3, limiter.getLimit());
+        assertEquals("slow", limited.getName());
+    }
+
+    /**
+     * Keeps every permit busy and completes the given number of calls, each with the given latency.
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, int samples, long latencyNanos) {
+        for (int i = 0; i < samples; i++) {
+            while (limiter.tryAcquire()) {
+                // take every free permit
+            }
+            limiter.onSuccess(System.nanoTime() - latencyNanos);
+        }
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnore();
+        }
+    }
+}
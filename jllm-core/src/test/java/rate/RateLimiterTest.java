@@ -0,0 +1,47 @@
+package rate;
+
+import com.jllm.core.rate.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void waitingCallerDoesNotHoldUpATimedAcquire() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 10_000);
+        limiter.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();                                // waits for the next window
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        waiter.interrupt();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+    }
+
+    @Test
+    void tryAcquireWaitsForTheNextWindowWhenItStartsInTime() throws Exception {
+        RateLimiter limiter = new RateLimiter(2, 50);
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+
+        assertTrue(limiter.tryAcquire(1, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getRequestCount());
+    }
+}
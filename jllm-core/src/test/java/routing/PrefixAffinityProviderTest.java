@@ -0,0 +1,199 @@
+package routing;
+
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.routing.PrefixAffinityProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PrefixAffinityProviderTest {
+
+    private static PromptRequest request(String systemPrompt, String question) {
+        return PromptRequest.builder()
+                .model("llama")
+                .messages(List.of(new Message("system", systemPrompt), new Message("user", question)))
+                .build();
+    }
+
+    private static List<StandInReplica> replicas(int n) {
+        List<StandInReplica> replicas = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            replicas.add(new StandInReplica("http://replica-" + i));
+        }
+        return replicas;
+    }
+
+    private static PrefixAffinityProvider provider(List<StandInReplica> replicas) {
+        PrefixAffinityProvider.Builder builder = PrefixAffinityProvider.builder();
+        for (StandInReplica replica : replicas) {
+            builder.replica(replica.url, replica.provider);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void requestsSharingSystemPromptHitWarmPrefixCache() throws Exception {
+        List<StandInReplica> replicas = replicas(4);
+        PrefixAffinityProvider provider = provider(replicas);
+
+        for (int round = 0; round < 50; round++) {
+            for (int prompt = 0; prompt < 8; prompt++) {
+                provider.execute(request("system prompt #" + prompt, "question " + round));
+            }
+        }
+
+        long requests = 0;
+        long hits = 0;
+        for (StandInReplica replica : replicas) {
+            requests += replica.requests.get();
+            hits += replica.prefixHits.get();
+        }
+        // Only the first request per prompt misses: 392 of 400
+        assertEquals(400, requests);
+        assertEquals(392, hits);
+    }
+
+    @Test
+    void addingReplicaOnlyMovesKeysToTheNewReplica() throws Exception {
+        List<StandInReplica> replicas = replicas(4);
+        PrefixAffinityProvider provider = provider(replicas);
+        Map<String, String> before = new HashMap<>();
+        for (int prompt = 0; prompt < 1000; prompt++) {
+            String system = "tenant-" + prompt;
+            before.put(system, provider.execute(request(system, "q")).getText());
+        }
+
+        StandInReplica added = new StandInReplica("http://replica-4");
+        provider.addReplica(added.url, added.provider);
+
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = provider.execute(request(entry.getKey(), "q")).getText();
+            if (!owner.equals(entry.getValue())) {
+                moved++;
+                assertEquals(added.url, owner);
+            }
+        }
+        // Ideal is 1/5 of the keys
+        assertTrue(moved > 100 && moved < 350, "moved " + moved);
+    }
+
+    @Test
+    void unhealthyReplicaIsSkipped() throws Exception {
+        List<StandInReplica> replicas = replicas(3);
+        replicas.get(0).down = true;
+        PrefixAffinityProvider provider = provider(replicas);
+
+        for (int prompt = 0; prompt < 100; prompt++) {
+            String owner = provider.execute(request("p" + prompt, "q")).getText();
+            assertNotEquals(replicas.get(0).url, owner);
+        }
+        // After the first failure the replica is in cooldown and no longer tried
+        assertEquals(1, replicas.get(0).attempts.get());
+    }
+
+    @Test
+    void hotPrefixSpillsOverUnderBoundedLoad() throws Exception {
+        List<StandInReplica> replicas = replicas(4);
+        CountDownLatch release = new CountDownLatch(1);
+        for (StandInReplica replica : replicas) {
+            replica.gate = release;
+        }
+        PrefixAffinityProvider provider = provider(replicas);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<PromptResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(pool.submit(() -> provider.execute(request("hot prompt", "q"))));
+                // let each request become in-flight before the next one is routed
+                while (totalInFlight(replicas) <= i) {
+                    Thread.onSpinWait();
+                }
+            }
+            release.countDown();
+            Set<String> owners = ConcurrentHashMap.newKeySet();
+            for (Future<PromptResponse> future : futures) {
+                owners.add(future.get(5, TimeUnit.SECONDS).getText());
+            }
+            assertTrue(owners.size() >= 2, "hot prefix should spill over, used " + owners);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int totalInFlight(List<StandInReplica> replicas) {
+        int total = 0;
+        for (StandInReplica replica : replicas) {
+            total += replica.inFlight.get();
+        }
+        return total;
+    }
+
+    /**
+     * Stands in for an inference server with a KV prefix cache keyed by the system prompt; routed to
+     * through a mocked {@link Provider} that answers with the replica's url.
+     */
+    private static final class StandInReplica {
+        private final String url;
+        private final Provider provider = mock(Provider.class);
+        private final Set<String> prefixCache = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger prefixHits = new AtomicInteger();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean down;
+        private volatile CountDownLatch gate;
+
+        private StandInReplica(String url) {
+            this.url = url;
+            try {
+                when(provider.execute(any())).thenAnswer(invocation -> serve(invocation.getArgument(0)));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            when(provider.isAvailable()).thenAnswer(invocation -> !down);
+        }
+
+        private PromptResponse serve(PromptRequest request) throws InterruptedException {
+            attempts.incrementAndGet();
+            if (down) {
+                throw new ProviderNotAvailableException(url + " is down");
+            }
+            inFlight.incrementAndGet();
+            try {
+                requests.incrementAndGet();
+                if (!prefixCache.add(request.getMessages().get(0).getContent())) {
+                    prefixHits.incrementAndGet();
+                }
+                CountDownLatch latch = gate;
+                if (latch != null) {
+                    latch.await(5, TimeUnit.SECONDS);
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new PromptResponse.Builder().text(url).usage(new TokenUsage(1, 1, 2)).build();
+        }
+    }
+}
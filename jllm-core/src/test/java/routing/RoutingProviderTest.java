@@ -0,0 +1,109 @@
+package routing;
+
+import com.jllm.core.exception.ModelNotSupportedException;
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.routing.RoutingProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoutingProviderTest {
+
+    private static PromptRequest request(String model) {
+        return PromptRequest.builder()
+                .model(model)
+                .messages(List.of(new Message("user", "hi")))
+                .build();
+    }
+
+    @Test
+    void failsOverWhenProviderNotAvailable() throws Exception {
+        Provider down = fake("down", 0, true);
+        Provider up = fake("up", 0, false);
+        RoutingProvider router = RoutingProvider.builder().provider(down).provider(up).build();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("up", router.execute(request("m")).getText());
+        }
+        verify(up, times(20)).execute(any());
+    }
+
+    @Test
+    void providerThatIsAlwaysDownStopsBeingTried() throws Exception {
+        Provider down = fake("down", 0, true);
+        Provider up = fake("up", 0, false);
+        RoutingProvider router = RoutingProvider.builder().provider(down).provider(up).build();
+
+        for (int i = 0; i < 50; i++) {
+            router.execute(request("m"));
+        }
+        verify(down, atMost(3)).execute(any());
+    }
+
+    @Test
+    void prefersFasterProvider() throws Exception {
+        Provider slow = fake("slow", 20, false);
+        Provider fast = fake("fast", 0, false);
+        RoutingProvider router = RoutingProvider.builder().provider(slow).provider(fast).build();
+
+        for (int i = 0; i < 50; i++) {
+            router.execute(request("m"));
+        }
+        verify(fast, atLeast(41)).execute(any());
+    }
+
+    @Test
+    void explicitRouteRestrictsEligibleProviders() throws Exception {
+        Provider a = fake("a", 0, false);
+        Provider b = fake("b", 0, false);
+        RoutingProvider router = RoutingProvider.builder()
+                .provider(a)
+                .provider(b)
+                .route("only-b", "b")
+                .route("nowhere", "c")
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("b", router.execute(request("only-b")).getText());
+        }
+        assertThrows(ModelNotSupportedException.class, () -> router.execute(request("nowhere")));
+    }
+
+    @Test
+    void allProvidersDown_throwsProviderNotAvailable() throws Exception {
+        RoutingProvider router = RoutingProvider.builder()
+                .provider(fake("x", 0, true))
+                .provider(fake("y", 0, true))
+                .build();
+
+        assertThrows(ProviderNotAvailableException.class, () -> router.execute(request("m")));
+    }
+
+    /**
+     * A provider that answers with its own name after {@code latencyMillis}, or is down and fails.
+     */
+    private static Provider fake(String name, long latencyMillis, boolean down) throws IOException {
+        Provider provider = mock(Provider.class);
+        when(provider.getName()).thenReturn(name);
+        when(provider.supportsModel(any())).thenReturn(true);
+        when(provider.isAvailable()).thenReturn(!down);
+        when(provider.execute(any())).thenAnswer(invocation -> {
+            if (down) {
+                throw new ProviderNotAvailableException(name + " is down");
+            }
+            Thread.sleep(latencyMillis);
+            return new PromptResponse.Builder().text(name).usage(new TokenUsage(1, 1, 2)).build();
+        });
+        return provider;
+    }
+}
@@ -0,0 +1,186 @@
+package schedule;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.ConcurrencyLimitExceededException;
+import com.jllm.core.metrics.MetricsRegistry;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.Priority;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.schedule.RequestScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RequestSchedulerTest {
+
+    @Test
+    void interactiveRequestOvertakesQueuedBatch() throws Exception {
+        RequestScheduler scheduler = RequestScheduler.builder().maxConcurrency(1).build();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        RequestScheduler.Permit busy = scheduler.acquire(request(Priority.NORMAL, "x", 1));
+        for (int i = 0; i < 5; i++) {
+            threads.add(enqueue(scheduler, request(Priority.BATCH, "nightly", 1), "batch-" + i, order));
+        }
+        threads.add(enqueue(scheduler, request(Priority.INTERACTIVE, "alice", 1), "chat", order));
+        busy.close();
+        join(threads);
+
+        assertEquals("chat", order.get(0));
+        assertEquals(List.of("batch-0", "batch-1", "batch-2", "batch-3", "batch-4"), order.subList(1, 6));
+        assertEquals(5, scheduler.getWaitTime(Priority.BATCH).getCount());
+        assertEquals(1, scheduler.getWaitTime(Priority.INTERACTIVE).getCount());
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void classesShareByWeightWithoutStarvingBatch() throws Exception {
+        RequestScheduler scheduler = RequestScheduler.builder()
+                .maxConcurrency(1)
+                .weight(Priority.INTERACTIVE, 4)
+                .weight(Priority.BATCH, 1)
+                .build();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        RequestScheduler.Permit busy = scheduler.acquire(request(Priority.NORMAL, "x", 1));
+        for (int i = 0; i < 10; i++) {
+            threads.add(enqueue(scheduler, request(Priority.BATCH, "nightly", 1), "batch", order));
+        }
+        for (int i = 0; i < 10; i++) {
+            threads.add(enqueue(scheduler, request(Priority.INTERACTIVE, "alice", 1), "chat", order));
+        }
+        busy.close();
+        join(threads);
+
+        List<String> firstTen = order.subList(0, 10);
+        assertEquals(8, Collections.frequency(firstTen, "chat"), order.toString());
+        assertEquals(2, Collections.frequency(firstTen, "batch"), order.toString());
+    }
+
+    @Test
+    void tenantsOfAClassShareEqually() throws Exception {
+        RequestScheduler scheduler = RequestScheduler.builder().maxConcurrency(1).build();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        RequestScheduler.Permit busy = scheduler.acquire(request(Priority.NORMAL, "x", 1));
+        for (int i = 0; i < 8; i++) {
+            threads.add(enqueue(scheduler, request(Priority.NORMAL, "bulk", 1), "bulk", order));
+        }
+        threads.add(enqueue(scheduler, request(Priority.NORMAL, "small", 1), "small", order));
+        threads.add(enqueue(scheduler, request(Priority.NORMAL, "small", 1), "small", order));
+        busy.close();
+        join(threads);
+
+        assertEquals(List.of("bulk", "small", "bulk", "small"), order.subList(0, 4));
+    }
+
+    @Test
+    void shortestJobFirstOrdersATenantsRequestsByMaxTokens() throws Exception {
+        RequestScheduler scheduler = RequestScheduler.builder().maxConcurrency(1).shortestJobFirst(true).build();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        RequestScheduler.Permit busy = scheduler.acquire(request(Priority.NORMAL, "x", 1));
+        threads.add(enqueue(scheduler, request(Priority.NORMAL, "acme", 4000), "essay", order));
+        threads.add(enqueue(scheduler, request(Priority.NORMAL, "acme", 16), "label", order));
+        threads.add(enqueue(scheduler, request(Priority.NORMAL, "acme", 500), "summary", order));
+        busy.close();
+        join(threads);
+
+        assertEquals(List.of("label", "summary", "essay"), order);
+    }
+
+    @Test
+    void waitIsBoundedAndReportedPerClass() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        RequestScheduler scheduler = RequestScheduler.builder()
+                .maxConcurrency(1)
+                .maxWait(Duration.ofMillis(30))
+                .metrics(metrics)
+                .build();
+
+        try (RequestScheduler.Permit busy = scheduler.acquire(request(Priority.NORMAL, "x", 1))) {
+            assertThrows(ConcurrencyLimitExceededException.class,
+                    () -> scheduler.acquire(request(Priority.BATCH, "nightly", 1)));
+        }
+        assertEquals(0, scheduler.getQueueDepth(Priority.BATCH));
+        scheduler.acquire(request(Priority.BATCH, "nightly", 1)).close();   // abandoned waiter is skipped
+
+        assertEquals(1, metrics.getQueueSeries("normal").getWait().getCount());
+        assertEquals(1, metrics.getQueueSeries("batch").getWait().getCount());
+        assertEquals(0, metrics.getQueueSeries("batch").getDepth());
+        assertTrue(metrics.scrape().contains("jllm_scheduler_queue_depth{class=\"batch\"} 0\n"));
+    }
+
+    @Test
+    void clientReleasesSlotsAfterEachCall() throws Exception {
+        RequestScheduler scheduler = RequestScheduler.builder().maxConcurrency(1).build();
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any()))
+                .thenReturn(new PromptResponse.Builder().text("ok").usage(new TokenUsage(1, 1, 2)).build());
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("gpt-test")
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .scheduler(scheduler)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("ok", client.send(request(Priority.INTERACTIVE, "alice", 1)).getText());
+        }
+        assertEquals(0, scheduler.getInFlight());
+        assertEquals(3, scheduler.getWaitTime(Priority.INTERACTIVE).getCount());
+    }
+
+    private static PromptRequest request(Priority priority, String user, int maxTokens) {
+        return PromptRequest.builder()
+                .model("gpt-test")
+                .messages(List.of(new Message("user", "hi")))
+                .user(user)
+                .maxTokens(maxTokens)
+                .priority(priority)
+                .build();
+    }
+
+    /**
+     * Starts a thread that queues the request and, once dispatched, notes its label and frees the slot.
+     * Returns after the request is queued so that arrival order is deterministic.
+     */
+    private static Thread enqueue(RequestScheduler scheduler, PromptRequest request, String label,
+                                  List<String> order) throws InterruptedException {
+        int depth = scheduler.getQueueDepth(request.getPriority());
+        Thread thread = new Thread(() -> {
+            try (RequestScheduler.Permit permit = scheduler.acquire(request)) {
+                order.add(label);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        while (scheduler.getQueueDepth(request.getPriority()) == depth) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+    }
+}
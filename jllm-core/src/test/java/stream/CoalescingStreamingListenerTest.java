@@ -0,0 +1,88 @@
+package stream;
+
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.CoalescingStreamingListener;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.stream.StreamStats;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class CoalescingStreamingListenerTest {
+
+    private final StreamingListener listener = mock(StreamingListener.class);
+
+    @Test
+    void firstTokenDeliveredImmediately_restCoalescedByTokenCount() {
+        StreamOptions options = StreamOptions.builder()
+                .coalesce(1024, 3, Duration.ofSeconds(10))
+                .build();
+        CoalescingStreamingListener coalescing = new CoalescingStreamingListener(listener, options);
+
+        coalescing.onTokenReceived("a");
+        verify(listener).onTokenReceived("a");
+
+        coalescing.onTokenReceived("b");
+        coalescing.onTokenReceived("c");
+        verifyNoMoreInteractions(listener);
+
+        coalescing.onTokenReceived("d");
+        verify(listener).onTokenReceived("bcd");
+
+        StreamStats stats = coalescing.stats();
+        assertEquals(4, stats.getTokensReceived());
+        assertEquals(2, stats.getChunksDelivered());
+        assertEquals(2.0, stats.getAverageChunkBytes());
+    }
+
+    @Test
+    void byteThresholdFlushesChunk() {
+        StreamOptions options = StreamOptions.builder()
+                .coalesce(4, 100, Duration.ofSeconds(10))
+                .build();
+        CoalescingStreamingListener coalescing = new CoalescingStreamingListener(listener, options);
+
+        coalescing.onTokenReceived("first");
+        coalescing.onTokenReceived("ab");
+        coalescing.onTokenReceived("cd");
+
+        InOrder o = inOrder(listener);
+        o.verify(listener).onTokenReceived("first");
+        o.verify(listener).onTokenReceived("abcd");
+    }
+
+    @Test
+    void deadlineFlushesPendingChunk() {
+        StreamOptions options = StreamOptions.builder()
+                .coalesce(1024, 100, Duration.ofMillis(20))
+                .build();
+        CoalescingStreamingListener coalescing = new CoalescingStreamingListener(listener, options);
+
+        coalescing.onTokenReceived("first");
+        coalescing.onTokenReceived("x");
+        coalescing.onTokenReceived("y");
+
+        verify(listener, timeout(1000)).onTokenReceived("xy");
+    }
+
+    @Test
+    void pendingChunkFlushedBeforeCompletion() {
+        StreamOptions options = StreamOptions.builder()
+                .coalesce(1024, 100, Duration.ofSeconds(10))
+                .build();
+        CoalescingStreamingListener coalescing = new CoalescingStreamingListener(listener, options);
+
+        coalescing.onTokenReceived("first");
+        coalescing.onTokenReceived("rest");
+        coalescing.onStreamComplete();
+
+        InOrder o = inOrder(listener);
+        o.verify(listener).onTokenReceived("first");
+        o.verify(listener).onTokenReceived("rest");
+        o.verify(listener).onStreamComplete();
+    }
+}
@@ -0,0 +1,290 @@
+package stream;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.HttpStreamingProvider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.nio.HttpStreamRequest;
+import com.jllm.core.stream.nio.NioStreamingEngine;
+import com.jllm.core.stream.sse.ChatCompletionEventHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NioStreamingEngineTest {
+
+    private HttpServer server;
+    private NioStreamingEngine engine;
+    private final CountDownLatch releaseHangingStream = new CountDownLatch(1);
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/chunked", exchange -> {
+            String user = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String token : new String[]{"Hello", ", ", user}) {
+                    out.write(chunk(token));
+                    out.flush();
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/fixed", exchange -> {
+            byte[] body = concat(chunk("Hi"), "data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/flaky", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (failuresLeft.getAndDecrement() > 0) {
+                byte[] error = "{\"error\":\"slow down\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(429, error.length);
+                exchange.getResponseBody().write(error);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(concat(chunk("ok"), "data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8)));
+            }
+        });
+        server.createContext("/truncated", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(chunk("cut"));
+            }
+        });
+        server.createContext("/hanging", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(chunk("first"));
+                out.flush();
+                releaseHangingStream.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        engine = NioStreamingEngine.builder().threads(2).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseHangingStream.countDown();
+        engine.close();
+        server.stop(0);
+    }
+
+    @Test
+    void manyConcurrentStreamsShareTwoEventLoops() throws Exception {
+        LLMClient client = client("/chunked", new RetryPolicy(1, 1));
+        int streams = 300;
+        Map<Integer, String> texts = new ConcurrentHashMap<>();
+        Set<String> listenerThreads = ConcurrentHashMap.newKeySet();
+        List<StreamHandle> handles = new ArrayList<>();
+
+        for (int i = 0; i < streams; i++) {
+            int id = i;
+            StringBuilder text = new StringBuilder();
+            handles.add(client.sendStreamAsync(request("user-" + i), new RecordingListener() {
+                @Override
+                public void onTokenReceived(String token) {
+                    listenerThreads.add(Thread.currentThread().getName());
+                    text.append(token);
+                }
+
+                @Override
+                public void onStreamComplete() {
+                    texts.put(id, text.toString());
+                }
+            }));
+        }
+        for (StreamHandle handle : handles) {
+            assertTrue(handle.await(10, TimeUnit.SECONDS));
+            assertNull(handle.getError());
+        }
+
+        assertEquals(streams, texts.size());
+        assertEquals("Hello, user-42", texts.get(42));
+        assertEquals(Set.of("jllm-nio-0", "jllm-nio-1"), listenerThreads);
+        assertEquals(0, engine.getOpenStreams());
+    }
+
+    @Test
+    void contentLengthBodiesAreDecodedToo() throws Exception {
+        AtomicReference<Exception> outcome = new AtomicReference<>(new IllegalStateException("not completed"));
+        CountDownLatch done = new CountDownLatch(1);
+        StreamingListener listener = mock(StreamingListener.class);
+
+        engine.stream(new HttpStreamRequest(uri("/fixed"), Map.of(), new byte[0]),
+                new ChatCompletionEventHandler(listener), failure -> {
+                    outcome.set(failure);
+                    done.countDown();
+                });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNull(outcome.get());
+        verify(listener).onTokenReceived("Hi");
+        verify(listener).onStreamComplete();
+    }
+
+    @Test
+    void rateLimitedStreamIsRetriedOnATimer() throws Exception {
+        failuresLeft.set(2);
+        LLMClient client = client("/flaky", new RetryPolicy(3, 10));
+        RecordingListener listener = new RecordingListener();
+
+        StreamHandle handle = client.sendStreamAsync(request("alice"), listener);
+
+        assertTrue(handle.await(5, TimeUnit.SECONDS));
+        assertNull(handle.getError());
+        assertEquals("ok", listener.tokens.toString());
+        assertEquals(-1, failuresLeft.get());
+    }
+
+    @Test
+    void errorStatusAndTruncatedBodiesFail() throws Exception {
+        failuresLeft.set(1);
+        LLMClient client = client("/flaky", new RetryPolicy(1, 1));
+        StreamHandle limited = client.sendStreamAsync(request("bob"), new RecordingListener());
+        assertTrue(limited.await(5, TimeUnit.SECONDS));
+        assertTrue(limited.getError() instanceof RateLimitException, String.valueOf(limited.getError()));
+        assertTrue(limited.getError().getMessage().contains("slow down"));
+
+        StreamHandle truncated = client("/truncated", new RetryPolicy(1, 1))
+                .sendStreamAsync(request("carol"), new RecordingListener());
+        assertTrue(truncated.await(5, TimeUnit.SECONDS));
+        assertTrue(truncated.getError().getCause() instanceof IOException, String.valueOf(truncated.getError()));
+    }
+
+    @Test
+    void cancellingClosesTheConnection() throws Exception {
+        LLMClient client = client("/hanging", new RetryPolicy(1, 1));
+        CountDownLatch firstToken = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onTokenReceived(String token) {
+                firstToken.countDown();
+            }
+        };
+
+        StreamHandle handle = client.sendStreamAsync(request("dave"), listener);
+        assertTrue(firstToken.await(5, TimeUnit.SECONDS));
+        assertTrue(handle.cancel());
+
+        assertTrue(handle.await(5, TimeUnit.SECONDS));
+        assertNull(handle.getError());
+        assertEquals(0, engine.getOpenStreams());
+    }
+
+    private LLMClient client(String path, RetryPolicy retryPolicy) throws IOException {
+        HttpStreamingProvider provider = mock(HttpStreamingProvider.class);
+        when(provider.getName()).thenReturn("local");
+        when(provider.streamRequest(any())).thenAnswer(invocation -> {
+            PromptRequest request = invocation.getArgument(0);
+            return new HttpStreamRequest(uri(path), Map.of("Content-Type", "text/plain"),
+                    request.getUser().getBytes(StandardCharsets.UTF_8));
+        });
+        when(provider.streamEventHandler(any()))
+                .thenAnswer(invocation -> new ChatCompletionEventHandler(invocation.getArgument(0)));
+        return LLMClient.builder()
+                .provider(provider)
+                .model("local-model")
+                .rateLimiter(new RateLimiter(10_000, 1000))
+                .retryPolicy(retryPolicy)
+                .streamExecutor(Executors.newFixedThreadPool(4))
+                .streamingEngine(engine)
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static PromptRequest request(String user) {
+        return PromptRequest.builder()
+                .model("local-model")
+                .messages(List.of(new Message("user", "hi")))
+                .user(user)
+                .build();
+    }
+
+    private static byte[] chunk(String token) {
+        String escaped = token.replace("\"", "\\\"");
+        return ("data: {\"choices\":[{\"delta\":{\"content\":\"" + escaped + "\"}}]}\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] both = new byte[a.length + b.length];
+        System.arraycopy(a, 0, both, 0, a.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    private static class RecordingListener implements StreamingListener {
+        final StringBuilder tokens = new StringBuilder();
+
+        @Override
+        public void onTokenReceived(String token) {
+            tokens.append(token);
+        }
+
+        @Override
+        public void onStart() {
+        }
+
+        @Override
+        public void onData(String chunk) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+
+        @Override
+        public void onError(Exception e) {
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+        }
+
+        @Override
+        public void onStreamComplete() {
+        }
+    }
+}
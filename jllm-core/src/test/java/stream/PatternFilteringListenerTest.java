@@ -0,0 +1,166 @@
+package stream;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.stream.match.AhoCorasickMatcher;
+import com.jllm.core.stream.match.PatternFilteringListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PatternFilteringListenerTest {
+
+    private final StringBuilder received = new StringBuilder();
+    private final StreamingListener listener = mock(StreamingListener.class);
+
+    PatternFilteringListenerTest() {
+        doAnswer(inv -> received.append((String) inv.getArgument(0)))
+                .when(listener).onTokenReceived(anyString());
+        doAnswer(inv -> received.append((CharSequence) inv.getArgument(0)))
+                .when(listener).onTokenChars(any());
+        when(listener.shouldContinue()).thenReturn(true);
+    }
+
+    @Test
+    void stopSequenceAcrossTokens_truncatesAndCompletes() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().stop("\nUser:").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*');
+
+        for (String token : new String[]{"Hello", " there\nU", "se", "r: ignored", "more"}) {
+            filter.onTokenReceived(token);
+        }
+
+        assertEquals("Hello there", received.toString());
+        assertTrue(filter.isStopped());
+        assertFalse(filter.shouldContinue());
+        verify(listener).onStreamComplete();
+
+        filter.onStreamComplete();
+        verify(listener, times(1)).onStreamComplete();
+    }
+
+    @Test
+    void redactionAcrossTokens_masked() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().redact("secret").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '#');
+
+        for (String token : new String[]{"my se", "cr", "et is sec", "ure"}) {
+            filter.onTokenReceived(token);
+        }
+        filter.onStreamComplete();
+
+        assertEquals("my ###### is secure", received.toString());
+    }
+
+    @Test
+    void overlappingPatterns_allMatchesMasked() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder()
+                .redact("she")
+                .redact("hers")
+                .stop("STOP")
+                .build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*');
+
+        filter.onTokenReceived("ushers ST");
+        filter.onTokenReceived("OP tail");
+
+        assertEquals("u***** ", received.toString());
+    }
+
+    @Test
+    void tokenWithoutPartialMatch_forwardedAsSameInstance() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().redact("xyz").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*');
+        String token = new String("hello");
+
+        filter.onTokenReceived(token);
+
+        verify(listener).onTokenReceived(same(token));
+    }
+
+    @Test
+    void heldBackPrefixReleasedAtEndOfStream() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().stop("END").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*');
+
+        filter.onTokenReceived("almost EN");
+        assertEquals("almost ", received.toString());
+
+        filter.onStreamComplete();
+        assertEquals("almost EN", received.toString());
+        verify(listener).onStreamComplete();
+    }
+
+    @Test
+    void stopMatch_stopsTheHandleInsteadOfCancellingIt() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().stop("END").build();
+        StreamHandle handle = new StreamHandle();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*', handle);
+
+        filter.onTokenReceived("done END");
+
+        assertTrue(handle.isStopped());
+        assertTrue(handle.isCancelled());                       // the connection is still released
+        assertEquals("done ", received.toString());
+    }
+
+    @Test
+    void logProbFollowsItsHeldBackTextUnchanged() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().stop("END").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '*');
+        LogProb held = new LogProb("E", -0.5, null);
+        LogProb dropped = new LogProb("ND", -0.1, null);
+
+        filter.onTokenReceived("go E");
+        filter.onLogProb(held);
+        verify(listener, never()).onLogProb(any());
+
+        filter.onTokenReceived("ast");
+        InOrder order = inOrder(listener);
+        order.verify(listener, times(2)).onTokenChars(any());
+        order.verify(listener).onLogProb(same(held));
+
+        filter.onTokenReceived(" E");
+        filter.onTokenReceived("ND");
+        filter.onLogProb(dropped);
+        verify(listener, never()).onLogProb(same(dropped));
+        assertEquals("go East ", received.toString());
+    }
+
+    @Test
+    void logProbTokenTextStrippedWhenRedacting() {
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.builder().redact("secret").build();
+        PatternFilteringListener filter = new PatternFilteringListener(listener, matcher, '#');
+
+        filter.onTokenReceived("a sec");
+        filter.onLogProb(new LogProb("sec", -0.3, null));
+        filter.onTokenReceived("ret");
+        filter.onLogProb(new LogProb("ret", -0.2, null));
+        filter.onStreamComplete();
+
+        InOrder order = inOrder(listener);
+        order.verify(listener, times(2)).onTokenChars(any());
+        order.verify(listener).onLogProb(new LogProb("", -0.3, null));
+        order.verify(listener).onLogProb(new LogProb("", -0.2, null));
+        assertEquals("a ######", received.toString());
+    }
+
+    @Test
+    void matcherBuiltOncePerStopSequenceSet() {
+        StreamOptions options = StreamOptions.builder().enforceStopSequences(true).build();
+
+        AhoCorasickMatcher first = options.matcherFor(List.of("END", "STOP"));
+
+        assertSame(first, options.matcherFor(new ArrayList<>(List.of("END", "STOP"))));
+        assertNotSame(first, options.matcherFor(List.of("END")));
+    }
+}
@@ -0,0 +1,117 @@
+package stream;
+
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.sse.ChatCompletionEventHandler;
+import com.jllm.core.stream.sse.SseDecoder;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SseDecoderTest {
+
+    @Test
+    void decodesEventsWhateverTheChunkBoundaries() throws IOException {
+        byte[] stream = (": keep-alive\n"
+                + "event: message\r\n"
+                + "data: first\r\n\r\n"
+                + "id: 7\rdata:second\rdata:  line two\r\r"
+                + "retry: 100\n\n"                               // no data, no event
+                + "data: h\u00e9llo\n\n"
+                + "data: unfinished").getBytes(StandardCharsets.UTF_8);
+        List<String> expected = List.of("first", "second\n line two", "h\u00e9llo");
+
+        for (int split = 0; split <= stream.length; split++) {
+            List<String> events = new ArrayList<>();
+            SseDecoder decoder = new SseDecoder((data, length) -> {
+                events.add(new String(data, 0, length, StandardCharsets.UTF_8));
+                return true;
+            });
+            decoder.feed(ByteBuffer.wrap(stream, 0, split));
+            decoder.feed(stream, split, stream.length - split);
+            assertEquals(expected, events, "split at " + split);
+        }
+    }
+
+    @Test
+    void handlerCanStopDecoding() throws IOException {
+        List<String> events = new ArrayList<>();
+        SseDecoder decoder = new SseDecoder((data, length) -> {
+            events.add(new String(data, 0, length, StandardCharsets.UTF_8));
+            return false;
+        });
+        ByteBuffer buffer = ByteBuffer.wrap("data: a\n\ndata: b\n\n".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(decoder.feed(buffer));
+        assertEquals(List.of("a"), events);
+        assertEquals(9, buffer.position());                      // the second event is left unread
+    }
+
+    @Test
+    void chatCompletionChunksBecomeListenerCallbacks() throws IOException {
+        String stream = chunk("{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"\"},"
+                + "\"finish_reason\":null}]}")
+                + chunk("{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hel\"},"
+                + "\"logprobs\":{\"content\":[{\"token\":\"Hel\",\"logprob\":-0.25,\"bytes\":[72,101,108],"
+                + "\"top_logprobs\":[{\"token\":\"Hel\",\"logprob\":-0.25},{\"token\":\"Hi\",\"logprob\":-1.5}]}]}}]}")
+                + chunk("{\"choices\":[{\"index\":0,\"delta\":{\"content\":\"lo \\\"w\\u00f6rld\\\"\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":null}")
+                + chunk("{\"choices\":[],\"usage\":{\"prompt_tokens\":9,\"completion_tokens\":2,\"total_tokens\":11}}")
+                + chunk("[DONE]");
+        StreamingListener listener = mock(StreamingListener.class);
+        ChatCompletionEventHandler events = new ChatCompletionEventHandler(listener);
+
+        new SseDecoder(events).readFrom(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(events.isDone());
+        assertEquals("stop", events.getFinishReason());
+        InOrder order = inOrder(listener);
+        order.verify(listener).onTokenReceived("Hel");
+        order.verify(listener).onLogProb(new LogProb("Hel", -0.25, List.of(-0.25, -1.5)));
+        order.verify(listener).onTokenReceived("lo \"w\u00f6rld\"");
+        order.verify(listener).onEnd();
+        ArgumentCaptor<PromptResponse> response = ArgumentCaptor.forClass(PromptResponse.class);
+        order.verify(listener).onStreamCompleted(response.capture(), isNull());
+        order.verify(listener).onStreamComplete();
+        verify(listener, times(2)).onTokenReceived(any());
+        assertEquals("Hello \"w\u00f6rld\"", response.getValue().getText());
+        assertEquals(new TokenUsage(9, 2, 11), response.getValue().getUsage());
+    }
+
+    @Test
+    void chunksWithoutSeparatingWhitespaceAndMidStreamErrors() throws IOException {
+        StreamingListener listener = mock(StreamingListener.class);
+        ChatCompletionEventHandler events = new ChatCompletionEventHandler(listener);
+        SseDecoder decoder = new SseDecoder(events);
+
+        decoder.feed(bytes(chunk("{\"choices\":[{\"text\":\"a\"}]}") + chunk("{\"choices\":[{\"text\":\"b\"}]}")));
+        verify(listener).onTokenReceived("a");
+        verify(listener).onTokenReceived("b");
+
+        IOException e = assertThrows(IOException.class,
+                () -> decoder.feed(bytes(chunk("{\"error\":{\"message\":\"overloaded\",\"type\":\"server_error\"}}"))));
+        assertTrue(e.getMessage().contains("overloaded"));
+        assertFalse(events.isDone());
+    }
+
+    private static String chunk(String json) {
+        return "data: " + json + "\n\n";
+    }
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
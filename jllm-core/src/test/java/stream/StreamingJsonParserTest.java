@@ -0,0 +1,103 @@
+package stream;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jllm.core.stream.json.JsonValueListener;
+import com.jllm.core.stream.json.StreamingJsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonParserTest {
+
+    private final List<String> pointers = new ArrayList<>();
+    private JsonNode completed;
+    private JsonNode incomplete;
+    private Exception incompleteError;
+
+    private final JsonValueListener listener = new JsonValueListener() {
+        @Override
+        public void onValue(JsonPointer pointer, JsonNode value) {
+            pointers.add(pointer.toString());
+        }
+
+        @Override
+        public void onComplete(JsonNode root) {
+            completed = root;
+        }
+
+        @Override
+        public void onIncomplete(JsonNode partialRoot, Exception error) {
+            incomplete = partialRoot;
+            incompleteError = error;
+        }
+    };
+
+    @Test
+    void arrayElementsReportedBeforeDocumentEnds() {
+        StreamingJsonParser parser = new StreamingJsonParser(listener);
+
+        for (String token : new String[]{"{\"it", "ems\": [{\"id\"", ": 1}", ", {\"id\": 2"}) {
+            parser.feed(token);
+        }
+
+        // The trailing number is still open: it could continue in the next token
+        assertEquals(List.of("/items/0/id", "/items/0"), pointers);
+        assertNull(completed);
+
+        parser.feed("}]}");
+        assertEquals(List.of("/items/0/id", "/items/0", "/items/1/id", "/items/1", "/items", ""), pointers);
+        assertEquals(2, completed.get("items").get(1).get("id").asInt());
+    }
+
+    @Test
+    void leadingProseAndTrailingFenceIgnored() {
+        StreamingJsonParser parser = new StreamingJsonParser(listener);
+
+        parser.feed("Sure! ```json\n");
+        parser.feed("[true, null, 1.5]");
+        parser.feed("\n```");
+        parser.finish();
+
+        assertNotNull(completed);
+        assertEquals(3, completed.size());
+        assertNull(incomplete);
+    }
+
+    @Test
+    void truncatedInputReportsPartialDocument() {
+        StreamingJsonParser parser = new StreamingJsonParser(listener);
+
+        parser.feed("{\"a\": \"x\", \"b\": [1, 2");
+        parser.finish();
+
+        assertNull(completed);
+        assertNull(incompleteError);
+        assertEquals("x", incomplete.get("a").asText());
+        assertEquals(1, incomplete.get("b").get(0).asInt());
+    }
+
+    @Test
+    void malformedInputStopsParsingAndKeepsClosedValues() {
+        StreamingJsonParser parser = new StreamingJsonParser(listener);
+
+        parser.feed("{\"a\": 1, \"b\": ]");
+
+        assertTrue(parser.isFinished());
+        assertNotNull(incompleteError);
+        assertEquals(1, incomplete.get("a").asInt());
+    }
+
+    @Test
+    void surrogatePairSplitAcrossTokensDecodedIntact() {
+        StreamingJsonParser parser = new StreamingJsonParser(listener);
+
+        parser.feed("{\"mood\": \"ok \uD83D");
+        parser.feed("\uDE00 caf\u00E9 \u2713\"}");
+
+        assertEquals("ok \uD83D\uDE00 caf\u00E9 \u2713", completed.get("mood").asText());
+    }
+}
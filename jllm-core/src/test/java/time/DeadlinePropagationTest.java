@@ -0,0 +1,179 @@
+package time;
+
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.DeadlineExceededException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.StreamOptions;
+import com.jllm.core.time.Deadline;
+import com.jllm.core.util.HttpUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DeadlinePropagationTest {
+
+    @Test
+    void expiredRequestIsDroppedBeforeTakingAPermit() throws Exception {
+        RateLimiter limiter = new RateLimiter(10, 1000);
+        Provider provider = mock(Provider.class);
+        LLMClient client = client(provider, limiter, new RetryPolicy(3, 1));
+
+        PromptRequest expired = request().deadline(Deadline.after(Duration.ZERO)).build();
+
+        assertThrows(DeadlineExceededException.class, () -> client.send(expired));
+        assertEquals(0, limiter.getRequestCount());
+        verify(provider, never()).execute(any());
+    }
+
+    @Test
+    void rateLimiterGivesUpWhenTheNextWindowOpensTooLate() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 10_000);
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void retryStopsWhenTheBackoffOutlastsTheBudget() throws Exception {
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenThrow(new IOException("503"));
+        LLMClient client = client(provider, new RateLimiter(1000, 1000), new RetryPolicy(5, 1000));
+
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> client.send(request().timeout(Duration.ofMillis(500)).build()));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(900));
+        verify(provider, times(1)).execute(any());
+    }
+
+    @Test
+    void httpReadFailsFastOnceTheDeadlinePasses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+            long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class,
+                    () -> HttpUtil.get(url, Deadline.after(Duration.ofMillis(100))));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamWithoutAFirstTokenIsExpired() throws Exception {
+        Provider provider = blockingProvider(0);
+        LLMClient client = client(provider, new RateLimiter(1000, 1000), new RetryPolicy(3, 1));
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+        StreamOptions options = StreamOptions.builder().firstTokenTimeout(Duration.ofMillis(50)).build();
+
+        DeadlineExceededException e = assertThrows(DeadlineExceededException.class,
+                () -> client.sendStream(request().build(), listener, options));
+
+        assertTrue(e.getMessage().contains("first token"), e.getMessage());
+        verify(listener).onError(any(DeadlineExceededException.class));
+        verify(listener, never()).onStreamCancelled(any());
+        verify(provider, times(1)).executeStream(any(), any(), any());
+    }
+
+    @Test
+    void stalledStreamIsExpiredAfterTheIdleTimeout() throws Exception {
+        Provider provider = blockingProvider(3);
+        LLMClient client = client(provider, new RateLimiter(1000, 1000), new RetryPolicy(3, 1));
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+        StreamOptions options = StreamOptions.builder()
+                .firstTokenTimeout(Duration.ofSeconds(5))
+                .idleTimeout(Duration.ofMillis(50))
+                .build();
+
+        StreamHandle handle = client.sendStreamAsync(request().build(), listener, options);
+
+        assertTrue(handle.await(5, TimeUnit.SECONDS));
+        assertTrue(handle.getError() instanceof DeadlineExceededException);
+        assertSame(handle.getExpiry(), handle.getError());
+        assertEquals(3, handle.getUsage().getCompletionTokens());
+    }
+
+    @Test
+    void defaultTimeoutAppliesToRequestsWithoutADeadline() throws Exception {
+        Provider provider = blockingProvider(1);
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("test-model")
+                .rateLimiter(new RateLimiter(1000, 1000))
+                .retryPolicy(new RetryPolicy(3, 1))
+                .defaultTimeout(Duration.ofMillis(100))
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        assertThrows(DeadlineExceededException.class, () -> client.sendStream(request().build(), listener));
+    }
+
+    private static LLMClient client(Provider provider, RateLimiter limiter, RetryPolicy retry) {
+        return LLMClient.builder()
+                .provider(provider)
+                .model("test-model")
+                .rateLimiter(limiter)
+                .retryPolicy(retry)
+                .build();
+    }
+
+    private static PromptRequest.Builder request() {
+        return PromptRequest.builder()
+                .model("ignored")
+                .messages(List.of(new Message("user", "hi")));
+    }
+
+    /**
+     * A provider that sends a few tokens and then stalls until the stream is cancelled.
+     */
+    private static Provider blockingProvider(int tokens) throws IOException {
+        Provider provider = mock(Provider.class);
+        doAnswer(inv -> {
+            StreamingListener listener = inv.getArgument(1);
+            StreamHandle handle = inv.getArgument(2);
+            CountDownLatch connection = new CountDownLatch(1);
+            handle.onCancel(connection::countDown);       // stands in for closing the socket
+            for (int i = 0; i < tokens; i++) {
+                listener.onTokenReceived("t" + i);
+            }
+            connection.await(5, TimeUnit.SECONDS);
+            throw new IOException("Socket closed");
+        }).when(provider).executeStream(any(), any(), any());
+        return provider;
+    }
+}
@@ -0,0 +1,169 @@
+package util;
+
+import com.jllm.core.metrics.MetricsRegistry;
+import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.util.HttpCompression;
+import com.jllm.core.util.HttpUtil;
+import com.jllm.core.util.JsonUtil;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpUtilTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+    private final AtomicReference<String> transferEncoding = new AtomicReference<>();
+    private final AtomicReference<String> contentEncoding = new AtomicReference<>();
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/complete", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            byte[] body = ("{\"id\":\"resp-1\",\"choices\":\"Bonjour \u00e0 vous\","
+                    + "\"usage\":{\"promptTokens\":3,\"completionTokens\":4,\"totalTokens\":7},"
+                    + "\"logprobs\":[{\"token\":\"Bonjour\",\"logProb\":-0.5,\"topLogProbs\":[-0.5]}]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            contentEncoding.set(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            requestBody.set(new String("gzip".equals(contentEncoding.get())
+                    ? new GZIPInputStream(new ByteArrayInputStream(raw)).readAllBytes()
+                    : raw, StandardCharsets.UTF_8));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(("{\"choices\":\"" + "ok ".repeat(2000) + "\",\"usage\":{\"promptTokens\":1,"
+                        + "\"completionTokens\":2000,\"totalTokens\":2001}}").getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        HttpUtil.setCompression(HttpCompression.defaults());
+        server.stop(0);
+    }
+
+    @Test
+    void postStreamsTheRequestAndParsesTheResponseInPlace() throws IOException {
+        PromptRequest request = PromptRequest.builder()
+                .model("m")
+                .messages(List.of(new Message("user", "Traduire \u00ab hello \u00bb")))
+                .build();
+
+        PromptResponse response = HttpUtil.post(url(), request, PromptResponse.class);
+
+        assertEquals("Bonjour \u00e0 vous", response.getText());
+        assertEquals(new TokenUsage(3, 4, 7), response.getUsage());
+        assertEquals(List.of(new LogProb("Bonjour", -0.5, List.of(-0.5))), response.getLogProbs());
+        assertNull(transferEncoding.get());                      // small enough for a Content-Length
+        assertEquals("gzip, deflate", acceptEncoding.get());
+        assertTrue(requestBody.get().contains("Traduire \u00ab hello \u00bb"), requestBody.get());
+        assertFalse(requestBody.get().contains("deadline"), requestBody.get());
+    }
+
+    @Test
+    void textResponsesAreDecodedAsUtf8() throws IOException {
+        String body = HttpUtil.post(url(), List.of("ping"));
+
+        assertTrue(body.contains("Bonjour \u00e0 vous"), body);
+        assertEquals("[\"ping\"]", requestBody.get());
+    }
+
+    @Test
+    void responsesRoundTripThroughTheSharedWriterAndReader() throws IOException {
+        PromptResponse original = new PromptResponse.Builder()
+                .text("h\u00e9llo")
+                .usage(new TokenUsage(1, 2, 3))
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JsonUtil.toJson(out, original);
+        PromptResponse copy = JsonUtil.fromJson(new ByteArrayInputStream(out.toByteArray()), PromptResponse.class);
+
+        assertEquals(original.getText(), copy.getText());
+        assertEquals(original.getUsage(), copy.getUsage());
+        assertSame(JsonUtil.reader(PromptResponse.class), JsonUtil.reader(PromptResponse.class));
+        assertSame(JsonUtil.writer(PromptResponse.class), JsonUtil.writer(PromptResponse.class));
+    }
+
+    @Test
+    void largeRequestsAreCompressedAndCompressedResponsesDecoded() throws IOException {
+        HttpUtil.setCompression(HttpCompression.builder()
+                .compressRequests(true)
+                .requestThreshold(4096)
+                .metrics(metrics)
+                .build());
+        PromptRequest large = PromptRequest.builder()
+                .model("m")
+                .messages(List.of(new Message("user", "Summarize: " + "lorem ipsum dolor ".repeat(1000))))
+                .build();
+
+        PromptResponse response = HttpUtil.post(url("/gzip"), large, PromptResponse.class);
+
+        assertEquals("ok ".repeat(2000), response.getText());
+        assertEquals("gzip", contentEncoding.get());
+        assertTrue(requestBody.get().contains("lorem ipsum dolor lorem"));
+        MetricsRegistry.CompressionSeries sent = metrics.getCompressionSeries("request", "gzip");
+        assertTrue(sent.getRawBytes() > 18_000, String.valueOf(sent.getRawBytes()));
+        assertTrue(sent.getRatio() < 0.1, String.valueOf(sent.getRatio()));
+        assertEquals(1, sent.getCodecTime().getCount());
+        MetricsRegistry.CompressionSeries received = metrics.getCompressionSeries("response", "gzip");
+        assertTrue(received.getRawBytes() > 6000 && received.getEncodedBytes() < 200);
+        assertTrue(metrics.scrape().contains(
+                "jllm_compression_bytes_total{direction=\"request\",encoding=\"gzip\",form=\"raw\"}"));
+    }
+
+    @Test
+    void requestsBelowTheThresholdAreSentAsIs() throws IOException {
+        HttpUtil.setCompression(HttpCompression.builder().compressRequests(true).metrics(metrics).build());
+
+        HttpUtil.post(url("/gzip"), List.of("short"), PromptResponse.class);
+
+        assertNull(contentEncoding.get());
+        assertEquals("[\"short\"]", requestBody.get());
+        assertNull(metrics.getCompressionSeries("request", "gzip"));
+    }
+
+    private String url() {
+        return url("/complete");
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
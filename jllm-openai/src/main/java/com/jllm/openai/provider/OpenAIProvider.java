@@ -1,27 +1,63 @@
 package com.jllm.openai.provider;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jllm.core.exception.AuthenticationException;
+import com.jllm.core.exception.RateLimitException;
 import com.jllm.core.model.LogProb;
+import com.jllm.core.model.Message;
 import com.jllm.core.model.PromptRequest;
 import com.jllm.core.model.PromptResponse;
 import com.jllm.core.model.TokenUsage;
-import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.HttpStreamingProvider;
 import com.jllm.core.retry.RetryPolicy;
 import com.jllm.core.provider.StreamingListener;
-
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.stream.nio.HttpStreamRequest;
+import com.jllm.core.stream.sse.ChatCompletionEventHandler;
+import com.jllm.core.stream.sse.SseDecoder;
+import com.jllm.core.util.JsonUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Demo Provider for OpenAI.
+ * Provider for OpenAI.
  * <p>
- * This class is a temporary implementation for demonstration purposes.
- * Replace with actual OpenAI API integration once implemented.
+ * Streaming requests go to the chat completions endpoint and are decoded as server-sent events by
+ * {@link SseDecoder} and {@link ChatCompletionEventHandler}, either on the calling thread or, through
+ * {@link HttpStreamingProvider}, on a {@link com.jllm.core.stream.nio.NioStreamingEngine}. Synchronous
+ * requests are still simulated for demonstration purposes.
  *
  * Author: @Noro
  */
-public class OpenAIProvider implements Provider {
+public class OpenAIProvider implements HttpStreamingProvider {
+
+    private static final String API_URL = "https://api.openai.com/v1/chat/completions";
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private final String apiUrl;
+    private volatile String authToken;
+
+    public OpenAIProvider() {
+        this(API_URL);
+    }
 
-    private static final String API_URL = "https://api.openai.com/v1/completions";
+    /**
+     * @param apiUrl The chat completions endpoint, e.g. of a proxy or a compatible server.
+     */
+    public OpenAIProvider(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
 
     /**
      * Sends a request to the LLM provider with the given prompt request.
@@ -53,7 +89,7 @@ public class OpenAIProvider implements Provider {
      */
     @Override
     public void setAuthToken(String token) {
-
+        this.authToken = token;
     }
 
     /**
@@ -63,7 +99,7 @@ public class OpenAIProvider implements Provider {
      */
     @Override
     public String getApiUrl() {
-        return null;
+        return apiUrl;
     }
 
     @Override
@@ -83,22 +119,119 @@ public class OpenAIProvider implements Provider {
     }
 
     @Override
-    public void executeStream(PromptRequest request, StreamingListener listener) {
-        // Simulated streaming for demo purposes
-        System.out.println("Starting streaming request to OpenAI with model: " + request.getModel());
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
 
-        String[] fakeStreamTokens = {"This", "is", "a", "streaming", "response", "from", "OpenAI"};
+    /**
+     * Streams a chat completion. Cancelling the handle closes the connection, which ends the read
+     * the calling thread is blocked on.
+     */
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty("Accept", "text/event-stream");
+        if (authToken != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + authToken);
+        }
+        connection.setConnectTimeout(request.getDeadline() != null
+                ? request.getDeadline().boundMillis(CONNECT_TIMEOUT_MILLIS)
+                : CONNECT_TIMEOUT_MILLIS);
+        connection.setDoOutput(true);
+        handle.onCancel(connection::disconnect);
+
+        byte[] body = streamRequestBody(request);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(body);
+        }
+        int status = connection.getResponseCode();
+        if (status < 200 || status >= 300) {
+            throw failure(status, connection);
+        }
 
-        for (String token : fakeStreamTokens) {
-            try {
-                Thread.sleep(500);  // Simulating network delay
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        listener.onStart();
+        ChatCompletionEventHandler events = new ChatCompletionEventHandler(listener);
+        try (InputStream in = connection.getInputStream()) {
+            new SseDecoder(events).readFrom(in);
+        }
+        if (!events.isDone() && !handle.isCancelled()) {
+            throw new IOException("Stream ended before the [DONE] event");
+        }
+    }
 
-            listener.onTokenReceived(token);
+    @Override
+    public HttpStreamRequest streamRequest(PromptRequest request) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("Accept", "text/event-stream");
+        if (authToken != null) {
+            headers.put("Authorization", "Bearer " + authToken);
         }
+        return new HttpStreamRequest(URI.create(apiUrl), headers, streamRequestBody(request));
+    }
+
+    @Override
+    public SseDecoder.EventHandler streamEventHandler(StreamingListener listener) throws IOException {
+        return new ChatCompletionEventHandler(listener);
+    }
 
-        listener.onStreamComplete();
+    /**
+     * Writes the chat completion request, asking for a stream with usage in its final chunk.
+     */
+    static byte[] streamRequestBody(PromptRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JsonUtil.mapper().getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("model", request.getModel());
+            json.writeArrayFieldStart("messages");
+            for (Message message : request.getMessages()) {
+                json.writeStartObject();
+                json.writeStringField("role", message.getRole());
+                json.writeStringField("content", message.getContent());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("temperature", request.getTemperature());
+            json.writeNumberField("max_tokens", request.getMaxTokens());
+            if (request.getStopSequences() != null && !request.getStopSequences().isEmpty()) {
+                json.writeArrayFieldStart("stop");
+                for (String stop : request.getStopSequences()) {
+                    json.writeString(stop);
+                }
+                json.writeEndArray();
+            }
+            if (request.getUser() != null) {
+                json.writeStringField("user", request.getUser());
+            }
+            if (request.isLogProbs()) {
+                json.writeBooleanField("logprobs", true);
+            }
+            json.writeBooleanField("stream", true);
+            json.writeObjectFieldStart("stream_options");
+            json.writeBooleanField("include_usage", true);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private static IOException failure(int status, HttpURLConnection connection) throws IOException {
+        String detail = "";
+        try (InputStream error = connection.getErrorStream()) {
+            if (error != null) {
+                detail = ": " + new String(error.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        if (status == 401) {
+            throw new AuthenticationException("OpenAI rejected the API key" + detail);
+        }
+        if (status == 429) {
+            throw new RateLimitException("OpenAI rate limit exceeded" + detail);
+        }
+        return new IOException("OpenAI stream failed with status code " + status + detail);
     }
 }
@@ -0,0 +1,100 @@
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.openai.provider.OpenAIProvider;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OpenAIProviderStreamTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            if (requestBody.get().contains("\"user\":\"flooder\"")) {
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String token : new String[]{"Hello", ",", " world"}) {
+                    out.write(("data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + token + "\"}}]}\n\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write(("data: {\"choices\":[],\"usage\":{\"prompt_tokens\":4,\"completion_tokens\":3,"
+                        + "\"total_tokens\":7}}\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsServerSentEventsToTheListener() throws IOException {
+        OpenAIProvider provider = new OpenAIProvider(url());
+        provider.setAuthToken("sk-test");
+        StreamingListener listener = mock(StreamingListener.class);
+
+        provider.executeStream(request("alice"), listener, new StreamHandle());
+
+        InOrder order = inOrder(listener);
+        order.verify(listener).onStart();
+        order.verify(listener).onTokenReceived("Hello");
+        order.verify(listener).onTokenReceived(",");
+        order.verify(listener).onTokenReceived(" world");
+        order.verify(listener).onStreamCompleted(argThat(r -> r.getText().equals("Hello, world")
+                && r.getUsage().getTotalTokens() == 7), isNull());
+        order.verify(listener).onStreamComplete();
+        assertEquals("Bearer sk-test", authorization.get());
+        assertTrue(requestBody.get().contains("\"stream\":true"), requestBody.get());
+        assertTrue(requestBody.get().contains("\"max_tokens\":256"), requestBody.get());
+    }
+
+    @Test
+    void rateLimitedStreamFailsWithRateLimitException() {
+        OpenAIProvider provider = new OpenAIProvider(url());
+
+        assertThrows(RateLimitException.class,
+                () -> provider.executeStream(request("flooder"), mock(StreamingListener.class), new StreamHandle()));
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    private static PromptRequest request(String user) {
+        return PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(new Message("user", "Say hello")))
+                .user(user)
+                .build();
+    }
+}
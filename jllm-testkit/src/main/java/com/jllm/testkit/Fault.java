@@ -0,0 +1,26 @@
+package com.jllm.testkit;
+
+/**
+ * Failures the {@link StandInServer} can inject into a chat completion instead of answering it.
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public enum Fault {
+
+    /**
+     * {@code 429 Too Many Requests} with a {@code retry-after} header, as sent when a rate limit is hit.
+     */
+    RATE_LIMIT,
+
+    /**
+     * {@code 500 Internal Server Error} with an OpenAI-style error body.
+     */
+    SERVER_ERROR,
+
+    /**
+     * The connection is dropped partway through the response body: the status line and headers have
+     * already been sent, so the client only notices when the body ends early.
+     */
+    CONNECTION_RESET
+}
@@ -0,0 +1,359 @@
+package com.jllm.testkit;
+
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.stream.ForwardingStreamingListener;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.time.TimeSource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Provider} decorator that delays calls and fails some of them, from a seeded schedule.
+ * <p>
+ * Every call first waits a latency drawn from the configured distribution; streams also wait between
+ * tokens. Then a {@link Fault} may be injected, at random with a probability per fault or in the order
+ * given to {@link #injectNext(Fault...)}:
+ * </p>
+ * <ul>
+ *     <li>{@link Fault#RATE_LIMIT} fails with {@link RateLimitException}, without latency, as a 429 arrives fast</li>
+ *     <li>{@link Fault#SERVER_ERROR} fails with {@link ProviderNotAvailableException}</li>
+ *     <li>{@link Fault#CONNECTION_RESET} fails with an {@link IOException}; a stream is cut off first, after
+ *     a random number of its tokens have been delivered and before it has completed</li>
+ * </ul>
+ * <p>
+ * Waits go through the {@link TimeSource}. With a {@link VirtualClock} shared with the client's rate
+ * limiter and retry policy, a simulation takes no real time and, for a given seed and call sequence,
+ * injects the same faults at the same virtual times on every run.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public class FaultInjectingProvider implements Provider {
+
+    private final Provider delegate;
+    private final TimeSource time;
+    private final LatencyDistribution latency;
+    private final LatencyDistribution interTokenLatency;
+    private final Map<Fault, Double> faultRates;
+    private final int maxPartialTokens;
+    private final Random random;
+
+    private final Queue<Fault> injected = new ConcurrentLinkedQueue<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final Map<Fault, AtomicLong> faults = new EnumMap<>(Fault.class);
+
+    private FaultInjectingProvider(Builder builder) {
+        this.delegate = builder.delegate;
+        this.time = builder.time;
+        this.latency = builder.latency;
+        this.interTokenLatency = builder.interTokenLatency;
+        this.faultRates = new EnumMap<>(builder.faultRates);
+        this.maxPartialTokens = builder.maxPartialTokens;
+        this.random = new Random(builder.seed);
+        for (Fault fault : Fault.values()) {
+            faults.put(fault, new AtomicLong());
+        }
+    }
+
+    /**
+     * Fails the next calls with the given faults, one each and in order, before falling back to the
+     * random fault rates.
+     */
+    public void injectNext(Fault... next) {
+        for (Fault fault : next) {
+            injected.add(Objects.requireNonNull(fault, "fault cannot be null"));
+        }
+    }
+
+    /**
+     * @return Calls of {@code execute} and {@code executeStream} so far, including failed ones.
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * @return How often the fault was injected so far.
+     */
+    public long getInjectedFaults(Fault fault) {
+        return faults.get(fault).get();
+    }
+
+    @Override
+    public PromptResponse execute(PromptRequest request) throws IOException {
+        Fault fault = begin();
+        if (fault == Fault.CONNECTION_RESET) {
+            throw new IOException("Connection reset (injected)");
+        }
+        return delegate.execute(request);
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener) throws IOException {
+        executeStream(request, listener, new StreamHandle());
+    }
+
+    @Override
+    public void executeStream(PromptRequest request, StreamingListener listener, StreamHandle handle)
+            throws IOException {
+        Fault fault = begin();
+        int cutAfter = fault == Fault.CONNECTION_RESET ? 1 + random.nextInt(maxPartialTokens) : Integer.MAX_VALUE;
+        FaultingListener faulting = new FaultingListener(listener, cutAfter);
+        try {
+            delegate.executeStream(request, faulting, handle);
+        } catch (UncheckedIOException e) {
+            if (faulting.reset) {
+                throw e.getCause();
+            }
+            throw e;
+        }
+        if (fault == Fault.CONNECTION_RESET) {
+            throw new IOException("Connection reset (injected) at the end of the stream");
+        }
+    }
+
+    /**
+     * Counts the call, picks its fault, and waits the latency unless the fault is a rate limit.
+     *
+     * @return The fault to inject later in the call, or null.
+     */
+    private Fault begin() throws IOException {
+        calls.incrementAndGet();
+        Fault fault = nextFault();
+        if (fault != null) {
+            faults.get(fault).incrementAndGet();
+        }
+        if (fault == Fault.RATE_LIMIT) {
+            throw new RateLimitException("Rate limit exceeded (injected)");
+        }
+        sleep(latency);
+        if (fault == Fault.SERVER_ERROR) {
+            throw new ProviderNotAvailableException("Server error (injected)");
+        }
+        return fault;
+    }
+
+    private Fault nextFault() {
+        Fault next = injected.poll();
+        if (next != null || faultRates.isEmpty()) {
+            return next;
+        }
+        double draw = random.nextDouble();
+        for (Map.Entry<Fault, Double> rate : faultRates.entrySet()) {
+            draw -= rate.getValue();
+            if (draw < 0) {
+                return rate.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void sleep(LatencyDistribution distribution) throws InterruptedIOException {
+        long nanos = distribution.sampleNanos(random);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            time.sleep(nanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted during injected latency");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * Paces the tokens and, for a reset, cuts the stream off after {@code cutAfter} of them. A stream
+     * that ends sooner loses its completion callbacks instead, so the caller never sees it complete.
+     */
+    private final class FaultingListener extends ForwardingStreamingListener {
+        private final int cutAfter;
+        private int delivered;
+        private boolean reset;
+
+        FaultingListener(StreamingListener delegate, int cutAfter) {
+            super(delegate);
+            this.cutAfter = cutAfter;
+        }
+
+        @Override
+        public void onTokenReceived(String token) {
+            if (delivered > 0) {
+                try {
+                    sleep(interTokenLatency);
+                } catch (InterruptedIOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (delivered++ == cutAfter) {
+                reset = true;
+                throw new UncheckedIOException(new IOException("Connection reset (injected) after "
+                        + cutAfter + " tokens"));
+            }
+            super.onTokenReceived(token);
+        }
+
+        @Override
+        public void onEnd() {
+            if (cutAfter == Integer.MAX_VALUE) {
+                super.onEnd();
+            }
+        }
+
+        @Override
+        public void onStreamCompleted(PromptResponse response, Exception error) {
+            if (cutAfter == Integer.MAX_VALUE) {
+                super.onStreamCompleted(response, error);
+            }
+        }
+
+        @Override
+        public void onStreamComplete() {
+            if (cutAfter == Integer.MAX_VALUE) {
+                super.onStreamComplete();
+            }
+        }
+    }
+
+    @Override
+    public PromptResponse sendRequest(PromptRequest promptRequest) {
+        return delegate.sendRequest(promptRequest);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean supportsModel(String model) {
+        return delegate.supportsModel(model);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public void setAuthToken(String token) {
+        delegate.setAuthToken(token);
+    }
+
+    @Override
+    public String getApiUrl() {
+        return delegate.getApiUrl();
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for FaultInjectingProvider.
+     */
+    public static final class Builder {
+        private Provider delegate;
+        private TimeSource time = TimeSource.system();
+        private LatencyDistribution latency = LatencyDistribution.none();
+        private LatencyDistribution interTokenLatency = LatencyDistribution.none();
+        private final Map<Fault, Double> faultRates = new EnumMap<>(Fault.class);
+        private int maxPartialTokens = 8;
+        private long seed;
+
+        /**
+         * The provider that answers the calls which are not failed (required).
+         */
+        public Builder delegate(Provider delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+            return this;
+        }
+
+        /**
+         * Where latency is waited out (default: real time). Pass a {@link VirtualClock} to simulate.
+         */
+        public Builder time(TimeSource time) {
+            this.time = Objects.requireNonNull(time, "time cannot be null");
+            return this;
+        }
+
+        /**
+         * Delay before every call is answered, or before the first token of a stream (default: none).
+         */
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = Objects.requireNonNull(latency, "latency cannot be null");
+            return this;
+        }
+
+        /**
+         * Delay between two tokens of a stream (default: none).
+         */
+        public Builder interTokenLatency(LatencyDistribution interTokenLatency) {
+            this.interTokenLatency = Objects.requireNonNull(interTokenLatency, "interTokenLatency cannot be null");
+            return this;
+        }
+
+        /**
+         * Probability with which a call fails with the fault (default: 0 for every fault).
+         */
+        public Builder faultRate(Fault fault, double probability) {
+            Objects.requireNonNull(fault, "fault cannot be null");
+            if (probability < 0 || probability > 1) {
+                throw new IllegalArgumentException("probability must be between 0 and 1");
+            }
+            faultRates.put(fault, probability);
+            return this;
+        }
+
+        /**
+         * A reset stream delivers between 1 and this many tokens first (default: 8).
+         */
+        public Builder maxPartialTokens(int maxPartialTokens) {
+            if (maxPartialTokens <= 0) {
+                throw new IllegalArgumentException("maxPartialTokens must be positive");
+            }
+            this.maxPartialTokens = maxPartialTokens;
+            return this;
+        }
+
+        /**
+         * Seed of the latencies and random faults (default: 0).
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public FaultInjectingProvider build() {
+            Objects.requireNonNull(delegate, "delegate is required");
+            double total = 0;
+            for (double rate : faultRates.values()) {
+                total += rate;
+            }
+            if (total > 1) {
+                throw new IllegalArgumentException("fault rates cannot add up to more than 1");
+            }
+            return new FaultInjectingProvider(this);
+        }
+    }
+}
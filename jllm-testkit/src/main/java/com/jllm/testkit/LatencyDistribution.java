@@ -0,0 +1,78 @@
+package com.jllm.testkit;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Distribution from which the {@link StandInServer} draws its delays.
+ * <p>
+ * Real endpoints are not {@code fixed}: their latency has a long right tail, which {@link #logNormal}
+ * reproduces from two easily measured points, the median and the 99th percentile.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draws the next delay.
+     *
+     * @param random The server's source of randomness, seeded for reproducible runs.
+     * @return The delay in nanoseconds, never negative.
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * @return No delay at all.
+     */
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    /**
+     * @return Always the same delay.
+     */
+    static LatencyDistribution fixed(Duration delay) {
+        long nanos = requireNonNegative(delay, "delay");
+        return random -> nanos;
+    }
+
+    /**
+     * @return A delay drawn uniformly between {@code min} and {@code max}.
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long low = requireNonNegative(min, "min");
+        long high = requireNonNegative(max, "max");
+        if (high < low) {
+            throw new IllegalArgumentException("max cannot be smaller than min");
+        }
+        return random -> low + (long) (random.nextDouble() * (high - low));
+    }
+
+    /**
+     * @param median The delay half of the draws stay below.
+     * @param p99    The delay 99% of the draws stay below.
+     * @return A log-normally distributed delay.
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        long mid = requireNonNegative(median, "median");
+        long tail = requireNonNegative(p99, "p99");
+        if (mid == 0 || tail < mid) {
+            throw new IllegalArgumentException("median must be positive and p99 at least the median");
+        }
+        double mu = Math.log(mid);
+        double sigma = (Math.log(tail) - mu) / 2.326348;      // z-score of the 99th percentile
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    private static long requireNonNegative(Duration duration, String name) {
+        Objects.requireNonNull(duration, name + " cannot be null");
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(name + " cannot be negative");
+        }
+        return duration.toNanos();
+    }
+}
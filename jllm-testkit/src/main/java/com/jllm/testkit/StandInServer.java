@@ -0,0 +1,758 @@
+package com.jllm.testkit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jllm.core.util.JsonUtil;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Embedded OpenAI-compatible endpoint for load and integration tests.
+ * <p>
+ * It answers {@code POST /v1/chat/completions}, either with a chat completion or, for {@code "stream": true},
+ * with server-sent chunks paced by the configured time to first token and tokens per second, followed by
+ * a usage chunk if {@code stream_options.include_usage} is set and {@code [DONE]}. {@code GET /v1/models}
+ * lists the single configured model. The answer is synthetic text of {@code max_tokens} tokens at most.
+ * Streams are written out by one pacer thread between their tokens, so the server holds thousands of
+ * slow streams open at once without a thread each.
+ * </p>
+ * <p>
+ * Failures are injected either at random, with a probability per {@link Fault}, or deterministically
+ * through {@link #injectNext(Fault...)}. An optional fixed-window rate limit answers with {@code 429} once
+ * exhausted and sends OpenAI's {@code x-ratelimit-*} headers on every completion.
+ * </p>
+ * <p>
+ * With a {@link Builder#prefixCache prefix cache}, the server stands in for one replica of a self-hosted
+ * inference fleet: it remembers the leading messages of the completions it served, as a KV prefix cache
+ * would, and counts how many requests found their prefix cached. Several servers then make up a fleet
+ * whose per-replica hit rates show how well a load balancer keeps shared prompts on the same replica.
+ * </p>
+ * <pre>
+ * try (StandInServer server = StandInServer.builder()
+ *         .timeToFirstToken(LatencyDistribution.logNormal(Duration.ofMillis(300), Duration.ofSeconds(2)))
+ *         .tokensPerSecond(80)
+ *         .faultRate(Fault.RATE_LIMIT, 0.02)
+ *         .build()) {
+ *     Provider provider = new OpenAIProvider(server.getCompletionsUrl());
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class StandInServer implements AutoCloseable {
+
+    private static final String[] WORDS = {"The", " quick", " brown", " fox", " jumps", " over", " the", " lazy", " dog", "."};
+
+    private final HttpServer server;
+    private final ExecutorService ownedExecutor;
+    private final ScheduledExecutorService pacer;
+    private final String model;
+    private final LatencyDistribution latency;
+    private final LatencyDistribution timeToFirstToken;
+    private final double tokensPerSecond;
+    private final int completionTokens;
+    private final Map<Fault, Double> faultRates;
+    private final int rateLimitRequests;
+    private final long rateLimitWindowNanos;
+    private final Random random;
+    private final int prefixMessages;
+    private final int prefixCapacity;
+
+    private final Queue<Fault> injected = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final Map<Fault, AtomicLong> faults = new EnumMap<>(Fault.class);
+    private final Object windowLock = new Object();
+    private long windowStart;
+    private int windowCount;
+    // Least recently used prefixes are evicted first, as in a KV cache under memory pressure
+    private final Map<String, Boolean> prefixes = new LinkedHashMap<>(16, 0.75f, true);
+    private long prefixHits;
+    private long prefixMisses;
+
+    private StandInServer(Builder builder) throws IOException {
+        this.model = builder.model;
+        this.latency = builder.latency;
+        this.timeToFirstToken = builder.timeToFirstToken;
+        this.tokensPerSecond = builder.tokensPerSecond;
+        this.completionTokens = builder.completionTokens;
+        this.faultRates = new EnumMap<>(builder.faultRates);
+        this.rateLimitRequests = builder.rateLimitRequests;
+        this.rateLimitWindowNanos = builder.rateLimitWindow.toNanos();
+        this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+        this.prefixMessages = builder.prefixMessages;
+        this.prefixCapacity = builder.prefixCapacity;
+        for (Fault fault : Fault.values()) {
+            faults.put(fault, new AtomicLong());
+        }
+        this.windowStart = System.nanoTime();
+
+        pacer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "jllm-testkit-pacer");
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", builder.port), builder.backlog);
+        ownedExecutor = builder.executor == null ? daemonPool() : null;
+        server.setExecutor(builder.executor != null ? builder.executor : ownedExecutor);
+        server.createContext("/v1/chat/completions", this::completions);
+        server.createContext("/v1/models", this::models);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return The base URL, e.g. {@code http://127.0.0.1:54321/v1}.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort() + "/v1";
+    }
+
+    /**
+     * @return The chat completions endpoint, as passed to an OpenAI provider.
+     */
+    public String getCompletionsUrl() {
+        return getBaseUrl() + "/chat/completions";
+    }
+
+    /**
+     * Answers the next completions with the given faults, one each and in order, before falling back
+     * to the random fault rates.
+     */
+    public void injectNext(Fault... next) {
+        for (Fault fault : next) {
+            injected.add(Objects.requireNonNull(fault, "fault cannot be null"));
+        }
+    }
+
+    /**
+     * @return Completion requests received so far, including rejected ones.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return How often the fault was injected so far; rate-limit rejections count as {@link Fault#RATE_LIMIT}.
+     */
+    public long getInjectedFaults(Fault fault) {
+        return faults.get(fault).get();
+    }
+
+    /**
+     * @return Served completions whose leading messages were in the prefix cache.
+     */
+    public synchronized long getPrefixHits() {
+        return prefixHits;
+    }
+
+    /**
+     * @return Served completions whose leading messages were not in the prefix cache.
+     */
+    public synchronized long getPrefixMisses() {
+        return prefixMisses;
+    }
+
+    /**
+     * @return The share of served completions that hit the prefix cache, or 0 if none were served.
+     */
+    public synchronized double getPrefixHitRate() {
+        long total = prefixHits + prefixMisses;
+        return total == 0 ? 0 : (double) prefixHits / total;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        pacer.shutdownNow();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private void completions(HttpExchange exchange) throws IOException {
+        boolean streaming = false;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "invalid_request_error", "Method not allowed");
+                return;
+            }
+            requests.incrementAndGet();
+            JsonNode body;
+            try {
+                body = JsonUtil.mapper().readTree(requestBody(exchange));
+            } catch (IOException e) {
+                sendError(exchange, 400, "invalid_request_error", "Request body is not valid JSON");
+                return;
+            }
+            if (body == null || !body.path("messages").isArray()) {
+                sendError(exchange, 400, "invalid_request_error", "'messages' is required");
+                return;
+            }
+
+            long retryAfterNanos = admit(exchange.getResponseHeaders());
+            Fault fault = retryAfterNanos > 0 ? Fault.RATE_LIMIT : nextFault();
+            if (fault != null) {
+                faults.get(fault).incrementAndGet();
+            }
+            if (fault == Fault.RATE_LIMIT) {
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+                exchange.getResponseHeaders().set("retry-after", String.valueOf(seconds));
+                sendError(exchange, 429, "rate_limit_exceeded", "Rate limit reached for requests");
+                return;
+            }
+            if (fault == Fault.SERVER_ERROR) {
+                sendError(exchange, 500, "server_error", "The server had an error while processing your request.");
+                return;
+            }
+
+            if (prefixMessages > 0) {
+                lookUpPrefix(body.path("messages"));
+            }
+            int tokens = Math.max(1, Math.min(completionTokens, body.path("max_tokens").asInt(completionTokens)));
+            int promptTokens = promptTokens(body.path("messages"));
+            boolean reset = fault == Fault.CONNECTION_RESET;
+            if (body.path("stream").asBoolean(false)) {
+                stream(exchange, tokens, promptTokens, body.path("stream_options").path("include_usage").asBoolean(false), reset);
+                streaming = true;
+            } else {
+                complete(exchange, tokens, promptTokens, reset);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!streaming) {
+                exchange.close();                                // a stream closes itself once paced out
+            }
+        }
+    }
+
+    private void complete(HttpExchange exchange, int tokens, int promptTokens, boolean reset)
+            throws IOException, InterruptedException {
+        long delay = latency != null
+                ? latency.sampleNanos(random)
+                : timeToFirstToken.sampleNanos(random) + interTokenNanos() * (tokens - 1);
+        sleepNanos(delay);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(WORDS[i % WORDS.length]);
+        }
+        byte[] json = json(out -> {
+            out.writeStartObject();
+            out.writeStringField("id", "chatcmpl-" + requests.get());
+            out.writeStringField("object", "chat.completion");
+            out.writeNumberField("created", System.currentTimeMillis() / 1000);
+            out.writeStringField("model", model);
+            out.writeArrayFieldStart("choices");
+            out.writeStartObject();
+            out.writeNumberField("index", 0);
+            out.writeObjectFieldStart("message");
+            out.writeStringField("role", "assistant");
+            out.writeStringField("content", text.toString());
+            out.writeEndObject();
+            out.writeStringField("finish_reason", tokens < completionTokens ? "length" : "stop");
+            out.writeEndObject();
+            out.writeEndArray();
+            writeUsage(out, promptTokens, tokens);
+            out.writeEndObject();
+        });
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, json.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(json, 0, reset ? json.length / 2 : json.length);
+        out.flush();
+        if (reset) {
+            drop(exchange);
+        }
+    }
+
+    private void stream(HttpExchange exchange, int tokens, int promptTokens, boolean includeUsage, boolean reset)
+            throws IOException {
+        String id = "chatcmpl-" + requests.get();
+        long created = System.currentTimeMillis() / 1000;
+        List<byte[]> events = new ArrayList<>(tokens + 3);
+        for (int i = 0; i < tokens; i++) {
+            String word = WORDS[i % WORDS.length];
+            boolean first = i == 0;
+            events.add(event(json(out -> {
+                writeChunkHead(out, id, created);
+                out.writeArrayFieldStart("choices");
+                out.writeStartObject();
+                out.writeNumberField("index", 0);
+                out.writeObjectFieldStart("delta");
+                if (first) {
+                    out.writeStringField("role", "assistant");
+                }
+                out.writeStringField("content", word);
+                out.writeEndObject();
+                out.writeNullField("finish_reason");
+                out.writeEndObject();
+                out.writeEndArray();
+                out.writeEndObject();
+            })));
+        }
+        String finishReason = tokens < completionTokens ? "length" : "stop";
+        events.add(event(json(out -> {
+            writeChunkHead(out, id, created);
+            out.writeArrayFieldStart("choices");
+            out.writeStartObject();
+            out.writeNumberField("index", 0);
+            out.writeObjectFieldStart("delta");
+            out.writeEndObject();
+            out.writeStringField("finish_reason", finishReason);
+            out.writeEndObject();
+            out.writeEndArray();
+            out.writeEndObject();
+        })));
+        if (includeUsage) {
+            events.add(event(json(out -> {
+                writeChunkHead(out, id, created);
+                out.writeArrayFieldStart("choices");
+                out.writeEndArray();
+                writeUsage(out, promptTokens, tokens);
+                out.writeEndObject();
+            })));
+        }
+        events.add(event("[DONE]".getBytes(StandardCharsets.UTF_8)));
+
+        // A reset needs a declared length to fall short of; a chunked body would end cleanly on close
+        long length = 0;
+        for (byte[] event : events) {
+            length += event.length;
+        }
+        int sent = reset ? Math.max(1, tokens / 2) : events.size();
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/event-stream");
+        headers.set("Cache-Control", "no-cache");
+        PacedStream paced = new PacedStream(exchange, events, sent, tokens, reset ? length : 0, reset);
+        pacer.schedule(paced, timeToFirstToken.sampleNanos(random), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Writes a stream's events on the pacer thread, one per inter-token gap, and reschedules itself in
+     * between instead of sleeping, so that an open stream holds no thread.
+     */
+    private final class PacedStream implements Runnable {
+        private final HttpExchange exchange;
+        private final List<byte[]> events;
+        private final int sent;
+        private final int tokens;
+        private final long length;
+        private final boolean reset;
+        private int next;
+
+        PacedStream(HttpExchange exchange, List<byte[]> events, int sent, int tokens, long length, boolean reset) {
+            this.exchange = exchange;
+            this.events = events;
+            this.sent = sent;
+            this.tokens = tokens;
+            this.length = length;
+            this.reset = reset;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (next == 0) {
+                    exchange.sendResponseHeaders(200, length);
+                }
+                OutputStream out = exchange.getResponseBody();
+                long interToken = interTokenNanos();
+                // Tokens after the first wait one gap each; the closing chunks follow the last token at once
+                do {
+                    out.write(events.get(next++));
+                } while (next < sent && (interToken == 0 || next >= tokens));
+                out.flush();
+                if (next < sent) {
+                    pacer.schedule(this, interToken, TimeUnit.NANOSECONDS);
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                drop(exchange);                                  // the client went away
+                return;
+            }
+            if (reset) {
+                drop(exchange);
+            } else {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the exchange short of its declared length, which makes the server close the connection.
+     * The JDK server cannot send a TCP reset, but to the client both look the same: the body ends early.
+     */
+    private static void drop(HttpExchange exchange) {
+        try {
+            exchange.close();
+        } catch (RuntimeException ignored) {
+            // the server complains about the missing bytes, which is the point
+        }
+    }
+
+    private void models(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] json = json(out -> {
+                out.writeStartObject();
+                out.writeStringField("object", "list");
+                out.writeArrayFieldStart("data");
+                out.writeStartObject();
+                out.writeStringField("id", model);
+                out.writeStringField("object", "model");
+                out.writeStringField("owned_by", "jllm-testkit");
+                out.writeEndObject();
+                out.writeEndArray();
+                out.writeEndObject();
+            });
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+        }
+    }
+
+    /**
+     * Counts the request against the rate-limit window and sets the {@code x-ratelimit-*} headers.
+     *
+     * @return 0 if admitted, otherwise the time until the window resets.
+     */
+    private long admit(Headers headers) {
+        if (rateLimitRequests <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int remaining;
+        long resetNanos;
+        boolean admitted;
+        synchronized (windowLock) {
+            if (now - windowStart >= rateLimitWindowNanos) {
+                windowStart = now;
+                windowCount = 0;
+            }
+            admitted = windowCount < rateLimitRequests;
+            if (admitted) {
+                windowCount++;
+            }
+            remaining = rateLimitRequests - windowCount;
+            resetNanos = Math.max(1, windowStart + rateLimitWindowNanos - now);
+        }
+        headers.set("x-ratelimit-limit-requests", String.valueOf(rateLimitRequests));
+        headers.set("x-ratelimit-remaining-requests", String.valueOf(remaining));
+        headers.set("x-ratelimit-reset-requests", TimeUnit.NANOSECONDS.toMillis(resetNanos) + "ms");
+        return admitted ? 0 : resetNanos;
+    }
+
+    /**
+     * Counts a hit if the leading messages were served before, and caches them.
+     */
+    private synchronized void lookUpPrefix(JsonNode messages) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < Math.min(prefixMessages, messages.size()); i++) {
+            JsonNode message = messages.get(i);
+            key.append(message.path("role").asText()).append('\u0000')
+                    .append(message.path("content").asText()).append('\u0001');
+        }
+        if (prefixes.put(key.toString(), Boolean.TRUE) != null) {
+            prefixHits++;
+            return;
+        }
+        prefixMisses++;
+        if (prefixes.size() > prefixCapacity) {
+            prefixes.remove(prefixes.keySet().iterator().next());
+        }
+    }
+
+    private Fault nextFault() {
+        Fault next = injected.poll();
+        if (next != null || faultRates.isEmpty()) {
+            return next;
+        }
+        double draw = random.nextDouble();
+        for (Map.Entry<Fault, Double> rate : faultRates.entrySet()) {
+            draw -= rate.getValue();
+            if (draw < 0) {
+                return rate.getKey();
+            }
+        }
+        return null;
+    }
+
+    private long interTokenNanos() {
+        return tokensPerSecond > 0 ? (long) (1_000_000_000L / tokensPerSecond) : 0;
+    }
+
+    private static InputStream requestBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        return encoding != null && encoding.toLowerCase().contains("gzip") ? new GZIPInputStream(in) : in;
+    }
+
+    /**
+     * Roughly four characters per token, which is close enough for usage accounting in tests.
+     */
+    private static int promptTokens(JsonNode messages) {
+        int chars = 0;
+        for (JsonNode message : messages) {
+            chars += message.path("content").asText("").length();
+        }
+        return Math.max(1, chars / 4);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String type, String message) throws IOException {
+        byte[] json = json(out -> {
+            out.writeStartObject();
+            out.writeObjectFieldStart("error");
+            out.writeStringField("message", message);
+            out.writeStringField("type", type);
+            out.writeEndObject();
+            out.writeEndObject();
+        });
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        exchange.getResponseBody().write(json);
+    }
+
+    private static void writeChunkHead(JsonGenerator out, String id, long created) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("id", id);
+        out.writeStringField("object", "chat.completion.chunk");
+        out.writeNumberField("created", created);
+    }
+
+    private static void writeUsage(JsonGenerator out, int promptTokens, int completionTokens) throws IOException {
+        out.writeObjectFieldStart("usage");
+        out.writeNumberField("prompt_tokens", promptTokens);
+        out.writeNumberField("completion_tokens", completionTokens);
+        out.writeNumberField("total_tokens", promptTokens + completionTokens);
+        out.writeEndObject();
+    }
+
+    private static byte[] event(byte[] data) {
+        byte[] event = new byte[data.length + 8];
+        System.arraycopy("data: ".getBytes(StandardCharsets.US_ASCII), 0, event, 0, 6);
+        System.arraycopy(data, 0, event, 6, data.length);
+        event[event.length - 2] = '\n';
+        event[event.length - 1] = '\n';
+        return event;
+    }
+
+    private static byte[] json(JsonWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JsonUtil.mapper().getFactory().createGenerator(out)) {
+            writer.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private static ExecutorService daemonPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "jllm-testkit-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    /**
+     * Create a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for StandInServer.
+     */
+    public static final class Builder {
+        private int port;
+        private int backlog;
+        private ExecutorService executor;
+        private String model = "gpt-4o-mini";
+        private LatencyDistribution latency;
+        private LatencyDistribution timeToFirstToken = LatencyDistribution.none();
+        private double tokensPerSecond;
+        private int completionTokens = 16;
+        private final Map<Fault, Double> faultRates = new EnumMap<>(Fault.class);
+        private int rateLimitRequests;
+        private Duration rateLimitWindow = Duration.ofMinutes(1);
+        private Long seed;
+        private int prefixMessages;
+        private int prefixCapacity;
+
+        /**
+         * Port on the loopback interface (default: 0, any free port).
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Accept backlog of the listening socket (default: 0, the system default).
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Executor the exchanges run on, one task per request (default: a cached pool of daemon threads,
+         * shut down with the server). A non-streamed completion holds its task for its whole latency; a
+         * stream only until its events are built, after which a single pacer thread writes them out.
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+            return this;
+        }
+
+        /**
+         * Model reported in responses and by {@code /v1/models} (default: gpt-4o-mini).
+         */
+        public Builder model(String model) {
+            this.model = Objects.requireNonNull(model, "model cannot be null");
+            return this;
+        }
+
+        /**
+         * Delay before a non-streamed completion is answered (default: the time to first token plus one
+         * inter-token gap per further token, as a real server would take to generate it).
+         */
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = Objects.requireNonNull(latency, "latency cannot be null");
+            return this;
+        }
+
+        /**
+         * Delay before a stream's headers and first chunk are sent (default: none).
+         */
+        public Builder timeToFirstToken(LatencyDistribution timeToFirstToken) {
+            this.timeToFirstToken = Objects.requireNonNull(timeToFirstToken, "timeToFirstToken cannot be null");
+            return this;
+        }
+
+        /**
+         * Pace of the streamed tokens after the first one (default: 0, as fast as possible).
+         */
+        public Builder tokensPerSecond(double tokensPerSecond) {
+            if (tokensPerSecond < 0) {
+                throw new IllegalArgumentException("tokensPerSecond cannot be negative");
+            }
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        /**
+         * Tokens in every answer, unless the request's {@code max_tokens} is smaller (default: 16).
+         */
+        public Builder completionTokens(int completionTokens) {
+            if (completionTokens <= 0) {
+                throw new IllegalArgumentException("completionTokens must be positive");
+            }
+            this.completionTokens = completionTokens;
+            return this;
+        }
+
+        /**
+         * Probability with which a completion fails with the fault (default: 0 for every fault).
+         */
+        public Builder faultRate(Fault fault, double probability) {
+            Objects.requireNonNull(fault, "fault cannot be null");
+            if (probability < 0 || probability > 1) {
+                throw new IllegalArgumentException("probability must be between 0 and 1");
+            }
+            faultRates.put(fault, probability);
+            return this;
+        }
+
+        /**
+         * Admit at most {@code requests} completions per fixed window and answer the rest with {@code 429}
+         * (default: unlimited).
+         */
+        public Builder rateLimit(int requests, Duration window) {
+            Objects.requireNonNull(window, "window cannot be null");
+            if (requests <= 0 || window.isZero() || window.isNegative()) {
+                throw new IllegalArgumentException("requests and window must be positive");
+            }
+            this.rateLimitRequests = requests;
+            this.rateLimitWindow = window;
+            return this;
+        }
+
+        /**
+         * Emulate a KV prefix cache holding the leading {@code prefixMessages} messages of the last
+         * {@code capacity} distinct prompts served, and count its hits (default: none).
+         */
+        public Builder prefixCache(int prefixMessages, int capacity) {
+            if (prefixMessages <= 0 || capacity <= 0) {
+                throw new IllegalArgumentException("prefixMessages and capacity must be positive");
+            }
+            this.prefixMessages = prefixMessages;
+            this.prefixCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Seed of the delays and random faults, for reproducible runs (default: random).
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @throws IOException If the port cannot be bound.
+         */
+        public StandInServer build() throws IOException {
+            double total = 0;
+            for (double rate : faultRates.values()) {
+                total += rate;
+            }
+            if (total > 1) {
+                throw new IllegalArgumentException("fault rates cannot add up to more than 1");
+            }
+            return new StandInServer(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.jllm.testkit;
+
+import com.jllm.core.time.TimeSource;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TimeSource} whose time only moves when someone sleeps on it or {@link #advance advances} it.
+ * <p>
+ * Sleeping returns at once, with the clock moved forward by the sleep. Handed to the rate limiter, the
+ * retry policy and a {@link FaultInjectingProvider}, it turns every wait of a simulated request into
+ * a clock update, so a single thread can replay hours of traffic in seconds, and the virtual time it
+ * took is the same on every run. Throughput and latency are then read off the clock.
+ * </p>
+ * <p>
+ * The clock is thread-safe, but it has one timeline: concurrent sleepers each push it forward instead of
+ * waiting side by side. Simulations that depend on overlapping requests should drive them from one thread.
+ * </p>
+ *
+ * @author @Noro
+ * @version 1.0
+ */
+public final class VirtualClock implements TimeSource {
+
+    private final long epochMillis;
+    private final AtomicLong nanos = new AtomicLong();
+
+    /**
+     * A clock starting at 2024-01-01T00:00:00Z.
+     */
+    public VirtualClock() {
+        this(1_704_067_200_000L);
+    }
+
+    /**
+     * @param epochMillis The wall-clock time at which the clock starts, in milliseconds since the epoch.
+     */
+    public VirtualClock(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return epochMillis + TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    /**
+     * Moves the clock forward by the duration instead of blocking.
+     *
+     * @throws InterruptedException if the thread was interrupted, as a real sleep would.
+     */
+    @Override
+    public void sleep(long duration, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (duration > 0) {
+            nanos.addAndGet(unit.toNanos(duration));
+        }
+    }
+
+    /**
+     * Moves the clock forward, e.g. to let a rate-limit window pass between two requests.
+     */
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("duration cannot be negative");
+        }
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    /**
+     * @return The virtual time that has passed since the clock was created.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(nanos.get());
+    }
+}
@@ -0,0 +1,184 @@
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.exception.ProviderNotAvailableException;
+import com.jllm.core.exception.RateLimitException;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.model.PromptResponse;
+import com.jllm.core.model.TokenUsage;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.testkit.Fault;
+import com.jllm.testkit.FaultInjectingProvider;
+import com.jllm.testkit.LatencyDistribution;
+import com.jllm.testkit.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FaultInjectionTest {
+
+    private static final PromptRequest REQUEST = PromptRequest.builder()
+            .model("m")
+            .messages(List.of(new Message("user", "hi")))
+            .build();
+
+    @Test
+    void rateLimiterOnAVirtualClockPacesWithoutSleeping() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        RateLimiter limiter = new RateLimiter(10, 1000, clock);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            limiter.acquire();
+        }
+        long realMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(999, clock.elapsed().getSeconds(), 2);
+        assertTrue(realMillis < 5_000, realMillis + " ms");
+    }
+
+    @Test
+    void sameSeedGivesTheSameRunInVirtualTime() throws InterruptedException, IOException {
+        Run first = simulate(42);
+        Run second = simulate(42);
+        Run other = simulate(7);
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertTrue(first.serverErrors > 0 && first.rateLimits > 0, first.toString());
+        assertTrue(first.calls > 2_000, first.toString());
+        // 2000 sends under 50 permits/s, each waiting a latency of ~50 ms plus backoffs
+        assertTrue(first.elapsed.compareTo(Duration.ofSeconds(39)) > 0, first.toString());
+    }
+
+    @Test
+    void resetCutsAStreamOffAfterSomeTokens() throws IOException {
+        FaultInjectingProvider provider = FaultInjectingProvider.builder()
+                .delegate(echo(20))
+                .maxPartialTokens(5)
+                .seed(1)
+                .build();
+        provider.injectNext(Fault.CONNECTION_RESET);
+        StreamingListener listener = mock(StreamingListener.class);
+
+        IOException reset = assertThrows(IOException.class,
+                () -> provider.executeStream(REQUEST, listener, new StreamHandle()));
+
+        assertTrue(reset.getMessage().contains("Connection reset"), reset.getMessage());
+        verify(listener, atLeast(1)).onTokenReceived(anyString());
+        verify(listener, atMost(5)).onTokenReceived(anyString());
+        verify(listener, never()).onEnd();
+        verify(listener, never()).onStreamCompleted(any(), any());
+        verify(listener, never()).onStreamComplete();
+        assertEquals(1, provider.getInjectedFaults(Fault.CONNECTION_RESET));
+    }
+
+    @Test
+    void injectedFaultsMapToTheClientsExceptions() throws IOException {
+        FaultInjectingProvider provider = FaultInjectingProvider.builder()
+                .delegate(echo(3))
+                .build();
+        provider.injectNext(Fault.RATE_LIMIT, Fault.SERVER_ERROR, Fault.CONNECTION_RESET);
+
+        assertThrows(RateLimitException.class, () -> provider.execute(REQUEST));
+        assertThrows(ProviderNotAvailableException.class, () -> provider.execute(REQUEST));
+        assertThrows(IOException.class, () -> provider.execute(REQUEST));
+        assertDoesNotThrow(() -> provider.execute(REQUEST));
+        assertEquals(4, provider.getCallCount());
+    }
+
+    private static Run simulate(long seed) throws InterruptedException, IOException {
+        VirtualClock clock = new VirtualClock();
+        FaultInjectingProvider provider = FaultInjectingProvider.builder()
+                .delegate(echo(3))
+                .time(clock)
+                .latency(LatencyDistribution.logNormal(Duration.ofMillis(50), Duration.ofMillis(400)))
+                .faultRate(Fault.SERVER_ERROR, 0.05)
+                .faultRate(Fault.RATE_LIMIT, 0.05)
+                .seed(seed)
+                .build();
+        LLMClient client = LLMClient.builder()
+                .provider(provider)
+                .model("m")
+                .rateLimiter(new RateLimiter(50, 1000, clock))
+                .retryPolicy(new RetryPolicy(3, 100, clock))
+                .build();
+
+        int failed = 0;
+        for (int i = 0; i < 2_000; i++) {
+            try {
+                client.send(REQUEST);
+            } catch (IOException | RuntimeException e) {
+                failed++;
+            }
+        }
+        return new Run(clock.elapsed(), provider.getCallCount(), failed,
+                provider.getInjectedFaults(Fault.SERVER_ERROR), provider.getInjectedFaults(Fault.RATE_LIMIT));
+    }
+
+    private static final class Run {
+        final Duration elapsed;
+        final long calls;
+        final int failed;
+        final long serverErrors;
+        final long rateLimits;
+
+        Run(Duration elapsed, long calls, int failed, long serverErrors, long rateLimits) {
+            this.elapsed = elapsed;
+            this.calls = calls;
+            this.failed = failed;
+            this.serverErrors = serverErrors;
+            this.rateLimits = rateLimits;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Run)) {
+                return false;
+            }
+            Run other = (Run) o;
+            return elapsed.equals(other.elapsed) && calls == other.calls && failed == other.failed
+                    && serverErrors == other.serverErrors && rateLimits == other.rateLimits;
+        }
+
+        @Override
+        public int hashCode() {
+            return elapsed.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "elapsed=" + elapsed + " calls=" + calls + " failed=" + failed
+                    + " serverErrors=" + serverErrors + " rateLimits=" + rateLimits;
+        }
+    }
+
+    /**
+     * A provider that answers at once with {@code tokens} tokens.
+     */
+    private static Provider echo(int tokens) throws IOException {
+        PromptResponse response = new PromptResponse.Builder().text("ok").usage(new TokenUsage(1, tokens, 1 + tokens)).build();
+        Provider provider = mock(Provider.class);
+        when(provider.execute(any())).thenReturn(response);
+        doAnswer(invocation -> {
+            StreamingListener listener = invocation.getArgument(1);
+            listener.onStart();
+            for (int i = 0; i < tokens; i++) {
+                listener.onTokenReceived("t" + i);
+            }
+            listener.onEnd();
+            listener.onStreamCompleted(response, null);
+            listener.onStreamComplete();
+            return null;
+        }).when(provider).executeStream(any(), any(), any());
+        return provider;
+    }
+}
@@ -0,0 +1,95 @@
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.Provider;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.routing.PrefixAffinityProvider;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.openai.provider.OpenAIProvider;
+import com.jllm.testkit.StandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PrefixAffinityFleetTest {
+
+    private static final int REPLICAS = 4;
+    private static final int SYSTEM_PROMPTS = 8;
+    private static final int REQUESTS = 80;
+
+    private final List<StandInServer> fleet = new ArrayList<>();
+    private final StreamingListener listener = mock(StreamingListener.class);
+
+    @AfterEach
+    void stopFleet() {
+        for (StandInServer server : fleet) {
+            server.close();
+        }
+    }
+
+    @Test
+    void sharedPrefixesStayOnOneReplica() throws IOException {
+        startFleet();
+        PrefixAffinityProvider.Builder builder = PrefixAffinityProvider.builder().prefixMessages(1);
+        for (StandInServer server : fleet) {
+            builder.replica(server.getCompletionsUrl(), new OpenAIProvider(server.getCompletionsUrl()));
+        }
+        PrefixAffinityProvider provider = builder.build();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            provider.executeStream(request(i), listener, new StreamHandle());
+        }
+
+        long hits = 0;
+        int used = 0;
+        for (StandInServer server : fleet) {
+            hits += server.getPrefixHits();
+            used += server.getRequestCount() > 0 ? 1 : 0;
+            // every replica that got traffic saw each of its prompts miss exactly once
+            assertTrue(server.getRequestCount() == 0 || server.getPrefixHitRate() > 0.8,
+                    server.getBaseUrl() + " hit rate " + server.getPrefixHitRate());
+        }
+        assertEquals(REQUESTS - SYSTEM_PROMPTS, hits);
+        assertTrue(used > 1, "prompts should be spread over the fleet");
+    }
+
+    @Test
+    void roundRobinMissesOnEveryReplica() throws IOException {
+        startFleet();
+        List<Provider> providers = new ArrayList<>();
+        for (StandInServer server : fleet) {
+            providers.add(new OpenAIProvider(server.getCompletionsUrl()));
+        }
+
+        for (int i = 0; i < REQUESTS; i++) {
+            providers.get(i % REPLICAS).executeStream(request(i / REPLICAS), listener, new StreamHandle());
+        }
+
+        long misses = 0;
+        for (StandInServer server : fleet) {
+            misses += server.getPrefixMisses();
+        }
+        // each prompt is cold once per replica instead of once for the fleet
+        assertEquals((long) SYSTEM_PROMPTS * REPLICAS, misses);
+    }
+
+    private void startFleet() throws IOException {
+        for (int i = 0; i < REPLICAS; i++) {
+            fleet.add(StandInServer.builder().completionTokens(1).prefixCache(1, 64).build());
+        }
+    }
+
+    private static PromptRequest request(int i) {
+        return PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(
+                        new Message("system", "You are assistant number " + (i % SYSTEM_PROMPTS) + "."),
+                        new Message("user", "question " + i)))
+                .build();
+    }
+}
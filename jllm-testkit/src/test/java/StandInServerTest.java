@@ -0,0 +1,162 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jllm.core.client.LLMClient;
+import com.jllm.core.model.Message;
+import com.jllm.core.model.PromptRequest;
+import com.jllm.core.provider.StreamingListener;
+import com.jllm.core.rate.RateLimiter;
+import com.jllm.core.retry.RetryPolicy;
+import com.jllm.core.stream.StreamHandle;
+import com.jllm.core.util.JsonUtil;
+import com.jllm.openai.provider.OpenAIProvider;
+import com.jllm.testkit.Fault;
+import com.jllm.testkit.LatencyDistribution;
+import com.jllm.testkit.StandInServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StandInServerTest {
+
+    private StandInServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void streamsPacedChunksThroughTheOpenAIProvider() throws IOException {
+        server = StandInServer.builder()
+                .completionTokens(5)
+                .timeToFirstToken(LatencyDistribution.fixed(Duration.ofMillis(50)))
+                .tokensPerSecond(100)
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+
+        long start = System.nanoTime();
+        new OpenAIProvider(server.getCompletionsUrl()).executeStream(request(), listener, new StreamHandle());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        InOrder order = inOrder(listener);
+        order.verify(listener).onStart();
+        order.verify(listener).onTokenReceived("The");
+        order.verify(listener).onTokenReceived(" quick");
+        order.verify(listener, times(3)).onTokenReceived(anyString());
+        order.verify(listener).onStreamCompleted(argThat(r -> r.getText().equals("The quick brown fox jumps")
+                && r.getUsage().getCompletionTokens() == 5), isNull());
+        assertTrue(elapsedMillis >= 90, elapsedMillis + " ms");   // 50 ms to the first token, 4 gaps of 10 ms
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void injectedRateLimitAndServerErrorAreRetriedByTheClient() throws InterruptedException, IOException {
+        server = StandInServer.builder().completionTokens(3).build();
+        server.injectNext(Fault.RATE_LIMIT, Fault.SERVER_ERROR);
+        LLMClient client = LLMClient.builder()
+                .provider(new OpenAIProvider(server.getCompletionsUrl()))
+                .model("gpt-4o-mini")
+                .rateLimiter(new RateLimiter(100, 1000))
+                .retryPolicy(new RetryPolicy(3, 1))
+                .build();
+        StreamingListener listener = mock(StreamingListener.class);
+        when(listener.shouldContinue()).thenReturn(true);
+
+        StreamHandle handle = client.sendStream(request(), listener);
+
+        assertNull(handle.getError(), String.valueOf(handle.getError()));
+        verify(listener).onTokenReceived("The");
+        verify(listener).onTokenReceived(" quick");
+        verify(listener).onTokenReceived(" brown");
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, server.getInjectedFaults(Fault.RATE_LIMIT));
+        assertEquals(1, server.getInjectedFaults(Fault.SERVER_ERROR));
+    }
+
+    @Test
+    void connectionResetEndsTheStreamEarly() throws IOException {
+        server = StandInServer.builder().completionTokens(8).build();
+        server.injectNext(Fault.CONNECTION_RESET);
+        StreamingListener listener = mock(StreamingListener.class);
+
+        OpenAIProvider provider = new OpenAIProvider(server.getCompletionsUrl());
+        assertThrows(IOException.class, () -> provider.executeStream(request(), listener, new StreamHandle()));
+
+        verify(listener, atLeastOnce()).onTokenReceived(anyString());
+        verify(listener, never()).onStreamCompleted(any(), any());
+        assertEquals(1, server.getInjectedFaults(Fault.CONNECTION_RESET));
+    }
+
+    @Test
+    void completionsCarryRateLimitHeadersUntilTheWindowIsExhausted() throws IOException {
+        server = StandInServer.builder().rateLimit(1, Duration.ofMinutes(1)).completionTokens(4).build();
+        String body = "{\"model\":\"gpt-4o-mini\",\"messages\":[{\"role\":\"user\",\"content\":\"Tell me about foxes\"}],"
+                + "\"max_tokens\":2}";
+
+        HttpURLConnection first = post(body);
+        assertEquals(200, first.getResponseCode());
+        assertEquals("1", first.getHeaderField("x-ratelimit-limit-requests"));
+        assertEquals("0", first.getHeaderField("x-ratelimit-remaining-requests"));
+        JsonNode completion;
+        try (InputStream in = first.getInputStream()) {
+            completion = JsonUtil.mapper().readTree(in);
+        }
+        assertEquals("The quick", completion.path("choices").path(0).path("message").path("content").asText());
+        assertEquals("length", completion.path("choices").path(0).path("finish_reason").asText());
+        assertEquals(2, completion.path("usage").path("completion_tokens").asInt());
+
+        HttpURLConnection second = post(body);
+        assertEquals(429, second.getResponseCode());
+        assertTrue(Integer.parseInt(second.getHeaderField("retry-after")) >= 1);
+        assertEquals(1, server.getInjectedFaults(Fault.RATE_LIMIT));
+    }
+
+    @Test
+    void logNormalLatencyMatchesItsMedianAndTail() {
+        LatencyDistribution latency = LatencyDistribution.logNormal(Duration.ofMillis(100), Duration.ofMillis(1000));
+        Random random = new Random(42);
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = latency.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+
+        double medianMillis = samples[samples.length / 2] / 1e6;
+        double p99Millis = samples[(int) (samples.length * 0.99)] / 1e6;
+        assertEquals(100, medianMillis, 5);
+        assertEquals(1000, p99Millis, 100);
+    }
+
+    private HttpURLConnection post(String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getCompletionsUrl()).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static PromptRequest request() {
+        return PromptRequest.builder()
+                .model("gpt-4o-mini")
+                .messages(List.of(new Message("user", "Tell me about foxes")))
+                .build();
+    }
+}